@@ -101,6 +101,13 @@ public class MultiKey<K> implements Serializable {
         return array;
     }
 
+    private static <T> T[] newArray(final T[] values) {
+        @SuppressWarnings("unchecked")
+        final T[] array = (T[]) Array.newInstance(getComponentType(values), values.length);
+        System.arraycopy(values, 0, array, 0, values.length);
+        return array;
+    }
+
     private static <T> T[] newArray(final T key1, final T key2, final T key3, final T key4, final T key5) {
         @SuppressWarnings("unchecked")
         final T[] array = (T[]) Array.newInstance(getComponentType(key1, key2, key3, key4, key5), 5);
@@ -112,7 +119,7 @@ public class MultiKey<K> implements Serializable {
         return array;
     }
 
-    /** The individual keys */
+    /** The individual keys, null if held by a subclass */
     private final K[] keys;
 
     /** The cached hashCode */
@@ -222,6 +229,23 @@ public class MultiKey<K> implements Serializable {
         calculateHashCode(keys);
     }
 
+    /**
+     * Constructor for subclasses holding their keys in fields of their own rather
+     * than in an array, saving the allocation of the array.
+     * <p>
+     * Such subclasses must override {@link #getKey(int)} and {@link #size()}, and
+     * should replace themselves by an array based {@code MultiKey} when serialized.
+     * </p>
+     *
+     * @param hashCode  the combined hash code, the exclusive or of the hash codes of
+     *   the non-null keys
+     * @since 4.5
+     */
+    protected MultiKey(final int hashCode) {
+        this.keys = null;
+        this.hashCode = hashCode;
+    }
+
     /**
      * Calculate the hash code of the instance using the provided keys.
      * @param keys the keys to calculate the hash code for
@@ -252,7 +276,19 @@ public class MultiKey<K> implements Serializable {
         }
         if (other instanceof MultiKey) {
             final MultiKey<?> otherMulti = (MultiKey<?>) other;
-            return Arrays.equals(keys, otherMulti.keys);
+            if (keys != null && otherMulti.keys != null) {
+                return Arrays.equals(keys, otherMulti.keys);
+            }
+            final int size = size();
+            if (size != otherMulti.size()) {
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                if (!Objects.equals(getKey(i), otherMulti.getKey(i))) {
+                    return false;
+                }
+            }
+            return true;
         }
         return false;
     }
@@ -281,7 +317,15 @@ public class MultiKey<K> implements Serializable {
      * @return the individual keys
      */
     public K[] getKeys() {
-        return keys.clone();
+        if (keys != null) {
+            return keys.clone();
+        }
+        @SuppressWarnings("unchecked")
+        final K[] values = (K[]) new Object[size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getKey(i);
+        }
+        return newArray(values);
     }
 
     /**
@@ -306,7 +350,9 @@ public class MultiKey<K> implements Serializable {
      * @return the instance with recalculated hash code
      */
     protected Object readResolve() {
-        calculateHashCode(keys);
+        if (keys != null) {
+            calculateHashCode(keys);
+        }
         return this;
     }
 
@@ -327,6 +373,6 @@ public class MultiKey<K> implements Serializable {
      */
     @Override
     public String toString() {
-        return "MultiKey" + Arrays.toString(keys);
+        return "MultiKey" + Arrays.toString(keys != null ? keys : getKeys());
     }
 }
@@ -29,6 +29,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.TreeMap;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.IterableMap;
@@ -50,6 +51,14 @@ import org.apache.commons.collections4.iterators.EmptyMapIterator;
  * to change how entries are added to and removed from the map. Hopefully, all you
  * need for unusual subclasses is here.
  * <p>
+ * Like {@code java.util.HashMap}, a bucket whose chain grows long, because keys have
+ * poor or deliberately colliding hash codes, is additionally indexed by a tree when its
+ * keys are {@link Comparable} and of the same class. Lookups in such a bucket take
+ * logarithmic instead of linear time. The chain of the bucket is then kept in key order,
+ * so it can still be walked by subclasses. The tree compares keys in their converted form
+ * and relies on keys that are equal according to {@link #isEqualKey(Object, Object)}
+ * comparing as equal; buckets holding different keys that compare as equal are not indexed.
+ * <p>
  * NOTE: From Commons Collections 3.1 this class extends AbstractMap.
  * This is to provide backwards compatibility for ReferenceMap between v3.0 and v3.1.
  * This extends clause will be removed in v5.0.
@@ -77,6 +86,10 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     protected static final int MAXIMUM_CAPACITY = 1 << 30;
     /** An object for masking null */
     protected static final Object NULL = new Object();
+    /** The length of a chain at which a tree of its entries is built */
+    static final int TREEIFY_THRESHOLD = 8;
+    /** The number of entries in a tree below which the tree is dropped */
+    static final int UNTREEIFY_THRESHOLD = 6;
 
     /** Load factor, normally 0.75 */
     transient float loadFactor;
@@ -84,6 +97,8 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     transient int size;
     /** Map entries */
     transient HashEntry<K, V>[] data;
+    /** Trees indexing the long chains in {@link #data}, null if there are none */
+    transient TreeBin<K, V>[] treeBins;
     /** Size at which to rehash */
     transient int threshold;
     /** Modification count for iterators */
@@ -179,7 +194,13 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     public V get(Object key) {
         key = convertKey(key);
         final int hashCode = hash(key);
-        HashEntry<K, V> entry = data[hashIndex(hashCode, data.length)]; // no local for hash index
+        final int index = hashIndex(hashCode, data.length);
+        final TreeBin<K, V> bin = treeBin(index, key);
+        if (bin != null) {
+            final HashEntry<K, V> entry = getTreeEntry(bin, hashCode, key);
+            return entry == null ? null : entry.getValue();
+        }
+        HashEntry<K, V> entry = data[index];
         while (entry != null) {
             if (entry.hashCode == hashCode && isEqualKey(key, entry.key)) {
                 return entry.getValue();
@@ -219,7 +240,12 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     public boolean containsKey(Object key) {
         key = convertKey(key);
         final int hashCode = hash(key);
-        HashEntry<K, V> entry = data[hashIndex(hashCode, data.length)]; // no local for hash index
+        final int index = hashIndex(hashCode, data.length);
+        final TreeBin<K, V> bin = treeBin(index, key);
+        if (bin != null) {
+            return getTreeEntry(bin, hashCode, key) != null;
+        }
+        HashEntry<K, V> entry = data[index];
         while (entry != null) {
             if (entry.hashCode == hashCode && isEqualKey(key, entry.key)) {
                 return true;
@@ -273,14 +299,24 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         final Object convertedKey = convertKey(key);
         final int hashCode = hash(convertedKey);
         final int index = hashIndex(hashCode, data.length);
-        HashEntry<K, V> entry = data[index];
-        while (entry != null) {
-            if (entry.hashCode == hashCode && isEqualKey(convertedKey, entry.key)) {
+        final TreeBin<K, V> bin = treeBin(index, convertedKey);
+        if (bin != null) {
+            final HashEntry<K, V> entry = getTreeEntry(bin, hashCode, convertedKey);
+            if (entry != null) {
                 final V oldValue = entry.getValue();
                 updateEntry(entry, value);
                 return oldValue;
             }
-            entry = entry.next;
+        } else {
+            HashEntry<K, V> entry = data[index];
+            while (entry != null) {
+                if (entry.hashCode == hashCode && isEqualKey(convertedKey, entry.key)) {
+                    final V oldValue = entry.getValue();
+                    updateEntry(entry, value);
+                    return oldValue;
+                }
+                entry = entry.next;
+            }
         }
 
         addMapping(index, hashCode, key, value);
@@ -336,6 +372,17 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         key = convertKey(key);
         final int hashCode = hash(key);
         final int index = hashIndex(hashCode, data.length);
+        final TreeBin<K, V> bin = treeBin(index, key);
+        if (bin != null) {
+            final HashEntry<K, V> entry = getTreeEntry(bin, hashCode, key);
+            if (entry == null) {
+                return null;
+            }
+            final V oldValue = entry.getValue();
+            final Map.Entry<Object, HashEntry<K, V>> lower = bin.entries.lowerEntry(entry.key);
+            removeMapping(entry, index, lower == null ? null : lower.getValue());
+            return oldValue;
+        }
         HashEntry<K, V> entry = data[index];
         HashEntry<K, V> previous = null;
         while (entry != null) {
@@ -359,6 +406,7 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         modCount++;
         final HashEntry<K, V>[] data = this.data;
         Arrays.fill(data, null);
+        treeBins = null;
         size = 0;
     }
 
@@ -386,8 +434,19 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
      * @return the hash code
      */
     protected int hash(final Object key) {
+        return spread(key.hashCode());
+    }
+
+    /**
+     * Applies the additional hashing routine of {@link #hash(Object)} to a hash code
+     * computed by other means, such as one derived from a key without converting it.
+     *
+     * @param hashCode  the hash code of the key in internal converted form
+     * @return the hash code
+     */
+    static int spread(final int hashCode) {
         // same as JDK 1.4
-        int h = key.hashCode();
+        int h = hashCode;
         h += ~(h << 9);
         h ^=  h >>> 14;
         h +=  h << 4;
@@ -447,7 +506,12 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     protected HashEntry<K, V> getEntry(Object key) {
         key = convertKey(key);
         final int hashCode = hash(key);
-        HashEntry<K, V> entry = data[hashIndex(hashCode, data.length)]; // no local for hash index
+        final int index = hashIndex(hashCode, data.length);
+        final TreeBin<K, V> bin = treeBin(index, key);
+        if (bin != null) {
+            return getTreeEntry(bin, hashCode, key);
+        }
+        HashEntry<K, V> entry = data[index];
         while (entry != null) {
             if (entry.hashCode == hashCode && isEqualKey(key, entry.key)) {
                 return entry;
@@ -531,7 +595,9 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     /**
      * Adds an entry into this map.
      * <p>
-     * This implementation adds the entry to the data storage table.
+     * This implementation adds the entry to the data storage table, and to the
+     * tree indexing the chain if there is one. The entry must have been created
+     * with the first entry of the chain as its next entry.
      * Subclasses could override to handle changes to the map.
      *
      * @param entry  the entry to add
@@ -539,6 +605,28 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
      */
     protected void addEntry(final HashEntry<K, V> entry, final int hashIndex) {
         data[hashIndex] = entry;
+        final TreeBin<K, V> bin = treeBins == null ? null : treeBins[hashIndex];
+        if (bin == null) {
+            int length = 0;
+            for (HashEntry<K, V> e = entry; e != null; e = e.next) {
+                length++;
+            }
+            // retry at each power of two, in case the chain could not be indexed before
+            if (length >= TREEIFY_THRESHOLD && (length & length - 1) == 0) {
+                treeify(hashIndex);
+            }
+        } else if (entry.key.getClass() != bin.keyClass || bin.entries.putIfAbsent(entry.key, entry) != null) {
+            treeBins[hashIndex] = null;
+        } else {
+            // keep the chain in key order
+            final Map.Entry<Object, HashEntry<K, V>> lower = bin.entries.lowerEntry(entry.key);
+            if (lower != null) {
+                final HashEntry<K, V> previous = lower.getValue();
+                data[hashIndex] = entry.next;
+                entry.next = previous.next;
+                previous.next = entry;
+            }
+        }
     }
 
     /**
@@ -562,7 +650,8 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     /**
      * Removes an entry from the chain stored in a particular index.
      * <p>
-     * This implementation removes the entry from the data storage table.
+     * This implementation removes the entry from the data storage table, and from
+     * the tree indexing the chain if there is one.
      * The size is not updated.
      * Subclasses could override to handle changes to the map.
      *
@@ -576,6 +665,13 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         } else {
             previous.next = entry.next;
         }
+        final TreeBin<K, V> bin = treeBins == null ? null : treeBins[hashIndex];
+        if (bin != null) {
+            bin.entries.remove(entry.key);
+            if (bin.entries.size() < UNTREEIFY_THRESHOLD) {
+                treeBins[hashIndex] = null;
+            }
+        }
     }
 
     /**
@@ -620,6 +716,7 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         if (size == 0) {
             threshold = calculateThreshold(newCapacity, loadFactor);
             data = new HashEntry[newCapacity];
+            treeBins = null;
         } else {
             final HashEntry<K, V> oldEntries[] = data;
             final HashEntry<K, V> newEntries[] = new HashEntry[newCapacity];
@@ -640,9 +737,95 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
             }
             threshold = calculateThreshold(newCapacity, loadFactor);
             data = newEntries;
+            if (treeBins != null) {
+                treeBins = null;
+                for (int i = 0; i < newCapacity; i++) {
+                    int length = 0;
+                    for (HashEntry<K, V> entry = newEntries[i]; entry != null; entry = entry.next) {
+                        length++;
+                    }
+                    if (length >= TREEIFY_THRESHOLD) {
+                        treeify(i);
+                    }
+                }
+            }
         }
     }
 
+    /**
+     * Gets the tree indexing the chain at the index specified, if it may hold the key.
+     *
+     * @param hashIndex  the index into the data array
+     * @param key  the key in internal converted form
+     * @return the tree, null if the chain must be walked instead
+     */
+    private TreeBin<K, V> treeBin(final int hashIndex, final Object key) {
+        final TreeBin<K, V>[] bins = treeBins;
+        if (bins != null) {
+            final TreeBin<K, V> bin = bins[hashIndex];
+            if (bin != null && bin.keyClass == key.getClass()) {
+                return bin;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the entry mapped to the key specified from a tree.
+     * <p>
+     * As no two keys in the tree compare as equal, the only candidate is the
+     * entry whose key compares as equal to the key specified.
+     *
+     * @param bin  the tree to search
+     * @param hashCode  the hash code of the key
+     * @param key  the key in internal converted form, of the class of the tree keys
+     * @return the entry, null if no match
+     */
+    private HashEntry<K, V> getTreeEntry(final TreeBin<K, V> bin, final int hashCode, final Object key) {
+        final HashEntry<K, V> entry = bin.entries.get(key);
+        return entry != null && entry.hashCode == hashCode && isEqualKey(key, entry.key) ? entry : null;
+    }
+
+    /**
+     * Builds a tree indexing the chain at the index specified, and relinks the
+     * chain in key order. Nothing is done if the keys are not {@link Comparable},
+     * not all of the same class, or if two of them compare as equal.
+     *
+     * @param hashIndex  the index into the data array
+     */
+    @SuppressWarnings("unchecked")
+    private void treeify(final int hashIndex) {
+        final Class<?> keyClass = data[hashIndex].key.getClass();
+        if (!Comparable.class.isAssignableFrom(keyClass)) {
+            return;
+        }
+        final TreeMap<Object, HashEntry<K, V>> entries = new TreeMap<>();
+        try {
+            for (HashEntry<K, V> entry = data[hashIndex]; entry != null; entry = entry.next) {
+                if (entry.key.getClass() != keyClass || entries.put(entry.key, entry) != null) {
+                    return;
+                }
+            }
+        } catch (final ClassCastException ex) {
+            // the keys are not comparable with each other
+            return;
+        }
+        HashEntry<K, V> previous = null;
+        for (final HashEntry<K, V> entry : entries.values()) {
+            if (previous == null) {
+                data[hashIndex] = entry;
+            } else {
+                previous.next = entry;
+            }
+            previous = entry;
+        }
+        previous.next = null;
+        if (treeBins == null) {
+            treeBins = new TreeBin[data.length];
+        }
+        treeBins[hashIndex] = new TreeBin<>(keyClass, entries);
+    }
+
     /**
      * Calculates the new capacity of the map.
      * This implementation normalizes the capacity to a power of two.
@@ -1136,6 +1319,24 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         }
     }
 
+    /**
+     * Tree indexing the entries of a long chain by key.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     */
+    static final class TreeBin<K, V> {
+        /** The class of all the keys in the tree */
+        final Class<?> keyClass;
+        /** The entries of the chain, by key in internal converted form */
+        final TreeMap<Object, HashEntry<K, V>> entries;
+
+        TreeBin(final Class<?> keyClass, final TreeMap<Object, HashEntry<K, V>> entries) {
+            this.keyClass = keyClass;
+            this.entries = entries;
+        }
+    }
+
     /**
      * Base Iterator
      *
@@ -1275,6 +1476,7 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         init();
         threshold = calculateThreshold(capacity, loadFactor);
         data = new HashEntry[capacity];
+        treeBins = null;
         for (int i = 0; i < size; i++) {
             final K key = (K) in.readObject();
             final V value = (V) in.readObject();
@@ -1282,6 +1484,23 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         }
     }
 
+    /**
+     * Creates an immutable copy of this map, in a compact table that is faster to read.
+     * <p>
+     * The copy keeps the iteration order of this map and is not affected by later
+     * changes to it. As it never changes, it can be shared between threads without
+     * synchronization, where this map would have to be decorated.
+     * <p>
+     * Subclasses that change how keys are converted, hashed or compared must
+     * override this method to return a copy that matches them.
+     *
+     * @return an immutable copy of this map
+     * @since 4.5
+     */
+    public FrozenHashedMap<K, V> freeze() {
+        return new FrozenHashedMap<>(this);
+    }
+
     /**
      * Clones the map without cloning the keys or values.
      * <p>
@@ -1297,6 +1516,7 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         try {
             final AbstractHashedMap<K, V> cloned = (AbstractHashedMap<K, V>) super.clone();
             cloned.data = new HashEntry[data.length];
+            cloned.treeBins = null;
             cloned.entrySet = null;
             cloned.keySet = null;
             cloned.values = null;
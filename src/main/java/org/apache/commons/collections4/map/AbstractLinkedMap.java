@@ -272,7 +272,7 @@ public abstract class AbstractLinkedMap<K, V> extends AbstractHashedMap<K, V> im
         link.before = header.before;
         header.before.after = link;
         header.before = link;
-        data[hashIndex] = link;
+        super.addEntry(entry, hashIndex);
     }
 
     /**
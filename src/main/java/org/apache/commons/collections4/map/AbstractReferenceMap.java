@@ -146,6 +146,12 @@ public abstract class AbstractReferenceMap<K, V> extends AbstractHashedMap<K, V>
      */
     private transient ReferenceQueue<Object> queue;
 
+    /**
+     * The maximum number of stale mappings purged before each operation.
+     * Not serialized, so it is unlimited again after deserialization.
+     */
+    private int purgeBudget = Integer.MAX_VALUE;
+
     /**
      * Constructor used during deserialization.
      */
@@ -352,22 +358,81 @@ public abstract class AbstractReferenceMap<K, V> extends AbstractHashedMap<K, V>
         return values;
     }
 
+    /**
+     * Creates an immutable copy of the mappings currently in this map.
+     * <p>
+     * Mappings the garbage collector has already removed are not copied. The copy
+     * holds its keys and values with strong references, so it pins them in memory
+     * for as long as the copy is reachable, even where this map would let them go.
+     *
+     * @return an immutable copy of the live mappings of this map
+     * @since 4.5
+     */
+    @Override
+    public FrozenHashedMap<K, V> freeze() {
+        return new FrozenHashedMap<>(this);
+    }
+
+    /**
+     * Gets the maximum number of stale mappings purged before each read or write operation.
+     *
+     * @return the purge budget, {@link Integer#MAX_VALUE} if unlimited
+     * @since 4.5
+     */
+    public int getPurgeBudget() {
+        return purgeBudget;
+    }
+
+    /**
+     * Sets the maximum number of stale mappings purged before each read or write operation.
+     * <p>
+     * By default every operation purges all the stale mappings, which after a garbage
+     * collection may hold up a single operation for a long time. With a budget the work
+     * is spread over the following operations instead, while stale mappings that have
+     * not been purged yet are still counted by {@link #size()}. Their keys and values
+     * are never returned, and they can be purged in bulk with {@link #purge(int)}.
+     * </p>
+     *
+     * @param maxEntries  the purge budget, {@link Integer#MAX_VALUE} for unlimited
+     * @throws IllegalArgumentException if the budget is less than one
+     * @since 4.5
+     */
+    public void setPurgeBudget(final int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Purge budget must be greater than 0");
+        }
+        this.purgeBudget = maxEntries;
+    }
+
     /**
      * Purges stale mappings from this map before read operations.
      * <p>
-     * This implementation calls {@link #purge()} to maintain a consistent state.
+     * This implementation calls {@link #purge()} to maintain a consistent state,
+     * or {@link #purge(int)} if a purge budget has been set.
      */
     protected void purgeBeforeRead() {
-        purge();
+        purgeWithinBudget();
     }
 
     /**
      * Purges stale mappings from this map before write operations.
      * <p>
-     * This implementation calls {@link #purge()} to maintain a consistent state.
+     * This implementation calls {@link #purge()} to maintain a consistent state,
+     * or {@link #purge(int)} if a purge budget has been set.
      */
     protected void purgeBeforeWrite() {
-        purge();
+        purgeWithinBudget();
+    }
+
+    /**
+     * Purges stale mappings from this map, at most the purge budget.
+     */
+    private void purgeWithinBudget() {
+        if (purgeBudget == Integer.MAX_VALUE) {
+            purge();
+        } else {
+            purge(purgeBudget);
+        }
     }
 
     /**
@@ -386,6 +451,30 @@ public abstract class AbstractReferenceMap<K, V> extends AbstractHashedMap<K, V>
         }
     }
 
+    /**
+     * Purges at most the specified number of stale mappings from this map.
+     * <p>
+     * Note that this method is not synchronized!  A background thread
+     * purging stale mappings must hold the same lock as the other
+     * users of the map, such as the mutex of a map wrapped with
+     * {@link java.util.Collections#synchronizedMap(Map)}.
+     * </p>
+     *
+     * @param maxEntries  the maximum number of stale mappings to purge
+     * @return the number of stale references processed, less than
+     *   {@code maxEntries} if no stale mapping is left
+     * @since 4.5
+     */
+    public int purge(final int maxEntries) {
+        int count = 0;
+        Reference<?> ref;
+        while (count < maxEntries && (ref = queue.poll()) != null) {
+            purge(ref);
+            count++;
+        }
+        return count;
+    }
+
     /**
      * Purges the specified reference.
      *
@@ -402,11 +491,7 @@ public abstract class AbstractReferenceMap<K, V> extends AbstractHashedMap<K, V>
         while (entry != null) {
             final ReferenceEntry<K, V> refEntry = (ReferenceEntry<K, V>) entry;
             if (refEntry.purge(ref)) {
-                if (previous == null) {
-                    data[index] = entry.next;
-                } else {
-                    previous.next = entry.next;
-                }
+                removeEntry(entry, index, previous);
                 this.size--;
                 refEntry.onPurge();
                 return;
@@ -76,6 +76,14 @@ public class CaseInsensitiveMap<K, V> extends AbstractHashedMap<K, V> implements
     /** Serialisation version */
     private static final long serialVersionUID = -7074655917369299456L;
 
+    /** The strategy of the immutable copies, which also convert keys to lower case */
+    private static final FrozenHashedMap.KeyStrategy FROZEN_KEY_STRATEGY = new FrozenHashedMap.KeyStrategy() {
+        @Override
+        protected Object convertKey(final Object key) {
+            return toLowerCase(key);
+        }
+    };
+
     /**
      * Constructs a new empty map with default size and load factor.
      */
@@ -120,27 +128,159 @@ public class CaseInsensitiveMap<K, V> extends AbstractHashedMap<K, V> implements
         super(map);
     }
 
+    /**
+     * Gets the value mapped to the key specified.
+     * <p>
+     * String keys are looked up without converting them to lower case.
+     *
+     * @param key  the key
+     * @return the mapped value, null if no match
+     */
+    @Override
+    public V get(final Object key) {
+        final HashEntry<K, V> entry = getEntry(key);
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * Checks whether the map contains the specified key.
+     * <p>
+     * String keys are looked up without converting them to lower case.
+     *
+     * @param key  the key to search for
+     * @return true if the map contains the key
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        return getEntry(key) != null;
+    }
+
+    /**
+     * Gets the entry mapped to the key specified.
+     * <p>
+     * For a string key, the hash code of its lower case form is computed one
+     * character at a time and the key is compared to the stored keys the same way,
+     * so that no lower case copy of the key is created.
+     *
+     * @param key  the key
+     * @return the entry, null if no match
+     */
+    @Override
+    protected HashEntry<K, V> getEntry(final Object key) {
+        if (!(key instanceof String)) {
+            return super.getEntry(key);
+        }
+        final String string = (String) key;
+        final int length = string.length();
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + foldCase(string.charAt(i));
+        }
+        final int hashCode = spread(h);
+        final int index = hashIndex(hashCode, data.length);
+        if (treeBins != null && treeBins[index] != null) {
+            // the tree is searched by the converted key
+            return super.getEntry(key);
+        }
+        for (HashEntry<K, V> entry = data[index]; entry != null; entry = entry.next) {
+            if (entry.hashCode == hashCode && entry.key instanceof String
+                    && equalsFolded(string, (String) entry.key)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
     /**
      * Overrides convertKey() from {@link AbstractHashedMap} to convert keys to
      * lower case.
      * <p>
-     * Returns {@link AbstractHashedMap#NULL} if key is null.
+     * Returns {@link AbstractHashedMap#NULL} if key is null. A string key that is
+     * already in lower case is returned as is, and only the characters from the
+     * first one that changes are copied otherwise.
      *
      * @param key  the key convert
      * @return the converted key
      */
     @Override
     protected Object convertKey(final Object key) {
+        return toLowerCase(key);
+    }
+
+    /**
+     * Converts a key to lower case, as {@link #convertKey(Object)} does.
+     *
+     * @param key  the key convert
+     * @return the converted key
+     */
+    static Object toLowerCase(final Object key) {
         if (key != null) {
-            final char[] chars = key.toString().toCharArray();
-            for (int i = chars.length - 1; i >= 0; i--) {
-                chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+            final String string = key.toString();
+            final int length = string.length();
+            int i = 0;
+            while (i < length && foldCase(string.charAt(i)) == string.charAt(i)) {
+                i++;
+            }
+            if (i == length) {
+                return string;
+            }
+            final char[] chars = string.toCharArray();
+            for (; i < length; i++) {
+                chars[i] = foldCase(chars[i]);
             }
             return new String(chars);
         }
         return AbstractHashedMap.NULL;
     }
 
+    /**
+     * Converts a character to lower case in a locale-independent fashion, without
+     * looking up the Unicode data for ASCII characters.
+     *
+     * @param c  the character to convert
+     * @return the converted character
+     */
+    private static char foldCase(final char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Compares a key to a stored key, which is already in lower case.
+     *
+     * @param key  the key passed in from outside
+     * @param converted  the stored key, in internal converted form
+     * @return true if the lower case form of the key equals the stored key
+     */
+    private static boolean equalsFolded(final String key, final String converted) {
+        if (key == converted) {
+            return true;
+        }
+        final int length = key.length();
+        if (length != converted.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (foldCase(key.charAt(i)) != converted.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates an immutable copy of this map, which also converts keys to lower case.
+     *
+     * @return an immutable copy of this map
+     * @since 4.5
+     */
+    @Override
+    public FrozenHashedMap<K, V> freeze() {
+        return new FrozenHashedMap<>(this, FROZEN_KEY_STRATEGY);
+    }
+
     /**
      * Clones the map without cloning the keys or values.
      *
@@ -0,0 +1,710 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.collections4.IterableMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.keyvalue.AbstractMapEntry;
+import org.apache.commons.collections4.map.PassiveExpiringMap.Clock;
+import org.apache.commons.collections4.map.PassiveExpiringMap.ExpirationPolicy;
+
+/**
+ * A thread-safe {@code Map} whose entries expire once their expiration time
+ * has been reached, with the same expiration semantics as {@link PassiveExpiringMap}.
+ * <p>
+ * When putting a key-value pair in the map, an {@link ExpirationPolicy} determines
+ * its expiration time. An expired entry is never returned by this map, and, unlike
+ * {@link PassiveExpiringMap}, it is also reclaimed without waiting for a method that
+ * visits the whole map:
+ * </p>
+ * <ul>
+ * <li>each write, {@link #size()} and {@link #isEmpty()} remove a bounded number of
+ * expired entries, if no other thread is already doing so, so a map that is written to
+ * regularly keeps reclaiming memory;</li>
+ * <li>{@link #cleanUp()} removes all expired entries, and
+ * {@link #scheduleCleanUp(ScheduledExecutorService, long, TimeUnit)} runs it
+ * periodically on an executor for maps that are mostly read.</li>
+ * </ul>
+ * <p>
+ * The expiration times are indexed in order, so that reclaiming expired entries
+ * costs time proportional to their number rather than to the size of the map. Reads
+ * and writes never wait for a lock: a write records the expiration time of its entry
+ * in one of several lock-free buffers, and the thread that next reclaims expired
+ * entries moves the buffered expiration times into the index.
+ * </p>
+ * <p>
+ * An optional {@link RemovalListener} is notified of each entry removed, whether it
+ * expired, was removed explicitly or had its value replaced. It is called by the
+ * thread that removed the entry and should return quickly.
+ * </p>
+ * <p>
+ * The iterators are weakly consistent, never throw
+ * {@link java.util.ConcurrentModificationException}, and skip entries that have expired.
+ * This map does not permit null keys or values.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @see PassiveExpiringMap
+ * @since 4.5
+ */
+public class ConcurrentExpiringMap<K, V> extends AbstractMap<K, V> implements IterableMap<K, V> {
+
+    /**
+     * The reason an entry was removed from the map.
+     *
+     * @since 4.5
+     */
+    public enum RemovalCause {
+        /** The expiration time of the entry was reached. */
+        EXPIRED,
+        /** The entry was removed explicitly. */
+        REMOVED,
+        /** The value of the entry was replaced by a put. */
+        REPLACED
+    }
+
+    /**
+     * A listener notified of the entries removed from the map.
+     *
+     * @param <K> the key object type.
+     * @param <V> the value object type
+     * @since 4.5
+     */
+    @FunctionalInterface
+    public interface RemovalListener<K, V> {
+
+        /**
+         * Called after an entry was removed from the map.
+         *
+         * @param key the key of the entry.
+         * @param value the value of the entry.
+         * @param cause the reason the entry was removed.
+         */
+        void onRemoval(K key, V value, RemovalCause cause);
+    }
+
+    /** Maximum number of expired entries removed by a write */
+    private static final int WRITE_CLEAN_UP_BUDGET = 16;
+
+    /** Maximum number of expired entries removed by {@link #size()} and {@link #isEmpty()} */
+    private static final int READ_CLEAN_UP_BUDGET = 64;
+
+    /** Selects the buffer of a thread, the number of buffers being a power of two */
+    private static final int BUFFER_MASK =
+            Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) - 1;
+
+    /** The entries, by key */
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+
+    /**
+     * The entries that can expire, earliest expiration time first. It may also hold entries
+     * that have since been replaced or removed; these are discarded when they reach the head.
+     */
+    private PriorityQueue<Node<K, V>> deadlines = new PriorityQueue<>();
+
+    /** Guards the queue of deadlines */
+    private final ReentrantLock deadlineLock = new ReentrantLock();
+
+    /**
+     * The entries put since the deadlines were last updated, which still have to be added
+     * to the queue of deadlines. Each thread adds to the buffer selected by its id.
+     */
+    private final ConcurrentLinkedQueue<Node<K, V>>[] buffers;
+
+    /** The policy used to determine expiration times */
+    private final ExpirationPolicy<? super K, ? super V> expiringPolicy;
+
+    /** The clock giving the current time */
+    private final Clock clock;
+
+    /** The listener notified of removals, may be null */
+    private final RemovalListener<? super K, ? super V> removalListener;
+
+    /** Entry set */
+    private transient EntrySet<K, V> entrySet;
+
+    /**
+     * Constructs a map whose entries expire a constant time after they are put.
+     *
+     * @param timeToLiveMillis the constant amount of time (in milliseconds) an
+     *        entry is available before it expires. A negative value results in
+     *        entries that NEVER expire. A zero value results in entries that
+     *        ALWAYS expire.
+     */
+    public ConcurrentExpiringMap(final long timeToLiveMillis) {
+        this(new PassiveExpiringMap.ConstantTimeToLiveExpirationPolicy<>(timeToLiveMillis));
+    }
+
+    /**
+     * Constructs a map using the given expiration policy to determine expiration times.
+     *
+     * @param expiringPolicy the policy used to determine expiration times of
+     *        entries as they are added.
+     * @throws NullPointerException if expiringPolicy is null
+     */
+    public ConcurrentExpiringMap(final ExpirationPolicy<? super K, ? super V> expiringPolicy) {
+        this(expiringPolicy, Clock.system(), null);
+    }
+
+    /**
+     * Constructs a map using the given expiration policy to determine expiration times,
+     * the given clock to determine which entries have expired, and notifying the given
+     * listener of removals.
+     *
+     * @param expiringPolicy the policy used to determine expiration times of
+     *        entries as they are added.
+     * @param clock the clock giving the current time, must not be null.
+     * @param removalListener the listener notified of removals, may be null.
+     * @throws NullPointerException if expiringPolicy or clock is null
+     */
+    public ConcurrentExpiringMap(final ExpirationPolicy<? super K, ? super V> expiringPolicy, final Clock clock,
+                                 final RemovalListener<? super K, ? super V> removalListener) {
+        this.expiringPolicy = Objects.requireNonNull(expiringPolicy, "expiringPolicy");
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.removalListener = removalListener;
+        @SuppressWarnings("unchecked")
+        final ConcurrentLinkedQueue<Node<K, V>>[] buffers = new ConcurrentLinkedQueue[BUFFER_MASK + 1];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.buffers = buffers;
+    }
+
+    /**
+     * Gets the value mapped to the key specified, unless it has expired.
+     *
+     * @param key  the key
+     * @return the mapped value, null if no match or expired
+     * @throws NullPointerException if the key is null
+     */
+    @Override
+    public V get(final Object key) {
+        final Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (node.isExpired(clock.currentTimeMillis())) {
+            expire(node);
+            return null;
+        }
+        return node.value;
+    }
+
+    /**
+     * Checks whether the map contains the specified key, unless it has expired.
+     *
+     * @param key  the key to search for
+     * @return true if the map contains the key
+     * @throws NullPointerException if the key is null
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Checks whether the map contains the specified value in an entry that has not expired.
+     *
+     * @param value  the value to search for
+     * @return true if the map contains the value
+     */
+    @Override
+    public boolean containsValue(final Object value) {
+        if (value == null) {
+            return false;
+        }
+        final long now = clock.currentTimeMillis();
+        for (final Node<K, V> node : data.values()) {
+            if (!node.isExpired(now) && value.equals(node.value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Puts a key-value mapping into this map, recording its expiration time, and
+     * removes some of the expired entries.
+     *
+     * @param key  the key to add
+     * @param value  the value to add
+     * @return the value previously mapped to this key if it had not expired, null otherwise
+     * @throws NullPointerException if the key or value is null
+     */
+    @Override
+    public V put(final K key, final V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        final Node<K, V> node = new Node<>(key, value, expiringPolicy.expirationTime(key, value));
+        final Node<K, V> previous = data.put(key, node);
+        if (node.expirationTime >= 0) {
+            // buffered after the entry is mapped, so that clear() cannot lose its deadline
+            buffers[(int) Thread.currentThread().getId() & BUFFER_MASK].add(node);
+        }
+        tryCleanUp(WRITE_CLEAN_UP_BUDGET);
+        if (previous == null) {
+            return null;
+        }
+        if (previous.isExpired(clock.currentTimeMillis())) {
+            notifyRemoval(previous, RemovalCause.EXPIRED);
+            return null;
+        }
+        notifyRemoval(previous, RemovalCause.REPLACED);
+        return previous.value;
+    }
+
+    /**
+     * Removes the specified mapping from this map.
+     *
+     * @param key  the mapping to remove
+     * @return the value mapped to the removed key if it had not expired, null otherwise
+     * @throws NullPointerException if the key is null
+     */
+    @Override
+    public V remove(final Object key) {
+        final Node<K, V> node = data.remove(key);
+        if (node == null) {
+            return null;
+        }
+        if (node.isExpired(clock.currentTimeMillis())) {
+            notifyRemoval(node, RemovalCause.EXPIRED);
+            return null;
+        }
+        notifyRemoval(node, RemovalCause.REMOVED);
+        return node.value;
+    }
+
+    /**
+     * Removes the entry if it is still mapped, notifying the listener.
+     *
+     * @param node  the entry to remove
+     * @return true if the entry was removed
+     */
+    boolean removeNode(final Node<K, V> node) {
+        if (!data.remove(node.key, node)) {
+            return false;
+        }
+        final boolean expired = node.isExpired(clock.currentTimeMillis());
+        notifyRemoval(node, expired ? RemovalCause.EXPIRED : RemovalCause.REMOVED);
+        return true;
+    }
+
+    /**
+     * Clears the map, notifying the listener of each entry removed.
+     * <p>
+     * The queue of deadlines is then rebuilt from the entries still mapped, which
+     * other threads may have put meanwhile.
+     */
+    @Override
+    public void clear() {
+        for (final Node<K, V> node : data.values()) {
+            removeNode(node);
+        }
+        deadlineLock.lock();
+        try {
+            drainBuffers();
+            rebuildDeadlines();
+        } finally {
+            deadlineLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of entries that have not expired.
+     * <p>
+     * A bounded number of expired entries is removed first, if no other thread is doing so.
+     * If expired entries may remain, the entries are visited to leave them out of the count.
+     * </p>
+     *
+     * @return the size
+     */
+    @Override
+    public int size() {
+        if (tryCleanUp(READ_CLEAN_UP_BUDGET)) {
+            return data.size();
+        }
+        final long now = clock.currentTimeMillis();
+        int size = 0;
+        for (final Node<K, V> node : data.values()) {
+            if (!node.isExpired(now)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Checks whether the map holds no entry that has not expired.
+     * <p>
+     * A bounded number of expired entries is removed first, if no other thread is doing so.
+     * If expired entries may remain, the entries are visited until one has not expired.
+     * </p>
+     *
+     * @return true if the map is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        if (tryCleanUp(READ_CLEAN_UP_BUDGET)) {
+            return data.isEmpty();
+        }
+        final long now = clock.currentTimeMillis();
+        for (final Node<K, V> node : data.values()) {
+            if (!node.isExpired(now)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes all expired entries.
+     */
+    public void cleanUp() {
+        deadlineLock.lock();
+        try {
+            drainBuffers();
+            expireEntries(clock.currentTimeMillis(), Integer.MAX_VALUE);
+        } finally {
+            deadlineLock.unlock();
+        }
+    }
+
+    /**
+     * Schedules {@link #cleanUp()} to run periodically on an executor, so that expired
+     * entries are reclaimed even if the map is not written to.
+     * <p>
+     * The task only holds a weak reference to this map, and cancels itself once the map
+     * has been garbage collected. It can also be cancelled through the returned future.
+     * </p>
+     *
+     * @param executor the executor running the task.
+     * @param period the period between two runs.
+     * @param unit the unit of the period.
+     * @return the future of the scheduled task.
+     * @throws NullPointerException if the executor or unit is null
+     */
+    public ScheduledFuture<?> scheduleCleanUp(final ScheduledExecutorService executor, final long period,
+                                              final TimeUnit unit) {
+        Objects.requireNonNull(executor, "executor");
+        Objects.requireNonNull(unit, "unit");
+        final CleanUpTask task = new CleanUpTask(this);
+        task.future = executor.scheduleWithFixedDelay(task, period, period, unit);
+        return task.future;
+    }
+
+    /**
+     * Gets a weakly consistent iterator over the entries that have not expired.
+     *
+     * @return the map iterator
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        return new EntrySetToMapIteratorAdapter<>(entrySet());
+    }
+
+    /**
+     * Gets a weakly consistent view of the entries that have not expired.
+     * Setting a value through an entry puts it in the map, which computes a new
+     * expiration time.
+     *
+     * @return the entry set
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet<>(this);
+        }
+        return entrySet;
+    }
+
+    /**
+     * Removes some of the expired entries if no other thread is doing so.
+     *
+     * @param budget  the maximum number of entries to remove
+     * @return true if all the entries that had expired were removed
+     */
+    private boolean tryCleanUp(final int budget) {
+        if (deadlineLock.tryLock()) {
+            try {
+                drainBuffers();
+                return expireEntries(clock.currentTimeMillis(), budget);
+            } finally {
+                deadlineLock.unlock();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes an entry found to have expired.
+     *
+     * @param node  the expired entry
+     */
+    private void expire(final Node<K, V> node) {
+        if (data.remove(node.key, node)) {
+            notifyRemoval(node, RemovalCause.EXPIRED);
+        }
+    }
+
+    /**
+     * Removes the expired entries at the head of the queue of deadlines.
+     * Must be called while holding the deadline lock.
+     *
+     * @param now  the current time
+     * @param budget  the maximum number of deadlines to visit
+     * @return true if no deadline that has passed is left in the queue
+     */
+    private boolean expireEntries(final long now, final int budget) {
+        Node<K, V> node;
+        for (int i = 0; (node = deadlines.peek()) != null && node.isExpired(now); i++) {
+            if (i == budget) {
+                return false;
+            }
+            deadlines.poll();
+            // entries replaced or removed since are no longer mapped to this node
+            expire(node);
+        }
+        return true;
+    }
+
+    /**
+     * Moves the buffered entries to the queue of deadlines, first rebuilding the queue
+     * if it holds many entries that have been replaced or removed.
+     * Must be called while holding the deadline lock.
+     */
+    private void drainBuffers() {
+        for (final ConcurrentLinkedQueue<Node<K, V>> buffer : buffers) {
+            Node<K, V> node;
+            while ((node = buffer.poll()) != null) {
+                if (deadlines.size() > 2 * data.size() + 16) {
+                    // the rebuilt queue holds the entry if it is still mapped
+                    rebuildDeadlines();
+                } else {
+                    deadlines.add(node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the queue of deadlines from the entries currently mapped.
+     * An entry may be in the queue twice if it is also buffered, which is harmless.
+     * Must be called while holding the deadline lock.
+     */
+    private void rebuildDeadlines() {
+        final PriorityQueue<Node<K, V>> rebuilt = new PriorityQueue<>(Math.max(1, data.size()));
+        for (final Node<K, V> current : data.values()) {
+            if (current.expirationTime >= 0) {
+                rebuilt.add(current);
+            }
+        }
+        deadlines = rebuilt;
+    }
+
+    /**
+     * Notifies the listener, if any, of a removal.
+     *
+     * @param node  the entry removed
+     * @param cause  the reason the entry was removed
+     */
+    private void notifyRemoval(final Node<K, V> node, final RemovalCause cause) {
+        if (removalListener != null) {
+            removalListener.onRemoval(node.key, node.value, cause);
+        }
+    }
+
+    /**
+     * An entry of the map, replaced as a whole when its value changes.
+     */
+    static final class Node<K, V> implements Comparable<Node<K, V>> {
+        /** The key */
+        final K key;
+        /** The value */
+        final V value;
+        /** The expiration time, negative if the entry never expires */
+        final long expirationTime;
+
+        Node(final K key, final V value, final long expirationTime) {
+            this.key = key;
+            this.value = value;
+            this.expirationTime = expirationTime;
+        }
+
+        boolean isExpired(final long now) {
+            return expirationTime >= 0 && now >= expirationTime;
+        }
+
+        @Override
+        public int compareTo(final Node<K, V> other) {
+            return Long.compare(expirationTime, other.expirationTime);
+        }
+    }
+
+    /**
+     * Runs the clean up of a map while it is reachable.
+     */
+    static final class CleanUpTask implements Runnable {
+        private final WeakReference<ConcurrentExpiringMap<?, ?>> map;
+        volatile ScheduledFuture<?> future;
+
+        CleanUpTask(final ConcurrentExpiringMap<?, ?> map) {
+            this.map = new WeakReference<>(map);
+        }
+
+        @Override
+        public void run() {
+            final ConcurrentExpiringMap<?, ?> target = map.get();
+            if (target != null) {
+                target.cleanUp();
+            } else if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Map entry returned by the iterators, writing through to the map.
+     */
+    static class IteratorEntry<K, V> extends AbstractMapEntry<K, V> {
+        private final ConcurrentExpiringMap<K, V> parent;
+
+        protected IteratorEntry(final ConcurrentExpiringMap<K, V> parent, final K key, final V value) {
+            super(key, value);
+            this.parent = parent;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            parent.put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+
+    /**
+     * EntrySet implementation.
+     */
+    static class EntrySet<K, V> extends AbstractSet<Map.Entry<K, V>> {
+        private final ConcurrentExpiringMap<K, V> parent;
+
+        protected EntrySet(final ConcurrentExpiringMap<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof Map.Entry) || ((Map.Entry<?, ?>) obj).getKey() == null) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final V value = parent.get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            if (!(obj instanceof Map.Entry) || ((Map.Entry<?, ?>) obj).getKey() == null) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final Node<K, V> node = parent.data.get(entry.getKey());
+            return node != null && !node.isExpired(parent.clock.currentTimeMillis())
+                    && node.value.equals(entry.getValue()) && parent.removeNode(node);
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntrySetIterator<>(parent);
+        }
+    }
+
+    /**
+     * EntrySet iterator, skipping the entries that have expired.
+     */
+    static class EntrySetIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final ConcurrentExpiringMap<K, V> parent;
+        private final Iterator<Node<K, V>> iterator;
+        private final long now;
+        private Node<K, V> next;
+        private Node<K, V> last;
+
+        protected EntrySetIterator(final ConcurrentExpiringMap<K, V> parent) {
+            this.parent = parent;
+            this.iterator = parent.data.values().iterator();
+            this.now = parent.clock.currentTimeMillis();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && iterator.hasNext()) {
+                final Node<K, V> node = iterator.next();
+                if (!node.isExpired(now)) {
+                    next = node;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+            }
+            last = next;
+            next = null;
+            return new IteratorEntry<>(parent, last.key, last.value);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException(AbstractHashedMap.REMOVE_INVALID);
+            }
+            // like the iterators of ConcurrentHashMap, removes the key even if its
+            // value has been replaced since, such as through setValue
+            parent.remove(last.key);
+            last = null;
+        }
+    }
+
+}
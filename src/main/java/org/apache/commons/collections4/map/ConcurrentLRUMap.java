@@ -0,0 +1,638 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.collections4.BoundedMap;
+import org.apache.commons.collections4.MapIterator;
+
+/**
+ * A thread-safe {@code Map} with a fixed maximum size which removes
+ * the least recently used entry if an entry is added when full.
+ * <p>
+ * It has the same eviction contract as {@link LRUMap}, but it is designed to be
+ * shared by many threads without wrapping it in
+ * {@link java.util.Collections#synchronizedMap(Map)}. The entries are held in a
+ * {@link ConcurrentHashMap}, so lookups never lock. Recording that an entry was read,
+ * which in {@link LRUMap} relinks the entry to the most recently used end of the list,
+ * is deferred instead: each read appends the entry to one of several small buffers,
+ * selected by the reading thread, and the buffered reads are applied to the recency
+ * order in a batch by whichever thread next acquires the eviction lock. Writes always
+ * take the lock and drain the buffers first, so an eviction sees every recorded read.
+ * </p>
+ * <p>
+ * The buffers are lossy: when a buffer is full, or when two threads race for the
+ * same slot, the read is dropped rather than waiting. The recency order is therefore
+ * an approximation under heavy contention, which is generally harmless for a cache
+ * because a frequently read entry is recorded many times.
+ * </p>
+ * <p>
+ * The maximum size is never exceeded. The iterators are weakly consistent, do not
+ * follow the recency order, and never throw
+ * {@link java.util.ConcurrentModificationException}. Iteration and queries such as
+ * {@link #containsKey(Object)} do not change the order.
+ * </p>
+ * <p>
+ * This map does not permit null keys or values.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @see LRUMap
+ * @since 4.5
+ */
+public class ConcurrentLRUMap<K, V> extends AbstractMap<K, V> implements BoundedMap<K, V> {
+
+    /** Default maximum size */
+    protected static final int DEFAULT_MAX_SIZE = 100;
+
+    /** Number of reads each buffer holds, a power of two */
+    private static final int READ_BUFFER_SIZE = 16;
+
+    /** Upper bound on the number of read buffers, a power of two */
+    private static final int MAXIMUM_READ_BUFFERS = 64;
+
+    /** The entries, by key */
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+
+    /** Maximum size */
+    private final int maxSize;
+
+    /** Guards the recency list and the draining of the read buffers */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /** Header in the recency list, after is least and before is most recently used */
+    private final Node<K, V> header = new Node<>(null, null);
+
+    /** Buffers of reads not yet applied to the recency list */
+    private final ReadBuffer<K, V>[] readBuffers;
+
+    /** Entry set */
+    private transient EntrySet<K, V> entrySet;
+
+    /**
+     * Constructs a new empty map with a maximum size of 100.
+     */
+    public ConcurrentLRUMap() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructs a new, empty map with the specified maximum size.
+     *
+     * @param maxSize  the maximum size of the map
+     * @throws IllegalArgumentException if the maximum size is less than one
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLRUMap(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("ConcurrentLRUMap max size must be greater than 0");
+        }
+        this.maxSize = maxSize;
+        this.data = new ConcurrentHashMap<>(Math.min(maxSize, 1 << 16));
+        header.before = header.after = header;
+        final int processors = Runtime.getRuntime().availableProcessors();
+        int buffers = 1;
+        while (buffers < MAXIMUM_READ_BUFFERS && buffers < processors * 2) {
+            buffers <<= 1;
+        }
+        readBuffers = new ReadBuffer[buffers];
+        for (int i = 0; i < buffers; i++) {
+            readBuffers[i] = new ReadBuffer<>();
+        }
+    }
+
+    /**
+     * Constructor copying elements from another map.
+     * <p>
+     * The maximum size is set from the map's size.
+     *
+     * @param map  the map to copy
+     * @throws NullPointerException if the map is null
+     * @throws IllegalArgumentException if the map is empty
+     */
+    public ConcurrentLRUMap(final Map<? extends K, ? extends V> map) {
+        this(map.size());
+        putAll(map);
+    }
+
+    /**
+     * Gets the value mapped to the key specified.
+     * <p>
+     * This operation records the entry as most recently used. The record is
+     * applied to the recency order lazily, see the class description.
+     *
+     * @param key  the key
+     * @return the mapped value, null if no match
+     * @throws NullPointerException if the key is null
+     */
+    @Override
+    public V get(final Object key) {
+        return get(key, true);
+    }
+
+    /**
+     * Gets the value mapped to the key specified.
+     * <p>
+     * If {@code updateToMRU} is {@code true}, the entry is recorded as most recently used.
+     * Otherwise, the recency order is not changed by this operation.
+     *
+     * @param key  the key
+     * @param updateToMRU  whether the key shall be updated to the
+     *   most recently used position
+     * @return the mapped value, null if no match
+     * @throws NullPointerException if the key is null
+     */
+    public V get(final Object key, final boolean updateToMRU) {
+        final Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (updateToMRU) {
+            recordRead(node);
+        }
+        return node.value;
+    }
+
+    /**
+     * Checks whether the map contains the specified key.
+     * This operation does not change the recency order.
+     *
+     * @param key  the key to search for
+     * @return true if the map contains the key
+     * @throws NullPointerException if the key is null
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        return data.containsKey(key);
+    }
+
+    /**
+     * Checks whether the map contains the specified value.
+     * This operation does not change the recency order.
+     *
+     * @param value  the value to search for
+     * @return true if the map contains the value
+     */
+    @Override
+    public boolean containsValue(final Object value) {
+        if (value == null) {
+            return false;
+        }
+        for (final Node<K, V> node : data.values()) {
+            if (value.equals(node.value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Puts a key-value mapping into this map, making the entry the most recently
+     * used. If the map is full, the least recently used entry is removed first.
+     *
+     * @param key  the key to add
+     * @param value  the value to add
+     * @return the value previously mapped to this key, null if none
+     * @throws NullPointerException if the key or value is null
+     */
+    @Override
+    public V put(final K key, final V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            final Node<K, V> node = data.get(key);
+            if (node != null) {
+                final V oldValue = node.value;
+                node.value = value;
+                moveToMRU(node);
+                return oldValue;
+            }
+            if (data.size() >= maxSize) {
+                final Node<K, V> lru = header.after;
+                data.remove(lru.key, lru);
+                unlink(lru);
+            }
+            final Node<K, V> added = new Node<>(key, value);
+            data.put(key, added);
+            link(added);
+            return null;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the specified mapping from this map.
+     *
+     * @param key  the mapping to remove
+     * @return the value mapped to the removed key, null if key not in map
+     * @throws NullPointerException if the key is null
+     */
+    @Override
+    public V remove(final Object key) {
+        Objects.requireNonNull(key, "key");
+        evictionLock.lock();
+        try {
+            final Node<K, V> node = data.remove(key);
+            if (node == null) {
+                return null;
+            }
+            unlink(node);
+            return node.value;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the entry if it is still mapped in this map.
+     *
+     * @param node  the entry to remove
+     * @return true if the entry was removed
+     */
+    boolean removeNode(final Node<K, V> node) {
+        evictionLock.lock();
+        try {
+            if (!data.remove(node.key, node)) {
+                return false;
+            }
+            unlink(node);
+            return true;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Clears the map.
+     */
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            data.clear();
+            // unlink every entry so that reads still buffered for them are ignored
+            Node<K, V> node = header.after;
+            while (node != header) {
+                final Node<K, V> next = node.after;
+                node.before = node.after = null;
+                node = next;
+            }
+            header.before = header.after = header;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the size of the map.
+     *
+     * @return the size
+     */
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * Checks whether the map is currently empty.
+     *
+     * @return true if the map is currently size zero
+     */
+    @Override
+    public boolean isEmpty() {
+        return data.isEmpty();
+    }
+
+    /**
+     * Returns true if this map is full and no new mappings can be added.
+     *
+     * @return {@code true} if the map is full
+     */
+    @Override
+    public boolean isFull() {
+        return size() >= maxSize;
+    }
+
+    /**
+     * Gets the maximum size of the map (the bound).
+     *
+     * @return the maximum number of elements the map can hold
+     */
+    @Override
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets a weakly consistent iterator over the map.
+     * The order is not the recency order.
+     *
+     * @return the map iterator
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        return new EntrySetToMapIteratorAdapter<>(entrySet());
+    }
+
+    /**
+     * Gets a weakly consistent view of the entries.
+     * Changing a value through an entry does not change the recency order.
+     *
+     * @return the entry set
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet<>(this);
+        }
+        return entrySet;
+    }
+
+    /**
+     * Records a read of the entry, draining the buffers if the reading thread's
+     * buffer is full and no other thread holds the lock.
+     *
+     * @param node  the entry read
+     */
+    private void recordRead(final Node<K, V> node) {
+        final long id = Thread.currentThread().getId();
+        final int index = (int) (id * 0x9E3779B97F4A7C15L >>> 32) & readBuffers.length - 1;
+        if (readBuffers[index].offer(node) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Applies all buffered reads to the recency list.
+     * Must be called while holding the eviction lock.
+     */
+    private void drainReadBuffers() {
+        for (final ReadBuffer<K, V> buffer : readBuffers) {
+            buffer.drain(this);
+        }
+    }
+
+    /**
+     * Moves an entry to the most recently used position, unless it has been
+     * removed since the read was recorded.
+     * Must be called while holding the eviction lock.
+     *
+     * @param node  the entry to update
+     */
+    void moveToMRU(final Node<K, V> node) {
+        if (node.after != null && node.after != header) {
+            unlink(node);
+            link(node);
+        }
+    }
+
+    /**
+     * Links an entry in at the most recently used position.
+     *
+     * @param node  the entry to link
+     */
+    private void link(final Node<K, V> node) {
+        node.after = header;
+        node.before = header.before;
+        header.before.after = node;
+        header.before = node;
+    }
+
+    /**
+     * Unlinks an entry from the recency list, marking it as removed.
+     *
+     * @param node  the entry to unlink
+     */
+    private void unlink(final Node<K, V> node) {
+        node.before.after = node.after;
+        node.after.before = node.before;
+        node.before = node.after = null;
+    }
+
+    /**
+     * An entry of the map and of the recency list.
+     * The links are guarded by the eviction lock and are null once the entry is removed.
+     */
+    static final class Node<K, V> implements Map.Entry<K, V> {
+        /** The key */
+        final K key;
+        /** The value */
+        volatile V value;
+        /** The less recently used entry */
+        Node<K, V> before;
+        /** The more recently used entry */
+        Node<K, V> after;
+
+        Node(final K key, final V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            Objects.requireNonNull(value, "value");
+            final V old = this.value;
+            this.value = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return Objects.equals(key, other.getKey()) && Objects.equals(value, other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /**
+     * A bounded buffer of reads, written by any number of threads without locking
+     * and drained by the thread holding the eviction lock.
+     */
+    static final class ReadBuffer<K, V> {
+        /** The buffered reads */
+        private final AtomicReferenceArray<Node<K, V>> slots = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        /** Number of slots claimed by readers */
+        private final AtomicLong writeCount = new AtomicLong();
+        /** Number of slots drained, only written while holding the eviction lock */
+        private volatile long readCount;
+
+        /**
+         * Records a read, dropping it if the buffer is full or the slot was claimed
+         * by another thread.
+         *
+         * @param node  the entry read
+         * @return true if the buffer should be drained
+         */
+        boolean offer(final Node<K, V> node) {
+            final long write = writeCount.get();
+            final long pending = write - readCount;
+            if (pending >= READ_BUFFER_SIZE) {
+                return true;
+            }
+            if (writeCount.compareAndSet(write, write + 1)) {
+                slots.lazySet((int) write & READ_BUFFER_SIZE - 1, node);
+                return pending + 1 >= READ_BUFFER_SIZE;
+            }
+            return false;
+        }
+
+        /**
+         * Applies the buffered reads to the recency list of the map.
+         *
+         * @param map  the map owning this buffer
+         */
+        void drain(final ConcurrentLRUMap<K, V> map) {
+            final long write = writeCount.get();
+            long read = readCount;
+            for (; read < write; read++) {
+                final int index = (int) read & READ_BUFFER_SIZE - 1;
+                final Node<K, V> node = slots.get(index);
+                if (node == null) {
+                    // the slot is claimed but the reader has not stored the entry yet
+                    break;
+                }
+                slots.lazySet(index, null);
+                map.moveToMRU(node);
+            }
+            readCount = read;
+        }
+    }
+
+    /**
+     * EntrySet implementation.
+     */
+    static class EntrySet<K, V> extends AbstractSet<Map.Entry<K, V>> {
+        private final ConcurrentLRUMap<K, V> parent;
+
+        protected EntrySet(final ConcurrentLRUMap<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof Map.Entry) || ((Map.Entry<?, ?>) obj).getKey() == null) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final Node<K, V> node = parent.data.get(entry.getKey());
+            return node != null && node.equals(entry);
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            if (!(obj instanceof Map.Entry) || ((Map.Entry<?, ?>) obj).getKey() == null) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final Node<K, V> node = parent.data.get(entry.getKey());
+            return node != null && node.equals(entry) && parent.removeNode(node);
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntrySetIterator<>(parent);
+        }
+    }
+
+    /**
+     * EntrySet iterator.
+     */
+    static class EntrySetIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final ConcurrentLRUMap<K, V> parent;
+        private final Iterator<Node<K, V>> iterator;
+        private Node<K, V> last;
+
+        protected EntrySetIterator(final ConcurrentLRUMap<K, V> parent) {
+            this.parent = parent;
+            this.iterator = parent.data.values().iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            last = iterator.next();
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException(AbstractHashedMap.REMOVE_INVALID);
+            }
+            parent.removeNode(last);
+            last = null;
+        }
+    }
+
+}
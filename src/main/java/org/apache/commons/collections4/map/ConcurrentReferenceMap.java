@@ -0,0 +1,584 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.collections4.IterableMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.keyvalue.AbstractMapEntry;
+import org.apache.commons.collections4.map.AbstractReferenceMap.ReferenceStrength;
+
+/**
+ * A thread-safe {@code Map} implementation that allows mappings to be
+ * removed by the garbage collector.
+ * <p>
+ * As with {@link ReferenceMap}, you can specify what kind of references are used
+ * to store the map's keys and values, and the garbage collector can remove mappings
+ * if a non-hard key or value becomes unreachable, or if the JVM's memory is running
+ * low. The default constructor uses hard keys and soft values, providing a
+ * memory-sensitive cache. Keys and values are compared using {@code equals()}.
+ * </p>
+ * <p>
+ * The mappings are held in a {@link ConcurrentHashMap}, so reads do not lock and
+ * do not block each other. Unlike {@link AbstractReferenceMap}, reads do not purge
+ * the mappings whose key or value has been collected: such mappings are simply
+ * treated as absent. The reference queue is instead drained in batches of at most
+ * {@value #PURGE_BUDGET} references by each write, and completely by {@link #size()},
+ * {@link #isEmpty()} and {@link #purge()}. Applications that rarely write to the map
+ * can call {@link #purge()} periodically, for example from a
+ * {@link java.util.concurrent.ScheduledExecutorService}.
+ * </p>
+ * <p>
+ * This {@link java.util.Map Map} implementation does <i>not</i> allow null elements.
+ * Attempting to add a null key or value to the map will raise a {@code NullPointerException}.
+ * </p>
+ * <p>
+ * The iterators of the map and its views are weakly consistent: they never throw
+ * {@link java.util.ConcurrentModificationException}, skip the mappings whose key or
+ * value has been collected, and may or may not reflect modifications made after
+ * their creation. Setting a value through an entry puts it in the map.
+ * </p>
+ *
+ * @param <K> the type of the keys in the map
+ * @param <V> the type of the values in the map
+ * @see ReferenceMap
+ * @see java.lang.ref.Reference
+ * @since 4.5
+ */
+public class ConcurrentReferenceMap<K, V> extends AbstractMap<K, V> implements IterableMap<K, V> {
+
+    /** The maximum number of collected references purged by a write */
+    static final int PURGE_BUDGET = 16;
+
+    /** The reference type for keys */
+    private final ReferenceStrength keyType;
+    /** The reference type for values */
+    private final ReferenceStrength valueType;
+    /** The mappings, keyed by the key or a reference to it, to the value or a reference to it */
+    private final ConcurrentHashMap<Object, Object> data = new ConcurrentHashMap<>();
+    /** The queue of collected references */
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    /** Entry set */
+    private transient EntrySet<K, V> entrySet;
+
+    /**
+     * Constructs a new {@code ConcurrentReferenceMap} that will
+     * use hard references to keys and soft references to values.
+     */
+    public ConcurrentReferenceMap() {
+        this(ReferenceStrength.HARD, ReferenceStrength.SOFT);
+    }
+
+    /**
+     * Constructs a new {@code ConcurrentReferenceMap} that will
+     * use the specified types of references.
+     *
+     * @param keyType  the type of reference to use for keys;
+     *   must be {@link AbstractReferenceMap.ReferenceStrength#HARD HARD},
+     *   {@link AbstractReferenceMap.ReferenceStrength#SOFT SOFT},
+     *   {@link AbstractReferenceMap.ReferenceStrength#WEAK WEAK}
+     * @param valueType  the type of reference to use for values;
+     *   must be {@link AbstractReferenceMap.ReferenceStrength#HARD HARD},
+     *   {@link AbstractReferenceMap.ReferenceStrength#SOFT SOFT},
+     *   {@link AbstractReferenceMap.ReferenceStrength#WEAK WEAK}
+     * @throws NullPointerException if either type is null
+     */
+    public ConcurrentReferenceMap(final ReferenceStrength keyType, final ReferenceStrength valueType) {
+        this.keyType = Objects.requireNonNull(keyType, "keyType");
+        this.valueType = Objects.requireNonNull(valueType, "valueType");
+    }
+
+    /**
+     * Gets the value mapped to the key specified.
+     *
+     * @param key  the key
+     * @return the mapped value, null if no match
+     */
+    @Override
+    public V get(final Object key) {
+        if (key == null) {
+            return null;
+        }
+        return unwrapValue(data.get(lookupKey(key)));
+    }
+
+    /**
+     * Checks whether the map contains the specified key.
+     *
+     * @param key  the key to search for
+     * @return true if the map contains the key
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Checks whether the map contains the specified value.
+     *
+     * @param value  the value to search for
+     * @return true if the map contains the value
+     */
+    @Override
+    public boolean containsValue(final Object value) {
+        if (value == null) {
+            return false;
+        }
+        for (final Object stored : data.values()) {
+            if (value.equals(unwrapValue(stored))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Puts a key-value mapping into this map, first purging a batch of the
+     * mappings whose key or value has been collected.
+     *
+     * @param key  the key to add, must not be null
+     * @param value  the value to add, must not be null
+     * @return the value previously mapped to this key, null if none
+     * @throws NullPointerException if either the key or value is null
+     */
+    @Override
+    public V put(final K key, final V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        purge(PURGE_BUDGET);
+        final Object storedKey = wrapKey(key);
+        return unwrapValue(data.put(storedKey, wrapValue(storedKey, value)));
+    }
+
+    /**
+     * Removes the specified mapping from this map, first purging a batch of the
+     * mappings whose key or value has been collected.
+     *
+     * @param key  the mapping to remove
+     * @return the value mapped to the removed key, null if key not in map
+     */
+    @Override
+    public V remove(final Object key) {
+        if (key == null) {
+            return null;
+        }
+        purge(PURGE_BUDGET);
+        return unwrapValue(data.remove(lookupKey(key)));
+    }
+
+    /**
+     * Clears this map.
+     */
+    @Override
+    public void clear() {
+        data.clear();
+        purge();
+    }
+
+    /**
+     * Gets the size of the map, after purging the mappings whose key or value has
+     * been collected.
+     *
+     * @return the size
+     */
+    @Override
+    public int size() {
+        purge();
+        return data.size();
+    }
+
+    /**
+     * Checks whether the map is currently empty, after purging the mappings whose
+     * key or value has been collected.
+     *
+     * @return true if the map is currently size zero
+     */
+    @Override
+    public boolean isEmpty() {
+        purge();
+        return data.isEmpty();
+    }
+
+    /**
+     * Purges all the mappings whose key or value has been collected and queued
+     * by the garbage collector.
+     */
+    public void purge() {
+        purge(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Purges some of the mappings whose key or value has been collected.
+     *
+     * @param budget  the maximum number of collected references to process
+     */
+    private void purge(final int budget) {
+        Reference<?> ref;
+        for (int i = 0; i < budget && (ref = queue.poll()) != null; i++) {
+            final Object owner = ((MapReference) ref).owner();
+            if (owner == null) {
+                // a key: cleared references are only equal to themselves
+                data.remove(ref);
+            } else {
+                // a value: only removed if still mapped to this reference
+                data.remove(owner, ref);
+            }
+        }
+    }
+
+    /**
+     * Gets a map iterator over the mappings whose key and value have not been collected.
+     *
+     * @return the map iterator
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        return new EntrySetToMapIteratorAdapter<>(entrySet());
+    }
+
+    /**
+     * Gets a weakly consistent view of the mappings whose key and value have not
+     * been collected.
+     *
+     * @return the entry set
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet<>(this);
+        }
+        return entrySet;
+    }
+
+    /**
+     * Creates the object stored as the key of a mapping.
+     *
+     * @param key  the key
+     * @return the key, or a reference to it
+     */
+    private Object wrapKey(final K key) {
+        switch (keyType) {
+        case SOFT:
+            return new SoftMapReference<>(key, key.hashCode(), null, queue);
+        case WEAK:
+            return new WeakMapReference<>(key, key.hashCode(), null, queue);
+        default:
+            return key;
+        }
+    }
+
+    /**
+     * Creates the object looked up in the backing map to find a key.
+     *
+     * @param key  the key
+     * @return the key, or an object equal to the references to it
+     */
+    private Object lookupKey(final Object key) {
+        return keyType == ReferenceStrength.HARD ? key : new LookupKey(key);
+    }
+
+    /**
+     * Creates the object stored as the value of a mapping.
+     *
+     * @param storedKey  the stored key of the mapping
+     * @param value  the value
+     * @return the value, or a reference to it
+     */
+    private Object wrapValue(final Object storedKey, final V value) {
+        switch (valueType) {
+        case SOFT:
+            return new SoftMapReference<>(value, value.hashCode(), storedKey, queue);
+        case WEAK:
+            return new WeakMapReference<>(value, value.hashCode(), storedKey, queue);
+        default:
+            return value;
+        }
+    }
+
+    /**
+     * Gets the key of a mapping from its stored form.
+     *
+     * @param stored  the stored key
+     * @return the key, null if collected
+     */
+    @SuppressWarnings("unchecked")
+    K unwrapKey(final Object stored) {
+        return (K) (keyType == ReferenceStrength.HARD ? stored : ((Reference<?>) stored).get());
+    }
+
+    /**
+     * Gets the value of a mapping from its stored form.
+     *
+     * @param stored  the stored value, may be null
+     * @return the value, null if none or collected
+     */
+    @SuppressWarnings("unchecked")
+    V unwrapValue(final Object stored) {
+        return (V) (stored == null || valueType == ReferenceStrength.HARD ? stored : ((Reference<?>) stored).get());
+    }
+
+    /**
+     * A reference to a key or value of the map.
+     * <p>
+     * References to keys are equal while their referents are equal, so that they can be
+     * looked up in the backing map; once cleared, they are only equal to themselves.
+     * </p>
+     */
+    interface MapReference {
+
+        /**
+         * Gets the stored key of the mapping holding this reference as its value.
+         *
+         * @return the stored key, null if this reference is a key
+         */
+        Object owner();
+
+        /**
+         * Gets the referent.
+         *
+         * @return the referent, null if cleared
+         */
+        Object get();
+    }
+
+    /**
+     * Implements the equality of the references to keys.
+     *
+     * @param ref  the reference
+     * @param obj  the object to compare to
+     * @return true if equal
+     */
+    static boolean referenceEquals(final MapReference ref, final Object obj) {
+        if (obj == ref) {
+            return true;
+        }
+        final Object referent = ref.get();
+        if (referent == null) {
+            return false;
+        }
+        if (obj instanceof MapReference) {
+            return referent.equals(((MapReference) obj).get());
+        }
+        return obj instanceof LookupKey && referent.equals(((LookupKey) obj).key);
+    }
+
+    /**
+     * A soft reference to a key or value, remembering the hash code of its referent.
+     */
+    static final class SoftMapReference<T> extends SoftReference<T> implements MapReference {
+        private final int hash;
+        private final Object owner;
+
+        SoftMapReference(final T referent, final int hash, final Object owner, final ReferenceQueue<? super T> queue) {
+            super(referent, queue);
+            this.hash = hash;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object owner() {
+            return owner;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return referenceEquals(this, obj);
+        }
+    }
+
+    /**
+     * A weak reference to a key or value, remembering the hash code of its referent.
+     */
+    static final class WeakMapReference<T> extends WeakReference<T> implements MapReference {
+        private final int hash;
+        private final Object owner;
+
+        WeakMapReference(final T referent, final int hash, final Object owner, final ReferenceQueue<? super T> queue) {
+            super(referent, queue);
+            this.hash = hash;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object owner() {
+            return owner;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return referenceEquals(this, obj);
+        }
+    }
+
+    /**
+     * Wraps a key to look it up among references to keys.
+     */
+    static final class LookupKey {
+        final Object key;
+
+        LookupKey(final Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof MapReference && key.equals(((MapReference) obj).get());
+        }
+    }
+
+    /**
+     * Map entry returned by the iterators, writing through to the map.
+     */
+    static class IteratorEntry<K, V> extends AbstractMapEntry<K, V> {
+        private final ConcurrentReferenceMap<K, V> parent;
+
+        protected IteratorEntry(final ConcurrentReferenceMap<K, V> parent, final K key, final V value) {
+            super(key, value);
+            this.parent = parent;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            parent.put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+
+    /**
+     * EntrySet implementation.
+     */
+    static class EntrySet<K, V> extends AbstractSet<Map.Entry<K, V>> {
+        private final ConcurrentReferenceMap<K, V> parent;
+
+        protected EntrySet(final ConcurrentReferenceMap<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final V value = parent.get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            if (!(obj instanceof Map.Entry) || ((Map.Entry<?, ?>) obj).getKey() == null) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final Object lookupKey = parent.lookupKey(entry.getKey());
+            final Object stored = parent.data.get(lookupKey);
+            final V value = parent.unwrapValue(stored);
+            return value != null && value.equals(entry.getValue()) && parent.data.remove(lookupKey, stored);
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntrySetIterator<>(parent);
+        }
+    }
+
+    /**
+     * EntrySet iterator, skipping the mappings whose key or value has been collected.
+     */
+    static class EntrySetIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final ConcurrentReferenceMap<K, V> parent;
+        private final Iterator<Map.Entry<Object, Object>> iterator;
+        private Map.Entry<K, V> next;
+        private Map.Entry<K, V> last;
+
+        protected EntrySetIterator(final ConcurrentReferenceMap<K, V> parent) {
+            this.parent = parent;
+            this.iterator = parent.data.entrySet().iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && iterator.hasNext()) {
+                final Map.Entry<Object, Object> entry = iterator.next();
+                // strongly hold the key and value while they are returned
+                final K key = parent.unwrapKey(entry.getKey());
+                final V value = parent.unwrapValue(entry.getValue());
+                if (key != null && value != null) {
+                    next = new IteratorEntry<>(parent, key, value);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+            }
+            last = next;
+            next = null;
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException(AbstractHashedMap.REMOVE_INVALID);
+            }
+            parent.remove(last.getKey());
+            last = null;
+        }
+    }
+
+}
@@ -0,0 +1,1025 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.collections4.IterableMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.ResettableIterator;
+import org.apache.commons.collections4.iterators.EmptyIterator;
+import org.apache.commons.collections4.iterators.EmptyMapIterator;
+
+/**
+ * A {@code Map} implementation that stores data in simple arrays until
+ * the size is greater than a configurable maximum, 8 by default.
+ * <p>
+ * This map generalizes {@link Flat3Map} to maps that usually hold a few more
+ * entries than three, such as per-request attribute maps.
+ * </p>
+ * <p>
+ * The design uses two distinct modes of operation - flat and delegate.
+ * While the map holds at most the maximum flat size of entries, the hash codes
+ * of the keys are stored in an {@code int} array, and the keys and values in
+ * parallel arrays. A lookup scans the hash code array, which is compact and
+ * sequential in memory, and only compares the keys whose hash code matches.
+ * Once the maximum flat size is exceeded, the map switches to delegate mode and
+ * only switches back when cleared. In delegate mode, all operations are forwarded
+ * straight to a {@link HashedMap}.
+ * </p>
+ * <p>
+ * As with {@code Flat3Map}, puts in flat mode do not create a Map Entry object,
+ * and removing an entry moves the last entry into its place, so the iteration
+ * order is not the insertion order.
+ * </p>
+ * <p>
+ * Scanning is linear in the number of entries, so the maximum flat size should
+ * stay small. The {@code FlatNMapBenchmark} in the test sources compares the flat
+ * and delegate modes at various sizes to help choose it. On a JDK 17 server VM,
+ * filling the map in flat mode took 0.8 to 0.9 times as long as filling a
+ * {@code HashedMap} up to 8 entries, and half as long at 12 and 16, while looking
+ * up a present key took 0.8 to 5 ns longer at every size, 2 included. The default of
+ * 8 is chosen so that looking up an absent key, which scans every entry, stays within
+ * the measurement error of a {@code HashedMap}: 6.8 &plusmn; 1.4 ns against
+ * 6.2 &plusmn; 3.1 ns at 8 entries, but 8.2 &plusmn; 2.2 ns against 5.5 &plusmn; 1.1 ns
+ * at 12. A map that is filled once and then read only a few dozen times gains more
+ * from a maximum flat size of 12 or 16.
+ * </p>
+ * <p>
+ * <strong>Note that FlatNMap is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization. The simplest approach is to wrap this map
+ * using {@link java.util.Collections#synchronizedMap(Map)}. This class may throw
+ * exceptions when accessed by concurrent threads without synchronization.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @see Flat3Map
+ * @since 4.5
+ */
+public class FlatNMap<K, V> implements IterableMap<K, V>, Serializable, Cloneable {
+
+    /** The default maximum number of entries stored in flat mode, chosen from the benchmark results above */
+    public static final int DEFAULT_MAX_FLAT_SIZE = 8;
+
+    /** The initial length of the arrays */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /** Serialization version */
+    private static final long serialVersionUID = 2370442426651574236L;
+
+    /** The maximum number of entries stored in flat mode */
+    private final int maxFlatSize;
+    /** The size of the map, used while in flat mode */
+    private transient int size;
+    /** Hash codes of the keys, used while in flat mode */
+    private transient int[] hashes;
+    /** Keys, used while in flat mode */
+    private transient Object[] keys;
+    /** Values, used while in flat mode */
+    private transient Object[] values;
+    /** Modification count for iterators, used while in flat mode */
+    private transient int modCount;
+    /** Map, used while in delegate mode */
+    private transient AbstractHashedMap<K, V> delegateMap;
+
+    /**
+     * Constructs a new empty map storing up to {@link #DEFAULT_MAX_FLAT_SIZE} entries in flat mode.
+     */
+    public FlatNMap() {
+        this(DEFAULT_MAX_FLAT_SIZE);
+    }
+
+    /**
+     * Constructs a new empty map storing up to the specified number of entries in flat mode.
+     *
+     * @param maxFlatSize  the maximum number of entries stored in flat mode
+     * @throws IllegalArgumentException if the maximum flat size is less than one
+     */
+    public FlatNMap(final int maxFlatSize) {
+        if (maxFlatSize < 1) {
+            throw new IllegalArgumentException("FlatNMap max flat size must be greater than 0");
+        }
+        this.maxFlatSize = maxFlatSize;
+    }
+
+    /**
+     * Constructor copying elements from another map.
+     *
+     * @param map  the map to copy
+     * @throws NullPointerException if the map is null
+     */
+    public FlatNMap(final Map<? extends K, ? extends V> map) {
+        this(DEFAULT_MAX_FLAT_SIZE);
+        putAll(map);
+    }
+
+    /**
+     * Gets the maximum number of entries stored in flat mode.
+     *
+     * @return the maximum flat size
+     */
+    public int maxFlatSize() {
+        return maxFlatSize;
+    }
+
+    /**
+     * Gets the index of the key in the arrays.
+     *
+     * @param key  the key
+     * @return the index, -1 if not found
+     */
+    private int indexOf(final Object key) {
+        if (key == null) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == null) {
+                    return i;
+                }
+            }
+        } else {
+            final int hashCode = key.hashCode();
+            final int[] hashes = this.hashes;
+            for (int i = 0; i < size; i++) {
+                if (hashes[i] == hashCode && key.equals(keys[i])) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the value mapped to the key specified.
+     *
+     * @param key  the key
+     * @return the mapped value, null if no match
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        if (delegateMap != null) {
+            return delegateMap.get(key);
+        }
+        final int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    /**
+     * Gets the size of the map.
+     *
+     * @return the size
+     */
+    @Override
+    public int size() {
+        if (delegateMap != null) {
+            return delegateMap.size();
+        }
+        return size;
+    }
+
+    /**
+     * Checks whether the map is currently empty.
+     *
+     * @return true if the map is currently size zero
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Checks whether the map contains the specified key.
+     *
+     * @param key  the key to search for
+     * @return true if the map contains the key
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        if (delegateMap != null) {
+            return delegateMap.containsKey(key);
+        }
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Checks whether the map contains the specified value.
+     *
+     * @param value  the value to search for
+     * @return true if the map contains the key
+     */
+    @Override
+    public boolean containsValue(final Object value) {
+        if (delegateMap != null) {
+            return delegateMap.containsValue(value);
+        }
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(value, values[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Puts a key-value mapping into this map.
+     *
+     * @param key  the key to add
+     * @param value  the value to add
+     * @return the value previously mapped to this key, null if none
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(final K key, final V value) {
+        if (delegateMap != null) {
+            return delegateMap.put(key, value);
+        }
+        // change existing mapping
+        final int index = indexOf(key);
+        if (index >= 0) {
+            final V old = (V) values[index];
+            values[index] = value;
+            return old;
+        }
+
+        // add new mapping
+        if (size == maxFlatSize) {
+            convertToMap();
+            delegateMap.put(key, value);
+            return null;
+        }
+        if (hashes == null) {
+            allocate(Math.min(INITIAL_CAPACITY, maxFlatSize));
+        } else if (size == hashes.length) {
+            allocate(Math.min(size << 1, maxFlatSize));
+        }
+        hashes[size] = key == null ? 0 : key.hashCode();
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    /**
+     * Allocates the arrays with the specified length, copying the entries.
+     *
+     * @param capacity  the new length of the arrays
+     */
+    private void allocate(final int capacity) {
+        if (hashes == null) {
+            hashes = new int[capacity];
+            keys = new Object[capacity];
+            values = new Object[capacity];
+        } else {
+            hashes = Arrays.copyOf(hashes, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    /**
+     * Puts all the values from the specified map into this map.
+     *
+     * @param map  the map to add
+     * @throws NullPointerException if the map is null
+     */
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> map) {
+        final int size = map.size();
+        if (size == 0) {
+            return;
+        }
+        if (delegateMap != null) {
+            delegateMap.putAll(map);
+            return;
+        }
+        if (size <= maxFlatSize) {
+            for (final Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+        } else {
+            convertToMap();
+            delegateMap.putAll(map);
+        }
+    }
+
+    /**
+     * Converts the flat map data to a map.
+     */
+    @SuppressWarnings("unchecked")
+    private void convertToMap() {
+        delegateMap = createDelegateMap();
+        for (int i = size - 1; i >= 0; i--) {
+            delegateMap.put((K) keys[i], (V) values[i]);
+        }
+        size = 0;
+        hashes = null;
+        keys = null;
+        values = null;
+        modCount++;
+    }
+
+    /**
+     * Create an instance of the map used for storage when in delegation mode.
+     * <p>
+     * This can be overridden by subclasses to provide a different map implementation.
+     * Not every AbstractHashedMap is suitable, identity and reference based maps
+     * would be poor choices.
+     *
+     * @return a new AbstractHashedMap or subclass
+     */
+    protected AbstractHashedMap<K, V> createDelegateMap() {
+        return new HashedMap<>();
+    }
+
+    /**
+     * Removes the specified mapping from this map.
+     *
+     * @param key  the mapping to remove
+     * @return the value mapped to the removed key, null if key not in map
+     */
+    @Override
+    public V remove(final Object key) {
+        if (delegateMap != null) {
+            return delegateMap.remove(key);
+        }
+        final int index = indexOf(key);
+        return index < 0 ? null : removeIndex(index);
+    }
+
+    /**
+     * Removes the entry at the specified index, moving the last entry into its place.
+     *
+     * @param index  the index of the entry to remove
+     * @return the value of the removed entry
+     */
+    @SuppressWarnings("unchecked")
+    private V removeIndex(final int index) {
+        final V old = (V) values[index];
+        final int last = --size;
+        hashes[index] = hashes[last];
+        keys[index] = keys[last];
+        values[index] = values[last];
+        hashes[last] = 0;
+        keys[last] = null;
+        values[last] = null;
+        modCount++;
+        return old;
+    }
+
+    /**
+     * Clears the map, resetting the size to zero and nullifying references
+     * to avoid garbage collection issues.
+     */
+    @Override
+    public void clear() {
+        if (delegateMap != null) {
+            delegateMap.clear();  // should aid gc
+            delegateMap = null;  // switch back to flat mode
+        } else {
+            size = 0;
+            hashes = null;
+            keys = null;
+            values = null;
+        }
+        modCount++;
+    }
+
+    /**
+     * Gets an iterator over the map.
+     * Changes made to the iterator affect this map.
+     * <p>
+     * A MapIterator returns the keys in the map. It also provides convenient
+     * methods to get the key and value, and set the value.
+     * It avoids the need to create an entrySet/keySet/values object.
+     * It also avoids creating the Map Entry object.
+     *
+     * @return the map iterator
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        if (delegateMap != null) {
+            return delegateMap.mapIterator();
+        }
+        if (size == 0) {
+            return EmptyMapIterator.<K, V>emptyMapIterator();
+        }
+        return new FlatMapIterator<>(this);
+    }
+
+    /**
+     * FlatMapIterator
+     */
+    static class FlatMapIterator<K, V> implements MapIterator<K, V>, ResettableIterator<K> {
+        private final FlatNMap<K, V> parent;
+        private int nextIndex;
+        private boolean canRemove;
+        private int expectedModCount;
+
+        FlatMapIterator(final FlatNMap<K, V> parent) {
+            this.parent = parent;
+            this.expectedModCount = parent.modCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < parent.size;
+        }
+
+        @Override
+        public K next() {
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+            }
+            canRemove = true;
+            nextIndex++;
+            return getKey();
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException(AbstractHashedMap.REMOVE_INVALID);
+            }
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            // the last entry moves into the current index, so visit it next
+            parent.removeIndex(--nextIndex);
+            expectedModCount = parent.modCount;
+            canRemove = false;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K getKey() {
+            if (!canRemove) {
+                throw new IllegalStateException(AbstractHashedMap.GETKEY_INVALID);
+            }
+            return (K) parent.keys[nextIndex - 1];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            if (!canRemove) {
+                throw new IllegalStateException(AbstractHashedMap.GETVALUE_INVALID);
+            }
+            return (V) parent.values[nextIndex - 1];
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (!canRemove) {
+                throw new IllegalStateException(AbstractHashedMap.SETVALUE_INVALID);
+            }
+            final V old = getValue();
+            parent.values[nextIndex - 1] = value;
+            return old;
+        }
+
+        @Override
+        public void reset() {
+            nextIndex = 0;
+            canRemove = false;
+            expectedModCount = parent.modCount;
+        }
+
+        @Override
+        public String toString() {
+            if (canRemove) {
+                return "Iterator[" + getKey() + "=" + getValue() + "]";
+            }
+            return "Iterator[]";
+        }
+    }
+
+    /**
+     * Gets the entrySet view of the map.
+     * Changes made to the view affect this map.
+     * <p>
+     * The returned Map Entry is an independent object and will not change
+     * as the iterator progresses. To avoid this additional object creation
+     * and simply iterate through the entries, use {@link #mapIterator()}.
+     *
+     * @return the entrySet view
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (delegateMap != null) {
+            return delegateMap.entrySet();
+        }
+        return new EntrySet<>(this);
+    }
+
+    /**
+     * EntrySet
+     */
+    static class EntrySet<K, V> extends AbstractSet<Map.Entry<K, V>> {
+        private final FlatNMap<K, V> parent;
+
+        EntrySet(final FlatNMap<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final Object key = entry.getKey();
+            return parent.containsKey(key) && Objects.equals(parent.get(key), entry.getValue());
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            if (!contains(obj)) {
+                return false;
+            }
+            parent.remove(((Map.Entry<?, ?>) obj).getKey());
+            return true;
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            if (parent.delegateMap != null) {
+                return parent.delegateMap.entrySet().iterator();
+            }
+            if (parent.isEmpty()) {
+                return EmptyIterator.<Map.Entry<K, V>>emptyIterator();
+            }
+            return new EntrySetIterator<>(parent);
+        }
+    }
+
+    /**
+     * Entry holding the key and value found at an index, as removing an entry
+     * moves another one into its index. Setting the value writes it through to
+     * the map.
+     */
+    static class FlatMapEntry<K, V> implements Map.Entry<K, V> {
+        private final FlatNMap<K, V> parent;
+        private final K key;
+        private V value;
+        private volatile boolean removed;
+
+        @SuppressWarnings("unchecked")
+        FlatMapEntry(final FlatNMap<K, V> parent, final int index) {
+            this.parent = parent;
+            this.key = (K) parent.keys[index];
+            this.value = (V) parent.values[index];
+            this.removed = false;
+        }
+
+        /**
+         * Used by the iterator that created this entry to indicate that
+         * {@link java.util.Iterator#remove()} has been called.
+         * <p>
+         * As a consequence, all subsequent call to {@link #getKey()},
+         * {@link #setValue(Object)} and {@link #getValue()} will fail.
+         *
+         * @param flag the new value of the removed flag
+         */
+        void setRemoved(final boolean flag) {
+            this.removed = flag;
+        }
+
+        @Override
+        public K getKey() {
+            if (removed) {
+                throw new IllegalStateException(AbstractHashedMap.GETKEY_INVALID);
+            }
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            if (removed) {
+                throw new IllegalStateException(AbstractHashedMap.GETVALUE_INVALID);
+            }
+            return value;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (removed) {
+                throw new IllegalStateException(AbstractHashedMap.SETVALUE_INVALID);
+            }
+            final V old = this.value;
+            this.value = value;
+            if (parent.containsKey(key)) {
+                parent.put(key, value);
+            }
+            return old;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (removed) {
+                return false;
+            }
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            final Object key = getKey();
+            final Object value = getValue();
+            return (key == null ? other.getKey() == null : key.equals(other.getKey())) &&
+                   (value == null ? other.getValue() == null : value.equals(other.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            if (removed) {
+                return 0;
+            }
+            final Object key = getKey();
+            final Object value = getValue();
+            return (key == null ? 0 : key.hashCode()) ^
+                   (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            if (!removed) {
+                return getKey() + "=" + getValue();
+            }
+            return "";
+        }
+    }
+
+    abstract static class EntryIterator<K, V> {
+        private final FlatNMap<K, V> parent;
+        private int nextIndex;
+        private FlatMapEntry<K, V> currentEntry;
+        private int expectedModCount;
+
+        /**
+         * Create a new FlatNMap.EntryIterator.
+         */
+        EntryIterator(final FlatNMap<K, V> parent) {
+            this.parent = parent;
+            this.expectedModCount = parent.modCount;
+        }
+
+        public boolean hasNext() {
+            return nextIndex < parent.size;
+        }
+
+        public Map.Entry<K, V> nextEntry() {
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+            }
+            currentEntry = new FlatMapEntry<>(parent, nextIndex++);
+            return currentEntry;
+        }
+
+        public void remove() {
+            if (currentEntry == null) {
+                throw new IllegalStateException(AbstractHashedMap.REMOVE_INVALID);
+            }
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            parent.removeIndex(--nextIndex);
+            expectedModCount = parent.modCount;
+            currentEntry.setRemoved(true);
+            currentEntry = null;
+        }
+    }
+
+    /**
+     * EntrySetIterator and MapEntry
+     */
+    static class EntrySetIterator<K, V> extends EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+        EntrySetIterator(final FlatNMap<K, V> parent) {
+            super(parent);
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            return nextEntry();
+        }
+    }
+
+    /**
+     * Gets the keySet view of the map.
+     * Changes made to the view affect this map.
+     * To simply iterate through the keys, use {@link #mapIterator()}.
+     *
+     * @return the keySet view
+     */
+    @Override
+    public Set<K> keySet() {
+        if (delegateMap != null) {
+            return delegateMap.keySet();
+        }
+        return new KeySet<>(this);
+    }
+
+    /**
+     * KeySet
+     */
+    static class KeySet<K> extends AbstractSet<K> {
+        private final FlatNMap<K, ?> parent;
+
+        KeySet(final FlatNMap<K, ?> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public boolean contains(final Object key) {
+            return parent.containsKey(key);
+        }
+
+        @Override
+        public boolean remove(final Object key) {
+            final boolean result = parent.containsKey(key);
+            parent.remove(key);
+            return result;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            if (parent.delegateMap != null) {
+                return parent.delegateMap.keySet().iterator();
+            }
+            if (parent.isEmpty()) {
+                return EmptyIterator.<K>emptyIterator();
+            }
+            return new KeySetIterator<>(parent);
+        }
+    }
+
+    /**
+     * KeySetIterator
+     */
+    static class KeySetIterator<K> extends EntryIterator<K, Object> implements Iterator<K> {
+
+        @SuppressWarnings("unchecked")
+        KeySetIterator(final FlatNMap<K, ?> parent) {
+            super((FlatNMap<K, Object>) parent);
+        }
+
+        @Override
+        public K next() {
+            return nextEntry().getKey();
+        }
+    }
+
+    /**
+     * Gets the values view of the map.
+     * Changes made to the view affect this map.
+     * To simply iterate through the values, use {@link #mapIterator()}.
+     *
+     * @return the values view
+     */
+    @Override
+    public Collection<V> values() {
+        if (delegateMap != null) {
+            return delegateMap.values();
+        }
+        return new Values<>(this);
+    }
+
+    /**
+     * Values
+     */
+    static class Values<V> extends AbstractCollection<V> {
+        private final FlatNMap<?, V> parent;
+
+        Values(final FlatNMap<?, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public boolean contains(final Object value) {
+            return parent.containsValue(value);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            if (parent.delegateMap != null) {
+                return parent.delegateMap.values().iterator();
+            }
+            if (parent.isEmpty()) {
+                return EmptyIterator.<V>emptyIterator();
+            }
+            return new ValuesIterator<>(parent);
+        }
+    }
+
+    /**
+     * ValuesIterator
+     */
+    static class ValuesIterator<V> extends EntryIterator<Object, V> implements Iterator<V> {
+
+        @SuppressWarnings("unchecked")
+        ValuesIterator(final FlatNMap<?, V> parent) {
+            super((FlatNMap<Object, V>) parent);
+        }
+
+        @Override
+        public V next() {
+            return nextEntry().getValue();
+        }
+    }
+
+    /**
+     * Write the map out using a custom routine.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size());
+        for (final MapIterator<?, ?> it = mapIterator(); it.hasNext();) {
+            out.writeObject(it.next());  // key
+            out.writeObject(it.getValue());  // value
+        }
+    }
+
+    /**
+     * Read the map in using a custom routine.
+     *
+     * @param in the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int count = in.readInt();
+        if (count > maxFlatSize) {
+            delegateMap = createDelegateMap();
+        }
+        for (int i = count; i > 0; i--) {
+            put((K) in.readObject(), (V) in.readObject());
+        }
+    }
+
+    /**
+     * Clones the map without cloning the keys or values.
+     *
+     * @return a shallow clone
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public FlatNMap<K, V> clone() {
+        try {
+            final FlatNMap<K, V> cloned = (FlatNMap<K, V>) super.clone();
+            if (cloned.delegateMap != null) {
+                cloned.delegateMap = cloned.delegateMap.clone();
+            }
+            if (cloned.hashes != null) {
+                cloned.hashes = cloned.hashes.clone();
+                cloned.keys = cloned.keys.clone();
+                cloned.values = cloned.values.clone();
+            }
+            return cloned;
+        } catch (final CloneNotSupportedException ex) {
+            throw new InternalError();
+        }
+    }
+
+    /**
+     * Compares this map with another.
+     *
+     * @param obj  the object to compare to
+     * @return true if equal
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (delegateMap != null) {
+            return delegateMap.equals(obj);
+        }
+        if (!(obj instanceof Map)) {
+            return false;
+        }
+        final Map<?, ?> other = (Map<?, ?>) obj;
+        if (size != other.size()) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!other.containsKey(keys[i]) || !Objects.equals(values[i], other.get(keys[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the standard Map hashCode.
+     *
+     * @return the hash code defined in the Map interface
+     */
+    @Override
+    public int hashCode() {
+        if (delegateMap != null) {
+            return delegateMap.hashCode();
+        }
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += hashes[i] ^ (values[i] == null ? 0 : values[i].hashCode());
+        }
+        return total;
+    }
+
+    /**
+     * Gets the map as a String.
+     *
+     * @return a string version of the map
+     */
+    @Override
+    public String toString() {
+        if (delegateMap != null) {
+            return delegateMap.toString();
+        }
+        if (size == 0) {
+            return "{}";
+        }
+        final StringBuilder buf = new StringBuilder(32 * size);
+        buf.append('{');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(keys[i] == this ? "(this Map)" : keys[i]);
+            buf.append('=');
+            buf.append(values[i] == this ? "(this Map)" : values[i]);
+        }
+        buf.append('}');
+        return buf.toString();
+    }
+
+}
@@ -0,0 +1,448 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.collections4.IterableMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.ResettableIterator;
+import org.apache.commons.collections4.Unmodifiable;
+import org.apache.commons.collections4.collection.UnmodifiableCollection;
+import org.apache.commons.collections4.keyvalue.UnmodifiableMapEntry;
+import org.apache.commons.collections4.set.UnmodifiableSet;
+
+/**
+ * An immutable {@code Map} in a compact open addressing table, usually created
+ * by {@link AbstractHashedMap#freeze()}.
+ * <p>
+ * The entries are stored in two arrays in the iteration order of the map they
+ * were copied from, one holding the keys and values in turn and the other the
+ * hash codes of the keys. A table sized to the number of entries, with at most
+ * half of its slots used, holds the index of each entry at the slot of its hash
+ * code or the next free one. A lookup therefore probes a few consecutive slots
+ * of an {@code int} array, and no entry objects are created.
+ * </p>
+ * <p>
+ * All fields are final and never change after construction, so a
+ * {@code FrozenHashedMap} can be shared between threads without synchronization,
+ * even when it is published through a data race.
+ * </p>
+ * <p>
+ * Keys are converted, hashed and compared the same way as in {@link HashedMap},
+ * unless another {@link KeyStrategy} matching the map copied is given to the
+ * constructor. The strategy is passed in rather than taken from overridden methods,
+ * as the table is built before the constructor of a subclass could set up its fields.
+ * Subclasses can still override {@link #isEqualValue(Object, Object)}. All methods
+ * that would change the map throw {@link UnsupportedOperationException}.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @see AbstractHashedMap#freeze()
+ * @since 4.5
+ */
+public class FrozenHashedMap<K, V> extends AbstractMap<K, V> implements IterableMap<K, V>, Unmodifiable {
+
+    /** The keys, in internal converted form, and the values in turn */
+    private final Object[] entries;
+    /** The hash codes of the keys */
+    private final int[] hashes;
+    /** The index of an entry plus one for each slot, zero for a free slot */
+    private final int[] table;
+    /** The number of entries */
+    private final int size;
+    /** The strategy converting, hashing and comparing the keys */
+    private final KeyStrategy keyStrategy;
+
+    /**
+     * Constructs a map holding the mappings of the map specified, in its iteration order,
+     * with the keys converted, hashed and compared as in {@link HashedMap}.
+     *
+     * @param map  the map to copy
+     * @throws NullPointerException if the map is null
+     */
+    protected FrozenHashedMap(final Map<? extends K, ? extends V> map) {
+        this(map, KeyStrategy.DEFAULT);
+    }
+
+    /**
+     * Constructs a map holding the mappings of the map specified, in its iteration order,
+     * with the keys converted, hashed and compared by the strategy specified.
+     * <p>
+     * If several keys of the map specified convert to equal keys, the value
+     * of the last one is kept at the position of the first one.
+     *
+     * @param map  the map to copy
+     * @param keyStrategy  the strategy for the keys
+     * @throws NullPointerException if the map or the strategy is null
+     */
+    protected FrozenHashedMap(final Map<? extends K, ? extends V> map, final KeyStrategy keyStrategy) {
+        this.keyStrategy = Objects.requireNonNull(keyStrategy, "keyStrategy");
+        final int expected = map.size();
+        int capacity = 2;
+        while (capacity < expected << 1 && capacity < 1 << 30) {
+            capacity <<= 1;
+        }
+        final Object[] entries = new Object[expected << 1];
+        final int[] hashes = new int[expected];
+        final int[] table = new int[capacity];
+        int count = 0;
+        for (final Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            final Object key = keyStrategy.convertKey(entry.getKey());
+            final int hashCode = keyStrategy.hash(key);
+            int slot = hashCode & capacity - 1;
+            while (table[slot] != 0 && !isEqual(entries, hashes, table[slot] - 1, key, hashCode)) {
+                slot = slot + 1 & capacity - 1;
+            }
+            if (table[slot] != 0) {
+                entries[(table[slot] - 1 << 1) + 1] = entry.getValue();
+            } else {
+                entries[count << 1] = key;
+                entries[(count << 1) + 1] = entry.getValue();
+                hashes[count] = hashCode;
+                table[slot] = ++count;
+            }
+        }
+        this.entries = count == expected ? entries : Arrays.copyOf(entries, count << 1);
+        this.hashes = count == expected ? hashes : Arrays.copyOf(hashes, count);
+        this.table = table;
+        this.size = count;
+    }
+
+    private boolean isEqual(final Object[] entries, final int[] hashes, final int index, final Object key,
+            final int hashCode) {
+        return hashes[index] == hashCode && keyStrategy.isEqualKey(key, entries[index << 1]);
+    }
+
+    /**
+     * Gets the index of the entry for the key specified.
+     *
+     * @param key  the key, in external form
+     * @return the index, -1 if not found
+     */
+    private int indexOf(final Object key) {
+        final Object converted = keyStrategy.convertKey(key);
+        final int hashCode = keyStrategy.hash(converted);
+        final int[] table = this.table;
+        final int mask = table.length - 1;
+        int slot = hashCode & mask;
+        int found;
+        while ((found = table[slot]) != 0) {
+            if (isEqual(entries, hashes, found - 1, converted, hashCode)) {
+                return found - 1;
+            }
+            slot = slot + 1 & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Compares two values to see if they are equal.
+     * This implementation uses the equals method and assumes neither value is null.
+     *
+     * @param value1  the first value to compare passed in from outside
+     * @param value2  the second value stored in the map
+     * @return true if equal
+     */
+    protected boolean isEqualValue(final Object value1, final Object value2) {
+        return value1 == value2 || value1.equals(value2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private K getKey(final int index) {
+        final Object key = entries[index << 1];
+        return key == AbstractHashedMap.NULL ? null : (K) key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V getValue(final int index) {
+        return (V) entries[(index << 1) + 1];
+    }
+
+    /**
+     * Gets the value mapped to the key specified.
+     *
+     * @param key  the key
+     * @return the mapped value, null if no match
+     */
+    @Override
+    public V get(final Object key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : getValue(index);
+    }
+
+    /**
+     * Checks whether the map contains the specified key.
+     *
+     * @param key  the key to search for
+     * @return true if the map contains the key
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Checks whether the map contains the specified value.
+     *
+     * @param value  the value to search for
+     * @return true if the map contains the value
+     */
+    @Override
+    public boolean containsValue(final Object value) {
+        for (int i = 1; i < size << 1; i += 2) {
+            if (value == null ? entries[i] == null : entries[i] != null && isEqualValue(value, entries[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> map) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public V remove(final Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets an iterator over the map, in the iteration order of the map copied.
+     * The iterator does not support changes.
+     *
+     * @return the map iterator
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        return new FrozenMapIterator();
+    }
+
+    /**
+     * Gets the entrySet view of the map, in the iteration order of the map copied.
+     * The entries are created as the set is iterated.
+     *
+     * @return the entrySet view
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return UnmodifiableSet.unmodifiableSet(new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(final Object obj) {
+                if (!(obj instanceof Map.Entry)) {
+                    return false;
+                }
+                final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+                final int index = indexOf(entry.getKey());
+                if (index < 0) {
+                    return false;
+                }
+                final Object value = getValue(index);
+                return value == null ? entry.getValue() == null
+                        : entry.getValue() != null && isEqualValue(entry.getValue(), value);
+            }
+
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                final FrozenMapIterator it = new FrozenMapIterator();
+                return new Iterator<Map.Entry<K, V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<K, V> next() {
+                        it.next();
+                        return new UnmodifiableMapEntry<>(it.getKey(), it.getValue());
+                    }
+                };
+            }
+        });
+    }
+
+    /**
+     * Gets the keySet view of the map, in the iteration order of the map copied.
+     *
+     * @return the keySet view
+     */
+    @Override
+    public Set<K> keySet() {
+        return UnmodifiableSet.unmodifiableSet(super.keySet());
+    }
+
+    /**
+     * Gets the values view of the map, in the iteration order of the map copied.
+     *
+     * @return the values view
+     */
+    @Override
+    public Collection<V> values() {
+        return UnmodifiableCollection.unmodifiableCollection(super.values());
+    }
+
+    /**
+     * Converts, hashes and compares the keys of a {@link FrozenHashedMap}.
+     * <p>
+     * This implementation does so as {@link HashedMap} does. Subclasses override its
+     * methods to match a map that treats keys differently.
+     * </p>
+     *
+     * @since 4.5
+     */
+    public static class KeyStrategy {
+
+        /** The strategy of {@link HashedMap} */
+        static final KeyStrategy DEFAULT = new KeyStrategy();
+
+        /**
+         * Constructs a new strategy.
+         */
+        protected KeyStrategy() {
+        }
+
+        /**
+         * Converts input keys to another object for storage in the map.
+         * This implementation masks nulls.
+         *
+         * @param key  the key convert
+         * @return the converted key
+         */
+        protected Object convertKey(final Object key) {
+            return key == null ? AbstractHashedMap.NULL : key;
+        }
+
+        /**
+         * Gets the hash code for the key specified, in internal converted form.
+         * This implementation hashes as {@link AbstractHashedMap#hash(Object)} does.
+         *
+         * @param key  the key to get a hash code for
+         * @return the hash code
+         */
+        protected int hash(final Object key) {
+            return AbstractHashedMap.spread(key.hashCode());
+        }
+
+        /**
+         * Compares two keys, in internal converted form, to see if they are equal.
+         * This implementation uses the equals method and assumes neither key is null.
+         *
+         * @param key1  the first key to compare passed in from outside
+         * @param key2  the second key stored in the map
+         * @return true if equal
+         */
+        protected boolean isEqualKey(final Object key1, final Object key2) {
+            return key1 == key2 || key1.equals(key2);
+        }
+    }
+
+    /**
+     * Map iterator over the entry arrays.
+     */
+    private final class FrozenMapIterator implements MapIterator<K, V>, ResettableIterator<K> {
+        /** The index of the next entry */
+        private int nextIndex;
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+            }
+            return FrozenHashedMap.this.getKey(nextIndex++);
+        }
+
+        @Override
+        public K getKey() {
+            if (nextIndex == 0) {
+                throw new IllegalStateException(AbstractHashedMap.GETKEY_INVALID);
+            }
+            return FrozenHashedMap.this.getKey(nextIndex - 1);
+        }
+
+        @Override
+        public V getValue() {
+            if (nextIndex == 0) {
+                throw new IllegalStateException(AbstractHashedMap.GETVALUE_INVALID);
+            }
+            return FrozenHashedMap.this.getValue(nextIndex - 1);
+        }
+
+        @Override
+        public V setValue(final V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void reset() {
+            nextIndex = 0;
+        }
+
+        @Override
+        public String toString() {
+            if (nextIndex > 0) {
+                return "Iterator[" + getKey() + "=" + getValue() + "]";
+            }
+            return "Iterator[]";
+        }
+    }
+
+}
@@ -0,0 +1,833 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.collections4.IterableMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.ResettableIterator;
+import org.apache.commons.collections4.keyvalue.AbstractMapEntry;
+
+/**
+ * A {@code Map} implementation stored in a hash array mapped trie, which
+ * can take a snapshot of itself in constant time.
+ * <p>
+ * The trie consumes the hash code of a key five bits at a time. Each node
+ * holds a bitmap of the 32 possible branches in use and an array with a
+ * key and value, or a child node, per branch, so a lookup visits at most
+ * seven nodes and usually far fewer. Keys whose hash codes are equal are
+ * kept together in a collision node.
+ * </p>
+ * <p>
+ * Nodes are shared between a map and its snapshots. {@link #snapshot()}
+ * creates a map that shares the whole trie and gives both maps a new owner
+ * token, so that neither changes the shared nodes any more. An update then
+ * copies only the nodes on the path from the root to the changed entry, one
+ * per five bits of hash code used. Nodes created by the map are owned by it
+ * and changed in place, as a transient or builder would, so a batch of
+ * updates between two snapshots copies each shared node at most once.
+ * {@link #clone()} is the same as {@code snapshot()}.
+ * </p>
+ * <p>
+ * This map is useful when a consistent view is needed while updates carry
+ * on, for example a configuration read as a whole per request. The map and
+ * its snapshots are fully independent {@code HashTrieMap} instances that
+ * can each be changed; wrap a snapshot with
+ * {@link UnmodifiableMap#unmodifiableMap(Map)} to hand it out read only.
+ * </p>
+ * <p>
+ * Null keys and values are supported. The iteration order follows the hash
+ * codes of the keys and is not otherwise defined.
+ * </p>
+ * <p>
+ * <strong>Note that HashTrieMap is not synchronized and is not thread-safe.</strong>
+ * A snapshot never changes as the map it was taken from is updated, so once
+ * it has been safely published, for example through a {@code volatile} field,
+ * it may be read by other threads while that map is updated. Changes to one
+ * map from multiple threads must be synchronized.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @since 4.5
+ */
+public class HashTrieMap<K, V> extends AbstractMap<K, V> implements IterableMap<K, V>, Serializable, Cloneable {
+
+    /** Serialization version */
+    private static final long serialVersionUID = -4271406381722493528L;
+
+    /** The number of hash code bits used per level of the trie */
+    private static final int BITS = 5;
+
+    /** The maximum depth of the trie, seven bitmap levels and a collision node */
+    private static final int MAX_DEPTH = 8;
+
+    /** The marker returned by a lookup that finds no mapping */
+    private static final Object NOT_FOUND = new Object();
+
+    /** The shared empty root, owned by no map */
+    private static final Node EMPTY_ROOT = new BitmapNode(null, 0, new Object[0]);
+
+    /** The root node of the trie */
+    private transient Node root;
+    /** The number of mappings */
+    private transient int size;
+    /** Modification count for iterators */
+    private transient int modCount;
+    /** The token of the nodes this map may change in place */
+    private transient Object owner;
+
+    /**
+     * Constructs a new empty map.
+     */
+    public HashTrieMap() {
+        root = EMPTY_ROOT;
+        owner = new Object();
+    }
+
+    /**
+     * Constructor copying elements from another map.
+     *
+     * @param map  the map to copy
+     * @throws NullPointerException if the map is null
+     */
+    public HashTrieMap(final Map<? extends K, ? extends V> map) {
+        this();
+        putAll(map);
+    }
+
+    /**
+     * Converts input keys to another object for storage in the map.
+     * This implementation masks nulls.
+     *
+     * @param key  the key convert
+     * @return the converted key
+     */
+    static Object convertKey(final Object key) {
+        return key == null ? AbstractHashedMap.NULL : key;
+    }
+
+    /**
+     * Gets the hash code for the key specified, in internal converted form.
+     *
+     * @param key  the key to get a hash code for
+     * @return the hash code
+     */
+    static int hash(final Object key) {
+        return AbstractHashedMap.spread(key.hashCode());
+    }
+
+    /**
+     * Compares two keys, in internal converted form, to see if they are equal.
+     *
+     * @param key1  the first key to compare passed in from outside
+     * @param key2  the second key stored in the map
+     * @return true if equal
+     */
+    static boolean isEqualKey(final Object key1, final Object key2) {
+        return key1 == key2 || key1.equals(key2);
+    }
+
+    /**
+     * Gets the bit of the branch for a hash code at a level of the trie.
+     *
+     * @param hash  the hash code
+     * @param shift  the number of bits used by the levels above
+     * @return the bit in the bitmap
+     */
+    static int bitpos(final int hash, final int shift) {
+        return 1 << (hash >>> shift & 31);
+    }
+
+    /**
+     * Looks up the value of a key.
+     *
+     * @param key  the key, in external form
+     * @return the value, or {@link #NOT_FOUND} if the key is not mapped
+     */
+    private Object find(final Object key) {
+        final Object converted = convertKey(key);
+        final int hash = hash(converted);
+        Node node = root;
+        int shift = 0;
+        while (node instanceof BitmapNode) {
+            final int bit = bitpos(hash, shift);
+            final BitmapNode bitmapNode = (BitmapNode) node;
+            if ((bitmapNode.bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            final int index = bitmapNode.index(bit);
+            final Object stored = node.array[index];
+            if (stored != null) {
+                return isEqualKey(converted, stored) ? node.array[index + 1] : NOT_FOUND;
+            }
+            node = (Node) node.array[index + 1];
+            shift += BITS;
+        }
+        final CollisionNode collisionNode = (CollisionNode) node;
+        if (collisionNode.hash == hash) {
+            final int index = collisionNode.indexOf(converted);
+            if (index >= 0) {
+                return node.array[index + 1];
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Gets the value mapped to the key specified.
+     *
+     * @param key  the key
+     * @return the mapped value, null if no match
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        final Object value = find(key);
+        return value == NOT_FOUND ? null : (V) value;
+    }
+
+    /**
+     * Checks whether the map contains the specified key.
+     *
+     * @param key  the key to search for
+     * @return true if the map contains the key
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        return find(key) != NOT_FOUND;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Puts a key-value mapping into this map, copying the nodes on its path
+     * that are shared with a snapshot.
+     *
+     * @param key  the key to add
+     * @param value  the value to add
+     * @return the value previously mapped to this key, null if none
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(final K key, final V value) {
+        final Object converted = convertKey(key);
+        final Result result = new Result();
+        root = root.put(owner, 0, hash(converted), converted, value, result);
+        if (result.changed) {
+            size++;
+            modCount++;
+        }
+        return (V) result.oldValue;
+    }
+
+    /**
+     * Removes the specified mapping from this map, copying the nodes on its
+     * path that are shared with a snapshot.
+     *
+     * @param key  the mapping to remove
+     * @return the value mapped to the removed key, null if key not in map
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(final Object key) {
+        final Object converted = convertKey(key);
+        final Result result = new Result();
+        final Node node = root.remove(owner, 0, hash(converted), converted, result);
+        if (result.changed) {
+            root = node == null ? EMPTY_ROOT : node;
+            size--;
+            modCount++;
+        }
+        return (V) result.oldValue;
+    }
+
+    /**
+     * Clears the map, leaving the nodes shared with snapshots untouched.
+     */
+    @Override
+    public void clear() {
+        modCount++;
+        root = EMPTY_ROOT;
+        size = 0;
+    }
+
+    /**
+     * Takes a snapshot of this map in constant time.
+     * <p>
+     * The snapshot shares all nodes with this map. From now on, neither map
+     * changes the shared nodes, so updates to one are not seen by the other.
+     *
+     * @return a new map holding the current mappings of this map
+     */
+    @SuppressWarnings("unchecked")
+    public HashTrieMap<K, V> snapshot() {
+        final HashTrieMap<K, V> copy;
+        try {
+            copy = (HashTrieMap<K, V>) super.clone();
+        } catch (final CloneNotSupportedException ex) {
+            throw new UnsupportedOperationException(ex);
+        }
+        copy.owner = new Object();
+        copy.modCount = 0;
+        owner = new Object();
+        return copy;
+    }
+
+    /**
+     * Clones the map in constant time, as {@link #snapshot()} does.
+     *
+     * @return a shallow clone
+     */
+    @Override
+    public HashTrieMap<K, V> clone() {
+        return snapshot();
+    }
+
+    /**
+     * Gets an iterator over the map.
+     * Changes made to the iterator affect this map.
+     *
+     * @return the map iterator
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        return new TrieMapIterator();
+    }
+
+    /**
+     * Gets the entrySet view of the map.
+     * Changes made to the view affect this map.
+     * The entries are created as the set is iterated.
+     *
+     * @return the entrySet view
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                HashTrieMap.this.clear();
+            }
+
+            @Override
+            public boolean contains(final Object obj) {
+                if (!(obj instanceof Map.Entry)) {
+                    return false;
+                }
+                final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+                final Object value = find(entry.getKey());
+                return value != NOT_FOUND && Objects.equals(value, entry.getValue());
+            }
+
+            @Override
+            public boolean remove(final Object obj) {
+                if (!contains(obj)) {
+                    return false;
+                }
+                HashTrieMap.this.remove(((Map.Entry<?, ?>) obj).getKey());
+                return true;
+            }
+
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new EntrySetIterator();
+            }
+        };
+    }
+
+    /**
+     * Result of an update of the trie.
+     */
+    static final class Result {
+        /** The value previously mapped to the key */
+        Object oldValue;
+        /** Whether a mapping was added or removed */
+        boolean changed;
+    }
+
+    /**
+     * Node of the trie. The array holds a key and a value in turn, where a
+     * null key marks a child node in place of the value.
+     */
+    abstract static class Node {
+        /** The token of the map that may change this node in place */
+        final Object owner;
+        /** The keys, in internal converted form, and the values or child nodes */
+        Object[] array;
+
+        Node(final Object owner, final Object[] array) {
+            this.owner = owner;
+            this.array = array;
+        }
+
+        abstract Node put(Object owner, int shift, int hash, Object key, Object value, Result result);
+
+        abstract Node remove(Object owner, int shift, int hash, Object key, Result result);
+    }
+
+    /**
+     * Node holding one entry or child node per bit set in its bitmap.
+     */
+    static final class BitmapNode extends Node {
+        /** The branches in use */
+        int bitmap;
+
+        BitmapNode(final Object owner, final int bitmap, final Object[] array) {
+            super(owner, array);
+            this.bitmap = bitmap;
+        }
+
+        /**
+         * Gets the index in the array of the key for a branch.
+         *
+         * @param bit  the bit of the branch
+         * @return the array index
+         */
+        int index(final int bit) {
+            return Integer.bitCount(bitmap & bit - 1) << 1;
+        }
+
+        private BitmapNode editable(final Object owner) {
+            return this.owner == owner ? this : new BitmapNode(owner, bitmap, array.clone());
+        }
+
+        @Override
+        Node put(final Object owner, final int shift, final int hash, final Object key, final Object value,
+                final Result result) {
+            final int bit = bitpos(hash, shift);
+            final int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                final Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, index);
+                newArray[index] = key;
+                newArray[index + 1] = value;
+                System.arraycopy(array, index, newArray, index + 2, array.length - index);
+                result.changed = true;
+                if (this.owner == owner) {
+                    bitmap |= bit;
+                    array = newArray;
+                    return this;
+                }
+                return new BitmapNode(owner, bitmap | bit, newArray);
+            }
+            final Object stored = array[index];
+            final Object storedValue = array[index + 1];
+            final Object newValue;
+            if (stored == null) {
+                final Node child = (Node) storedValue;
+                newValue = child.put(owner, shift + BITS, hash, key, value, result);
+            } else if (isEqualKey(key, stored)) {
+                result.oldValue = storedValue;
+                newValue = value;
+            } else {
+                result.changed = true;
+                final BitmapNode node = editable(owner);
+                node.array[index] = null;
+                node.array[index + 1] = createNode(owner, shift + BITS, stored, storedValue, hash, key, value);
+                return node;
+            }
+            if (newValue == storedValue) {
+                return this;
+            }
+            final BitmapNode node = editable(owner);
+            node.array[index + 1] = newValue;
+            return node;
+        }
+
+        @Override
+        Node remove(final Object owner, final int shift, final int hash, final Object key, final Result result) {
+            final int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            final int index = index(bit);
+            final Object stored = array[index];
+            if (stored == null) {
+                final Node child = (Node) array[index + 1];
+                final Node newChild = child.remove(owner, shift + BITS, hash, key, result);
+                if (newChild == child) {
+                    return this;
+                }
+                if (newChild != null) {
+                    final BitmapNode node = editable(owner);
+                    if (newChild.array.length == 2 && newChild.array[0] != null) {
+                        // a single entry left in the child moves up into this node
+                        node.array[index] = newChild.array[0];
+                        node.array[index + 1] = newChild.array[1];
+                    } else {
+                        node.array[index + 1] = newChild;
+                    }
+                    return node;
+                }
+            } else if (isEqualKey(key, stored)) {
+                result.oldValue = array[index + 1];
+                result.changed = true;
+            } else {
+                return this;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            final Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, index);
+            System.arraycopy(array, index + 2, newArray, index, newArray.length - index);
+            if (this.owner == owner) {
+                bitmap ^= bit;
+                array = newArray;
+                return this;
+            }
+            return new BitmapNode(owner, bitmap ^ bit, newArray);
+        }
+
+        /**
+         * Creates the node holding two entries that share a branch.
+         */
+        private static Node createNode(final Object owner, final int shift, final Object key1, final Object value1,
+                final int hash2, final Object key2, final Object value2) {
+            final int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(owner, hash1, new Object[] {key1, value1, key2, value2});
+            }
+            final Result result = new Result();
+            return new BitmapNode(owner, 0, new Object[0])
+                    .put(owner, shift, hash1, key1, value1, result)
+                    .put(owner, shift, hash2, key2, value2, result);
+        }
+    }
+
+    /**
+     * Node holding the entries of keys whose hash codes are equal.
+     */
+    static final class CollisionNode extends Node {
+        /** The hash code of all keys */
+        final int hash;
+
+        CollisionNode(final Object owner, final int hash, final Object[] array) {
+            super(owner, array);
+            this.hash = hash;
+        }
+
+        /**
+         * Gets the index in the array of a key.
+         *
+         * @param key  the key, in internal converted form
+         * @return the array index, -1 if not found
+         */
+        int indexOf(final Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (isEqualKey(key, array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Node put(final Object owner, final int shift, final int hash, final Object key, final Object value,
+                final Result result) {
+            if (hash != this.hash) {
+                return new BitmapNode(owner, bitpos(this.hash, shift), new Object[] {null, this})
+                        .put(owner, shift, hash, key, value, result);
+            }
+            final int index = indexOf(key);
+            if (index >= 0) {
+                result.oldValue = array[index + 1];
+                if (value == array[index + 1]) {
+                    return this;
+                }
+                final Object[] newArray = this.owner == owner ? array : array.clone();
+                newArray[index + 1] = value;
+                return newArray == array ? this : new CollisionNode(owner, hash, newArray);
+            }
+            result.changed = true;
+            final Object[] newArray = Arrays.copyOf(array, array.length + 2);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            if (this.owner == owner) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(owner, hash, newArray);
+        }
+
+        @Override
+        Node remove(final Object owner, final int shift, final int hash, final Object key, final Result result) {
+            final int index = hash == this.hash ? indexOf(key) : -1;
+            if (index < 0) {
+                return this;
+            }
+            result.oldValue = array[index + 1];
+            result.changed = true;
+            if (array.length == 2) {
+                return null;
+            }
+            final Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, index);
+            System.arraycopy(array, index + 2, newArray, index, newArray.length - index);
+            if (this.owner == owner) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(owner, hash, newArray);
+        }
+    }
+
+    /**
+     * Base iterator, walking the trie depth first.
+     * <p>
+     * The iterator keeps the arrays it walks, so it is not affected when an
+     * update replaces the array of a node it has reached.
+     */
+    abstract class TrieIterator {
+        /** The arrays of the nodes on the current path */
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+        /** The index of the next key in each array */
+        private final int[] positions = new int[MAX_DEPTH];
+        /** The depth of the current node, -1 once the walk is done */
+        private int depth;
+        /** The next key, null if none */
+        private Object nextKey;
+        /** The next value */
+        private Object nextValue;
+        /** The last returned key, null if none */
+        private Object currentKey;
+        /** The last returned value */
+        private Object currentValue;
+        /** The modification count expected */
+        private int expectedModCount;
+
+        TrieIterator() {
+            reset();
+        }
+
+        public void reset() {
+            arrays[0] = root.array;
+            positions[0] = 0;
+            depth = 0;
+            currentKey = null;
+            currentValue = null;
+            expectedModCount = modCount;
+            advance();
+        }
+
+        private void advance() {
+            while (depth >= 0) {
+                final Object[] array = arrays[depth];
+                final int position = positions[depth];
+                if (position >= array.length) {
+                    arrays[depth--] = null;
+                    continue;
+                }
+                positions[depth] = position + 2;
+                if (array[position] != null) {
+                    nextKey = array[position];
+                    nextValue = array[position + 1];
+                    return;
+                }
+                arrays[++depth] = ((Node) array[position + 1]).array;
+                positions[depth] = 0;
+            }
+            nextKey = null;
+            nextValue = null;
+        }
+
+        public boolean hasNext() {
+            return nextKey != null;
+        }
+
+        protected void nextEntry() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (nextKey == null) {
+                throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+            }
+            currentKey = nextKey;
+            currentValue = nextValue;
+            advance();
+        }
+
+        protected boolean hasCurrent() {
+            return currentKey != null;
+        }
+
+        @SuppressWarnings("unchecked")
+        protected K currentKey() {
+            return currentKey == AbstractHashedMap.NULL ? null : (K) currentKey;
+        }
+
+        @SuppressWarnings("unchecked")
+        protected V currentValue() {
+            return (V) currentValue;
+        }
+
+        protected V setCurrentValue(final V value) {
+            final V old = currentValue();
+            put(currentKey(), value);
+            currentValue = value;
+            return old;
+        }
+
+        public void remove() {
+            if (currentKey == null) {
+                throw new IllegalStateException(AbstractHashedMap.REMOVE_INVALID);
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            HashTrieMap.this.remove(currentKey());
+            currentKey = null;
+            currentValue = null;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public String toString() {
+            if (currentKey != null) {
+                return "Iterator[" + currentKey() + "=" + currentValue() + "]";
+            }
+            return "Iterator[]";
+        }
+    }
+
+    /**
+     * MapIterator implementation.
+     */
+    final class TrieMapIterator extends TrieIterator implements MapIterator<K, V>, ResettableIterator<K> {
+
+        @Override
+        public K next() {
+            nextEntry();
+            return currentKey();
+        }
+
+        @Override
+        public K getKey() {
+            if (!hasCurrent()) {
+                throw new IllegalStateException(AbstractHashedMap.GETKEY_INVALID);
+            }
+            return currentKey();
+        }
+
+        @Override
+        public V getValue() {
+            if (!hasCurrent()) {
+                throw new IllegalStateException(AbstractHashedMap.GETVALUE_INVALID);
+            }
+            return currentValue();
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (!hasCurrent()) {
+                throw new IllegalStateException(AbstractHashedMap.SETVALUE_INVALID);
+            }
+            return setCurrentValue(value);
+        }
+    }
+
+    /**
+     * EntrySet iterator.
+     */
+    final class EntrySetIterator extends TrieIterator implements Iterator<Map.Entry<K, V>> {
+
+        @Override
+        public Map.Entry<K, V> next() {
+            nextEntry();
+            return new TrieEntry(currentKey(), currentValue());
+        }
+    }
+
+    /**
+     * Entry returned by the entrySet iterator, writing values through to the map.
+     */
+    final class TrieEntry extends AbstractMapEntry<K, V> {
+
+        TrieEntry(final K key, final V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(final V value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+
+    /**
+     * Writes the map out using a custom routine.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (final MapIterator<?, ?> it = mapIterator(); it.hasNext();) {
+            out.writeObject(it.next());  // key
+            out.writeObject(it.getValue());  // value
+        }
+    }
+
+    /**
+     * Reads the map in using a custom routine.
+     *
+     * @param in the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream cannot be loaded
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        root = EMPTY_ROOT;
+        owner = new Object();
+        final int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            final K key = (K) in.readObject();
+            final V value = (V) in.readObject();
+            put(key, value);
+        }
+    }
+
+}
@@ -344,7 +344,9 @@ public class LRUMap<K, V>
                         " key=" + key + " value=" + value + " size=" + size + " maxSize=" + maxSize +
                         " This should not occur if your keys are immutable and you used synchronization properly.");
                 }
-                reuseMapping(reuse, hashIndex, hashCode, key, value);
+                if (isAdmitted(reuse, key)) {
+                    reuseMapping(reuse, hashIndex, hashCode, key, value);
+                }
             } else {
                 super.addMapping(hashIndex, hashCode, key, value);
             }
@@ -353,6 +355,21 @@ public class LRUMap<K, V>
         }
     }
 
+    /**
+     * Decides whether a new key may replace the entry chosen for removal when the
+     * map is full. This is only called once {@link #removeLRU(LinkEntry)} agreed to
+     * remove the entry; if it returns false, the new mapping is discarded.
+     * <p>
+     * This implementation always returns true.
+     *
+     * @param entry  the entry chosen for removal
+     * @param key  the key of the new mapping
+     * @return true to replace the entry, false to keep it and discard the new mapping
+     */
+    boolean isAdmitted(final LinkEntry<K, V> entry, final K key) {
+        return true;
+    }
+
     /**
      * Reuses an entry by removing it and moving it to a new place in the map.
      * <p>
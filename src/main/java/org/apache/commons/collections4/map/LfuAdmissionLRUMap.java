@@ -0,0 +1,317 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An {@link LRUMap} that only lets a new key replace the least recently used entry
+ * if the new key is used more frequently, an eviction policy known as TinyLFU.
+ * <p>
+ * A plain {@link LRUMap} admits every new key, so a scan over many keys that are
+ * used only once flushes out the entries that are used all the time. This map keeps
+ * a compact, approximate history of how often each key was used, including keys that
+ * are not or no longer in the map. When the map is full and a new key is added, its
+ * frequency is compared to that of the least recently used entry: the new mapping
+ * replaces that entry only if its key is the more frequent one, otherwise the new
+ * mapping is discarded and the map is left unchanged. A key therefore has to be
+ * requested a few times before it can displace a hot entry.
+ * </p>
+ * <p>
+ * The entry to compare with is chosen exactly as {@link LRUMap} chooses the entry
+ * to remove, so {@link #removeLRU(LinkEntry)} and the {@code scanUntilRemovable}
+ * option are honored. If {@code removeLRU} keeps every entry it is asked about, the
+ * new mapping is added without any comparison. Note that {@code removeLRU} may
+ * agree to remove an entry that is then kept, because the new key is rejected.
+ * </p>
+ * <p>
+ * The history is a count-min sketch of 4-bit counters, using about eight bytes per
+ * entry of the maximum size, which is halved periodically so that it favors recent
+ * frequency. It counts each {@link #get(Object)} of a key, whether or not the key is
+ * mapped, and each {@link #put(Object, Object)}. The history is copied by
+ * {@link #clone()} but is not serialized.
+ * </p>
+ * <p>
+ * <strong>Note that LfuAdmissionLRUMap is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @see LRUMap
+ * @since 4.5
+ */
+public class LfuAdmissionLRUMap<K, V> extends LRUMap<K, V> {
+
+    /** Serialisation version */
+    private static final long serialVersionUID = 3374268418164227384L;
+
+    /** Frequency history of the keys, created lazily */
+    private transient FrequencySketch sketch;
+
+    /**
+     * Constructs a new empty map with a maximum size of 100.
+     */
+    public LfuAdmissionLRUMap() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructs a new, empty map with the specified maximum size.
+     *
+     * @param maxSize  the maximum size of the map
+     * @throws IllegalArgumentException if the maximum size is less than one
+     */
+    public LfuAdmissionLRUMap(final int maxSize) {
+        super(maxSize);
+    }
+
+    /**
+     * Constructs a new, empty map with the specified maximum size.
+     *
+     * @param maxSize  the maximum size of the map
+     * @param scanUntilRemovable  scan until a removable entry is found, default false
+     * @throws IllegalArgumentException if the maximum size is less than one
+     */
+    public LfuAdmissionLRUMap(final int maxSize, final boolean scanUntilRemovable) {
+        super(maxSize, scanUntilRemovable);
+    }
+
+    /**
+     * Constructor copying elements from another map.
+     * <p>
+     * The maximum size is set from the map's size.
+     *
+     * @param map  the map to copy
+     * @throws NullPointerException if the map is null
+     * @throws IllegalArgumentException if the map is empty
+     */
+    public LfuAdmissionLRUMap(final Map<? extends K, ? extends V> map) {
+        super(map);
+    }
+
+    /**
+     * Initialize this subclass during construction, cloning or deserialization.
+     */
+    @Override
+    protected void init() {
+        super.init();
+        sketch = null;
+    }
+
+    /**
+     * Gets the value mapped to the key specified.
+     * <p>
+     * If {@code updateToMRU} is {@code true}, the use of the key is also recorded
+     * in the frequency history, even if it is not mapped.
+     *
+     * @param key  the key
+     * @param updateToMRU  whether the key shall be updated to the
+     *   most recently used position
+     * @return the mapped value, null if no match
+     */
+    @Override
+    public V get(final Object key, final boolean updateToMRU) {
+        if (updateToMRU) {
+            sketch().increment(key);
+        }
+        return super.get(key, updateToMRU);
+    }
+
+    /**
+     * Updates an existing key-value mapping, recording the use of the key.
+     *
+     * @param entry  the entry to update
+     * @param newValue  the new value to store
+     */
+    @Override
+    protected void updateEntry(final HashEntry<K, V> entry, final V newValue) {
+        sketch().increment(entry.getKey());
+        super.updateEntry(entry, newValue);
+    }
+
+    /**
+     * Adds a new key-value mapping into this map, recording the use of the key.
+     * <p>
+     * If the map is full, the entry to remove is chosen as by {@link LRUMap},
+     * and the new mapping is discarded unless its key is used more frequently.
+     *
+     * @param hashIndex  the index into the data array to store at
+     * @param hashCode  the hash code of the key to add
+     * @param key  the key to add
+     * @param value  the value to add
+     */
+    @Override
+    protected void addMapping(final int hashIndex, final int hashCode, final K key, final V value) {
+        sketch().increment(key);
+        super.addMapping(hashIndex, hashCode, key, value);
+    }
+
+    /**
+     * Admits a new key in place of the entry chosen for removal only if the key
+     * is used more frequently.
+     *
+     * @param entry  the entry chosen for removal
+     * @param key  the key of the new mapping
+     * @return true if the key is the more frequent one
+     */
+    @Override
+    boolean isAdmitted(final LinkEntry<K, V> entry, final K key) {
+        final FrequencySketch frequencies = sketch();
+        return frequencies.frequency(key) > frequencies.frequency(entry.getKey());
+    }
+
+    /**
+     * Gets the estimated number of recent uses of a key, mapped or not.
+     *
+     * @param key  the key
+     * @return the estimated frequency, from 0 to 15
+     */
+    public int frequency(final Object key) {
+        return sketch().frequency(key);
+    }
+
+    /**
+     * Gets the frequency history, creating it once the maximum size is known.
+     *
+     * @return the frequency history
+     */
+    private FrequencySketch sketch() {
+        if (sketch == null) {
+            sketch = new FrequencySketch(maxSize());
+        }
+        return sketch;
+    }
+
+    /**
+     * Clones the map without cloning the keys or values.
+     * The clone starts with a copy of the frequency history.
+     *
+     * @return a shallow clone
+     */
+    @Override
+    public LfuAdmissionLRUMap<K, V> clone() {
+        final LfuAdmissionLRUMap<K, V> cloned = (LfuAdmissionLRUMap<K, V>) super.clone();
+        cloned.sketch = sketch == null ? null : new FrequencySketch(sketch);
+        return cloned;
+    }
+
+    /**
+     * A count-min sketch of 4-bit counters estimating how often keys were used.
+     * <p>
+     * Each long of the table holds sixteen counters. A key selects one counter in each
+     * of four longs, one per hash function, and its frequency is the smallest of the four.
+     * Once ten times the maximum size of the map has been counted, all counters are halved.
+     */
+    static final class FrequencySketch {
+        /** Seeds of the four hash functions */
+        private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+        /** Clears the high bit of each counter after a shift */
+        private static final long RESET_MASK = 0x7777777777777777L;
+        /** Selects the low bit of each counter */
+        private static final long ONE_MASK = 0x1111111111111111L;
+
+        /** The counters */
+        private final long[] table;
+        /** Number of increments after which the counters are halved */
+        private final int sampleSize;
+        /** Number of increments since the counters were last halved */
+        private int size;
+
+        FrequencySketch(final int maxSize) {
+            int length = 8;
+            while (length < maxSize && length < 1 << 30) {
+                length <<= 1;
+            }
+            table = new long[length];
+            sampleSize = (int) Math.min(10L * maxSize, Integer.MAX_VALUE);
+        }
+
+        FrequencySketch(final FrequencySketch sketch) {
+            table = sketch.table.clone();
+            sampleSize = sketch.sampleSize;
+            size = sketch.size;
+        }
+
+        /**
+         * Gets the estimated frequency of a key.
+         *
+         * @param key  the key
+         * @return the smallest of its counters
+         */
+        int frequency(final Object key) {
+            final int hash = spread(Objects.hashCode(key));
+            final int start = (hash & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                final int offset = start + i << 2;
+                frequency = Math.min(frequency, (int) (table[indexOf(hash, i)] >>> offset & 0xfL));
+            }
+            return frequency;
+        }
+
+        /**
+         * Increments the counters of a key unless they are saturated.
+         *
+         * @param key  the key
+         */
+        void increment(final Object key) {
+            final int hash = spread(Objects.hashCode(key));
+            final int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                final int index = indexOf(hash, i);
+                final int offset = start + i << 2;
+                if ((table[index] >>> offset & 0xfL) != 0xfL) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++size == sampleSize) {
+                reset();
+            }
+        }
+
+        /**
+         * Halves every counter, so that old uses count less than recent ones.
+         */
+        private void reset() {
+            int odd = 0;
+            for (int i = 0; i < table.length; i++) {
+                odd += Long.bitCount(table[i] & ONE_MASK);
+                table[i] = table[i] >>> 1 & RESET_MASK;
+            }
+            size = (size >>> 1) - (odd >>> 2);
+        }
+
+        private int indexOf(final int hash, final int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & table.length - 1;
+        }
+
+        private static int spread(int x) {
+            x = (x >>> 16 ^ x) * 0x45d9f3b;
+            x = (x >>> 16 ^ x) * 0x45d9f3b;
+            return x >>> 16 ^ x;
+        }
+    }
+
+}
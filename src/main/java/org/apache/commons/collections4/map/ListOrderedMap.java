@@ -19,18 +19,24 @@ package org.apache.commons.collections4.map;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.AbstractList;
 import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import org.apache.commons.collections4.OrderedMap;
 import org.apache.commons.collections4.OrderedMapIterator;
@@ -61,17 +67,21 @@ import org.apache.commons.collections4.list.UnmodifiableList;
  * exceptions when accessed by concurrent threads without synchronization.
  * </p>
  * <p>
- * <strong>Note that ListOrderedMap doesn't work with
- * {@link java.util.IdentityHashMap IdentityHashMap}, {@link CaseInsensitiveMap},
- * or similar maps that violate the general contract of {@link java.util.Map}.</strong>
- * The {@code ListOrderedMap} (or, more precisely, the underlying {@code List})
- * is relying on {@link Object#equals(Object) equals()}. This is fine, as long as the
- * decorated {@code Map} is also based on {@link Object#equals(Object) equals()},
- * and {@link Object#hashCode() hashCode()}, which
- * {@link java.util.IdentityHashMap IdentityHashMap}, and
- * {@link CaseInsensitiveMap} don't: The former uses {@code ==}, and
- * the latter uses {@link Object#equals(Object) equals()} on a lower-cased
- * key.
+ * The position of each key in the underlying {@code List} is looked up with the
+ * same key equality as the decorated map uses when it is an
+ * {@link java.util.IdentityHashMap IdentityHashMap}, a {@link CaseInsensitiveMap}
+ * or a {@link SortedMap}, and with {@link Object#equals(Object) equals()} and
+ * {@link Object#hashCode() hashCode()} otherwise.
+ * <strong>Note that ListOrderedMap doesn't work with other maps that violate the
+ * general contract of {@link java.util.Map}</strong>, such as a decorator of an
+ * {@code IdentityHashMap}, as two keys the decorated map holds apart may then share
+ * a position.
+ * </p>
+ * <p>
+ * The position of each key is indexed, so that {@link #indexOf(Object)},
+ * {@link #get(int)}, {@link #nextKey(Object)}, {@link #previousKey(Object)} and
+ * the removal of a key take O(log n) time. Inserting a key at an index other
+ * than the end with {@link #put(int, Object, Object)} takes O(n) time.
  * </p>
  * <p>
  * This class is {@link Serializable} starting with Commons Collections 3.1.
@@ -88,13 +98,21 @@ public class ListOrderedMap<K, V>
     /** Serialization version */
     private static final long serialVersionUID = 2728177751851003750L;
 
+    /**
+     * The serialized form, which stores the sequence of keys in a {@code List}
+     * as older versions did.
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("insertOrder", List.class)
+    };
+
     /** Internal list to hold the sequence of objects */
-    private final List<K> insertOrder = new ArrayList<>();
+    private transient IndexedKeyList<K> insertOrder;
 
     /**
      * Factory method to create an ordered map.
      * <p>
-     * An {@code ArrayList} is used to retain order.
+     * An indexed list is used to retain order.
      *
      * @param <K>  the key type
      * @param <V>  the value type
@@ -125,6 +143,7 @@ public class ListOrderedMap<K, V>
      */
     protected ListOrderedMap(final Map<K, V> map) {
         super(map);
+        insertOrder = new IndexedKeyList<>(map);
         insertOrder.addAll(decorated().keySet());
     }
 
@@ -136,7 +155,9 @@ public class ListOrderedMap<K, V>
      * @since 3.1
      */
     private void writeObject(final ObjectOutputStream out) throws IOException {
-        out.defaultWriteObject();
+        final ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("insertOrder", new ArrayList<>(insertOrder));
+        out.writeFields();
         out.writeObject(map);
     }
 
@@ -150,8 +171,11 @@ public class ListOrderedMap<K, V>
      */
     @SuppressWarnings("unchecked") // (1) should only fail if input stream is incorrect
     private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
-        in.defaultReadObject();
+        final ObjectInputStream.GetField fields = in.readFields();
+        final List<K> keys = (List<K>) fields.get("insertOrder", null); // (1)
         map = (Map<K, V>) in.readObject(); // (1)
+        insertOrder = new IndexedKeyList<>(map);
+        insertOrder.addAll(keys);
     }
 
     // Implement OrderedMap
@@ -190,7 +214,7 @@ public class ListOrderedMap<K, V>
 
     /**
      * Gets the next key to the one specified using insert order.
-     * This method performs a list search to find the key and is O(n).
+     * This method looks up the position of the key and is O(log n).
      *
      * @param key  the key to find previous for
      * @return the next key, null if no match or at start
@@ -206,7 +230,7 @@ public class ListOrderedMap<K, V>
 
     /**
      * Gets the previous key to the one specified using insert order.
-     * This method performs a list search to find the key and is O(n).
+     * This method looks up the position of the key and is O(log n).
      *
      * @param key  the key to find previous for
      * @return the previous key, null if no match or at start
@@ -500,6 +524,360 @@ public class ListOrderedMap<K, V>
         return keyList();
     }
 
+    /**
+     * List of the keys in insert order, indexing the position of each key.
+     * <p>
+     * The keys are stored in an array of slots in order, where a removed key leaves
+     * a hole, and a Fenwick tree over the slots counts the keys before each slot.
+     * A map from each key to its slot then gives the index of a key, and the tree
+     * gives the slot of an index, both in O(log n). The holes are compacted away when
+     * the array is full or mostly empty.
+     * <p>
+     * The map of slots compares keys as the decorated map does, so that each key of
+     * the decorated map has exactly one slot.
+     *
+     * @param <K> the type of the keys
+     */
+    static final class IndexedKeyList<K> extends AbstractList<K> {
+        /** The initial and minimum number of slots */
+        private static final int MIN_CAPACITY = 16;
+        /** Marks a slot whose key was removed */
+        private static final Object HOLE = new Object();
+
+        /** The keys in order, or holes */
+        private Object[] slots = new Object[MIN_CAPACITY];
+        /** The Fenwick tree counting the keys in the slots, indexed from 1 */
+        private int[] counts = new int[MIN_CAPACITY + 1];
+        /** The slot of each key */
+        private final Map<Object, Integer> positions;
+        /** The number of slots in use, keys or holes */
+        private int used;
+
+        /**
+         * Constructs an empty list for the keys of a map.
+         *
+         * @param map  the decorated map, whose key equality the positions follow
+         */
+        @SuppressWarnings("unchecked")
+        IndexedKeyList(final Map<?, ?> map) {
+            if (map instanceof IdentityHashMap) {
+                positions = new IdentityHashMap<>();
+            } else if (map instanceof CaseInsensitiveMap) {
+                positions = new CaseInsensitiveMap<>();
+            } else if (map instanceof SortedMap) {
+                positions = new TreeMap<>((Comparator<Object>) ((SortedMap<?, ?>) map).comparator());
+            } else {
+                positions = new HashMap<>();
+            }
+        }
+
+        @Override
+        public int size() {
+            return positions.size();
+        }
+
+        @Override
+        public boolean contains(final Object key) {
+            return positions.containsKey(key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K get(final int index) {
+            checkIndex(index, size() - 1);
+            return (K) slots[slotOf(index)];
+        }
+
+        @Override
+        public int indexOf(final Object key) {
+            final Integer slot = positions.get(key);
+            return slot == null ? -1 : countBefore(slot.intValue());
+        }
+
+        @Override
+        public int lastIndexOf(final Object key) {
+            return indexOf(key);
+        }
+
+        @Override
+        public boolean add(final K key) {
+            if (used == slots.length) {
+                // double the slots unless compacting frees at least half of them
+                rebuild(used - size() >= used >> 1 ? slots.length : slots.length << 1, -1, null);
+            }
+            slots[used] = key;
+            positions.put(key, Integer.valueOf(used));
+            increment(used, 1);
+            used++;
+            modCount++;
+            return true;
+        }
+
+        @Override
+        public void add(final int index, final K key) {
+            checkIndex(index, size());
+            if (index == size()) {
+                add(key);
+            } else {
+                rebuild(Math.max(MIN_CAPACITY, size() + 1 << 1), index, key);
+                modCount++;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K remove(final int index) {
+            checkIndex(index, size() - 1);
+            final int slot = slotOf(index);
+            final K key = (K) slots[slot];
+            positions.remove(key);
+            removeSlot(slot);
+            return key;
+        }
+
+        @Override
+        public boolean remove(final Object key) {
+            final Integer slot = positions.remove(key);
+            if (slot == null) {
+                return false;
+            }
+            removeSlot(slot.intValue());
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            slots = new Object[MIN_CAPACITY];
+            counts = new int[MIN_CAPACITY + 1];
+            positions.clear();
+            used = 0;
+            modCount++;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return new IndexedKeyListIterator(0);
+        }
+
+        @Override
+        public ListIterator<K> listIterator() {
+            return new IndexedKeyListIterator(0);
+        }
+
+        @Override
+        public ListIterator<K> listIterator(final int index) {
+            checkIndex(index, size());
+            return new IndexedKeyListIterator(index);
+        }
+
+        private void checkIndex(final int index, final int max) {
+            if (index < 0 || index > max) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+        }
+
+        /**
+         * Empties a slot whose key was removed from the positions.
+         *
+         * @param slot  the slot to empty
+         */
+        private void removeSlot(final int slot) {
+            slots[slot] = HOLE;
+            increment(slot, -1);
+            modCount++;
+            if (slots.length > MIN_CAPACITY && size() < used >> 2) {
+                rebuild(Math.max(MIN_CAPACITY, size() << 1), -1, null);
+            }
+        }
+
+        /**
+         * Copies the keys into new slots without holes, optionally inserting a key,
+         * and rebuilds the tree and the positions.
+         *
+         * @param capacity  the new number of slots, greater than the number of keys
+         * @param index  the index to insert the key at, -1 for none
+         * @param key  the key to insert
+         */
+        private void rebuild(final int capacity, final int index, final K key) {
+            final Object[] newSlots = new Object[capacity];
+            int count = 0;
+            for (int slot = 0; slot < used; slot++) {
+                if (count == index) {
+                    newSlots[count++] = key;
+                }
+                if (slots[slot] != HOLE) {
+                    newSlots[count++] = slots[slot];
+                }
+            }
+            if (count == index) {
+                newSlots[count++] = key;
+            }
+            final int[] newCounts = new int[capacity + 1];
+            for (int i = 1; i <= capacity; i++) {
+                if (i <= count) {
+                    newCounts[i]++;
+                }
+                final int parent = i + (i & -i);
+                if (parent <= capacity) {
+                    newCounts[parent] += newCounts[i];
+                }
+            }
+            for (int slot = 0; slot < count; slot++) {
+                positions.put(newSlots[slot], Integer.valueOf(slot));
+            }
+            slots = newSlots;
+            counts = newCounts;
+            used = count;
+        }
+
+        /**
+         * Adds to the count of keys in a slot.
+         *
+         * @param slot  the slot
+         * @param delta  the change in the count
+         */
+        private void increment(final int slot, final int delta) {
+            for (int i = slot + 1; i < counts.length; i += i & -i) {
+                counts[i] += delta;
+            }
+        }
+
+        /**
+         * Counts the keys in the slots before the specified one.
+         *
+         * @param slot  the slot
+         * @return the number of keys before the slot
+         */
+        private int countBefore(final int slot) {
+            int count = 0;
+            for (int i = slot; i > 0; i -= i & -i) {
+                count += counts[i];
+            }
+            return count;
+        }
+
+        /**
+         * Finds the slot of the key at the specified index.
+         *
+         * @param index  the index of the key, which must be valid
+         * @return the slot
+         */
+        private int slotOf(final int index) {
+            int slot = 0;
+            int remaining = index + 1;
+            for (int step = Integer.highestOneBit(slots.length); step > 0; step >>= 1) {
+                final int next = slot + step;
+                if (next <= slots.length && counts[next] < remaining) {
+                    slot = next;
+                    remaining -= counts[next];
+                }
+            }
+            return slot;
+        }
+
+        /**
+         * List iterator walking the slots, skipping the holes.
+         */
+        private final class IndexedKeyListIterator implements ListIterator<K> {
+            /** The index of the next key */
+            private int index;
+            /** The slot to search forwards from for the next key, and backwards from for the previous one */
+            private int cursor;
+            /** The slot of the key last returned, -1 if none */
+            private int lastSlot = -1;
+            /** The modification count expected */
+            private int expectedModCount = modCount;
+
+            IndexedKeyListIterator(final int index) {
+                this.index = index;
+                this.cursor = index < size() ? slotOf(index) : used;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return index < size();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public K next() {
+                checkModCount();
+                if (!hasNext()) {
+                    throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+                }
+                while (slots[cursor] == HOLE) {
+                    cursor++;
+                }
+                lastSlot = cursor++;
+                index++;
+                return (K) slots[lastSlot];
+            }
+
+            @Override
+            public boolean hasPrevious() {
+                return index > 0;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public K previous() {
+                checkModCount();
+                if (!hasPrevious()) {
+                    throw new NoSuchElementException(AbstractHashedMap.NO_PREVIOUS_ENTRY);
+                }
+                do {
+                    cursor--;
+                } while (slots[cursor] == HOLE);
+                lastSlot = cursor;
+                index--;
+                return (K) slots[lastSlot];
+            }
+
+            @Override
+            public int nextIndex() {
+                return index;
+            }
+
+            @Override
+            public int previousIndex() {
+                return index - 1;
+            }
+
+            @Override
+            public void remove() {
+                if (lastSlot < 0) {
+                    throw new IllegalStateException(AbstractHashedMap.REMOVE_INVALID);
+                }
+                checkModCount();
+                if (lastSlot < cursor) {
+                    index--;
+                }
+                positions.remove(slots[lastSlot]);
+                removeSlot(lastSlot);
+                // the slots may have been compacted
+                cursor = index < size() ? slotOf(index) : used;
+                lastSlot = -1;
+                expectedModCount = modCount;
+            }
+
+            @Override
+            public void set(final K key) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void add(final K key) {
+                throw new UnsupportedOperationException();
+            }
+
+            private void checkModCount() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        }
+    }
+
     static class ValuesView<V> extends AbstractList<V> {
         private final ListOrderedMap<Object, V> parent;
 
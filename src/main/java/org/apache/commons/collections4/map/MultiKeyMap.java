@@ -20,6 +20,10 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -74,6 +78,16 @@ import org.apache.commons.collections4.keyvalue.MultiKey;
  * }
  * </pre>
  * <p>
+ * Optionally, {@link #enablePrefixIndex()} maintains an index of the keys by their
+ * leading keys, so that {@code removeAll} and {@link #keysWithPrefix(Object...)}
+ * take time proportional to the number of matching mappings rather than to the
+ * size of the map.
+ * </p>
+ * <p>
+ * The keys created by the {@code put} methods taking individual keys hold them
+ * in fields rather than in an array, and are serialized as plain {@link MultiKey}s.
+ * </p>
+ * <p>
  * <strong>Note that MultiKeyMap is not synchronized and is not thread-safe.</strong>
  * If you wish to use this map from multiple threads concurrently, you must use
  * appropriate synchronization. This class may throw exceptions when accessed
@@ -90,6 +104,12 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
     /** Serialisation version */
     private static final long serialVersionUID = -1788199231038721040L;
 
+    /** Whether the prefix index is enabled, so that it is rebuilt on deserialization */
+    private boolean prefixIndexEnabled;
+
+    /** The index of the keys by their leading keys, null if not enabled */
+    private transient PrefixIndex<K> prefixIndex;
+
     /**
      * Decorates the specified map to add the MultiKeyMap API and fast query.
      * The map must not be null and must be empty.
@@ -190,7 +210,9 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
             }
             entry = entry.next;
         }
-        decorated().addMapping(index, hashCode, new MultiKey<>(key1, key2), value);
+        final MultiKey<K> key = new MultiKey2<>(key1, key2);
+        decorated().addMapping(index, hashCode, key, value);
+        addToPrefixIndex(key);
         return null;
     }
 
@@ -209,8 +231,10 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
         AbstractHashedMap.HashEntry<MultiKey<? extends K>, V> previous = null;
         while (entry != null) {
             if (entry.hashCode == hashCode && isEqualKey(entry, key1, key2)) {
+                final MultiKey<? extends K> key = entry.getKey();
                 final V oldValue = entry.getValue();
                 decorated().removeMapping(entry, index, previous);
+                removeFromPrefixIndex(key);
                 return oldValue;
             }
             previous = entry;
@@ -321,7 +345,9 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
             }
             entry = entry.next;
         }
-        decorated().addMapping(index, hashCode, new MultiKey<>(key1, key2, key3), value);
+        final MultiKey<K> key = new MultiKey3<>(key1, key2, key3);
+        decorated().addMapping(index, hashCode, key, value);
+        addToPrefixIndex(key);
         return null;
     }
 
@@ -341,8 +367,10 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
         AbstractHashedMap.HashEntry<MultiKey<? extends K>, V> previous = null;
         while (entry != null) {
             if (entry.hashCode == hashCode && isEqualKey(entry, key1, key2, key3)) {
+                final MultiKey<? extends K> key = entry.getKey();
                 final V oldValue = entry.getValue();
                 decorated().removeMapping(entry, index, previous);
+                removeFromPrefixIndex(key);
                 return oldValue;
             }
             previous = entry;
@@ -462,7 +490,9 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
             }
             entry = entry.next;
         }
-        decorated().addMapping(index, hashCode, new MultiKey<>(key1, key2, key3, key4), value);
+        final MultiKey<K> key = new MultiKey4<>(key1, key2, key3, key4);
+        decorated().addMapping(index, hashCode, key, value);
+        addToPrefixIndex(key);
         return null;
     }
 
@@ -483,8 +513,10 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
         AbstractHashedMap.HashEntry<MultiKey<? extends K>, V> previous = null;
         while (entry != null) {
             if (entry.hashCode == hashCode && isEqualKey(entry, key1, key2, key3, key4)) {
+                final MultiKey<? extends K> key = entry.getKey();
                 final V oldValue = entry.getValue();
                 decorated().removeMapping(entry, index, previous);
+                removeFromPrefixIndex(key);
                 return oldValue;
             }
             previous = entry;
@@ -614,7 +646,9 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
             }
             entry = entry.next;
         }
-        decorated().addMapping(index, hashCode, new MultiKey<>(key1, key2, key3, key4, key5), value);
+        final MultiKey<K> key = new MultiKey5<>(key1, key2, key3, key4, key5);
+        decorated().addMapping(index, hashCode, key, value);
+        addToPrefixIndex(key);
         return null;
     }
 
@@ -637,8 +671,10 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
         AbstractHashedMap.HashEntry<MultiKey<? extends K>, V> previous = null;
         while (entry != null) {
             if (entry.hashCode == hashCode && isEqualKey(entry, key1, key2, key3, key4, key5)) {
+                final MultiKey<? extends K> key = entry.getKey();
                 final V oldValue = entry.getValue();
                 decorated().removeMapping(entry, index, previous);
+                removeFromPrefixIndex(key);
                 return oldValue;
             }
             previous = entry;
@@ -709,11 +745,15 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
      * <p>
      * This method removes all the mappings where the {@code MultiKey}
      * has one or more keys, and the first matches that specified.
+     * It scans the whole map unless the prefix index is enabled.
      *
      * @param key1  the first key
      * @return true if any elements were removed
      */
     public boolean removeAll(final Object key1) {
+        if (prefixIndex != null) {
+            return removeAllIndexed(key1);
+        }
         boolean modified = false;
         final MapIterator<MultiKey<? extends K>, V> it = mapIterator();
         while (it.hasNext()) {
@@ -732,12 +772,16 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
      * <p>
      * This method removes all the mappings where the {@code MultiKey}
      * has two or more keys, and the first two match those specified.
+     * It scans the whole map unless the prefix index is enabled.
      *
      * @param key1  the first key
      * @param key2  the second key
      * @return true if any elements were removed
      */
     public boolean removeAll(final Object key1, final Object key2) {
+        if (prefixIndex != null) {
+            return removeAllIndexed(key1, key2);
+        }
         boolean modified = false;
         final MapIterator<MultiKey<? extends K>, V> it = mapIterator();
         while (it.hasNext()) {
@@ -757,6 +801,7 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
      * <p>
      * This method removes all the mappings where the {@code MultiKey}
      * has three or more keys, and the first three match those specified.
+     * It scans the whole map unless the prefix index is enabled.
      *
      * @param key1  the first key
      * @param key2  the second key
@@ -764,6 +809,9 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
      * @return true if any elements were removed
      */
     public boolean removeAll(final Object key1, final Object key2, final Object key3) {
+        if (prefixIndex != null) {
+            return removeAllIndexed(key1, key2, key3);
+        }
         boolean modified = false;
         final MapIterator<MultiKey<? extends K>, V> it = mapIterator();
         while (it.hasNext()) {
@@ -784,6 +832,7 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
      * <p>
      * This method removes all the mappings where the {@code MultiKey}
      * has four or more keys, and the first four match those specified.
+     * It scans the whole map unless the prefix index is enabled.
      *
      * @param key1  the first key
      * @param key2  the second key
@@ -792,6 +841,9 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
      * @return true if any elements were removed
      */
     public boolean removeAll(final Object key1, final Object key2, final Object key3, final Object key4) {
+        if (prefixIndex != null) {
+            return removeAllIndexed(key1, key2, key3, key4);
+        }
         boolean modified = false;
         final MapIterator<MultiKey<? extends K>, V> it = mapIterator();
         while (it.hasNext()) {
@@ -808,6 +860,168 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
         return modified;
     }
 
+    /**
+     * Enables the index of the keys by their leading keys, building it from the
+     * current mappings.
+     * <p>
+     * Once enabled, {@code removeAll} and {@link #keysWithPrefix(Object...)} only visit
+     * the mappings whose leading keys match, at the cost of the memory of the index
+     * and of maintaining it on each {@code put} and {@code remove} of a new key.
+     * Mappings removed by other means, such as through the views or by the eviction
+     * of an {@link LRUMap}, are removed from the index when next found by a query,
+     * or when the index is rebuilt after it grew much larger than the map.
+     * </p>
+     * <p>
+     * As the index references the keys strongly, it should not be used with a
+     * {@link ReferenceMap}.
+     * </p>
+     *
+     * @since 4.5
+     */
+    public void enablePrefixIndex() {
+        prefixIndexEnabled = true;
+        rebuildPrefixIndex();
+    }
+
+    /**
+     * Checks whether the index of the keys by their leading keys is enabled.
+     *
+     * @return true if enabled
+     * @see #enablePrefixIndex()
+     * @since 4.5
+     */
+    public boolean isPrefixIndexEnabled() {
+        return prefixIndexEnabled;
+    }
+
+    /**
+     * Gets the multi-keys whose first keys are those specified.
+     * <p>
+     * This method returns the keys of all the mappings where the {@code MultiKey}
+     * has at least as many keys as specified, and the first match those specified.
+     * It scans the whole map unless the prefix index is enabled.
+     * </p>
+     *
+     * @param keys  the leading keys
+     * @return a new list of the matching multi-keys
+     * @since 4.5
+     */
+    public List<MultiKey<? extends K>> keysWithPrefix(final Object... keys) {
+        final List<MultiKey<? extends K>> result = new ArrayList<>();
+        if (prefixIndex != null) {
+            for (final MultiKey<? extends K> multi : prefixIndex.keysWithPrefix(keys)) {
+                if (decorated().containsKey(multi)) {
+                    result.add(multi);
+                } else {
+                    // no longer mapped, such as evicted by an LRUMap
+                    prefixIndex.remove(multi);
+                }
+            }
+            return result;
+        }
+        final MapIterator<MultiKey<? extends K>, V> it = mapIterator();
+        while (it.hasNext()) {
+            final MultiKey<? extends K> multi = it.next();
+            if (hasPrefix(multi, keys)) {
+                result.add(multi);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the mappings whose first keys are those specified.
+     * <p>
+     * This method returns all the mappings where the {@code MultiKey} has at least
+     * as many keys as specified, and the first match those specified.
+     * It scans the whole map unless the prefix index is enabled.
+     * </p>
+     *
+     * @param keys  the leading keys
+     * @return a new map of the matching mappings
+     * @since 4.5
+     */
+    public Map<MultiKey<? extends K>, V> getAll(final Object... keys) {
+        final List<MultiKey<? extends K>> matching = keysWithPrefix(keys);
+        final Map<MultiKey<? extends K>, V> result = new HashedMap<>(matching.size());
+        for (final MultiKey<? extends K> multi : matching) {
+            result.put(multi, decorated().get(multi));
+        }
+        return result;
+    }
+
+    /**
+     * Removes all mappings whose first keys are those specified, using the prefix index.
+     *
+     * @param keys  the leading keys
+     * @return true if any elements were removed
+     */
+    private boolean removeAllIndexed(final Object... keys) {
+        final int size = decorated().size();
+        for (final MultiKey<? extends K> multi : prefixIndex.removePrefix(keys)) {
+            decorated().remove(multi);
+        }
+        return decorated().size() != size;
+    }
+
+    /**
+     * Checks whether the first keys of a multi-key are those specified.
+     *
+     * @param multi  the multi-key
+     * @param keys  the leading keys
+     * @return true if the multi-key has the prefix
+     */
+    private static boolean hasPrefix(final MultiKey<?> multi, final Object[] keys) {
+        if (multi.size() < keys.length) {
+            return false;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (!Objects.equals(keys[i], multi.getKey(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds a new key to the prefix index if enabled, first rebuilding the index if it
+     * holds many keys that are no longer mapped.
+     *
+     * @param key  the key added to the map
+     */
+    private void addToPrefixIndex(final MultiKey<? extends K> key) {
+        if (prefixIndex != null) {
+            if (prefixIndex.size() > 2 * decorated().size() + 16) {
+                rebuildPrefixIndex();
+            } else {
+                prefixIndex.add(key);
+            }
+        }
+    }
+
+    /**
+     * Removes a key from the prefix index if enabled.
+     *
+     * @param key  the key removed from the map
+     */
+    private void removeFromPrefixIndex(final MultiKey<?> key) {
+        if (prefixIndex != null) {
+            prefixIndex.remove(key);
+        }
+    }
+
+    /**
+     * Builds the prefix index from the current mappings.
+     */
+    private void rebuildPrefixIndex() {
+        final PrefixIndex<K> index = new PrefixIndex<>();
+        final MapIterator<MultiKey<? extends K>, V> it = mapIterator();
+        while (it.hasNext()) {
+            index.add(it.next());
+        }
+        prefixIndex = index;
+    }
+
     /**
      * Check to ensure that input keys are valid MultiKey objects.
      *
@@ -845,7 +1059,12 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
     @Override
     public V put(final MultiKey<? extends K> key, final V value) {
         checkKey(key);
-        return super.put(key, value);
+        if (prefixIndex == null || decorated().containsKey(key)) {
+            return super.put(key, value);
+        }
+        final V oldValue = super.put(key, value);
+        addToPrefixIndex(key);
+        return oldValue;
     }
 
     /**
@@ -861,7 +1080,39 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
         for (final MultiKey<? extends K> key : mapToCopy.keySet()) {
             checkKey(key);
         }
-        super.putAll(mapToCopy);
+        if (prefixIndex == null) {
+            super.putAll(mapToCopy);
+        } else {
+            for (final Map.Entry<? extends MultiKey<? extends K>, ? extends V> entry : mapToCopy.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Removes the specified multi-key from this map.
+     *
+     * @param key  the multi-key to remove
+     * @return the value mapped to the removed key, null if key not in map
+     */
+    @Override
+    public V remove(final Object key) {
+        final V value = super.remove(key);
+        if (prefixIndex != null && key instanceof MultiKey) {
+            removeFromPrefixIndex((MultiKey<?>) key);
+        }
+        return value;
+    }
+
+    /**
+     * Clears the map, and the prefix index if enabled.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        if (prefixIndex != null) {
+            prefixIndex.clear();
+        }
     }
 
     @Override
@@ -899,6 +1150,333 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
     private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
         in.defaultReadObject();
         map = (Map<MultiKey<? extends K>, V>) in.readObject();
+        if (prefixIndexEnabled) {
+            rebuildPrefixIndex();
+        }
+    }
+
+    /**
+     * Index of multi-keys by their leading keys: a tree with a node for each
+     * distinct prefix, holding the multi-key made of exactly that prefix if any.
+     */
+    static final class PrefixIndex<K> {
+
+        /** A node of the tree */
+        static final class Node<K> {
+            /** The multi-key ending at this node, null if none */
+            MultiKey<? extends K> key;
+            /** The nodes of the longer prefixes, by their next key, null if none */
+            HashMap<Object, Node<K>> children;
+        }
+
+        /** The node of the empty prefix */
+        private final Node<K> root = new Node<>();
+        /** The number of multi-keys in the index */
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            root.key = null;
+            root.children = null;
+            size = 0;
+        }
+
+        void add(final MultiKey<? extends K> multi) {
+            Node<K> node = root;
+            for (int i = 0; i < multi.size(); i++) {
+                if (node.children == null) {
+                    node.children = new HashMap<>();
+                }
+                node = node.children.computeIfAbsent(multi.getKey(i), k -> new Node<>());
+            }
+            if (node.key == null) {
+                size++;
+            }
+            node.key = multi;
+        }
+
+        void remove(final MultiKey<?> multi) {
+            final int length = multi.size();
+            @SuppressWarnings("unchecked")
+            final Node<K>[] path = new Node[length + 1];
+            path[0] = root;
+            for (int i = 0; i < length; i++) {
+                final HashMap<Object, Node<K>> children = path[i].children;
+                path[i + 1] = children == null ? null : children.get(multi.getKey(i));
+                if (path[i + 1] == null) {
+                    return;
+                }
+            }
+            if (path[length].key == null) {
+                return;
+            }
+            path[length].key = null;
+            size--;
+            // prune the nodes left without any key
+            for (int i = length; i > 0 && path[i].key == null && path[i].children == null; i--) {
+                path[i - 1].children.remove(multi.getKey(i - 1));
+                if (path[i - 1].children.isEmpty()) {
+                    path[i - 1].children = null;
+                }
+            }
+        }
+
+        /**
+         * Finds the node of a prefix.
+         *
+         * @param keys  the prefix
+         * @return the node, null if no multi-key has the prefix
+         */
+        private Node<K> find(final Object[] keys) {
+            Node<K> node = root;
+            for (int i = 0; i < keys.length && node != null; i++) {
+                node = node.children == null ? null : node.children.get(keys[i]);
+            }
+            return node;
+        }
+
+        List<MultiKey<? extends K>> keysWithPrefix(final Object[] keys) {
+            final List<MultiKey<? extends K>> result = new ArrayList<>();
+            final Node<K> node = find(keys);
+            if (node != null) {
+                collect(node, result);
+            }
+            return result;
+        }
+
+        /**
+         * Removes the multi-keys with a prefix from the index.
+         *
+         * @param keys  the prefix
+         * @return the removed multi-keys
+         */
+        List<MultiKey<? extends K>> removePrefix(final Object[] keys) {
+            final List<MultiKey<? extends K>> result = keysWithPrefix(keys);
+            if (keys.length == 0) {
+                clear();
+            } else if (!result.isEmpty()) {
+                final Node<K> parent = find(Arrays.copyOf(keys, keys.length - 1));
+                parent.children.remove(keys[keys.length - 1]);
+                if (parent.children.isEmpty()) {
+                    parent.children = null;
+                }
+                size -= result.size();
+            }
+            return result;
+        }
+
+        private void collect(final Node<K> node, final List<MultiKey<? extends K>> result) {
+            if (node.key != null) {
+                result.add(node.key);
+            }
+            if (node.children != null) {
+                for (final Node<K> child : node.children.values()) {
+                    collect(child, result);
+                }
+            }
+        }
+    }
+
+    /**
+     * Base class of the keys holding their individual keys in fields, which saves
+     * allocating an array for each key stored by the {@code put} methods.
+     */
+    abstract static class InlineMultiKey<K> extends MultiKey<K> {
+
+        /** Serialization version */
+        private static final long serialVersionUID = 1L;
+
+        InlineMultiKey(final int hashCode) {
+            super(hashCode);
+        }
+
+        /**
+         * Gets the exception thrown by {@code getKey} for an invalid index.
+         *
+         * @param index  the invalid index
+         * @return the exception
+         */
+        IndexOutOfBoundsException outOfBounds(final int index) {
+            return new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+
+        /**
+         * Replaces this key by an equal array based key when serialized, so that
+         * the serialized form of the map is not changed.
+         *
+         * @return the key to serialize
+         */
+        protected Object writeReplace() {
+            return new MultiKey<>(getKeys(), false);
+        }
+    }
+
+    /**
+     * A key of two individual keys.
+     */
+    static final class MultiKey2<K> extends InlineMultiKey<K> {
+
+        /** Serialization version */
+        private static final long serialVersionUID = 1L;
+
+        private final K key1;
+        private final K key2;
+
+        MultiKey2(final K key1, final K key2) {
+            super(Objects.hashCode(key1) ^ Objects.hashCode(key2));
+            this.key1 = key1;
+            this.key2 = key2;
+        }
+
+        @Override
+        public K getKey(final int index) {
+            switch (index) {
+            case 0:
+                return key1;
+            case 1:
+                return key2;
+            default:
+                throw outOfBounds(index);
+            }
+        }
+
+        @Override
+        public int size() {
+            return 2;
+        }
+    }
+
+    /**
+     * A key of three individual keys.
+     */
+    static final class MultiKey3<K> extends InlineMultiKey<K> {
+
+        /** Serialization version */
+        private static final long serialVersionUID = 1L;
+
+        private final K key1;
+        private final K key2;
+        private final K key3;
+
+        MultiKey3(final K key1, final K key2, final K key3) {
+            super(Objects.hashCode(key1) ^ Objects.hashCode(key2) ^ Objects.hashCode(key3));
+            this.key1 = key1;
+            this.key2 = key2;
+            this.key3 = key3;
+        }
+
+        @Override
+        public K getKey(final int index) {
+            switch (index) {
+            case 0:
+                return key1;
+            case 1:
+                return key2;
+            case 2:
+                return key3;
+            default:
+                throw outOfBounds(index);
+            }
+        }
+
+        @Override
+        public int size() {
+            return 3;
+        }
+    }
+
+    /**
+     * A key of four individual keys.
+     */
+    static final class MultiKey4<K> extends InlineMultiKey<K> {
+
+        /** Serialization version */
+        private static final long serialVersionUID = 1L;
+
+        private final K key1;
+        private final K key2;
+        private final K key3;
+        private final K key4;
+
+        MultiKey4(final K key1, final K key2, final K key3, final K key4) {
+            super(Objects.hashCode(key1) ^ Objects.hashCode(key2) ^ Objects.hashCode(key3) ^ Objects.hashCode(key4));
+            this.key1 = key1;
+            this.key2 = key2;
+            this.key3 = key3;
+            this.key4 = key4;
+        }
+
+        @Override
+        public K getKey(final int index) {
+            switch (index) {
+            case 0:
+                return key1;
+            case 1:
+                return key2;
+            case 2:
+                return key3;
+            case 3:
+                return key4;
+            default:
+                throw outOfBounds(index);
+            }
+        }
+
+        @Override
+        public int size() {
+            return 4;
+        }
+    }
+
+    /**
+     * A key of five individual keys.
+     */
+    static final class MultiKey5<K> extends InlineMultiKey<K> {
+
+        /** Serialization version */
+        private static final long serialVersionUID = 1L;
+
+        private final K key1;
+        private final K key2;
+        private final K key3;
+        private final K key4;
+        private final K key5;
+
+        MultiKey5(final K key1, final K key2, final K key3, final K key4, final K key5) {
+            super(Objects.hashCode(key1) ^ Objects.hashCode(key2) ^ Objects.hashCode(key3)
+                    ^ Objects.hashCode(key4) ^ Objects.hashCode(key5));
+            this.key1 = key1;
+            this.key2 = key2;
+            this.key3 = key3;
+            this.key4 = key4;
+            this.key5 = key5;
+        }
+
+        @Override
+        public K getKey(final int index) {
+            switch (index) {
+            case 0:
+                return key1;
+            case 1:
+                return key2;
+            case 2:
+                return key3;
+            case 3:
+                return key4;
+            case 4:
+                return key5;
+            default:
+                throw outOfBounds(index);
+            }
+        }
+
+        @Override
+        public int size() {
+            return 5;
+        }
     }
 
 }
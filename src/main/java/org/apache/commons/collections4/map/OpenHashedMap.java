@@ -0,0 +1,1002 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.IterableMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.iterators.EmptyIterator;
+import org.apache.commons.collections4.iterators.EmptyMapIterator;
+import org.apache.commons.collections4.keyvalue.AbstractMapEntry;
+
+/**
+ * A {@code Map} implementation that uses open addressing instead of chained
+ * hash entries.
+ * <p>
+ * {@link HashedMap} allocates one {@code HashEntry} per mapping and walks a linked
+ * chain on every lookup. This map instead stores each key next to its value in a
+ * single array, and resolves collisions by linear probing. A mapping therefore costs
+ * no object of its own, and a lookup usually finds both the key and the value in the
+ * same cache line. Removal shifts the following keys of the probe sequence back, so
+ * no deleted markers are left behind to slow down later lookups.
+ * </p>
+ * <p>
+ * The map supports null keys and values, and provides the same
+ * {@link org.apache.commons.collections4.MapIterator MapIterator} functionality
+ * as {@link HashedMap}, which it can replace. The entries returned by the
+ * {@link #entrySet() entry set} are independent objects created during
+ * iteration; use {@link #mapIterator()} to avoid creating them.
+ * </p>
+ * <p>
+ * As linear probing degrades quickly when the table fills up, the load factor
+ * must be less than 1.
+ * </p>
+ * <p>
+ * <strong>Note that OpenHashedMap is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization. The simplest approach is to wrap this map
+ * using {@link java.util.Collections#synchronizedMap(Map)}. This class may throw
+ * exceptions when accessed by concurrent threads without synchronization.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @see HashedMap
+ * @since 4.5
+ */
+public class OpenHashedMap<K, V> implements IterableMap<K, V>, Serializable, Cloneable {
+
+    /** Serialisation version */
+    private static final long serialVersionUID = 4946366416361426417L;
+
+    /** The default capacity to use */
+    private static final int DEFAULT_CAPACITY = 16;
+    /** The default load factor to use */
+    private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+    /** The maximum capacity allowed, so that the table fits in an array */
+    private static final int MAXIMUM_CAPACITY = 1 << 29;
+    /** An object for masking null */
+    private static final Object NULL = new Object();
+
+    /** Load factor, normally 0.75 */
+    private transient float loadFactor;
+    /** Keys at even positions, each followed by its value; null marks a free slot */
+    private transient Object[] table;
+    /** The size of the map */
+    private transient int size;
+    /** Size at which to rehash */
+    private transient int threshold;
+    /** Modification count for iterators */
+    private transient int modCount;
+    /** Entry set */
+    private transient EntrySet<K, V> entrySet;
+    /** Key set */
+    private transient KeySet<K> keySet;
+    /** Values */
+    private transient Values<V> values;
+
+    /**
+     * Constructs a new empty map with default size and load factor.
+     */
+    public OpenHashedMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs a new, empty map with the specified initial capacity.
+     *
+     * @param initialCapacity  the initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public OpenHashedMap(final int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs a new, empty map with the specified initial capacity and
+     * load factor.
+     *
+     * @param initialCapacity  the initial capacity
+     * @param loadFactor  the load factor
+     * @throws IllegalArgumentException if the initial capacity is negative
+     * @throws IllegalArgumentException if the load factor is not greater than zero and less than one
+     */
+    public OpenHashedMap(final int initialCapacity, final float loadFactor) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity must be a non negative number");
+        }
+        if (!(loadFactor > 0.0f && loadFactor < 1.0f)) {
+            throw new IllegalArgumentException("Load factor must be greater than 0 and less than 1");
+        }
+        this.loadFactor = loadFactor;
+        allocate(calculateNewCapacity(initialCapacity));
+    }
+
+    /**
+     * Constructor copying elements from another map.
+     *
+     * @param map  the map to copy
+     * @throws NullPointerException if the map is null
+     */
+    public OpenHashedMap(final Map<? extends K, ? extends V> map) {
+        this(Math.max(2 * map.size(), DEFAULT_CAPACITY), DEFAULT_LOAD_FACTOR);
+        putAll(map);
+    }
+
+    /**
+     * Gets the value mapped to the key specified.
+     *
+     * @param key  the key
+     * @return the mapped value, null if no match
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        final int index = indexOf(convertKey(key));
+        return index < 0 ? null : (V) table[index + 1];
+    }
+
+    /**
+     * Gets the size of the map.
+     *
+     * @return the size
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the map is currently empty.
+     *
+     * @return true if the map is currently size zero
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether the map contains the specified key.
+     *
+     * @param key  the key to search for
+     * @return true if the map contains the key
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(convertKey(key)) >= 0;
+    }
+
+    /**
+     * Checks whether the map contains the specified value.
+     *
+     * @param value  the value to search for
+     * @return true if the map contains the value
+     */
+    @Override
+    public boolean containsValue(final Object value) {
+        final Object[] table = this.table;
+        for (int i = 0; i < table.length; i += 2) {
+            if (table[i] != null && Objects.equals(value, table[i + 1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Puts a key-value mapping into this map.
+     *
+     * @param key  the key to add
+     * @param value  the value to add
+     * @return the value previously mapped to this key, null if none
+     * @throws IllegalStateException if the map holds the maximum number of mappings
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(final K key, final V value) {
+        final Object convertedKey = convertKey(key);
+        final Object[] table = this.table;
+        final int mask = table.length - 1;
+        int index = hashIndex(convertedKey, mask);
+        Object item;
+        while ((item = table[index]) != null) {
+            if (convertedKey == item || convertedKey.equals(item)) {
+                final V oldValue = (V) table[index + 1];
+                table[index + 1] = value;
+                return oldValue;
+            }
+            index = index + 2 & mask;
+        }
+
+        if (size == (table.length >> 1) - 1) {
+            // at maximum capacity, one slot must stay free to end the probe sequences
+            throw new IllegalStateException("Map is full");
+        }
+        modCount++;
+        table[index] = convertedKey;
+        table[index + 1] = value;
+        if (++size >= threshold) {
+            ensureCapacity(Math.min(table.length, MAXIMUM_CAPACITY));
+        }
+        return null;
+    }
+
+    /**
+     * Puts all the values from the specified map into this map.
+     *
+     * @param map  the map to add
+     * @throws NullPointerException if the map is null
+     */
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> map) {
+        final int mapSize = map.size();
+        if (mapSize == 0) {
+            return;
+        }
+        final int newSize = (int) ((size + mapSize) / loadFactor + 1);
+        ensureCapacity(calculateNewCapacity(newSize));
+        for (final Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Removes the specified mapping from this map.
+     *
+     * @param key  the mapping to remove
+     * @return the value mapped to the removed key, null if key not in map
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(final Object key) {
+        final int index = indexOf(convertKey(key));
+        if (index < 0) {
+            return null;
+        }
+        final V oldValue = (V) table[index + 1];
+        removeMapping(index, null);
+        return oldValue;
+    }
+
+    /**
+     * Clears the map, resetting the size to zero and nullifying references
+     * to avoid garbage collection issues.
+     */
+    @Override
+    public void clear() {
+        modCount++;
+        Arrays.fill(table, null);
+        size = 0;
+    }
+
+    /**
+     * Converts input keys to the form stored in the table, masking nulls.
+     *
+     * @param key  the key convert
+     * @return the converted key
+     */
+    private static Object convertKey(final Object key) {
+        return key == null ? NULL : key;
+    }
+
+    /**
+     * Converts a key stored in the table back to its external form.
+     *
+     * @param key  the stored key
+     * @return the key
+     */
+    @SuppressWarnings("unchecked")
+    private static <K> K externalKey(final Object key) {
+        return key == NULL ? null : (K) key;
+    }
+
+    /**
+     * Gets the position in the table where the probe sequence of a key starts.
+     * <p>
+     * Linear probing needs the low bits of the hash code to be well distributed,
+     * so the hash code is multiplied by the golden ratio, which mixes all of
+     * its bits into the high bits, and these are folded into the low bits.
+     *
+     * @param key  the key in internal converted form
+     * @param mask  the length of the table minus one
+     * @return the (even) position of the first slot to probe
+     */
+    private static int hashIndex(final Object key, final int mask) {
+        final int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ h >>> 16) << 1 & mask;
+    }
+
+    /**
+     * Gets the position in the table of the key specified.
+     *
+     * @param key  the key in internal converted form
+     * @return the (even) position of the key, or -1 if no match
+     */
+    private int indexOf(final Object key) {
+        final Object[] table = this.table;
+        final int mask = table.length - 1;
+        int index = hashIndex(key, mask);
+        Object item;
+        while ((item = table[index]) != null) {
+            if (key == item || key.equals(item)) {
+                return index;
+            }
+            index = index + 2 & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the mapping at the given position.
+     * <p>
+     * The keys following it in the same probe sequence are shifted back, so that
+     * they remain reachable. If an iterator performs the removal, it is told about
+     * keys that it has not returned yet but that are moved to the part of the table
+     * it has already traversed.
+     *
+     * @param index  the position of the key to remove
+     * @param iterator  the iterator removing the mapping, null if none
+     */
+    private void removeMapping(final int index, final OpenIterator<K, V> iterator) {
+        modCount++;
+        size--;
+        final Object[] table = this.table;
+        final int mask = table.length - 1;
+        int hole = index;
+        int next = index;
+        Object item;
+        while ((item = table[next = next + 2 & mask]) != null) {
+            // the key can fill the hole if the hole does not precede its probe sequence
+            final int start = hashIndex(item, mask);
+            if ((next - start & mask) >= (next - hole & mask)) {
+                if (iterator != null && next < index && hole >= index) {
+                    iterator.wrapped(item);
+                }
+                table[hole] = item;
+                table[hole + 1] = table[next + 1];
+                hole = next;
+            }
+        }
+        table[hole] = null;
+        table[hole + 1] = null;
+    }
+
+    /**
+     * Allocates a new empty table.
+     * <p>
+     * A table of the maximum capacity cannot grow, so it is filled up to the last
+     * slot that must stay free, whatever the load factor.
+     *
+     * @param capacity  the number of slots, a power of two
+     */
+    private void allocate(final int capacity) {
+        table = new Object[capacity << 1];
+        threshold = capacity == MAXIMUM_CAPACITY ? capacity - 1 : Math.min((int) (capacity * loadFactor), capacity - 1);
+    }
+
+    /**
+     * Changes the size of the table to the capacity proposed.
+     *
+     * @param newCapacity  the new number of slots (a power of two, less or equal to max)
+     */
+    private void ensureCapacity(final int newCapacity) {
+        final Object[] oldTable = table;
+        if (newCapacity <= oldTable.length >> 1) {
+            return;
+        }
+        allocate(newCapacity);
+        if (size > 0) {
+            modCount++;
+            final Object[] newTable = table;
+            final int mask = newTable.length - 1;
+            for (int i = 0; i < oldTable.length; i += 2) {
+                final Object key = oldTable[i];
+                if (key != null) {
+                    int index = hashIndex(key, mask);
+                    while (newTable[index] != null) {
+                        index = index + 2 & mask;
+                    }
+                    newTable[index] = key;
+                    newTable[index + 1] = oldTable[i + 1];
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculates the new capacity of the map.
+     * This implementation normalizes the capacity to a power of two of at least 2.
+     *
+     * @param proposedCapacity  the proposed capacity
+     * @return the normalized new capacity
+     */
+    private static int calculateNewCapacity(final int proposedCapacity) {
+        int newCapacity = 2;
+        while (newCapacity < proposedCapacity && newCapacity < MAXIMUM_CAPACITY) {
+            newCapacity <<= 1;  // multiply by two
+        }
+        return newCapacity;
+    }
+
+    /**
+     * Gets an iterator over the map.
+     * Changes made to the iterator affect this map.
+     * <p>
+     * A MapIterator returns the keys in the map. It also provides convenient
+     * methods to get the key and value, and set the value.
+     * It avoids the need to create an entrySet/keySet/values object.
+     * It also avoids creating the Map.Entry object.
+     *
+     * @return the map iterator
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        if (size == 0) {
+            return EmptyMapIterator.<K, V>emptyMapIterator();
+        }
+        return new OpenMapIterator<>(this);
+    }
+
+    /**
+     * MapIterator implementation.
+     */
+    static class OpenMapIterator<K, V> extends OpenIterator<K, V> implements MapIterator<K, V> {
+
+        OpenMapIterator(final OpenHashedMap<K, V> parent) {
+            super(parent);
+        }
+
+        @Override
+        public K next() {
+            return externalKey(parent.table[nextIndex()]);
+        }
+
+        @Override
+        public K getKey() {
+            if (last < 0) {
+                throw new IllegalStateException(AbstractHashedMap.GETKEY_INVALID);
+            }
+            return externalKey(parent.table[last]);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            if (last < 0) {
+                throw new IllegalStateException(AbstractHashedMap.GETVALUE_INVALID);
+            }
+            return (V) parent.table[last + 1];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V setValue(final V value) {
+            if (last < 0) {
+                throw new IllegalStateException(AbstractHashedMap.SETVALUE_INVALID);
+            }
+            final V old = (V) parent.table[last + 1];
+            parent.table[last + 1] = value;
+            return old;
+        }
+    }
+
+    /**
+     * Gets the entrySet view of the map.
+     * Changes made to the view affect this map.
+     * <p>
+     * The returned Map Entry objects are created during the iteration. To avoid
+     * this object creation and simply iterate through the entries, use
+     * {@link #mapIterator()}.
+     *
+     * @return the entrySet view
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet<>(this);
+        }
+        return entrySet;
+    }
+
+    /**
+     * EntrySet implementation.
+     */
+    static class EntrySet<K, V> extends AbstractSet<Map.Entry<K, V>> {
+        private final OpenHashedMap<K, V> parent;
+
+        EntrySet(final OpenHashedMap<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (obj instanceof Map.Entry) {
+                final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+                final int index = parent.indexOf(convertKey(entry.getKey()));
+                return index >= 0 && Objects.equals(parent.table[index + 1], entry.getValue());
+            }
+            return false;
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            if (!contains(obj)) {
+                return false;
+            }
+            parent.remove(((Map.Entry<?, ?>) obj).getKey());
+            return true;
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            if (parent.isEmpty()) {
+                return EmptyIterator.<Map.Entry<K, V>>emptyIterator();
+            }
+            return new EntrySetIterator<>(parent);
+        }
+    }
+
+    /**
+     * EntrySet iterator.
+     */
+    static class EntrySetIterator<K, V> extends OpenIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+        EntrySetIterator(final OpenHashedMap<K, V> parent) {
+            super(parent);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            final int index = nextIndex();
+            return new OpenEntry<>(parent, externalKey(parent.table[index]), (V) parent.table[index + 1]);
+        }
+    }
+
+    /**
+     * Entry returned by the entry set iterator, writing value changes through to the map.
+     */
+    static class OpenEntry<K, V> extends AbstractMapEntry<K, V> {
+        private final OpenHashedMap<K, V> parent;
+
+        OpenEntry(final OpenHashedMap<K, V> parent, final K key, final V value) {
+            super(key, value);
+            this.parent = parent;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            final int index = parent.indexOf(convertKey(getKey()));
+            if (index >= 0) {
+                parent.table[index + 1] = value;
+            }
+            return super.setValue(value);
+        }
+    }
+
+    /**
+     * Gets the keySet view of the map.
+     * Changes made to the view affect this map.
+     * To simply iterate through the keys, use {@link #mapIterator()}.
+     *
+     * @return the keySet view
+     */
+    @Override
+    public Set<K> keySet() {
+        if (keySet == null) {
+            keySet = new KeySet<>(this);
+        }
+        return keySet;
+    }
+
+    /**
+     * KeySet implementation.
+     */
+    static class KeySet<K> extends AbstractSet<K> {
+        private final OpenHashedMap<K, ?> parent;
+
+        KeySet(final OpenHashedMap<K, ?> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public boolean contains(final Object key) {
+            return parent.containsKey(key);
+        }
+
+        @Override
+        public boolean remove(final Object key) {
+            final boolean result = parent.containsKey(key);
+            parent.remove(key);
+            return result;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            if (parent.isEmpty()) {
+                return EmptyIterator.<K>emptyIterator();
+            }
+            return new KeySetIterator<>(parent);
+        }
+    }
+
+    /**
+     * KeySet iterator.
+     */
+    static class KeySetIterator<K> extends OpenIterator<K, Object> implements Iterator<K> {
+
+        @SuppressWarnings("unchecked")
+        KeySetIterator(final OpenHashedMap<K, ?> parent) {
+            super((OpenHashedMap<K, Object>) parent);
+        }
+
+        @Override
+        public K next() {
+            return externalKey(parent.table[nextIndex()]);
+        }
+    }
+
+    /**
+     * Gets the values view of the map.
+     * Changes made to the view affect this map.
+     * To simply iterate through the values, use {@link #mapIterator()}.
+     *
+     * @return the values view
+     */
+    @Override
+    public Collection<V> values() {
+        if (values == null) {
+            values = new Values<>(this);
+        }
+        return values;
+    }
+
+    /**
+     * Values implementation.
+     */
+    static class Values<V> extends AbstractCollection<V> {
+        private final OpenHashedMap<?, V> parent;
+
+        Values(final OpenHashedMap<?, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public boolean contains(final Object value) {
+            return parent.containsValue(value);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            if (parent.isEmpty()) {
+                return EmptyIterator.<V>emptyIterator();
+            }
+            return new ValuesIterator<>(parent);
+        }
+    }
+
+    /**
+     * Values iterator.
+     */
+    static class ValuesIterator<V> extends OpenIterator<Object, V> implements Iterator<V> {
+
+        @SuppressWarnings("unchecked")
+        ValuesIterator(final OpenHashedMap<?, V> parent) {
+            super((OpenHashedMap<Object, V>) parent);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            return (V) parent.table[nextIndex() + 1];
+        }
+    }
+
+    /**
+     * Base Iterator.
+     * <p>
+     * The table is traversed from its end to its start. Removing a mapping only
+     * moves keys towards the start of their probe sequence, so keys never move from
+     * the traversed part of the table to the remaining part. Keys whose probe sequence
+     * wraps around the end of the table may however be moved from the start of the
+     * table to its end; these are remembered and returned once the traversal is over.
+     */
+    abstract static class OpenIterator<K, V> {
+
+        /** The parent map */
+        final OpenHashedMap<K, V> parent;
+        /** The position of the last returned key, -1 if none */
+        int last = -1;
+        /** The position of the last key taken from the table, the traversal ends at 0 */
+        private int index;
+        /** The number of keys not returned yet */
+        private int remaining;
+        /** The keys moved to the traversed part of the table before they were returned */
+        private List<Object> wrapped;
+        /** The modification count expected */
+        private int expectedModCount;
+
+        OpenIterator(final OpenHashedMap<K, V> parent) {
+            this.parent = parent;
+            this.index = parent.table.length;
+            this.remaining = parent.size;
+            this.expectedModCount = parent.modCount;
+        }
+
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        /**
+         * Advances to the next key.
+         *
+         * @return the position of the key in the table
+         */
+        int nextIndex() {
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (remaining == 0) {
+                throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+            }
+            remaining--;
+            final Object[] table = parent.table;
+            while (index > 0) {
+                index -= 2;
+                if (table[index] != null) {
+                    last = index;
+                    return index;
+                }
+            }
+            last = parent.indexOf(wrapped.remove(wrapped.size() - 1));
+            return last;
+        }
+
+        /**
+         * Remembers a key moved from the remaining part of the table to the traversed part.
+         *
+         * @param key  the key in internal converted form
+         */
+        void wrapped(final Object key) {
+            if (wrapped == null) {
+                wrapped = new ArrayList<>();
+            }
+            wrapped.add(key);
+        }
+
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException(AbstractHashedMap.REMOVE_INVALID);
+            }
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            // keys taken from the wrapped list are removed once the whole table has been traversed
+            parent.removeMapping(last, last == index ? this : null);
+            last = -1;
+            expectedModCount = parent.modCount;
+        }
+
+        @Override
+        public String toString() {
+            if (last >= 0) {
+                return "Iterator[" + externalKey(parent.table[last]) + "=" + parent.table[last + 1] + "]";
+            }
+            return "Iterator[]";
+        }
+    }
+
+    /**
+     * Write the map out using a custom routine.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeFloat(loadFactor);
+        out.writeInt(table.length >> 1);
+        out.writeInt(size);
+        for (final MapIterator<K, V> it = mapIterator(); it.hasNext();) {
+            out.writeObject(it.next());
+            out.writeObject(it.getValue());
+        }
+    }
+
+    /**
+     * Read the map in using a custom routine.
+     *
+     * @param in the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        loadFactor = in.readFloat();
+        final int capacity = in.readInt();
+        final int size = in.readInt();
+        allocate(calculateNewCapacity(capacity));
+        for (int i = 0; i < size; i++) {
+            final K key = (K) in.readObject();
+            final V value = (V) in.readObject();
+            put(key, value);
+        }
+    }
+
+    /**
+     * Clones the map without cloning the keys or values.
+     *
+     * @return a shallow clone
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public OpenHashedMap<K, V> clone() {
+        try {
+            final OpenHashedMap<K, V> cloned = (OpenHashedMap<K, V>) super.clone();
+            cloned.table = table.clone();
+            cloned.entrySet = null;
+            cloned.keySet = null;
+            cloned.values = null;
+            cloned.modCount = 0;
+            return cloned;
+        } catch (final CloneNotSupportedException ex) {
+            throw new InternalError();
+        }
+    }
+
+    /**
+     * Compares this map with another.
+     *
+     * @param obj  the object to compare to
+     * @return true if equal
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof Map)) {
+            return false;
+        }
+        final Map<?, ?> map = (Map<?, ?>) obj;
+        if (map.size() != size()) {
+            return false;
+        }
+        final Object[] table = this.table;
+        try {
+            for (int i = 0; i < table.length; i += 2) {
+                if (table[i] != null) {
+                    final Object key = externalKey(table[i]);
+                    final Object value = table[i + 1];
+                    if (value == null) {
+                        if (map.get(key) != null || !map.containsKey(key)) {
+                            return false;
+                        }
+                    } else {
+                        if (!value.equals(map.get(key))) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        } catch (final ClassCastException | NullPointerException ignored) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the standard Map hashCode.
+     *
+     * @return the hash code defined in the Map interface
+     */
+    @Override
+    public int hashCode() {
+        int total = 0;
+        final Object[] table = this.table;
+        for (int i = 0; i < table.length; i += 2) {
+            final Object key = table[i];
+            if (key != null) {
+                final Object value = table[i + 1];
+                total += (key == NULL ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Gets the map as a String.
+     *
+     * @return a string version of the map
+     */
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "{}";
+        }
+        final StringBuilder buf = new StringBuilder(32 * size());
+        buf.append('{');
+
+        final MapIterator<K, V> it = mapIterator();
+        boolean hasNext = it.hasNext();
+        while (hasNext) {
+            final K key = it.next();
+            final V value = it.getValue();
+            buf.append(key == this ? "(this Map)" : key)
+                .append('=')
+                .append(value == this ? "(this Map)" : value);
+
+            hasNext = it.hasNext();
+            if (hasNext) {
+                buf.append(CollectionUtils.COMMA).append(' ');
+            }
+        }
+
+        buf.append('}');
+        return buf.toString();
+    }
+
+}
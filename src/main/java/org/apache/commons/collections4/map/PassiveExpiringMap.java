@@ -19,14 +19,16 @@ package org.apache.commons.collections4.map;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Decorates a {@code Map} to evict expired entries once their expiration
@@ -48,6 +50,20 @@ import java.util.concurrent.TimeUnit;
  * removes all expired entries prior to actually completing the invocation.
  * </p>
  * <p>
+ * The expiration times are also indexed in order, so that removing the expired
+ * entries only costs time proportional to the number of entries that have expired
+ * since the last removal, rather than to the size of the map. In particular, checking
+ * the map for expired entries when none has expired takes constant time.
+ * Expiration times are stored as primitive values, and entries that never expire
+ * take no space beyond the decorated map.
+ * </p>
+ * <p>
+ * The current time is read from a {@link Clock}, by default
+ * {@link System#currentTimeMillis()}. {@link Clock#coarse()} trades up to a few
+ * milliseconds of precision for reads that do not call into the system, and tests
+ * can supply a clock that they advance themselves.
+ * </p>
+ * <p>
  * <strong>Note that {@link PassiveExpiringMap} is not synchronized and is not
  * thread-safe.</strong> If you wish to use this map from multiple threads
  * concurrently, you must use appropriate synchronization. The simplest approach
@@ -82,6 +98,9 @@ public class PassiveExpiringMap<K, V>
         /** the constant time-to-live value measured in milliseconds. */
         private final long timeToLiveMillis;
 
+        /** the clock giving the current time, null if deserialized from an older version. */
+        private final Clock clock;
+
         /**
          * Default constructor. Constructs a policy using a negative
          * time-to-live value that results in entries never expiring.
@@ -102,7 +121,24 @@ public class PassiveExpiringMap<K, V>
          *        entries that ALWAYS expire.
          */
         public ConstantTimeToLiveExpirationPolicy(final long timeToLiveMillis) {
+            this(timeToLiveMillis, Clock.system());
+        }
+
+        /**
+         * Construct a policy with the given time-to-live constant measured in
+         * milliseconds from the time given by a clock.
+         *
+         * @param timeToLiveMillis the constant amount of time (in milliseconds)
+         *        an entry is available before it expires. A negative value
+         *        results in entries that NEVER expire. A zero value results in
+         *        entries that ALWAYS expire.
+         * @param clock the clock giving the current time, must not be null.
+         * @throws NullPointerException if the clock is null.
+         * @since 4.5
+         */
+        public ConstantTimeToLiveExpirationPolicy(final long timeToLiveMillis, final Clock clock) {
             this.timeToLiveMillis = timeToLiveMillis;
+            this.clock = Objects.requireNonNull(clock, "clock");
         }
 
         /**
@@ -128,15 +164,15 @@ public class PassiveExpiringMap<K, V>
          * @param key the key for the entry (ignored).
          * @param value the value for the entry (ignored).
          * @return if {@link #timeToLiveMillis} &ge; 0, an expiration time of
-         *         {@link #timeToLiveMillis} +
-         *         {@link System#currentTimeMillis()} is returned. Otherwise, -1
-         *         is returned indicating the entry never expires.
+         *         {@link #timeToLiveMillis} + the current time of the clock
+         *         is returned. Otherwise, -1 is returned indicating the entry
+         *         never expires.
          */
         @Override
         public long expirationTime(final K key, final V value) {
             if (timeToLiveMillis >= 0L) {
                 // avoid numerical overflow
-                final long nowMillis = System.currentTimeMillis();
+                final long nowMillis = clock != null ? clock.currentTimeMillis() : System.currentTimeMillis();
                 if (nowMillis > Long.MAX_VALUE - timeToLiveMillis) {
                     // expiration would be greater than Long.MAX_VALUE
                     // never expire
@@ -174,6 +210,162 @@ public class PassiveExpiringMap<K, V>
         long expirationTime(K key, V value);
     }
 
+    /**
+     * A source of the current time in milliseconds, for the map to decide which entries
+     * have expired and for expiration policies to compute expiration times.
+     *
+     * @since 4.5
+     */
+    @FunctionalInterface
+    public interface Clock extends Serializable {
+
+        /**
+         * Gets the clock backed by {@link System#currentTimeMillis()}.
+         *
+         * @return the system clock.
+         */
+        static Clock system() {
+            return SystemClock.INSTANCE;
+        }
+
+        /**
+         * Gets a shared clock that reads a time updated every few milliseconds by a
+         * background daemon thread. Reading it is cheaper than calling
+         * {@link System#currentTimeMillis()}, but it may lag behind the system time by
+         * a few milliseconds, so entries may expire that much later.
+         * <p>
+         * The thread is started when the clock is read and stops once the clock has not
+         * been read for about a second, so no thread is left running when the maps
+         * using the clock are idle or gone.
+         * </p>
+         *
+         * @return the coarse clock.
+         */
+        static Clock coarse() {
+            return CoarseClock.INSTANCE;
+        }
+
+        /**
+         * Gets the current time.
+         *
+         * @return the current time in milliseconds.
+         */
+        long currentTimeMillis();
+    }
+
+    /**
+     * The clock backed by {@link System#currentTimeMillis()}.
+     */
+    private static final class SystemClock implements Clock {
+
+        /** Serialization version */
+        private static final long serialVersionUID = 1L;
+
+        /** Singleton instance */
+        static final SystemClock INSTANCE = new SystemClock();
+
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        private Object readResolve() {
+            return INSTANCE;
+        }
+    }
+
+    /**
+     * The clock reading a time updated periodically by a background thread, which
+     * runs only while the clock is being read.
+     */
+    static final class CoarseClock implements Clock, Runnable {
+
+        /** Serialization version */
+        private static final long serialVersionUID = 1L;
+
+        /** The interval between updates of the time, in milliseconds. */
+        static final long TICK_MILLIS = 4;
+
+        /** The number of ticks without reads after which the thread stops. */
+        static final int IDLE_TICKS = 250;
+
+        /** Singleton instance */
+        static final CoarseClock INSTANCE = new CoarseClock();
+
+        /** The last time read from the system. */
+        private transient volatile long millis;
+
+        /** Whether the clock was read since the last tick. */
+        private transient volatile boolean read;
+
+        /** Whether the thread updating the time is running. */
+        private final transient AtomicBoolean ticking = new AtomicBoolean();
+
+        private CoarseClock() {
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            if (!read) {
+                read = true;
+            }
+            if (!ticking.get()) {
+                start();
+            }
+            return millis;
+        }
+
+        /**
+         * Starts the thread, unless another reader just did.
+         */
+        private void start() {
+            // written before the thread is marked as running, so that readers seeing it running see a recent time
+            millis = System.currentTimeMillis();
+            if (ticking.compareAndSet(false, true)) {
+                final Thread ticker = new Thread(this, "PassiveExpiringMap-CoarseClock");
+                ticker.setDaemon(true);
+                ticker.start();
+            }
+        }
+
+        /**
+         * Tells whether the thread updating the time is running.
+         *
+         * @return true if the thread is running
+         */
+        boolean isTicking() {
+            return ticking.get();
+        }
+
+        @Override
+        public void run() {
+            try {
+                int idleTicks = 0;
+                while (idleTicks < IDLE_TICKS) {
+                    millis = System.currentTimeMillis();
+                    try {
+                        Thread.sleep(TICK_MILLIS);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (read) {
+                        read = false;
+                        idleTicks = 0;
+                    } else {
+                        idleTicks++;
+                    }
+                }
+            } finally {
+                ticking.set(false);
+            }
+        }
+
+        private Object readResolve() {
+            return INSTANCE;
+        }
+    }
+
     /** Serialization version */
     private static final long serialVersionUID = 1L;
 
@@ -195,11 +387,24 @@ public class PassiveExpiringMap<K, V>
         return TimeUnit.MILLISECONDS.convert(timeToLive, timeUnit);
     }
 
-    /** map used to manage expiration times for the actual map entries. */
-    private final Map<Object, Long> expirationMap = new HashMap<>();
+    /**
+     * The serialized form, which stores the expiration times in a {@code Map} of
+     * {@code Long} values as older versions did.
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("expirationMap", Map.class),
+        new ObjectStreamField("expiringPolicy", ExpirationPolicy.class),
+        new ObjectStreamField("clock", Clock.class)
+    };
+
+    /** the expiration times of the entries that can expire. */
+    private transient ExpirationMap expirationMap = new ExpirationMap();
 
     /** the policy used to determine time-to-live values for map entries. */
-    private final ExpirationPolicy<K, V> expiringPolicy;
+    private ExpirationPolicy<K, V> expiringPolicy;
+
+    /** the clock giving the current time. */
+    private Clock clock;
 
     /**
      * Default constructor. Constructs a map decorator that results in entries
@@ -234,8 +439,47 @@ public class PassiveExpiringMap<K, V>
      */
     public PassiveExpiringMap(final ExpirationPolicy<K, V> expiringPolicy,
                               final Map<K, V> map) {
+        this(expiringPolicy, map, Clock.system());
+    }
+
+    /**
+     * Construct a map decorator that decorates the given map, uses the given
+     * expiration policy to determine expiration times and the given clock to
+     * determine which entries have expired. If there are any elements already
+     * in the map being decorated, they will NEVER expire unless they are replaced.
+     * <p>
+     * The policy should compute expiration times from the same clock.
+     * </p>
+     *
+     * @param expiringPolicy the policy used to determine expiration times of
+     *        entries as they are added.
+     * @param map the map to decorate, must not be null.
+     * @param clock the clock giving the current time, must not be null.
+     * @throws NullPointerException if the map, expiringPolicy or clock is null.
+     * @since 4.5
+     */
+    public PassiveExpiringMap(final ExpirationPolicy<K, V> expiringPolicy,
+                              final Map<K, V> map, final Clock clock) {
         super(map);
         this.expiringPolicy = Objects.requireNonNull(expiringPolicy, "expiringPolicy");
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    /**
+     * Construct a map decorator using the given time-to-live value measured in
+     * milliseconds from the time given by a clock to create and use a
+     * {@link ConstantTimeToLiveExpirationPolicy} expiration policy.
+     *
+     * @param timeToLiveMillis the constant amount of time (in milliseconds) an
+     *        entry is available before it expires. A negative value results in
+     *        entries that NEVER expire. A zero value results in entries that
+     *        ALWAYS expire.
+     * @param clock the clock giving the current time, must not be null.
+     * @throws NullPointerException if the clock is null.
+     * @since 4.5
+     */
+    public PassiveExpiringMap(final long timeToLiveMillis, final Clock clock) {
+        this(new ConstantTimeToLiveExpirationPolicy<>(timeToLiveMillis, clock), new HashMap<>(), clock);
     }
 
     /**
@@ -337,7 +581,7 @@ public class PassiveExpiringMap<K, V>
      */
     @Override
     public boolean containsKey(final Object key) {
-        removeIfExpired(key, now());
+        removeAllExpired(now());
         return super.containsKey(key);
     }
 
@@ -368,7 +612,7 @@ public class PassiveExpiringMap<K, V>
      */
     @Override
     public V get(final Object key) {
-        removeIfExpired(key, now());
+        removeAllExpired(now());
         return super.get(key);
     }
 
@@ -382,25 +626,6 @@ public class PassiveExpiringMap<K, V>
         return super.isEmpty();
     }
 
-    /**
-     * Determines if the given expiration time is less than {@code now}.
-     *
-     * @param now the time in milliseconds used to compare against the
-     *        expiration time.
-     * @param expirationTimeObject the expiration time value retrieved from
-     *        {@link #expirationMap}, can be null.
-     * @return {@code true} if {@code expirationTimeObject} is &ge; 0
-     *         and {@code expirationTimeObject} &lt; {@code now}.
-     *         {@code false} otherwise.
-     */
-    private boolean isExpired(final long now, final Long expirationTimeObject) {
-        if (expirationTimeObject != null) {
-            final long expirationTime = expirationTimeObject.longValue();
-            return expirationTime >= 0 && now >= expirationTime;
-        }
-        return false;
-    }
-
     /**
      * All expired entries are removed from the map prior to returning the key set.
      * {@inheritDoc}
@@ -415,7 +640,7 @@ public class PassiveExpiringMap<K, V>
      * The current time in milliseconds.
      */
     private long now() {
-        return System.currentTimeMillis();
+        return clock.currentTimeMillis();
     }
 
     /**
@@ -427,11 +652,11 @@ public class PassiveExpiringMap<K, V>
     @Override
     public V put(final K key, final V value) {
         // remove the previous record
-        removeIfExpired(key, now());
+        removeAllExpired(now());
 
         // record expiration time of new entry
         final long expirationTime = expiringPolicy.expirationTime(key, value);
-        expirationMap.put(key, Long.valueOf(expirationTime));
+        expirationMap.setExpirationTime(key, expirationTime);
 
         return super.put(key, value);
     }
@@ -458,31 +683,17 @@ public class PassiveExpiringMap<K, V>
      * Removes all entries in the map whose expiration time is less than
      * {@code now}. The exceptions are entries with negative expiration
      * times; those entries are never removed.
-     *
-     * @see #isExpired(long, Long)
+     * <p>
+     * Only the entries that have expired are visited.
      */
     private void removeAllExpired(final long nowMillis) {
-        final Iterator<Map.Entry<Object, Long>> iter = expirationMap.entrySet().iterator();
-        while (iter.hasNext()) {
-            final Map.Entry<Object, Long> expirationEntry = iter.next();
-            if (isExpired(nowMillis, expirationEntry.getValue())) {
-                // remove entry from collection
-                super.remove(expirationEntry.getKey());
-                // remove entry from expiration map
-                iter.remove();
-            }
-        }
-    }
-
-    /**
-     * Removes the entry with the given key if the entry's expiration time is
-     * less than {@code now}. If the entry has a negative expiration time,
-     * the entry is never removed.
-     */
-    private void removeIfExpired(final Object key, final long nowMillis) {
-        final Long expirationTimeObject = expirationMap.get(key);
-        if (isExpired(nowMillis, expirationTimeObject)) {
-            remove(key);
+        Expiration earliest;
+        while ((earliest = expirationMap.earliest()) != null && nowMillis >= earliest.expirationTime) {
+            final Object key = earliest.getKey();
+            // remove entry from expiration map
+            expirationMap.remove(key);
+            // remove entry from collection
+            super.remove(key);
         }
     }
 
@@ -507,7 +718,18 @@ public class PassiveExpiringMap<K, V>
     // (1) should only fail if input stream is incorrect
     private void readObject(final ObjectInputStream in)
         throws IOException, ClassNotFoundException {
-        in.defaultReadObject();
+        final ObjectInputStream.GetField fields = in.readFields();
+        expiringPolicy = (ExpirationPolicy<K, V>) fields.get("expiringPolicy", null); // (1)
+        final Clock serializedClock = (Clock) fields.get("clock", null); // (1)
+        // older versions did not store a clock
+        clock = serializedClock != null ? serializedClock : Clock.system();
+        expirationMap = new ExpirationMap();
+        final Map<Object, Long> expirationTimes = (Map<Object, Long>) fields.get("expirationMap", null); // (1)
+        if (expirationTimes != null) {
+            for (final Map.Entry<Object, Long> entry : expirationTimes.entrySet()) {
+                expirationMap.setExpirationTime(entry.getKey(), entry.getValue().longValue());
+            }
+        }
         map = (Map<K, V>) in.readObject(); // (1)
     }
 
@@ -519,7 +741,17 @@ public class PassiveExpiringMap<K, V>
      */
     private void writeObject(final ObjectOutputStream out)
         throws IOException {
-        out.defaultWriteObject();
+        final Map<Object, Long> expirationTimes = new HashMap<>();
+        for (final Expiration expiration : expirationMap.queue) {
+            if (expiration != null) {
+                expirationTimes.put(expiration.getKey(), Long.valueOf(expiration.expirationTime));
+            }
+        }
+        final ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("expirationMap", expirationTimes);
+        fields.put("expiringPolicy", expiringPolicy);
+        fields.put("clock", clock);
+        out.writeFields();
         out.writeObject(map);
     }
 
@@ -532,4 +764,147 @@ public class PassiveExpiringMap<K, V>
         removeAllExpired(now());
         return super.values();
     }
+
+    /**
+     * The expiration time of a key, stored in a hash table entry that is also an
+     * element of a binary heap ordered by expiration time.
+     */
+    static final class Expiration extends AbstractHashedMap.HashEntry<Object, Object> {
+        /** the expiration time, not negative. */
+        long expirationTime;
+        /** the position of this entry in the heap. */
+        int queueIndex;
+
+        Expiration(final AbstractHashedMap.HashEntry<Object, Object> next, final int hashCode, final Object key,
+                   final long expirationTime) {
+            super(next, hashCode, key, null);
+            this.expirationTime = expirationTime;
+        }
+    }
+
+    /**
+     * A hash table of the expiration times of the keys that can expire, which also
+     * keeps its entries in a binary heap so that the earliest expiration time can be
+     * found in constant time and the entry removed in logarithmic time.
+     */
+    static final class ExpirationMap extends AbstractHashedMap<Object, Object> {
+        /** the heap of entries, earliest expiration time first. */
+        Expiration[] queue = new Expiration[DEFAULT_CAPACITY];
+        /** the number of entries in the heap. */
+        private int queueSize;
+        /** the expiration time of the entry being put. */
+        private long pendingExpirationTime;
+
+        ExpirationMap() {
+            super(DEFAULT_CAPACITY);
+        }
+
+        /**
+         * Sets the expiration time of a key, removing it if the time is negative.
+         *
+         * @param key the key.
+         * @param expirationTime the expiration time, negative if the key never expires.
+         */
+        void setExpirationTime(final Object key, final long expirationTime) {
+            if (expirationTime < 0) {
+                remove(key);
+            } else {
+                pendingExpirationTime = expirationTime;
+                put(key, null);
+            }
+        }
+
+        /**
+         * Gets the entry with the earliest expiration time.
+         *
+         * @return the entry, null if empty.
+         */
+        Expiration earliest() {
+            return queueSize == 0 ? null : queue[0];
+        }
+
+        @Override
+        protected HashEntry<Object, Object> createEntry(final HashEntry<Object, Object> next, final int hashCode,
+                                                        final Object key, final Object value) {
+            return new Expiration(next, hashCode, convertKey(key), pendingExpirationTime);
+        }
+
+        @Override
+        protected void addEntry(final HashEntry<Object, Object> entry, final int hashIndex) {
+            super.addEntry(entry, hashIndex);
+            final Expiration expiration = (Expiration) entry;
+            if (queueSize == queue.length) {
+                queue = Arrays.copyOf(queue, queueSize * 2);
+            }
+            siftUp(queueSize++, expiration);
+        }
+
+        @Override
+        protected void updateEntry(final HashEntry<Object, Object> entry, final Object newValue) {
+            final Expiration expiration = (Expiration) entry;
+            final long previous = expiration.expirationTime;
+            expiration.expirationTime = pendingExpirationTime;
+            if (pendingExpirationTime < previous) {
+                siftUp(expiration.queueIndex, expiration);
+            } else {
+                siftDown(expiration.queueIndex, expiration);
+            }
+        }
+
+        @Override
+        protected void removeEntry(final HashEntry<Object, Object> entry, final int hashIndex,
+                                   final HashEntry<Object, Object> previous) {
+            super.removeEntry(entry, hashIndex, previous);
+            final int index = ((Expiration) entry).queueIndex;
+            final Expiration last = queue[--queueSize];
+            queue[queueSize] = null;
+            if (last != entry) {
+                siftDown(index, last);
+                if (queue[index] == last) {
+                    siftUp(index, last);
+                }
+            }
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            Arrays.fill(queue, 0, queueSize, null);
+            queueSize = 0;
+        }
+
+        private void siftUp(int index, final Expiration expiration) {
+            while (index > 0) {
+                final int parent = index - 1 >>> 1;
+                final Expiration parentExpiration = queue[parent];
+                if (expiration.expirationTime >= parentExpiration.expirationTime) {
+                    break;
+                }
+                queue[index] = parentExpiration;
+                parentExpiration.queueIndex = index;
+                index = parent;
+            }
+            queue[index] = expiration;
+            expiration.queueIndex = index;
+        }
+
+        private void siftDown(int index, final Expiration expiration) {
+            final int half = queueSize >>> 1;
+            while (index < half) {
+                int child = (index << 1) + 1;
+                final int right = child + 1;
+                if (right < queueSize && queue[right].expirationTime < queue[child].expirationTime) {
+                    child = right;
+                }
+                if (expiration.expirationTime <= queue[child].expirationTime) {
+                    break;
+                }
+                queue[index] = queue[child];
+                queue[index].queueIndex = index;
+                index = child;
+            }
+            queue[index] = expiration;
+            expiration.queueIndex = index;
+        }
+    }
 }
@@ -21,6 +21,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.ref.Reference;
+import java.util.Map;
 
 /**
  * A {@code Map} implementation that allows mappings to be
@@ -81,6 +82,19 @@ public class ReferenceIdentityMap<K, V> extends AbstractReferenceMap<K, V> imple
     /** Serialization version */
     private static final long serialVersionUID = -1266190134568365852L;
 
+    /** The strategy of the immutable copies, which also compare keys by identity */
+    private static final FrozenHashedMap.KeyStrategy FROZEN_KEY_STRATEGY = new FrozenHashedMap.KeyStrategy() {
+        @Override
+        protected int hash(final Object key) {
+            return System.identityHashCode(key);
+        }
+
+        @Override
+        protected boolean isEqualKey(final Object key1, final Object key2) {
+            return key1 == key2;
+        }
+    };
+
     /**
      * Constructs a new {@code ReferenceIdentityMap} that will
      * use hard references to keys and soft references to values.
@@ -227,6 +241,36 @@ public class ReferenceIdentityMap<K, V> extends AbstractReferenceMap<K, V> imple
         return value1 == value2;
     }
 
+    /**
+     * Creates an immutable copy of the mappings currently in this map, which also
+     * compares keys and values by identity.
+     * <p>
+     * The copy holds its keys and values with strong references, so it pins them in
+     * memory for as long as the copy is reachable.
+     *
+     * @return an immutable copy of the live mappings of this map
+     * @since 4.5
+     */
+    @Override
+    public FrozenHashedMap<K, V> freeze() {
+        return new FrozenReferenceIdentityMap<>(this);
+    }
+
+    /**
+     * Immutable copy of a reference identity map.
+     */
+    private static final class FrozenReferenceIdentityMap<K, V> extends FrozenHashedMap<K, V> {
+
+        FrozenReferenceIdentityMap(final Map<? extends K, ? extends V> map) {
+            super(map, FROZEN_KEY_STRATEGY);
+        }
+
+        @Override
+        protected boolean isEqualValue(final Object value1, final Object value2) {
+            return value1 == value2;
+        }
+    }
+
     /**
      * Write the map out using a custom routine.
      *
@@ -25,8 +25,10 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
-import org.apache.commons.collections4.KeyValue;
+import org.apache.commons.collections4.keyvalue.AbstractMapEntry;
 
 /**
  * A StaticBucketMap is an efficient, thread-safe implementation of
@@ -34,16 +36,17 @@ import org.apache.commons.collections4.KeyValue;
  * thread-contentious environment.  The map supports very efficient
  * {@link #get(Object) get}, {@link #put(Object,Object) put},
  * {@link #remove(Object) remove} and {@link #containsKey(Object) containsKey}
- * operations, assuming (approximate) uniform hashing and
- * that the number of entries does not exceed the number of buckets.  If the
- * number of entries exceeds the number of buckets or if the hash codes of the
+ * operations, assuming (approximate) uniform hashing.  If the hash codes of the
  * objects are not uniformly distributed, these operations have a worst case
  * scenario that is proportional to the number of elements in the map
  * (<i>O(n)</i>).<p>
  *
- * Each bucket in the hash table has its own monitor, so two threads can
- * safely operate on the map at the same time, often without incurring any
- * monitor contention.  This means that you don't have to wrap instances
+ * The map is split into stripes, each with its own monitor and its own hash
+ * table, so two threads can safely modify the map at the same time, often
+ * without incurring any monitor contention.  Reads never take a monitor: the
+ * tables and their entries are published through volatile references, so
+ * {@link #get(Object) get} and {@link #containsKey(Object) containsKey} run
+ * without locking and see the latest completed write to a key.  This means that you don't have to wrap instances
  * of this class with {@link java.util.Collections#synchronizedMap(Map)};
  * instances are already thread-safe.  Unfortunately, however, this means
  * that this map implementation behaves in ways you may find disconcerting.
@@ -68,7 +71,9 @@ import org.apache.commons.collections4.KeyValue;
  * {@code staticBucketMapInstance}.<p>
  *
  * Also, much like an encyclopedia, the results of {@link #size()} and
- * {@link #isEmpty()} are out-of-date as soon as they are produced.<p>
+ * {@link #isEmpty()} are out-of-date as soon as they are produced.  They are
+ * read from a striped counter, so they take constant time and do not lock
+ * the map.<p>
  *
  * The iterators returned by the collection views of this class are <i>not</i>
  * fail-fast.  They will <i>never</i> raise a
@@ -77,13 +82,14 @@ import org.apache.commons.collections4.KeyValue;
  * during iteration.  Similarly, the iterator does not necessarily fail to
  * return keys and values that were removed after the iterator was created.<p>
  *
- * Finally, unlike {@link java.util.HashMap}-style implementations, this
- * class <i>never</i> rehashes the map.  The number of buckets is fixed
- * at construction time and never altered.  Performance may degrade if
- * you do not allocate enough buckets upfront.<p>
+ * The number of stripes is fixed at construction time and never altered,
+ * but each stripe resizes its own hash table as it fills, while holding
+ * only its own monitor, so chains stay short however many entries are added.<p>
  *
  * The {@link #atomic(Runnable)} method is provided to allow atomic iterations
- * and bulk operations; however, overuse of {@link #atomic(Runnable) atomic}
+ * and bulk operations, as it holds off every modification of the map while
+ * it runs (reads are never blocked and may observe a bulk operation that is
+ * in progress); however, overuse of {@link #atomic(Runnable) atomic}
  * will basically result in a map that's slower than an ordinary synchronized
  * {@link java.util.HashMap}.
  *
@@ -97,91 +103,93 @@ import org.apache.commons.collections4.KeyValue;
  */
 public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
 
-    /** The default number of buckets to use */
-    private static final int DEFAULT_BUCKETS = 255;
-    /** The array of buckets, where the actual data is held */
-    private final Node<K, V>[] buckets;
-    /** The matching array of locks */
-    private final Lock[] locks;
+    /** The default number of stripes to use */
+    private static final int DEFAULT_BUCKETS = 256;
+    /** The minimum number of stripes to use */
+    private static final int MIN_BUCKETS = 16;
+    /** The maximum number of stripes to use */
+    private static final int MAX_BUCKETS = 1 << 16;
+    /** The initial capacity of the hash table of each stripe, a power of two */
+    private static final int STRIPE_INITIAL_CAPACITY = 4;
+    /** The array of stripes, where the actual data is held */
+    private final Lock<K, V>[] locks;
+    /** The shift selecting the stripe from the high bits of a hash */
+    private final int stripeShift;
+    /** The number of entries in the map */
+    private final LongAdder count = new LongAdder();
 
     /**
-     * Initializes the map with the default number of buckets (255).
+     * Initializes the map with the default number of stripes (256).
      */
     public StaticBucketMap() {
         this(DEFAULT_BUCKETS);
     }
 
     /**
-     * Initializes the map with a specified number of buckets.  The number
-     * of buckets is never below 17, and is always an odd number (StaticBucketMap
-     * ensures this). The number of buckets is inversely proportional to the
-     * chances for thread contention.  The fewer buckets, the more chances for
-     * thread contention.  The more buckets the fewer chances for thread
-     * contention.
+     * Initializes the map with a specified number of stripes.  The number
+     * of stripes is rounded up to a power of two, never below 16 nor above
+     * 65536 (StaticBucketMap ensures this). The number of stripes is inversely
+     * proportional to the chances for thread contention.  The fewer stripes,
+     * the more chances for thread contention.  The more stripes the fewer
+     * chances for thread contention.  Each stripe grows its own hash table as
+     * entries are added.
      *
-     * @param numBuckets  the number of buckets for this map
+     * @param numBuckets  the number of stripes for this map
      */
     @SuppressWarnings("unchecked")
     public StaticBucketMap(final int numBuckets) {
-        int size = Math.max(17, numBuckets);
-
-        // Ensure that bucketSize is never a power of 2 (to ensure maximal distribution)
-        if (size % 2 == 0) {
-            size--;
+        // Ensure that the number of stripes is a power of 2, so that a stripe is
+        //  selected with a shift rather than a division
+        int size = MIN_BUCKETS;
+        while (size < numBuckets && size < MAX_BUCKETS) {
+            size <<= 1;
         }
 
-        buckets = new Node[size];
         locks = new Lock[size];
+        stripeShift = Integer.SIZE - Integer.numberOfTrailingZeros(size);
 
         for (int i = 0; i < size; i++) {
-            locks[i] = new Lock();
+            locks[i] = new Lock<>();
         }
     }
 
     /**
-     * Determine the exact hash entry for the key.  The hash algorithm
-     * is rather simplistic, but it does the job:
-     *
-     * <pre>
-     *   He = |Hk mod n|
-     * </pre>
-     *
-     * <p>
-     *   He is the entry's hashCode, Hk is the key's hashCode, and n is
-     *   the number of buckets.
-     * </p>
+     * Determine the hash code of the key, mixing the bits of its hashCode
+     * with the finalizer of MurmurHash3 so that every bit of the result depends
+     * on every bit of the hashCode, including for sequential keys.
      */
-    private int getHash(final Object key) {
+    private static int getHash(final Object key) {
         if (key == null) {
             return 0;
         }
         int hash = key.hashCode();
-        hash += ~(hash << 15);
-        hash ^= (hash >>> 10);
-        hash += (hash << 3);
-        hash ^= (hash >>> 6);
-        hash += ~(hash << 11);
-        hash ^= (hash >>> 16);
-        hash %= buckets.length;
-        return (hash < 0) ? hash * -1 : hash;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * Determine the stripe holding a hash from its high bits, the low bits
+     * indexing the hash table of the stripe.
+     */
+    private Lock<K, V> stripeFor(final int hash) {
+        return locks[hash >>> stripeShift];
     }
 
     /**
      * Gets the current size of the map.
-     * The value is computed fresh each time the method is called.
+     * The value is read from a striped counter without locking.
      *
      * @return the current size
      */
     @Override
     public int size() {
-        int cnt = 0;
-
-        for (int i = 0; i < buckets.length; i++) {
-            synchronized(locks[i]) {
-                cnt += locks[i].size;
-            }
-        }
-        return cnt;
+        final long size = count.sum();
+        // concurrent updates of different cells may be summed out of order
+        return (int) Math.max(0, Math.min(size, Integer.MAX_VALUE));
     }
 
     /**
@@ -202,20 +210,8 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
      */
     @Override
     public V get(final Object key) {
-        final int hash = getHash(key);
-
-        synchronized (locks[hash]) {
-            Node<K, V> n = buckets[hash];
-
-            while (n != null) {
-                if (Objects.equals(n.key, key)) {
-                    return n.value;
-                }
-
-                n = n.next;
-            }
-        }
-        return null;
+        final Node<K, V> n = getNode(key);
+        return n == null ? null : n.value;
     }
 
     /**
@@ -226,20 +222,24 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
      */
     @Override
     public boolean containsKey(final Object key) {
-        final int hash = getHash(key);
-
-        synchronized (locks[hash]) {
-            Node<K, V> n = buckets[hash];
-
-            while (n != null) {
-                if (Objects.equals(n.key, key)) {
-                    return true;
-                }
+        return getNode(key) != null;
+    }
 
-                n = n.next;
+    /**
+     * Finds the node of a key without locking.
+     *
+     * @param key  the key to find
+     * @return the node, null if not found
+     */
+    private Node<K, V> getNode(final Object key) {
+        final int hash = getHash(key);
+        final AtomicReferenceArray<Node<K, V>> table = stripeFor(hash).table;
+        for (Node<K, V> n = table.get(hash & table.length() - 1); n != null; n = n.next) {
+            if (n.hash == hash && Objects.equals(n.key, key)) {
+                return n;
             }
         }
-        return false;
+        return null;
     }
 
     /**
@@ -250,16 +250,13 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
      */
     @Override
     public boolean containsValue(final Object value) {
-        for (int i = 0; i < buckets.length; i++) {
-            synchronized (locks[i]) {
-                Node<K, V> n = buckets[i];
-
-                while (n != null) {
+        for (final Lock<K, V> lock : locks) {
+            final AtomicReferenceArray<Node<K, V>> table = lock.table;
+            for (int i = 0; i < table.length(); i++) {
+                for (Node<K, V> n = table.get(i); n != null; n = n.next) {
                     if (Objects.equals(n.value, value)) {
                         return true;
                     }
-
-                    n = n.next;
                 }
             }
         }
@@ -276,43 +273,57 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
     @Override
     public V put(final K key, final V value) {
         final int hash = getHash(key);
+        final Lock<K, V> lock = stripeFor(hash);
 
-        synchronized (locks[hash]) {
-            Node<K, V> n = buckets[hash];
+        synchronized (lock) {
+            final AtomicReferenceArray<Node<K, V>> table = lock.table;
+            final int index = hash & table.length() - 1;
+            final Node<K, V> head = table.get(index);
 
-            if (n == null) {
-                n = new Node<>();
-                n.key = key;
-                n.value = value;
-                buckets[hash] = n;
-                locks[hash].size++;
-                return null;
-            }
-
-            // Set n to the last node in the linked list.  Check each key along the way
-            //  If the key is found, then change the value of that node and return
+            // If the key is found, then change the value of that node and return
             //  the old value.
-            for (Node<K, V> next = n; next != null; next = next.next) {
-                n = next;
-
-                if (Objects.equals(n.key, key)) {
+            for (Node<K, V> n = head; n != null; n = n.next) {
+                if (n.hash == hash && Objects.equals(n.key, key)) {
                     final V returnVal = n.value;
                     n.value = value;
                     return returnVal;
                 }
             }
 
-            // The key was not found in the current list of nodes, add it to the end
-            //  in a new node.
-            final Node<K, V> newNode = new Node<>();
-            newNode.key = key;
-            newNode.value = value;
-            n.next = newNode;
-            locks[hash].size++;
+            // The key was not found in the current list of nodes, add it to the front
+            //  in a new node, which is only visible to readers once fully initialized.
+            table.set(index, new Node<>(hash, key, value, head));
+            if (++lock.size > table.length() - (table.length() >>> 2)) {
+                lock.table = resize(table);
+            }
         }
+        count.increment();
         return null;
     }
 
+    /**
+     * Doubles the capacity of the hash table of a stripe.
+     * Must be called while holding the monitor of the stripe.
+     * <p>
+     * The nodes are copied rather than relinked, so that readers still
+     * traversing the old table do not miss any entry.
+     * </p>
+     *
+     * @param table  the table to grow
+     * @return the new table
+     */
+    private static <K, V> AtomicReferenceArray<Node<K, V>> resize(final AtomicReferenceArray<Node<K, V>> table) {
+        final int capacity = table.length() * 2;
+        final AtomicReferenceArray<Node<K, V>> newTable = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < table.length(); i++) {
+            for (Node<K, V> n = table.get(i); n != null; n = n.next) {
+                final int index = n.hash & capacity - 1;
+                newTable.lazySet(index, new Node<>(n.hash, n.key, n.value, newTable.get(index)));
+            }
+        }
+        return newTable;
+    }
+
     /**
      * Removes the specified key from the map.
      *
@@ -321,24 +332,45 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
      */
     @Override
     public V remove(final Object key) {
+        final Node<K, V> n = removeNode(key, false, null);
+        return n == null ? null : n.value;
+    }
+
+    /**
+     * Removes the node of a key, optionally only if it is mapped to a value.
+     *
+     * @param key  the key to remove
+     * @param matchValue  whether to only remove the key if mapped to the value
+     * @param value  the value to match
+     * @return the removed node, null if none
+     */
+    private Node<K, V> removeNode(final Object key, final boolean matchValue, final Object value) {
         final int hash = getHash(key);
+        final Lock<K, V> lock = stripeFor(hash);
 
-        synchronized (locks[hash]) {
-            Node<K, V> n = buckets[hash];
+        synchronized (lock) {
+            final AtomicReferenceArray<Node<K, V>> table = lock.table;
+            final int index = hash & table.length() - 1;
+            Node<K, V> n = table.get(index);
             Node<K, V> prev = null;
 
             while (n != null) {
-                if (Objects.equals(n.key, key)) {
-                    // Remove this node from the linked list of nodes.
+                if (n.hash == hash && Objects.equals(n.key, key)) {
+                    if (matchValue && !Objects.equals(n.value, value)) {
+                        return null;
+                    }
+                    // Remove this node from the linked list of nodes.  Readers positioned
+                    //  on it can still follow its next node.
                     if (null == prev) {
                         // This node was the head, set the next node to be the new head.
-                        buckets[hash] = n.next;
+                        table.set(index, n.next);
                     } else {
                         // Set the next node of the previous node to be the node after this one.
                         prev.next = n.next;
                     }
-                    locks[hash].size--;
-                    return n.value;
+                    lock.size--;
+                    count.decrement();
+                    return n;
                 }
 
                 prev = n;
@@ -348,6 +380,27 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
         return null;
     }
 
+    /**
+     * Replaces the value of a key only if it is still mapped.
+     *
+     * @param key  the key to update
+     * @param value  the new value
+     */
+    private void replaceValue(final K key, final V value) {
+        final int hash = getHash(key);
+        final Lock<K, V> lock = stripeFor(hash);
+
+        synchronized (lock) {
+            final AtomicReferenceArray<Node<K, V>> table = lock.table;
+            for (Node<K, V> n = table.get(hash & table.length() - 1); n != null; n = n.next) {
+                if (n.hash == hash && Objects.equals(n.key, key)) {
+                    n.value = value;
+                    return;
+                }
+            }
+        }
+    }
+
     /**
      * Gets the key set.
      *
@@ -396,10 +449,10 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
      */
     @Override
     public void clear() {
-        for (int i = 0; i < buckets.length; i++) {
-            final Lock lock = locks[i];
+        for (final Lock<K, V> lock : locks) {
             synchronized (lock) {
-                buckets[i] = null;
+                lock.table = new AtomicReferenceArray<>(STRIPE_INITIAL_CAPACITY);
+                count.add(-lock.size);
                 lock.size = 0;
             }
         }
@@ -432,13 +485,11 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
     public int hashCode() {
         int hashCode = 0;
 
-        for (int i = 0; i < buckets.length; i++) {
-            synchronized (locks[i]) {
-                Node<K, V> n = buckets[i];
-
-                while (n != null) {
-                    hashCode += n.hashCode();
-                    n = n.next;
+        for (final Lock<K, V> lock : locks) {
+            final AtomicReferenceArray<Node<K, V>> table = lock.table;
+            for (int i = 0; i < table.length(); i++) {
+                for (Node<K, V> n = table.get(i); n != null; n = n.next) {
+                    hashCode += Objects.hashCode(n.key) ^ Objects.hashCode(n.value);
                 }
             }
         }
@@ -446,85 +497,75 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
     }
 
     /**
-     * The Map.Entry for the StaticBucketMap.
+     * A node of the hash table of a stripe.
+     * Its value and next node are volatile so that it can be read without locking.
      */
-    private static final class Node<K, V> implements Map.Entry<K, V>, KeyValue<K, V> {
-        protected K key;
-        protected V value;
-        protected Node<K, V> next;
-
-        @Override
-        public K getKey() {
-            return key;
-        }
-
-        @Override
-        public V getValue() {
-            return value;
+    private static final class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node(final int hash, final K key, final V value, final Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
         }
+    }
 
-        @Override
-        public int hashCode() {
-            return ((key == null ? 0 : key.hashCode()) ^
-                    (value == null ? 0 : value.hashCode()));
-        }
+    /**
+     * The lock object of a stripe, which also holds the hash table of the stripe
+     * and a count of the nodes in this lock.
+     */
+    private static final class Lock<K, V> {
+        /** The hash table, replaced as a whole when resized or cleared */
+        volatile AtomicReferenceArray<Node<K, V>> table = new AtomicReferenceArray<>(STRIPE_INITIAL_CAPACITY);
+        /** The number of nodes, only accessed while holding this lock */
+        int size;
+    }
 
-        @Override
-        public boolean equals(final Object obj) {
-            if (obj == this) {
-                return true;
-            }
-            if (!(obj instanceof Map.Entry<?, ?>)) {
-                return false;
-            }
+    /**
+     * The Map.Entry for the StaticBucketMap, writing values through to the map.
+     */
+    private final class WriteThroughEntry extends AbstractMapEntry<K, V> {
 
-            final Map.Entry<?, ?> e2 = (Map.Entry<?, ?>) obj;
-            return (
-                (key == null ? e2.getKey() == null : key.equals(e2.getKey())) &&
-                (value == null ? e2.getValue() == null : value.equals(e2.getValue())));
+        WriteThroughEntry(final K key, final V value) {
+            super(key, value);
         }
 
         @Override
-        public V setValue(final V obj) {
-            final V retVal = value;
-            value = obj;
-            return retVal;
+        public V setValue(final V value) {
+            replaceValue(getKey(), value);
+            return super.setValue(value);
         }
     }
 
-    /**
-     * The lock object, which also includes a count of the nodes in this lock.
-     */
-    private static final class Lock {
-        public int size;
-    }
-
     private class BaseIterator {
-        private final ArrayList<Map.Entry<K, V>> current = new ArrayList<>();
+        private final ArrayList<Node<K, V>> current = new ArrayList<>();
         private int bucket;
-        private Map.Entry<K, V> last;
+        private Node<K, V> last;
 
         public boolean hasNext() {
             if (!current.isEmpty()) {
                 return true;
             }
-            while (bucket < buckets.length) {
-                synchronized (locks[bucket]) {
-                    Node<K, V> n = buckets[bucket];
-                    while (n != null) {
+            while (bucket < locks.length) {
+                final AtomicReferenceArray<Node<K, V>> table = locks[bucket].table;
+                for (int i = 0; i < table.length(); i++) {
+                    for (Node<K, V> n = table.get(i); n != null; n = n.next) {
                         current.add(n);
-                        n = n.next;
-                    }
-                    bucket++;
-                    if (!current.isEmpty()) {
-                        return true;
                     }
                 }
+                bucket++;
+                if (!current.isEmpty()) {
+                    return true;
+                }
             }
             return false;
         }
 
-        protected Map.Entry<K, V> nextEntry() {
+        protected Node<K, V> nextNode() {
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
@@ -536,7 +577,7 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
             if (last == null) {
                 throw new IllegalStateException();
             }
-            StaticBucketMap.this.remove(last.getKey());
+            StaticBucketMap.this.remove(last.key);
             last = null;
         }
     }
@@ -545,7 +586,8 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
 
         @Override
         public Map.Entry<K, V> next() {
-            return nextEntry();
+            final Node<K, V> n = nextNode();
+            return new WriteThroughEntry(n.key, n.value);
         }
 
     }
@@ -554,7 +596,7 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
 
         @Override
         public V next() {
-            return nextEntry().getValue();
+            return nextNode().value;
         }
 
     }
@@ -563,7 +605,7 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
 
         @Override
         public K next() {
-            return nextEntry().getKey();
+            return nextNode().key;
         }
 
     }
@@ -588,15 +630,8 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
         @Override
         public boolean contains(final Object obj) {
             final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
-            final int hash = getHash(entry.getKey());
-            synchronized (locks[hash]) {
-                for (Node<K, V> n = buckets[hash]; n != null; n = n.next) {
-                    if (n.equals(entry)) {
-                        return true;
-                    }
-                }
-            }
-            return false;
+            final Node<K, V> n = getNode(entry.getKey());
+            return n != null && Objects.equals(n.value, entry.getValue());
         }
 
         @Override
@@ -605,16 +640,7 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
                 return false;
             }
             final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
-            final int hash = getHash(entry.getKey());
-            synchronized (locks[hash]) {
-                for (Node<K, V> n = buckets[hash]; n != null; n = n.next) {
-                    if (n.equals(entry)) {
-                        StaticBucketMap.this.remove(n.getKey());
-                        return true;
-                    }
-                }
-            }
-            return false;
+            return removeNode(entry.getKey(), true, entry.getValue()) != null;
         }
 
     }
@@ -643,17 +669,7 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
 
         @Override
         public boolean remove(final Object obj) {
-            final int hash = getHash(obj);
-            synchronized (locks[hash]) {
-                for (Node<K, V> n = buckets[hash]; n != null; n = n.next) {
-                    final Object k = n.getKey();
-                    if (Objects.equals(k, obj)) {
-                        StaticBucketMap.this.remove(k);
-                        return true;
-                    }
-                }
-            }
-            return false;
+            return removeNode(obj, false, null) != null;
         }
 
     }
@@ -679,8 +695,8 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
     }
 
     /**
-     *  Prevents any operations from occurring on this map while the
-     *  given {@link Runnable} executes.  This method can be used, for
+     *  Prevents any modification from occurring on this map while the
+     *  given {@link Runnable} executes.  Reads do not lock and are not held off.  This method can be used, for
      *  instance, to execute a bulk operation atomically:
      *
      *  <pre>
@@ -706,7 +722,7 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
      *
      *  <b>Implementation note:</b> This method requires a lot of time
      *  and a ton of stack space.  Essentially a recursive algorithm is used
-     *  to enter each bucket's monitor.  If you have twenty thousand buckets
+     *  to enter each stripe's monitor.  If you have twenty thousand stripes
      *  in your map, then the recursive method will be invoked twenty thousand
      *  times.  You have been warned.
      *
@@ -717,7 +733,7 @@ public final class StaticBucketMap<K, V> extends AbstractIterableMap<K, V> {
     }
 
     private void atomic(final Runnable r, final int bucket) {
-        if (bucket >= buckets.length) {
+        if (bucket >= locks.length) {
             r.run();
             return;
         }
@@ -0,0 +1,377 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A {@code Map} implementation with a maximum total weight which removes
+ * the least recently used entries while the weight of its entries exceeds it.
+ * <p>
+ * Where {@link LRUMap} bounds the number of entries, this map bounds the sum of a
+ * cost computed for each entry by a {@link Weigher}, such as the number of bytes
+ * held by the value. Whenever a mapping is added or its value replaced, the least
+ * recently used entries are removed until the total weight is at most the maximum
+ * weight again. An entry that weighs more than the maximum weight on its own is
+ * therefore not retained at all.
+ * </p>
+ * <p>
+ * The weight of an entry is computed when it is added and again whenever its value is
+ * replaced, including through {@code setValue} on an entry or map iterator. As removing
+ * entries during iteration would break the iterator, a value replaced that way is
+ * weighed immediately but the map is only trimmed back to its maximum weight by the
+ * next {@link #put(Object, Object)}.
+ * </p>
+ * <p>
+ * The least recently used algorithm is the same as in {@link LRUMap}: it works on the
+ * get and put operations only, and the map iterates from the least to the most
+ * recently used entry.
+ * </p>
+ * <p>
+ * <strong>Note that WeightedLRUMap is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization. The simplest approach is to wrap this map
+ * using {@link java.util.Collections#synchronizedMap(java.util.Map)}.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @see LRUMap
+ * @since 4.5
+ */
+public class WeightedLRUMap<K, V> extends AbstractLinkedMap<K, V> implements Serializable, Cloneable {
+
+    /**
+     * Computes the weight of an entry.
+     *
+     * @param <K> the key object type.
+     * @param <V> the value object type
+     * @since 4.5
+     */
+    @FunctionalInterface
+    public interface Weigher<K, V> extends Serializable {
+
+        /**
+         * Determines the weight of the given key-value entry.
+         *
+         * @param key the key for the entry.
+         * @param value the value for the entry.
+         * @return the weight of the entry, must not be negative.
+         */
+        long weigh(K key, V value);
+    }
+
+    /** Serialisation version */
+    private static final long serialVersionUID = -3460957163473616421L;
+
+    /** Maximum total weight */
+    private final long maxWeight;
+    /** Computes the weight of each entry */
+    private final Weigher<? super K, ? super V> weigher;
+    /** Total weight of the entries */
+    private transient long currentWeight;
+
+    /**
+     * Constructs a new, empty map with the specified maximum weight.
+     *
+     * @param maxWeight  the maximum total weight of the entries
+     * @param weigher  computes the weight of each entry
+     * @throws IllegalArgumentException if the maximum weight is less than one
+     * @throws NullPointerException if the weigher is null
+     */
+    public WeightedLRUMap(final long maxWeight, final Weigher<? super K, ? super V> weigher) {
+        this(maxWeight, weigher, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new, empty map with the specified maximum weight and initial capacity.
+     *
+     * @param maxWeight  the maximum total weight of the entries
+     * @param weigher  computes the weight of each entry
+     * @param initialCapacity  the initial capacity
+     * @throws IllegalArgumentException if the maximum weight is less than one
+     * @throws IllegalArgumentException if the initial capacity is negative
+     * @throws NullPointerException if the weigher is null
+     */
+    public WeightedLRUMap(final long maxWeight, final Weigher<? super K, ? super V> weigher,
+                          final int initialCapacity) {
+        super(initialCapacity);
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("WeightedLRUMap max weight must be greater than 0");
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = Objects.requireNonNull(weigher, "weigher");
+    }
+
+    /**
+     * Gets the value mapped to the key specified.
+     * <p>
+     * This operation changes the position of the key in the map to the
+     * most recently used position (last).
+     *
+     * @param key  the key
+     * @return the mapped value, null if no match
+     */
+    @Override
+    public V get(final Object key) {
+        return get(key, true);
+    }
+
+    /**
+     * Gets the value mapped to the key specified.
+     * <p>
+     * If {@code updateToMRU} is {@code true}, the position of the key in the map
+     * is changed to the most recently used position (last), otherwise the iteration
+     * order is not changed by this operation.
+     *
+     * @param key  the key
+     * @param updateToMRU  whether the key shall be updated to the
+     *   most recently used position
+     * @return the mapped value, null if no match
+     */
+    public V get(final Object key, final boolean updateToMRU) {
+        final LinkEntry<K, V> entry = getEntry(key);
+        if (entry == null) {
+            return null;
+        }
+        if (updateToMRU) {
+            moveToMRU(entry);
+        }
+        return entry.getValue();
+    }
+
+    /**
+     * Moves an entry to the MRU position at the end of the list.
+     *
+     * @param entry  the entry to update
+     */
+    protected void moveToMRU(final LinkEntry<K, V> entry) {
+        if (entry.after != header) {
+            modCount++;
+            entry.before.after = entry.after;
+            entry.after.before = entry.before;
+            entry.after = header;
+            entry.before = header.before;
+            header.before.after = entry;
+            header.before = entry;
+        }
+    }
+
+    /**
+     * Updates an existing key-value mapping, moving it to the MRU position
+     * and removing least recently used entries if the new value makes the map
+     * exceed its maximum weight.
+     *
+     * @param entry  the entry to update
+     * @param newValue  the new value to store
+     */
+    @Override
+    protected void updateEntry(final HashEntry<K, V> entry, final V newValue) {
+        moveToMRU((LinkEntry<K, V>) entry);
+        entry.setValue(newValue);
+        trimToMaxWeight();
+    }
+
+    /**
+     * Adds a new key-value mapping into this map, removing least recently used
+     * entries if the new mapping makes the map exceed its maximum weight.
+     *
+     * @param hashIndex  the index into the data array to store at
+     * @param hashCode  the hash code of the key to add
+     * @param key  the key to add
+     * @param value  the value to add
+     */
+    @Override
+    protected void addMapping(final int hashIndex, final int hashCode, final K key, final V value) {
+        super.addMapping(hashIndex, hashCode, key, value);
+        trimToMaxWeight();
+    }
+
+    /**
+     * Creates an entry that keeps track of its weight.
+     *
+     * @param next  the next entry in sequence
+     * @param hashCode  the hash code to use
+     * @param key  the key to store
+     * @param value  the value to store
+     * @return the newly created entry
+     */
+    @Override
+    protected LinkEntry<K, V> createEntry(final HashEntry<K, V> next, final int hashCode, final K key, final V value) {
+        return new WeightedEntry(next, hashCode, convertKey(key), value);
+    }
+
+    /**
+     * Adds an entry into this map, weighing it.
+     *
+     * @param entry  the entry to add
+     * @param hashIndex  the index into the data array
+     */
+    @Override
+    protected void addEntry(final HashEntry<K, V> entry, final int hashIndex) {
+        final WeightedEntry weighted = (WeightedEntry) entry;
+        weighted.weight = weigh(weighted.getKey(), weighted.getValue());
+        super.addEntry(entry, hashIndex);
+        currentWeight += weighted.weight;
+    }
+
+    /**
+     * Removes an entry from the map, deducting its weight.
+     *
+     * @param entry  the entry to remove
+     * @param hashIndex  the index into the data structure
+     * @param previous  the previous entry in the chain
+     */
+    @Override
+    protected void removeEntry(final HashEntry<K, V> entry, final int hashIndex, final HashEntry<K, V> previous) {
+        super.removeEntry(entry, hashIndex, previous);
+        currentWeight -= ((WeightedEntry) entry).weight;
+    }
+
+    /**
+     * Removes the least recently used entries until the map is back within its
+     * maximum weight.
+     */
+    private void trimToMaxWeight() {
+        while (currentWeight > maxWeight && header.after != header) {
+            remove(header.after.getKey());
+        }
+    }
+
+    /**
+     * Computes the weight of an entry, checking it is not negative.
+     *
+     * @param key  the key
+     * @param value  the value
+     * @return the weight
+     * @throws IllegalArgumentException if the weight is negative
+     */
+    private long weigh(final K key, final V value) {
+        final long weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight must not be negative: " + weight);
+        }
+        return weight;
+    }
+
+    /**
+     * Clears the map.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        currentWeight = 0;
+    }
+
+    /**
+     * Initialize this subclass during construction, cloning or deserialization.
+     */
+    @Override
+    protected void init() {
+        super.init();
+        currentWeight = 0;
+    }
+
+    /**
+     * Gets the total weight of the entries in this map.
+     *
+     * @return the current weight
+     */
+    public long currentWeight() {
+        return currentWeight;
+    }
+
+    /**
+     * Gets the maximum total weight of the entries in this map (the bound).
+     *
+     * @return the maximum weight
+     */
+    public long maxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Gets the weigher computing the weight of each entry.
+     *
+     * @return the weigher
+     */
+    public Weigher<? super K, ? super V> weigher() {
+        return weigher;
+    }
+
+    /**
+     * Clones the map without cloning the keys or values.
+     *
+     * @return a shallow clone
+     */
+    @Override
+    public WeightedLRUMap<K, V> clone() {
+        return (WeightedLRUMap<K, V>) super.clone();
+    }
+
+    /**
+     * Write the map out using a custom routine.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        doWriteObject(out);
+    }
+
+    /**
+     * Read the map in using a custom routine.
+     *
+     * @param in the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        doReadObject(in);
+    }
+
+    /**
+     * An entry recording its weight, which is recomputed when its value is replaced.
+     */
+    final class WeightedEntry extends LinkEntry<K, V> {
+        /** The weight of the entry, included in the map's weight once added */
+        long weight;
+
+        WeightedEntry(final HashEntry<K, V> next, final int hashCode, final Object key, final V value) {
+            super(next, hashCode, key, value);
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (after == null) {
+                // not or no longer in the map
+                return super.setValue(value);
+            }
+            final long newWeight = weigh(getKey(), value);
+            currentWeight += newWeight - weight;
+            weight = newWeight;
+            return super.setValue(value);
+        }
+    }
+
+}
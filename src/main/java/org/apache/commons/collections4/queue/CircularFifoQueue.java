@@ -24,6 +24,7 @@ import java.util.AbstractCollection;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Queue;
@@ -41,6 +42,8 @@ import org.apache.commons.collections4.BoundedCollection;
  * <p>
  * The {@link #add(Object)}, {@link #remove()}, {@link #peek()}, {@link #poll()},
  * {@link #offer(Object)} operations all perform in constant time.
+ * The bulk operations {@link #drainTo(Collection, int)}, {@link #drainTo(Object[])} and
+ * {@link #offerAll(Object[], int, int)} copy whole ranges of the underlying array at once.
  * All other operations perform in linear time or worse.
  * </p>
  * <p>
@@ -159,7 +162,7 @@ public class CircularFifoQueue<E> extends AbstractCollection<E>
         int size = 0;
 
         if (end < start) {
-            size = maxElements + start + end;
+            size = maxElements - start + end;
         } else if (end == start) {
             size = full ? maxElements : 0;
         } else {
@@ -286,6 +289,135 @@ public class CircularFifoQueue<E> extends AbstractCollection<E>
         return add(element);
     }
 
+    /**
+     * Adds the given range of elements to this queue, in order. If the queue overflows, the
+     * least recently added elements are discarded so that the new elements can be inserted.
+     * <p>
+     * The elements are copied with at most two array copies across the wrap point of the
+     * underlying array, rather than one by one.
+     * </p>
+     *
+     * @param src  the array holding the elements to add
+     * @param off  the index of the first element to add
+     * @param len  the number of elements to add
+     * @return true if this queue changed, i.e. {@code len > 0}
+     * @throws NullPointerException  if the array or any of the elements in the range is null
+     * @throws IndexOutOfBoundsException  if the range is outside of the array
+     * @since 4.5
+     */
+    public boolean offerAll(final E[] src, final int off, final int len) {
+        Objects.requireNonNull(src, "src");
+        if (off < 0 || len < 0 || off > src.length - len) {
+            throw new IndexOutOfBoundsException(
+                    String.format("The range [%1$d, %1$d + %2$d) is outside of the array of length %3$d",
+                                  Integer.valueOf(off), Integer.valueOf(len), Integer.valueOf(src.length)));
+        }
+        for (int i = off; i < off + len; i++) {
+            Objects.requireNonNull(src[i], "element");
+        }
+        if (len == 0) {
+            return false;
+        }
+
+        // only the last maxElements elements of the range can survive
+        final int count = Math.min(len, maxElements);
+        final int from = off + len - count;
+        final int size = size();
+
+        final int first = Math.min(count, maxElements - end);
+        System.arraycopy(src, from, elements, end, first);
+        System.arraycopy(src, from + first, elements, 0, count - first);
+        end = (end + count) % maxElements;
+
+        // the oldest elements were overwritten, the queue now starts after the newest one
+        if (size + count >= maxElements) {
+            start = end;
+            full = true;
+        }
+        return true;
+    }
+
+    /**
+     * Removes at most the given number of elements from this queue and adds them to the
+     * given collection, in removal order.
+     * <p>
+     * The elements are handed to the collection as at most two ranges across the wrap point
+     * of the underlying array, rather than one by one. Each range is removed from this queue
+     * once the collection has accepted it, so if adding a range fails, that range and the
+     * ones after it are left in this queue, and the ones before it are not.
+     * </p>
+     *
+     * @param coll  the collection to transfer elements into
+     * @param max  the maximum number of elements to transfer
+     * @return the number of elements transferred
+     * @throws NullPointerException  if the collection is null
+     * @throws IllegalArgumentException  if the collection is this queue
+     * @since 4.5
+     */
+    public int drainTo(final Collection<? super E> coll, final int max) {
+        Objects.requireNonNull(coll, "coll");
+        if (coll == this) {
+            throw new IllegalArgumentException("Cannot drain a queue into itself");
+        }
+        final int count = Math.min(max, size());
+        if (count <= 0) {
+            return 0;
+        }
+
+        final List<E> view = Arrays.asList(elements);
+        final int first = Math.min(count, maxElements - start);
+        coll.addAll(view.subList(start, start + first));
+        removeFirst(first, first);
+        if (count > first) {
+            // the first range ended at the wrap point, so the queue now starts at 0
+            coll.addAll(view.subList(0, count - first));
+            removeFirst(count - first, count - first);
+        }
+        return count;
+    }
+
+    /**
+     * Removes as many elements from this queue as fit into the given array and stores them
+     * in it, in removal order, starting at index 0.
+     * <p>
+     * The elements are copied with at most two array copies across the wrap point of the
+     * underlying array, rather than one by one. Array elements after the last transferred
+     * element are left untouched.
+     * </p>
+     *
+     * @param dest  the array to transfer elements into
+     * @return the number of elements transferred
+     * @throws NullPointerException  if the array is null
+     * @throws ArrayStoreException  if an element of this queue can not be stored in the array
+     * @since 4.5
+     */
+    public int drainTo(final E[] dest) {
+        Objects.requireNonNull(dest, "dest");
+        final int count = Math.min(dest.length, size());
+        if (count == 0) {
+            return 0;
+        }
+
+        final int first = Math.min(count, maxElements - start);
+        System.arraycopy(elements, start, dest, 0, first);
+        System.arraycopy(elements, 0, dest, first, count - first);
+        removeFirst(count, first);
+        return count;
+    }
+
+    /**
+     * Discards the given number of elements from the head of this queue.
+     *
+     * @param count  the number of elements to discard, at most {@link #size()}
+     * @param first  the number of those elements stored before the wrap point of the array
+     */
+    private void removeFirst(final int count, final int first) {
+        Arrays.fill(elements, start, start + first, null);
+        Arrays.fill(elements, 0, count - first, null);
+        start = (start + count) % maxElements;
+        full = false;
+    }
+
     @Override
     public E poll() {
         if (isEmpty()) {
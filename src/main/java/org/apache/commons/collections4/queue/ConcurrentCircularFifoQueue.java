@@ -0,0 +1,378 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.commons.collections4.BoundedCollection;
+
+/**
+ * ConcurrentCircularFifoQueue is a thread-safe, lock-free first-in first-out queue
+ * with a fixed size that replaces its oldest element if full.
+ * <p>
+ * It has the same semantics as {@link CircularFifoQueue}, but instead of serializing
+ * every operation on a monitor (as wrapping a {@link CircularFifoQueue} in a
+ * {@link SynchronizedQueue} does) the producers and consumers coordinate through
+ * compare-and-set operations on two sequence counters. Each slot of the ring carries
+ * its own sequence number, which tells whether it is ready to be written in the current
+ * lap or ready to be read. The head and tail counters are padded so that they do not
+ * share a cache line.
+ * </p>
+ * <p>
+ * Any number of threads may call {@link #offer(Object)} concurrently with each other and
+ * with a thread draining the queue via {@link #poll()}. A producer that finds the queue
+ * full evicts the oldest element itself, exactly like a consumer would, so offering never
+ * blocks and always succeeds.
+ * </p>
+ * <p>
+ * {@link #size()} is a snapshot that may be stale by the time it returns, and the
+ * iterator is weakly consistent: it never throws {@link java.util.ConcurrentModificationException}
+ * and reflects some of the elements present at or after its creation. Removing
+ * arbitrary elements, either through {@link #remove(Object)} or the iterator, is not supported.
+ * </p>
+ * <p>
+ * This queue prevents null objects from being added.
+ * </p>
+ *
+ * @param <E> the type of elements in this collection
+ * @see CircularFifoQueue
+ * @since 4.5
+ */
+public class ConcurrentCircularFifoQueue<E> extends AbstractQueue<E> implements BoundedCollection<E> {
+
+    /** Underlying storage array. */
+    private final AtomicReferenceArray<E> elements;
+
+    /**
+     * The sequence number of each slot. A slot at index {@code i} may be written by the
+     * producer that claimed position {@code p} once its sequence equals {@code p}, and it
+     * may be read by the consumer that claimed position {@code p} once it equals {@code p + 1}.
+     */
+    private final AtomicLongArray sequences;
+
+    /** Position of the first (oldest) queue element, incremented by consumers. */
+    private final PaddedAtomicLong head = new PaddedAtomicLong();
+
+    /** Position following the last queue element, incremented by producers. */
+    private final PaddedAtomicLong tail = new PaddedAtomicLong();
+
+    /** Capacity of the queue. */
+    private final int maxElements;
+
+    /**
+     * Number of slots in the ring, which is the capacity except for a queue of size one:
+     * the slot sequence numbers need at least two slots to tell a published slot from a free one.
+     */
+    private final int slots;
+
+    /**
+     * Constructor that creates a queue with the default size of 32.
+     */
+    public ConcurrentCircularFifoQueue() {
+        this(32);
+    }
+
+    /**
+     * Constructor that creates a queue with the specified size.
+     *
+     * @param size  the size of the queue (cannot be changed)
+     * @throws IllegalArgumentException  if the size is &lt; 1
+     */
+    public ConcurrentCircularFifoQueue(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The size must be greater than 0");
+        }
+        maxElements = size;
+        slots = Math.max(size, 2);
+        elements = new AtomicReferenceArray<>(slots);
+        sequences = new AtomicLongArray(slots);
+        for (int i = 0; i < slots; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Returns the number of elements stored in the queue.
+     * <p>
+     * As other threads may add or remove elements concurrently, the result is only
+     * an estimate.
+     * </p>
+     *
+     * @return this queue's size
+     */
+    @Override
+    public int size() {
+        long h = head.get();
+        for (;;) {
+            final long t = tail.get();
+            final long h2 = head.get();
+            if (h == h2) {
+                final long size = t - h;
+                return (int) Math.max(0, Math.min(size, maxElements));
+            }
+            h = h2;
+        }
+    }
+
+    /**
+     * Returns true if this queue is empty; false otherwise.
+     *
+     * @return true if this queue is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A {@code ConcurrentCircularFifoQueue} can never be full, thus this returns always
+     * {@code false}.
+     *
+     * @return always returns {@code false}
+     */
+    @Override
+    public boolean isFull() {
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if the capacity limit of this queue has been reached,
+     * i.e. the number of elements stored in the queue equals its maximum size.
+     *
+     * @return {@code true} if the capacity limit has been reached, {@code false} otherwise
+     */
+    public boolean isAtFullCapacity() {
+        return size() == maxElements;
+    }
+
+    /**
+     * Gets the maximum size of the collection (the bound).
+     *
+     * @return the maximum number of elements the collection can hold
+     */
+    @Override
+    public int maxSize() {
+        return maxElements;
+    }
+
+    /**
+     * Clears this queue by polling every element currently in it.
+     */
+    @Override
+    public void clear() {
+        while (poll() != null) {
+            // nothing to do
+        }
+    }
+
+    /**
+     * Adds the given element to this queue. If the queue is full, the least recently added
+     * element is discarded so that a new element can be inserted.
+     *
+     * @param element  the element to add
+     * @return true, always
+     * @throws NullPointerException  if the given element is null
+     */
+    @Override
+    public boolean offer(final E element) {
+        Objects.requireNonNull(element, "element");
+
+        for (;;) {
+            final long pos = tail.get();
+            if (slots > maxElements && pos - head.get() >= maxElements) {
+                // the ring has a spare slot, so the queue fills up before the slot check notices
+                evict(pos - maxElements);
+                continue;
+            }
+            final int index = index(pos);
+            final long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.lazySet(index, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                // the slot still holds the element of the previous lap: the queue is full
+                evict(pos - slots);
+            }
+            // otherwise another producer claimed the position first, retry with the new tail
+        }
+    }
+
+    /**
+     * Discards the element at the given position if it is still the oldest one.
+     * <p>
+     * Another thread may poll or evict the element first, in which case this does nothing
+     * and the caller retries.
+     * </p>
+     *
+     * @param pos  the position of the oldest element as seen by the caller
+     */
+    private void evict(final long pos) {
+        final int index = index(pos);
+        if (sequences.get(index) == pos + 1 && head.compareAndSet(pos, pos + 1)) {
+            elements.lazySet(index, null);
+            sequences.lazySet(index, pos + slots);
+        }
+    }
+
+    @Override
+    public E poll() {
+        for (;;) {
+            final long pos = head.get();
+            final int index = index(pos);
+            final long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    final E element = elements.get(index);
+                    elements.lazySet(index, null);
+                    sequences.lazySet(index, pos + slots);
+                    return element;
+                }
+            } else if (diff < 0) {
+                // no element has been published at the head position yet
+                return null;
+            }
+            // otherwise another thread removed the head first, retry with the new head
+        }
+    }
+
+    @Override
+    public E peek() {
+        for (;;) {
+            final long pos = head.get();
+            final int index = index(pos);
+            final long diff = sequences.get(index) - (pos + 1);
+            if (diff < 0) {
+                return null;
+            }
+            if (diff == 0) {
+                final E element = elements.get(index);
+                if (element != null && head.get() == pos) {
+                    return element;
+                }
+            }
+            // the head moved while reading, retry
+        }
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}, this queue only supports
+     * removing its head.
+     *
+     * @param o  ignored
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean remove(final Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Maps a position to the index of its slot.
+     *
+     * @param pos  the position
+     * @return the index into the storage arrays
+     */
+    private int index(final long pos) {
+        return (int) (pos % slots);
+    }
+
+    /**
+     * Returns a weakly consistent iterator over this queue's elements.
+     * <p>
+     * Elements polled or evicted while iterating are skipped. The iterator does not
+     * support {@link Iterator#remove()}.
+     * </p>
+     *
+     * @return an iterator over this queue's elements
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+
+            private long pos = head.get();
+            private final long end = tail.get();
+            private E next = advance();
+
+            private E advance() {
+                // start over from the head if the elements before pos were removed meanwhile
+                pos = Math.max(pos, head.get());
+                while (pos < end) {
+                    final int index = index(pos);
+                    final E element = elements.get(index);
+                    final long seq = sequences.get(index);
+                    pos++;
+                    if (element != null && seq == pos) {
+                        return element;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public E next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                final E element = next;
+                next = advance();
+                return element;
+            }
+
+        };
+    }
+
+    /**
+     * An {@link AtomicLong} padded to fill a cache line, so that the head and tail
+     * counters updated by different threads do not suffer from false sharing.
+     */
+    @SuppressWarnings("unused")
+    private static final class PaddedAtomicLong extends AtomicLong {
+
+        /** Serialization version. */
+        private static final long serialVersionUID = 8047326436211620553L;
+
+        /** Padding. */
+        private long p1, p2, p3, p4, p5, p6, p7;
+
+        /**
+         * Sums up the padding, only to keep it from being optimized away.
+         *
+         * @return the sum of the padding fields
+         */
+        long sumPaddingToPreventOptimization() {
+            return p1 + p2 + p3 + p4 + p5 + p6 + p7;
+        }
+    }
+
+}
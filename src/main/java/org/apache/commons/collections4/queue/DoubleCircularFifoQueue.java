@@ -0,0 +1,471 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+
+/**
+ * DoubleCircularFifoQueue is a first-in first-out queue of {@code double} values with a
+ * fixed size that replaces its oldest value if full.
+ * <p>
+ * It has the same semantics as a {@link CircularFifoQueue CircularFifoQueue&lt;Double&gt;},
+ * but stores the values in a {@code double[]}, so adding a value neither boxes it nor
+ * allocates. It is meant for rolling windows of samples, and therefore also keeps
+ * track of the {@link #min() minimum}, {@link #max() maximum} and {@link #sum() sum}
+ * of the values it holds.
+ * </p>
+ * <p>
+ * The {@link #add(double)}, {@link #remove()}, {@link #element()}, {@link #get(int)},
+ * {@link #min()}, {@link #max()} and {@link #sum()} operations all perform in
+ * (amortized) constant time. Traversing the values with {@link #forEach(DoubleConsumer)}
+ * does not allocate.
+ * </p>
+ *
+ * @see CircularFifoQueue
+ * @see IntCircularFifoQueue
+ * @see LongCircularFifoQueue
+ * @since 4.5
+ */
+public class DoubleCircularFifoQueue {
+
+    /** The exponent of the scale of {@link #scaledSum}. */
+    private static final int SUM_SCALE = 64;
+
+    /** Underlying storage array. */
+    private final double[] elements;
+
+    /** Array index of first (oldest) queue element. */
+    private int start;
+
+    /**
+     * Index mod maxElements of the array position following the last queue
+     * element.
+     */
+    private int end;
+
+    /** Flag to indicate if the queue is currently full. */
+    private boolean full;
+
+    /** Capacity of the queue. */
+    private final int maxElements;
+
+    /** The sum of the finite elements in the queue. */
+    private double sum;
+
+    /**
+     * The sum of the finite elements in the queue, each scaled by 2<sup>-{@value #SUM_SCALE}</sup>
+     * so that it cannot overflow. It restores {@link #sum} once the elements that made it
+     * overflow have left the queue.
+     */
+    private double scaledSum;
+
+    /** Number of {@code NaN} elements in the queue. */
+    private int nanCount;
+
+    /** Number of positive infinite elements in the queue. */
+    private int positiveInfinityCount;
+
+    /** Number of negative infinite elements in the queue. */
+    private int negativeInfinityCount;
+
+    /**
+     * Number of elements removed since {@link #sum} was last computed from scratch.
+     * Subtracting removed elements accumulates rounding errors, so the sum is
+     * recomputed once per lap around the storage array.
+     */
+    private int removedSinceSum;
+
+    /**
+     * Array indices of the elements that are smaller than every element added after them,
+     * oldest first. The first one is the index of the minimum.
+     */
+    private final int[] minIndices;
+
+    /** Position of the first index in {@link #minIndices}. */
+    private int minStart;
+
+    /** Number of indices in {@link #minIndices}. */
+    private int minCount;
+
+    /**
+     * Array indices of the elements that are greater than every element added after them,
+     * oldest first. The first one is the index of the maximum.
+     */
+    private final int[] maxIndices;
+
+    /** Position of the first index in {@link #maxIndices}. */
+    private int maxStart;
+
+    /** Number of indices in {@link #maxIndices}. */
+    private int maxCount;
+
+    /**
+     * Constructor that creates a queue with the default size of 32.
+     */
+    public DoubleCircularFifoQueue() {
+        this(32);
+    }
+
+    /**
+     * Constructor that creates a queue with the specified size.
+     *
+     * @param size  the size of the queue (cannot be changed)
+     * @throws IllegalArgumentException  if the size is &lt; 1
+     */
+    public DoubleCircularFifoQueue(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The size must be greater than 0");
+        }
+        elements = new double[size];
+        minIndices = new int[size];
+        maxIndices = new int[size];
+        maxElements = size;
+    }
+
+    /**
+     * Returns the number of elements stored in the queue.
+     *
+     * @return this queue's size
+     */
+    public int size() {
+        if (end < start) {
+            return maxElements - start + end;
+        }
+        if (end == start) {
+            return full ? maxElements : 0;
+        }
+        return end - start;
+    }
+
+    /**
+     * Returns true if this queue is empty; false otherwise.
+     *
+     * @return true if this queue is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns {@code true} if the capacity limit of this queue has been reached,
+     * i.e. the number of elements stored in the queue equals its maximum size.
+     *
+     * @return {@code true} if the capacity limit has been reached, {@code false} otherwise
+     */
+    public boolean isAtFullCapacity() {
+        return full;
+    }
+
+    /**
+     * Gets the maximum size of the queue (the bound).
+     *
+     * @return the maximum number of elements the queue can hold
+     */
+    public int maxSize() {
+        return maxElements;
+    }
+
+    /**
+     * Clears this queue.
+     */
+    public void clear() {
+        full = false;
+        start = 0;
+        end = 0;
+        sum = 0;
+        scaledSum = 0;
+        nanCount = 0;
+        positiveInfinityCount = 0;
+        negativeInfinityCount = 0;
+        removedSinceSum = 0;
+        minCount = 0;
+        maxCount = 0;
+    }
+
+    /**
+     * Adds the given element to this queue. If the queue is full, the least recently added
+     * element is discarded so that a new element can be inserted.
+     *
+     * @param element  the element to add
+     */
+    public void add(final double element) {
+        if (full) {
+            remove();
+        }
+
+        while (minCount > 0 && Double.compare(elements[lastIndex(minIndices, minStart, minCount)], element) >= 0) {
+            minCount--;
+        }
+        minIndices[wrap(minStart, minCount++)] = end;
+        while (maxCount > 0 && Double.compare(elements[lastIndex(maxIndices, maxStart, maxCount)], element) <= 0) {
+            maxCount--;
+        }
+        maxIndices[wrap(maxStart, maxCount++)] = end;
+
+        elements[end] = element;
+        addToSum(element, 1);
+        end = increment(end);
+        full = end == start;
+    }
+
+    /**
+     * Removes the oldest element of this queue.
+     *
+     * @return the removed element
+     * @throws NoSuchElementException  if the queue is empty
+     */
+    public double remove() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("queue is empty");
+        }
+
+        final double element = elements[start];
+        if (minIndices[minStart] == start) {
+            minStart = increment(minStart);
+            minCount--;
+        }
+        if (maxIndices[maxStart] == start) {
+            maxStart = increment(maxStart);
+            maxCount--;
+        }
+        start = increment(start);
+        full = false;
+        if (++removedSinceSum == maxElements) {
+            recomputeSum();
+        } else {
+            addToSum(element, -1);
+        }
+        return element;
+    }
+
+    /**
+     * Returns the oldest element of this queue without removing it.
+     *
+     * @return the oldest element
+     * @throws NoSuchElementException  if the queue is empty
+     */
+    public double element() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("queue is empty");
+        }
+        return elements[start];
+    }
+
+    /**
+     * Returns the element at the specified position in this queue.
+     *
+     * @param index the position of the element in the queue
+     * @return the element at position {@code index}
+     * @throws NoSuchElementException if the requested position is outside the range [0, size)
+     */
+    public double get(final int index) {
+        final int sz = size();
+        if (index < 0 || index >= sz) {
+            throw new NoSuchElementException(
+                    String.format("The specified index %1$d is outside the available range [0, %2$d)",
+                                  Integer.valueOf(index), Integer.valueOf(sz)));
+        }
+
+        return elements[wrap(start, index)];
+    }
+
+    /**
+     * Returns the smallest element in this queue.
+     * <p>
+     * Elements are ordered as by {@link Double#compare(double, double)}, so {@code -0.0}
+     * is smaller than {@code 0.0}, and {@code NaN} is only returned if all elements are {@code NaN}.
+     * </p>
+     *
+     * @return the minimum
+     * @throws NoSuchElementException  if the queue is empty
+     */
+    public double min() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("queue is empty");
+        }
+        return elements[minIndices[minStart]];
+    }
+
+    /**
+     * Returns the greatest element in this queue.
+     * <p>
+     * Elements are ordered as by {@link Double#compare(double, double)}, so {@code 0.0}
+     * is greater than {@code -0.0}, and {@code NaN} is greater than any other element.
+     * </p>
+     *
+     * @return the maximum
+     * @throws NoSuchElementException  if the queue is empty
+     */
+    public double max() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("queue is empty");
+        }
+        return elements[maxIndices[maxStart]];
+    }
+
+    /**
+     * Returns the sum of the elements in this queue, or 0 if it is empty.
+     * <p>
+     * The sum is maintained as elements are added and removed, so it may differ from
+     * summing up the elements in order by rounding errors. These errors do not build up
+     * over time, as the sum is recomputed from scratch whenever the queue has seen as
+     * many removals as it can hold elements. Infinite and {@code NaN} elements are counted
+     * apart from the sum of the finite ones, and the finite sum is also kept scaled down so
+     * that it cannot overflow, so the sum becomes finite again as soon as the elements that
+     * made it infinite or {@code NaN} have left the queue. An infinite element outweighs
+     * finite elements whose sum overflows, even if they overflow the other way.
+     * </p>
+     *
+     * @return the sum
+     */
+    public double sum() {
+        if (nanCount > 0 || positiveInfinityCount > 0 && negativeInfinityCount > 0) {
+            return Double.NaN;
+        }
+        if (positiveInfinityCount > 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (negativeInfinityCount > 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return sum;
+    }
+
+    /**
+     * Adds an element to the sum or subtracts it.
+     *
+     * @param element  the element
+     * @param sign  1 to add the element, -1 to subtract it
+     */
+    private void addToSum(final double element, final int sign) {
+        if (Double.isNaN(element)) {
+            nanCount += sign;
+        } else if (element == Double.POSITIVE_INFINITY) {
+            positiveInfinityCount += sign;
+        } else if (element == Double.NEGATIVE_INFINITY) {
+            negativeInfinityCount += sign;
+        } else {
+            sum += sign * element;
+            scaledSum += sign * Math.scalb(element, -SUM_SCALE);
+            if (!Double.isFinite(sum)) {
+                // the finite elements overflow, or did until now
+                sum = Math.scalb(scaledSum, SUM_SCALE);
+            }
+        }
+    }
+
+    /**
+     * Computes {@link #sum} from scratch.
+     */
+    private void recomputeSum() {
+        sum = 0;
+        scaledSum = 0;
+        nanCount = 0;
+        positiveInfinityCount = 0;
+        negativeInfinityCount = 0;
+        final int size = size();
+        for (int i = 0, index = start; i < size; i++, index = increment(index)) {
+            addToSum(elements[index], 1);
+        }
+        removedSinceSum = 0;
+    }
+
+    /**
+     * Performs the given action for each element of this queue, oldest first.
+     *
+     * @param action  the action to be performed for each element
+     * @throws NullPointerException  if the action is null
+     */
+    public void forEach(final DoubleConsumer action) {
+        Objects.requireNonNull(action, "action");
+        final int size = size();
+        for (int i = 0, index = start; i < size; i++, index = increment(index)) {
+            action.accept(elements[index]);
+        }
+    }
+
+    /**
+     * Returns the elements of this queue in a new array, oldest first.
+     *
+     * @return an array holding the elements of this queue
+     */
+    public double[] toArray() {
+        final int size = size();
+        final double[] array = new double[size];
+        final int first = Math.min(size, maxElements - start);
+        System.arraycopy(elements, start, array, 0, first);
+        System.arraycopy(elements, 0, array, first, size - first);
+        return array;
+    }
+
+    /**
+     * Returns the index stored last in the given ring of indices.
+     *
+     * @param indices  the ring of indices
+     * @param first  the position of the first index in the ring
+     * @param count  the number of indices in the ring, greater than 0
+     * @return the last index
+     */
+    private int lastIndex(final int[] indices, final int first, final int count) {
+        return indices[wrap(first, count - 1)];
+    }
+
+    /**
+     * Returns the array index the given number of positions after another one,
+     * wrapping around the end of the storage arrays.
+     *
+     * @param index  the array index to start from
+     * @param offset  the number of positions to move, less than {@code maxElements}
+     * @return the array index
+     */
+    private int wrap(final int index, final int offset) {
+        final int room = maxElements - index;
+        return offset < room ? index + offset : offset - room;
+    }
+
+    /**
+     * Increments the internal index.
+     *
+     * @param index  the index to increment
+     * @return the updated index
+     */
+    private int increment(final int index) {
+        return wrap(index, 1);
+    }
+
+    /**
+     * Returns a string representation of the elements of this queue, oldest first.
+     *
+     * @return a string representation of this queue
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append('[');
+        final int size = size();
+        for (int i = 0, index = start; i < size; i++, index = increment(index)) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(elements[index]);
+        }
+        return builder.append(']').toString();
+    }
+
+}
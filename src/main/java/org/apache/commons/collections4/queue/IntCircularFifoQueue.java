@@ -0,0 +1,373 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * IntCircularFifoQueue is a first-in first-out queue of {@code int} values with a
+ * fixed size that replaces its oldest value if full.
+ * <p>
+ * It has the same semantics as a {@link CircularFifoQueue CircularFifoQueue&lt;Integer&gt;},
+ * but stores the values in a {@code int[]}, so adding a value neither boxes it nor
+ * allocates. It is meant for rolling windows of samples, and therefore also keeps
+ * track of the {@link #min() minimum}, {@link #max() maximum} and {@link #sum() sum}
+ * of the values it holds.
+ * </p>
+ * <p>
+ * The {@link #add(int)}, {@link #remove()}, {@link #element()}, {@link #get(int)},
+ * {@link #min()}, {@link #max()} and {@link #sum()} operations all perform in
+ * (amortized) constant time. Traversing the values with {@link #forEach(IntConsumer)}
+ * does not allocate.
+ * </p>
+ *
+ * @see CircularFifoQueue
+ * @see LongCircularFifoQueue
+ * @see DoubleCircularFifoQueue
+ * @since 4.5
+ */
+public class IntCircularFifoQueue {
+
+    /** Underlying storage array. */
+    private final int[] elements;
+
+    /** Array index of first (oldest) queue element. */
+    private int start;
+
+    /**
+     * Index mod maxElements of the array position following the last queue
+     * element.
+     */
+    private int end;
+
+    /** Flag to indicate if the queue is currently full. */
+    private boolean full;
+
+    /** Capacity of the queue. */
+    private final int maxElements;
+
+    /** The sum of all elements in the queue. */
+    private long sum;
+
+    /**
+     * Array indices of the elements that are smaller than every element added after them,
+     * oldest first. The first one is the index of the minimum.
+     */
+    private final int[] minIndices;
+
+    /** Position of the first index in {@link #minIndices}. */
+    private int minStart;
+
+    /** Number of indices in {@link #minIndices}. */
+    private int minCount;
+
+    /**
+     * Array indices of the elements that are greater than every element added after them,
+     * oldest first. The first one is the index of the maximum.
+     */
+    private final int[] maxIndices;
+
+    /** Position of the first index in {@link #maxIndices}. */
+    private int maxStart;
+
+    /** Number of indices in {@link #maxIndices}. */
+    private int maxCount;
+
+    /**
+     * Constructor that creates a queue with the default size of 32.
+     */
+    public IntCircularFifoQueue() {
+        this(32);
+    }
+
+    /**
+     * Constructor that creates a queue with the specified size.
+     *
+     * @param size  the size of the queue (cannot be changed)
+     * @throws IllegalArgumentException  if the size is &lt; 1
+     */
+    public IntCircularFifoQueue(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The size must be greater than 0");
+        }
+        elements = new int[size];
+        minIndices = new int[size];
+        maxIndices = new int[size];
+        maxElements = size;
+    }
+
+    /**
+     * Returns the number of elements stored in the queue.
+     *
+     * @return this queue's size
+     */
+    public int size() {
+        if (end < start) {
+            return maxElements - start + end;
+        }
+        if (end == start) {
+            return full ? maxElements : 0;
+        }
+        return end - start;
+    }
+
+    /**
+     * Returns true if this queue is empty; false otherwise.
+     *
+     * @return true if this queue is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns {@code true} if the capacity limit of this queue has been reached,
+     * i.e. the number of elements stored in the queue equals its maximum size.
+     *
+     * @return {@code true} if the capacity limit has been reached, {@code false} otherwise
+     */
+    public boolean isAtFullCapacity() {
+        return full;
+    }
+
+    /**
+     * Gets the maximum size of the queue (the bound).
+     *
+     * @return the maximum number of elements the queue can hold
+     */
+    public int maxSize() {
+        return maxElements;
+    }
+
+    /**
+     * Clears this queue.
+     */
+    public void clear() {
+        full = false;
+        start = 0;
+        end = 0;
+        sum = 0;
+        minCount = 0;
+        maxCount = 0;
+    }
+
+    /**
+     * Adds the given element to this queue. If the queue is full, the least recently added
+     * element is discarded so that a new element can be inserted.
+     *
+     * @param element  the element to add
+     */
+    public void add(final int element) {
+        if (full) {
+            remove();
+        }
+
+        while (minCount > 0 && elements[lastIndex(minIndices, minStart, minCount)] >= element) {
+            minCount--;
+        }
+        minIndices[wrap(minStart, minCount++)] = end;
+        while (maxCount > 0 && elements[lastIndex(maxIndices, maxStart, maxCount)] <= element) {
+            maxCount--;
+        }
+        maxIndices[wrap(maxStart, maxCount++)] = end;
+
+        elements[end] = element;
+        sum += element;
+        end = increment(end);
+        full = end == start;
+    }
+
+    /**
+     * Removes the oldest element of this queue.
+     *
+     * @return the removed element
+     * @throws NoSuchElementException  if the queue is empty
+     */
+    public int remove() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("queue is empty");
+        }
+
+        final int element = elements[start];
+        if (minIndices[minStart] == start) {
+            minStart = increment(minStart);
+            minCount--;
+        }
+        if (maxIndices[maxStart] == start) {
+            maxStart = increment(maxStart);
+            maxCount--;
+        }
+        sum -= element;
+        start = increment(start);
+        full = false;
+        return element;
+    }
+
+    /**
+     * Returns the oldest element of this queue without removing it.
+     *
+     * @return the oldest element
+     * @throws NoSuchElementException  if the queue is empty
+     */
+    public int element() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("queue is empty");
+        }
+        return elements[start];
+    }
+
+    /**
+     * Returns the element at the specified position in this queue.
+     *
+     * @param index the position of the element in the queue
+     * @return the element at position {@code index}
+     * @throws NoSuchElementException if the requested position is outside the range [0, size)
+     */
+    public int get(final int index) {
+        final int sz = size();
+        if (index < 0 || index >= sz) {
+            throw new NoSuchElementException(
+                    String.format("The specified index %1$d is outside the available range [0, %2$d)",
+                                  Integer.valueOf(index), Integer.valueOf(sz)));
+        }
+
+        return elements[wrap(start, index)];
+    }
+
+    /**
+     * Returns the smallest element in this queue.
+     *
+     * @return the minimum
+     * @throws NoSuchElementException  if the queue is empty
+     */
+    public int min() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("queue is empty");
+        }
+        return elements[minIndices[minStart]];
+    }
+
+    /**
+     * Returns the greatest element in this queue.
+     *
+     * @return the maximum
+     * @throws NoSuchElementException  if the queue is empty
+     */
+    public int max() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("queue is empty");
+        }
+        return elements[maxIndices[maxStart]];
+    }
+
+    /**
+     * Returns the sum of the elements in this queue, or 0 if it is empty.
+     * <p>
+     * The sum is computed as a {@code long}, so it does not overflow.
+     * </p>
+     *
+     * @return the sum
+     */
+    public long sum() {
+        return sum;
+    }
+
+    /**
+     * Performs the given action for each element of this queue, oldest first.
+     *
+     * @param action  the action to be performed for each element
+     * @throws NullPointerException  if the action is null
+     */
+    public void forEach(final IntConsumer action) {
+        Objects.requireNonNull(action, "action");
+        final int size = size();
+        for (int i = 0, index = start; i < size; i++, index = increment(index)) {
+            action.accept(elements[index]);
+        }
+    }
+
+    /**
+     * Returns the elements of this queue in a new array, oldest first.
+     *
+     * @return an array holding the elements of this queue
+     */
+    public int[] toArray() {
+        final int size = size();
+        final int[] array = new int[size];
+        final int first = Math.min(size, maxElements - start);
+        System.arraycopy(elements, start, array, 0, first);
+        System.arraycopy(elements, 0, array, first, size - first);
+        return array;
+    }
+
+    /**
+     * Returns the index stored last in the given ring of indices.
+     *
+     * @param indices  the ring of indices
+     * @param first  the position of the first index in the ring
+     * @param count  the number of indices in the ring, greater than 0
+     * @return the last index
+     */
+    private int lastIndex(final int[] indices, final int first, final int count) {
+        return indices[wrap(first, count - 1)];
+    }
+
+    /**
+     * Returns the array index the given number of positions after another one,
+     * wrapping around the end of the storage arrays.
+     *
+     * @param index  the array index to start from
+     * @param offset  the number of positions to move, less than {@code maxElements}
+     * @return the array index
+     */
+    private int wrap(final int index, final int offset) {
+        final int room = maxElements - index;
+        return offset < room ? index + offset : offset - room;
+    }
+
+    /**
+     * Increments the internal index.
+     *
+     * @param index  the index to increment
+     * @return the updated index
+     */
+    private int increment(final int index) {
+        return wrap(index, 1);
+    }
+
+    /**
+     * Returns a string representation of the elements of this queue, oldest first.
+     *
+     * @return a string representation of this queue
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append('[');
+        final int size = size();
+        for (int i = 0, index = start; i < size; i++, index = increment(index)) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(elements[index]);
+        }
+        return builder.append(']').toString();
+    }
+
+}
@@ -0,0 +1,522 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import org.apache.commons.collections4.BoundedCollection;
+
+/**
+ * MappedCircularFifoQueue is a first-in first-out queue with a fixed size that
+ * replaces its oldest element if full, and that keeps its elements in a memory-mapped
+ * file instead of on the heap.
+ * <p>
+ * The file holds a small header followed by one fixed-size slot per element. Elements
+ * are converted to and from bytes by a {@link Codec}, and each encoded element must fit
+ * into {@code slotSize} bytes. Adding or removing an element is a store into the mapped
+ * memory, there is no serialization of the whole queue. Opening an existing file
+ * continues the queue where it was left, without reading its elements.
+ * </p>
+ * <p>
+ * The contents survive the end of the process, as the operating system writes the mapped
+ * memory back to the file. Call {@link #force()} to write it to the storage device, if
+ * the contents must also survive an operating system crash or power loss.
+ * </p>
+ * <p>
+ * The {@link #add(Object)}, {@link #remove()}, {@link #peek()}, {@link #poll()},
+ * {@link #offer(Object)} and {@link #get(int)} operations all perform in constant time,
+ * apart from encoding or decoding the element. All other operations perform in linear time
+ * or worse.
+ * </p>
+ * <p>
+ * This queue prevents null objects from being added. It is not thread-safe, and a file
+ * must not be opened by more than one instance at a time. The mapping is released when
+ * the queue is garbage collected.
+ * </p>
+ *
+ * @param <E> the type of elements in this collection
+ * @see CircularFifoQueue
+ * @since 4.5
+ */
+public class MappedCircularFifoQueue<E> extends AbstractQueue<E> implements BoundedCollection<E> {
+
+    /**
+     * Converts the elements of a {@link MappedCircularFifoQueue} to and from bytes.
+     *
+     * @param <E> the type of elements converted
+     */
+    public interface Codec<E> {
+
+        /**
+         * Writes the given element into the buffer, starting at its current position.
+         * The buffer's limit is the slot size; writing beyond it throws a
+         * {@link BufferOverflowException}.
+         *
+         * @param element  the element to encode, never null
+         * @param buffer  the buffer to write to
+         */
+        void encode(E element, ByteBuffer buffer);
+
+        /**
+         * Reads an element from the buffer, whose remaining bytes are exactly the
+         * bytes written by {@link #encode(Object, ByteBuffer)}.
+         *
+         * @param buffer  the buffer to read from
+         * @return the decoded element
+         */
+        E decode(ByteBuffer buffer);
+    }
+
+    /** Identifies a queue file: "CFQM" in ASCII. */
+    private static final int MAGIC = 0x4346514D;
+
+    /** Version of the file layout. */
+    private static final int VERSION = 1;
+
+    /** Offset of the magic number in the header. */
+    private static final int MAGIC_OFFSET = 0;
+
+    /** Offset of the layout version in the header. */
+    private static final int VERSION_OFFSET = 4;
+
+    /** Offset of the capacity in the header. */
+    private static final int CAPACITY_OFFSET = 8;
+
+    /** Offset of the slot size in the header. */
+    private static final int SLOT_SIZE_OFFSET = 12;
+
+    /**
+     * Offset of the state in the header: the index of the first element in the upper
+     * and the size in the lower 32 bits. Both are stored in one aligned long, so that
+     * they are never seen half updated.
+     */
+    private static final int STATE_OFFSET = 16;
+
+    /** Size of the header, the slots start after it. */
+    private static final int HEADER_SIZE = 32;
+
+    /** Number of bytes in front of each slot that hold the length of the encoded element. */
+    private static final int LENGTH_SIZE = 4;
+
+    /** The mapped file. */
+    private final MappedByteBuffer buffer;
+
+    /** Converts elements to and from bytes. */
+    private final Codec<E> codec;
+
+    /** Capacity of the queue. */
+    private final int maxElements;
+
+    /** Maximum number of bytes of an encoded element. */
+    private final int slotSize;
+
+    /** Index of first (oldest) queue element, cached from the header. */
+    private int start;
+
+    /** Number of elements in the queue, cached from the header. */
+    private int size;
+
+    /**
+     * Returns a codec that stores strings as UTF-8 bytes.
+     *
+     * @return a codec for strings
+     */
+    public static Codec<String> utf8Codec() {
+        return Utf8Codec.INSTANCE;
+    }
+
+    /**
+     * Constructor that maps the given file, creating it if needed.
+     * <p>
+     * A new or empty file is initialized to an empty queue. An existing queue file must
+     * have been created with the same size and slot size, and keeps its elements.
+     * </p>
+     *
+     * @param file  the file to map, may not be null
+     * @param size  the size of the queue (cannot be changed)
+     * @param slotSize  the maximum number of bytes of an encoded element
+     * @param codec  the codec to convert elements to and from bytes, may not be null
+     * @throws NullPointerException if the file or codec is null
+     * @throws IllegalArgumentException if the size or slot size is &lt; 1, or if the file would
+     *   be larger than 2GB
+     * @throws IOException if the file can not be mapped, is not a queue file, or holds a queue
+     *   of a different size or slot size
+     */
+    public MappedCircularFifoQueue(final Path file, final int size, final int slotSize, final Codec<E> codec)
+            throws IOException {
+        Objects.requireNonNull(file, "file");
+        this.codec = Objects.requireNonNull(codec, "codec");
+        if (size <= 0) {
+            throw new IllegalArgumentException("The size must be greater than 0");
+        }
+        if (slotSize <= 0) {
+            throw new IllegalArgumentException("The slot size must be greater than 0");
+        }
+        final long fileSize = HEADER_SIZE + (long) size * (LENGTH_SIZE + slotSize);
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The queue would need a file of " + fileSize
+                    + " bytes, at most " + Integer.MAX_VALUE + " bytes can be mapped");
+        }
+        this.maxElements = size;
+        this.slotSize = slotSize;
+
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() != 0 && channel.size() != fileSize) {
+                throw new IOException("The file " + file + " has " + channel.size() + " bytes, a queue of size "
+                        + size + " and slot size " + slotSize + " needs " + fileSize + " bytes");
+            }
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        }
+
+        if (initialize()) {
+            return;
+        }
+        if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("The file " + file + " is not a queue file");
+        }
+        if (buffer.getInt(CAPACITY_OFFSET) != size || buffer.getInt(SLOT_SIZE_OFFSET) != slotSize) {
+            throw new IOException("The file " + file + " holds a queue of size "
+                    + buffer.getInt(CAPACITY_OFFSET) + " and slot size " + buffer.getInt(SLOT_SIZE_OFFSET));
+        }
+        final long state = buffer.getLong(STATE_OFFSET);
+        start = (int) (state >>> 32);
+        this.size = (int) state;
+        if (start < 0 || start >= size || this.size < 0 || this.size > size) {
+            throw new IOException("The file " + file + " has a corrupt header");
+        }
+    }
+
+    /**
+     * Writes the header of an empty queue if the file was just created.
+     *
+     * @return true if the header was written
+     */
+    private boolean initialize() {
+        if (buffer.getInt(MAGIC_OFFSET) != 0) {
+            return false;
+        }
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(CAPACITY_OFFSET, maxElements);
+        buffer.putInt(SLOT_SIZE_OFFSET, slotSize);
+        buffer.putLong(STATE_OFFSET, 0L);
+        // written last, so that a partially initialized file is initialized again
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        return true;
+    }
+
+    /**
+     * Returns the number of elements stored in the queue.
+     *
+     * @return this queue's size
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if this queue is empty; false otherwise.
+     *
+     * @return true if this queue is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A {@code MappedCircularFifoQueue} can never be full, thus this returns always
+     * {@code false}.
+     *
+     * @return always returns {@code false}
+     */
+    @Override
+    public boolean isFull() {
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if the capacity limit of this queue has been reached,
+     * i.e. the number of elements stored in the queue equals its maximum size.
+     *
+     * @return {@code true} if the capacity limit has been reached, {@code false} otherwise
+     */
+    public boolean isAtFullCapacity() {
+        return size == maxElements;
+    }
+
+    /**
+     * Gets the maximum size of the collection (the bound).
+     *
+     * @return the maximum number of elements the collection can hold
+     */
+    @Override
+    public int maxSize() {
+        return maxElements;
+    }
+
+    /**
+     * Gets the maximum number of bytes of an encoded element.
+     *
+     * @return the slot size
+     */
+    public int getSlotSize() {
+        return slotSize;
+    }
+
+    /**
+     * Clears this queue. The slots are not overwritten.
+     */
+    @Override
+    public void clear() {
+        setState(0, 0);
+    }
+
+    /**
+     * Forces the contents of this queue to be written to the storage device.
+     *
+     * @see MappedByteBuffer#force()
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * Adds the given element to this queue. If the queue is full, the least recently added
+     * element is discarded so that a new element can be inserted.
+     * <p>
+     * If the element can not be encoded, the queue is left unchanged, except that the
+     * oldest element is discarded if the queue is full.
+     * </p>
+     *
+     * @param element  the element to add
+     * @return true, always
+     * @throws NullPointerException  if the given element is null
+     * @throws IllegalArgumentException  if the encoded element does not fit into a slot
+     */
+    @Override
+    public boolean offer(final E element) {
+        Objects.requireNonNull(element, "element");
+
+        final int index = (start + size) % maxElements;
+        if (isAtFullCapacity()) {
+            // drop the oldest element from the header before its slot is overwritten,
+            // so that a crash while encoding never leaves a torn slot in the queue
+            setState(increment(start), size - 1);
+        }
+        final ByteBuffer slot = slot(index, slotSize);
+        try {
+            codec.encode(element, slot);
+        } catch (final BufferOverflowException e) {
+            throw new IllegalArgumentException("The element does not fit into a slot of " + slotSize + " bytes", e);
+        }
+        buffer.putInt(slotOffset(index), slot.position());
+        // publish the element only once its slot and length are complete
+        setState(start, size + 1);
+        return true;
+    }
+
+    /**
+     * Returns the element at the specified position in this queue.
+     *
+     * @param index the position of the element in the queue
+     * @return the element at position {@code index}
+     * @throws NoSuchElementException if the requested position is outside the range [0, size)
+     */
+    public E get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new NoSuchElementException(
+                    String.format("The specified index %1$d is outside the available range [0, %2$d)",
+                                  Integer.valueOf(index), Integer.valueOf(size)));
+        }
+        return decode((start + index) % maxElements);
+    }
+
+    @Override
+    public E poll() {
+        if (isEmpty()) {
+            return null;
+        }
+        return remove();
+    }
+
+    @Override
+    public E peek() {
+        if (isEmpty()) {
+            return null;
+        }
+        return decode(start);
+    }
+
+    @Override
+    public E remove() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("queue is empty");
+        }
+        final E element = decode(start);
+        setState(increment(start), size - 1);
+        return element;
+    }
+
+    /**
+     * Updates the cached and the stored state.
+     *
+     * @param start  the index of the first element
+     * @param size  the number of elements
+     */
+    private void setState(final int start, final int size) {
+        this.start = start;
+        this.size = size;
+        buffer.putLong(STATE_OFFSET, (long) start << 32 | size);
+    }
+
+    /**
+     * Decodes the element in the given slot.
+     *
+     * @param index  the slot index
+     * @return the element
+     */
+    private E decode(final int index) {
+        return codec.decode(slot(index, buffer.getInt(slotOffset(index))));
+    }
+
+    /**
+     * Returns a buffer for the payload of the given slot.
+     *
+     * @param index  the slot index
+     * @param length  the number of payload bytes the buffer covers
+     * @return a buffer whose position is 0 and whose limit is {@code length}
+     */
+    private ByteBuffer slot(final int index, final int length) {
+        final ByteBuffer slot = buffer.duplicate();
+        final int offset = slotOffset(index) + LENGTH_SIZE;
+        slot.position(offset);
+        slot.limit(offset + length);
+        return slot.slice();
+    }
+
+    /**
+     * Returns the offset of the given slot in the file.
+     *
+     * @param index  the slot index
+     * @return the offset
+     */
+    private int slotOffset(final int index) {
+        return HEADER_SIZE + index * (LENGTH_SIZE + slotSize);
+    }
+
+    /**
+     * Increments the internal index.
+     *
+     * @param index  the index to increment
+     * @return the updated index
+     */
+    private int increment(int index) {
+        index++;
+        if (index == maxElements) {
+            index = 0;
+        }
+        return index;
+    }
+
+    /**
+     * Returns an iterator over this queue's elements, decoding each one as it is reached.
+     *
+     * @return an iterator over this queue's elements
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+
+            private int position;
+            private int lastReturnedPosition = -1;
+
+            @Override
+            public boolean hasNext() {
+                return position < size;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                lastReturnedPosition = position++;
+                return get(lastReturnedPosition);
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturnedPosition == -1) {
+                    throw new IllegalStateException();
+                }
+                // shift the following slots down, including their length prefix
+                final int slotLength = LENGTH_SIZE + slotSize;
+                for (int i = lastReturnedPosition; i < size - 1; i++) {
+                    final ByteBuffer source = buffer.duplicate();
+                    final int sourceOffset = slotOffset((start + i + 1) % maxElements);
+                    source.position(sourceOffset);
+                    source.limit(sourceOffset + slotLength);
+                    final ByteBuffer target = buffer.duplicate();
+                    target.position(slotOffset((start + i) % maxElements));
+                    target.put(source);
+                }
+                setState(start, size - 1);
+                position = lastReturnedPosition;
+                lastReturnedPosition = -1;
+            }
+
+        };
+    }
+
+    /**
+     * Codec for strings stored as UTF-8 bytes.
+     */
+    private static final class Utf8Codec implements Codec<String> {
+
+        /** Singleton instance. */
+        static final Utf8Codec INSTANCE = new Utf8Codec();
+
+        @Override
+        public void encode(final String element, final ByteBuffer buffer) {
+            buffer.put(element.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String decode(final ByteBuffer buffer) {
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+}
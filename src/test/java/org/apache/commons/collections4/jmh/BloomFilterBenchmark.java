@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.jmh;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.collections4.bloomfilter.ArrayCountingBloomFilter;
+import org.apache.commons.collections4.bloomfilter.BloomFilter;
+import org.apache.commons.collections4.bloomfilter.CountingBloomFilter;
+import org.apache.commons.collections4.bloomfilter.EnhancedDoubleHasher;
+import org.apache.commons.collections4.bloomfilter.Hasher;
+import org.apache.commons.collections4.bloomfilter.Shape;
+import org.apache.commons.collections4.bloomfilter.SimpleBloomFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link SimpleBloomFilter} and {@link ArrayCountingBloomFilter}. A {@link HashSet}
+ * of the same items is measured as the exact (but memory hungry) JDK equivalent.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-server", "-Xms1G", "-Xmx1G"})
+@State(Scope.Benchmark)
+public class BloomFilterBenchmark {
+
+    @Param({"1000", "100000"})
+    private int numberOfItems;
+
+    @Param({"0.01"})
+    private double probability;
+
+    private SimpleBloomFilter simpleFilter;
+
+    private ArrayCountingBloomFilter countingFilter;
+
+    private Set<Long> hashSet;
+
+    private Hasher[] hashers;
+
+    private Long[] items;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        final Shape shape = Shape.fromNP(numberOfItems, probability);
+        simpleFilter = new SimpleBloomFilter(shape);
+        countingFilter = new ArrayCountingBloomFilter(shape);
+        hashSet = new HashSet<>();
+        hashers = new Hasher[numberOfItems];
+        items = new Long[numberOfItems];
+        for (int i = 0; i < numberOfItems; i++) {
+            // golden ratio multipliers give well mixed unsigned longs for the hasher
+            final long initial = i * 0x9E3779B97F4A7C15L;
+            hashers[i] = new EnhancedDoubleHasher(initial, Long.rotateLeft(initial, 32) | 1);
+            items[i] = Long.valueOf(initial);
+            simpleFilter.merge(hashers[i]);
+            countingFilter.merge(hashers[i]);
+            hashSet.add(items[i]);
+        }
+    }
+
+    private int nextIndex() {
+        if (++index >= numberOfItems) {
+            index = 0;
+        }
+        return index;
+    }
+
+    @Benchmark
+    public boolean simpleContains() {
+        return simpleFilter.contains(hashers[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean simpleMerge() {
+        return simpleFilter.merge(hashers[nextIndex()]);
+    }
+
+    @Benchmark
+    public int simpleCardinality() {
+        return simpleFilter.cardinality();
+    }
+
+    @Benchmark
+    public boolean countingContains() {
+        return countingFilter.contains(hashers[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean countingRemoveAndMerge() {
+        final Hasher hasher = hashers[nextIndex()];
+        countingFilter.remove(hasher);
+        return countingFilter.merge(hasher);
+    }
+
+    @Benchmark
+    public boolean countingMergeFilter() {
+        final CountingBloomFilter copy = countingFilter.copy();
+        return copy.merge((BloomFilter) simpleFilter);
+    }
+
+    @Benchmark
+    public boolean hashSetContains() {
+        return hashSet.contains(items[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean hashSetRemoveAndAdd() {
+        final Long item = items[nextIndex()];
+        hashSet.remove(item);
+        return hashSet.add(item);
+    }
+
+}
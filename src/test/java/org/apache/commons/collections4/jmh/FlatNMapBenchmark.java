@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.jmh;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.collections4.map.Flat3Map;
+import org.apache.commons.collections4.map.FlatNMap;
+import org.apache.commons.collections4.map.HashedMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Finds the size up to which the flat mode of {@link FlatNMap} beats a hashed map,
+ * to choose its maximum flat size.
+ * <p>
+ * {@code FlatNMap} is given a maximum flat size of 32, so it stays in flat mode at
+ * every benchmarked size, and is compared with {@link HashedMap}, which it delegates
+ * to in delegate mode, as well as {@link Flat3Map} and {@link HashMap}. The default
+ * maximum flat size is the largest size where {@link #getMissing()} on {@code FlatNMap}
+ * stays within the measurement error of {@code HashedMap}, as a miss scans every entry.
+ * </p>
+ * <p>
+ * {@link #build()} fills a new map, as is done for short-lived per-request maps,
+ * while {@link #get()} and {@link #getMissing()} look up present and absent keys.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-server", "-Xms1G", "-Xmx1G"})
+@State(Scope.Benchmark)
+public class FlatNMapBenchmark {
+
+    @Param({"FlatNMap", "HashedMap", "Flat3Map", "HashMap"})
+    private String mapType;
+
+    @Param({"2", "4", "8", "12", "16", "24", "32"})
+    private int size;
+
+    private Map<String, String> map;
+
+    private String[] keys;
+
+    private String[] missingKeys;
+
+    private int index;
+
+    /**
+     * Creates an empty map of the requested type.
+     *
+     * @param type  the map type
+     * @return a new, empty map
+     */
+    static Map<String, String> createMap(final String type) {
+        switch (type) {
+        case "FlatNMap":
+            return new FlatNMap<>(32);
+        case "HashedMap":
+            return new HashedMap<>();
+        case "Flat3Map":
+            return new Flat3Map<>();
+        case "HashMap":
+            return new HashMap<>();
+        default:
+            throw new IllegalArgumentException("Unknown map type: " + type);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        keys = new String[size];
+        missingKeys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = "attribute" + i;
+            missingKeys[i] = "missing" + i;
+        }
+        map = build();
+    }
+
+    private int nextIndex() {
+        if (++index >= size) {
+            index = 0;
+        }
+        return index;
+    }
+
+    @Benchmark
+    public Map<String, String> build() {
+        final Map<String, String> result = createMap(mapType);
+        for (final String key : keys) {
+            result.put(key, key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public String get() {
+        return map.get(keys[nextIndex()]);
+    }
+
+    @Benchmark
+    public String getMissing() {
+        return map.get(missingKeys[nextIndex()]);
+    }
+
+}
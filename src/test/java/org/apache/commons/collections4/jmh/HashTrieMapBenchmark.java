@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.jmh;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.collections4.map.HashTrieMap;
+import org.apache.commons.collections4.map.HashedMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares taking a snapshot of a {@link HashTrieMap} with cloning a {@link HashedMap},
+ * as done to give each request a consistent view of a shared map.
+ * <p>
+ * {@link #snapshotAndPut()} takes a snapshot and then updates the map, which pays for
+ * the path copy the snapshot defers, while {@link #get()} measures the lookup cost of
+ * the trie against the hashed table.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-server", "-Xms1G", "-Xmx1G"})
+@State(Scope.Benchmark)
+public class HashTrieMapBenchmark {
+
+    @Param({"HashTrieMap", "HashedMap"})
+    private String mapType;
+
+    @Param({"16", "1024", "65536"})
+    private int size;
+
+    private HashTrieMap<String, String> trieMap;
+
+    private HashedMap<String, String> hashedMap;
+
+    private String[] keys;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        keys = new String[size];
+        trieMap = new HashTrieMap<>();
+        hashedMap = new HashedMap<>();
+        for (int i = 0; i < size; i++) {
+            keys[i] = "key" + i;
+            trieMap.put(keys[i], keys[i]);
+            hashedMap.put(keys[i], keys[i]);
+        }
+    }
+
+    private int nextIndex() {
+        if (++index >= size) {
+            index = 0;
+        }
+        return index;
+    }
+
+    @Benchmark
+    public Map<String, String> snapshotAndPut() {
+        final String key = keys[nextIndex()];
+        if ("HashTrieMap".equals(mapType)) {
+            final Map<String, String> snapshot = trieMap.snapshot();
+            trieMap.put(key, key);
+            return snapshot;
+        }
+        final Map<String, String> snapshot = hashedMap.clone();
+        hashedMap.put(key, key);
+        return snapshot;
+    }
+
+    @Benchmark
+    public String get() {
+        final String key = keys[nextIndex()];
+        return "HashTrieMap".equals(mapType) ? trieMap.get(key) : hashedMap.get(key);
+    }
+
+}
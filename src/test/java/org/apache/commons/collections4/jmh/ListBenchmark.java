@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.jmh;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.collections4.list.TreeList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link TreeList} against {@link ArrayList} and {@link LinkedList}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-server", "-Xms1G", "-Xmx1G"})
+@State(Scope.Benchmark)
+public class ListBenchmark {
+
+    @Param({"TreeList", "ArrayList", "LinkedList"})
+    private String listType;
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private List<Integer> list;
+
+    private int[] positions;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        switch (listType) {
+        case "TreeList":
+            list = new TreeList<>();
+            break;
+        case "ArrayList":
+            list = new ArrayList<>();
+            break;
+        case "LinkedList":
+            list = new LinkedList<>();
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown list type: " + listType);
+        }
+        positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            list.add(Integer.valueOf(i));
+            // a fixed scramble of the positions so that the JIT can't predict them
+            positions[i] = (int) ((i * 2654435761L) % size);
+        }
+    }
+
+    private int nextPosition() {
+        if (++index >= size) {
+            index = 0;
+        }
+        return positions[index];
+    }
+
+    @Benchmark
+    public Integer get() {
+        return list.get(nextPosition());
+    }
+
+    @Benchmark
+    public Integer set() {
+        final int i = nextPosition();
+        return list.set(i, Integer.valueOf(i));
+    }
+
+    @Benchmark
+    public Integer insertAndRemove() {
+        final int i = nextPosition();
+        list.add(i, Integer.valueOf(i));
+        return list.remove(i);
+    }
+
+    @Benchmark
+    public void iterate(final Blackhole bh) {
+        for (final Integer value : list) {
+            bh.consume(value);
+        }
+    }
+
+}
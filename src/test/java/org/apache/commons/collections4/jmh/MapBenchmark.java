@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.jmh;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.collections4.map.Flat3Map;
+import org.apache.commons.collections4.map.HashedMap;
+import org.apache.commons.collections4.map.LRUMap;
+import org.apache.commons.collections4.map.LinkedMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the get/put/remove/iterate operations of the hashed maps in
+ * {@code org.apache.commons.collections4.map} against their JDK equivalents.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-server", "-Xms1G", "-Xmx1G"})
+@State(Scope.Benchmark)
+public class MapBenchmark {
+
+    @Param({"HashedMap", "LinkedMap", "LRUMap", "Flat3Map", "HashMap", "LinkedHashMap"})
+    private String mapType;
+
+    @Param({"3", "1000", "100000"})
+    private int size;
+
+    private Map<String, String> map;
+
+    private String[] keys;
+
+    private String[] missingKeys;
+
+    private int index;
+
+    /**
+     * Creates a map of the requested type filled with {@code size} mappings.
+     *
+     * @param type  the map type
+     * @param size  the number of mappings the map must be able to hold
+     * @return a new, empty map
+     */
+    static Map<String, String> createMap(final String type, final int size) {
+        switch (type) {
+        case "HashedMap":
+            return new HashedMap<>();
+        case "LinkedMap":
+            return new LinkedMap<>();
+        case "LRUMap":
+            return new LRUMap<>(size);
+        case "Flat3Map":
+            return new Flat3Map<>();
+        case "HashMap":
+            return new HashMap<>();
+        case "LinkedHashMap":
+            return new LinkedHashMap<>();
+        default:
+            throw new IllegalArgumentException("Unknown map type: " + type);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        keys = new String[size];
+        missingKeys = new String[size];
+        map = createMap(mapType, size);
+        for (int i = 0; i < size; i++) {
+            keys[i] = "key" + i;
+            missingKeys[i] = "missing" + i;
+            map.put(keys[i], "value" + i);
+        }
+    }
+
+    private int nextIndex() {
+        if (++index >= size) {
+            index = 0;
+        }
+        return index;
+    }
+
+    @Benchmark
+    public String get() {
+        return map.get(keys[nextIndex()]);
+    }
+
+    @Benchmark
+    public String getMissing() {
+        return map.get(missingKeys[nextIndex()]);
+    }
+
+    @Benchmark
+    public String putExisting() {
+        final int i = nextIndex();
+        return map.put(keys[i], keys[i]);
+    }
+
+    @Benchmark
+    public String removeAndPut() {
+        final int i = nextIndex();
+        final String value = map.remove(keys[i]);
+        map.put(keys[i], value);
+        return value;
+    }
+
+    @Benchmark
+    public void iterate(final Blackhole bh) {
+        for (final Map.Entry<String, String> entry : map.entrySet()) {
+            bh.consume(entry.getKey());
+            bh.consume(entry.getValue());
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.jmh;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.collections4.queue.CircularFifoQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link CircularFifoQueue} against an {@link ArrayDeque} that is
+ * bounded by hand, i.e. the oldest element is polled before offering to a full deque.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-server", "-Xms1G", "-Xmx1G"})
+@State(Scope.Benchmark)
+public class QueueBenchmark {
+
+    @Param({"CircularFifoQueue", "ArrayDeque"})
+    private String queueType;
+
+    @Param({"32", "10000"})
+    private int capacity;
+
+    private Queue<Integer> queue;
+
+    private Integer[] values;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        switch (queueType) {
+        case "CircularFifoQueue":
+            queue = new CircularFifoQueue<>(capacity);
+            break;
+        case "ArrayDeque":
+            queue = new ArrayDeque<>(capacity);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown queue type: " + queueType);
+        }
+        values = new Integer[capacity];
+        for (int i = 0; i < capacity; i++) {
+            values[i] = Integer.valueOf(i);
+            queue.offer(values[i]);
+        }
+    }
+
+    private Integer nextValue() {
+        if (++index >= capacity) {
+            index = 0;
+        }
+        return values[index];
+    }
+
+    /**
+     * Offers to a full queue, so that the oldest element gets evicted.
+     *
+     * @return true, always
+     */
+    @Benchmark
+    public boolean offerEvicting() {
+        if (queue.size() == capacity && !(queue instanceof CircularFifoQueue)) {
+            queue.poll();
+        }
+        return queue.offer(nextValue());
+    }
+
+    @Benchmark
+    public Integer pollAndOffer() {
+        final Integer value = queue.poll();
+        queue.offer(value);
+        return value;
+    }
+
+    @Benchmark
+    public Integer peek() {
+        return queue.peek();
+    }
+
+    @Benchmark
+    public void iterate(final Blackhole bh) {
+        for (final Integer value : queue) {
+            bh.consume(value);
+        }
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.collections4.map.StaticBucketMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the bucket selection of {@link StaticBucketMap}, a MurmurHash3 finalizer
+ * reduced to a power of two number of buckets with a shift, with the shift/add mixer
+ * reduced modulo an odd number of buckets it replaces, on sequential and random
+ * {@code Integer} keys.
+ * <p>
+ * Besides the cost of computing a bucket, the lookup benchmarks search the keys in chains
+ * built with each scheme, so that keys clustering in a few buckets show as slower lookups.
+ * Each scheme has its own benchmark methods, so that choosing the scheme is not measured.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-server", "-Xms1G", "-Xmx1G"})
+@State(Scope.Benchmark)
+public class StaticBucketMapBenchmark {
+
+    /** The number of buckets of the previous default, an odd number */
+    private static final int LEGACY_BUCKETS = 255;
+
+    /** The number of buckets of the current default, a power of two */
+    private static final int BUCKETS = 256;
+
+    /**
+     * Computes a bucket the way StaticBucketMap did before using a power of two
+     * number of buckets.
+     *
+     * @param key  the key
+     * @param buckets  the number of buckets
+     * @return the bucket
+     */
+    static int legacyBucket(final Object key, final int buckets) {
+        int hash = key.hashCode();
+        hash += ~(hash << 15);
+        hash ^= (hash >>> 10);
+        hash += (hash << 3);
+        hash ^= (hash >>> 6);
+        hash += ~(hash << 11);
+        hash ^= (hash >>> 16);
+        hash %= buckets;
+        return (hash < 0) ? hash * -1 : hash;
+    }
+
+    /**
+     * Computes a bucket the way StaticBucketMap selects a stripe.
+     *
+     * @param key  the key
+     * @param buckets  the number of buckets, a power of two
+     * @return the bucket
+     */
+    static int mixedBucket(final Object key, final int buckets) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash >>> Integer.SIZE - Integer.numberOfTrailingZeros(buckets);
+    }
+
+    @Param({"sequential", "random"})
+    private String keySet;
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private Integer[] keys;
+
+    private Integer[][] legacyTable;
+
+    private Integer[][] mixedTable;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        keys = new Integer[size];
+        final Random random = new Random(42);
+        final List<List<Integer>> legacyChains = new ArrayList<>();
+        final List<List<Integer>> mixedChains = new ArrayList<>();
+        for (int i = 0; i < BUCKETS; i++) {
+            legacyChains.add(new ArrayList<>());
+            mixedChains.add(new ArrayList<>());
+        }
+        for (int i = 0; i < size; i++) {
+            keys[i] = Integer.valueOf("sequential".equals(keySet) ? i : random.nextInt());
+            legacyChains.get(legacyBucket(keys[i], LEGACY_BUCKETS)).add(keys[i]);
+            mixedChains.get(mixedBucket(keys[i], BUCKETS)).add(keys[i]);
+        }
+        legacyTable = new Integer[BUCKETS][];
+        mixedTable = new Integer[BUCKETS][];
+        for (int i = 0; i < BUCKETS; i++) {
+            legacyTable[i] = legacyChains.get(i).toArray(new Integer[0]);
+            mixedTable[i] = mixedChains.get(i).toArray(new Integer[0]);
+        }
+    }
+
+    private int nextIndex() {
+        if (++index >= size) {
+            index = 0;
+        }
+        return index;
+    }
+
+    private static Integer find(final Integer[] chain, final Integer key) {
+        for (final Integer candidate : chain) {
+            if (candidate.equals(key)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public int legacyBucket() {
+        return legacyBucket(keys[nextIndex()], LEGACY_BUCKETS);
+    }
+
+    @Benchmark
+    public int mixedBucket() {
+        return mixedBucket(keys[nextIndex()], BUCKETS);
+    }
+
+    @Benchmark
+    public Integer legacyLookup() {
+        final Integer key = keys[nextIndex()];
+        return find(legacyTable[legacyBucket(key, LEGACY_BUCKETS)], key);
+    }
+
+    @Benchmark
+    public Integer mixedLookup() {
+        final Integer key = keys[nextIndex()];
+        return find(mixedTable[mixedBucket(key, BUCKETS)], key);
+    }
+
+}
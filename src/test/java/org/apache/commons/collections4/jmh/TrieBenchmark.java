@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.jmh;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.collections4.trie.PatriciaTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link PatriciaTrie} against {@link TreeMap}, including prefix lookups
+ * which the {@code TreeMap} answers with a {@code subMap} range.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-server", "-Xms1G", "-Xmx1G"})
+@State(Scope.Benchmark)
+public class TrieBenchmark {
+
+    @Param({"PatriciaTrie", "TreeMap"})
+    private String mapType;
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private SortedMap<String, String> map;
+
+    private String[] keys;
+
+    private String[] prefixes;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        switch (mapType) {
+        case "PatriciaTrie":
+            map = new PatriciaTrie<>();
+            break;
+        case "TreeMap":
+            map = new TreeMap<>();
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown map type: " + mapType);
+        }
+        keys = new String[size];
+        prefixes = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = "http://host" + (i % 100) + ".example.org/path/" + i;
+            prefixes[i] = "http://host" + (i % 100) + ".example.org/path/" + (i % 10);
+            map.put(keys[i], keys[i]);
+        }
+    }
+
+    private int nextIndex() {
+        if (++index >= size) {
+            index = 0;
+        }
+        return index;
+    }
+
+    @Benchmark
+    public String get() {
+        return map.get(keys[nextIndex()]);
+    }
+
+    @Benchmark
+    public String putExisting() {
+        final String key = keys[nextIndex()];
+        return map.put(key, key);
+    }
+
+    @Benchmark
+    public String removeAndPut() {
+        final String key = keys[nextIndex()];
+        final String value = map.remove(key);
+        map.put(key, value);
+        return value;
+    }
+
+    @Benchmark
+    public void prefixIterate(final Blackhole bh) {
+        final String prefix = prefixes[nextIndex()];
+        final SortedMap<String, String> view;
+        if (map instanceof PatriciaTrie) {
+            view = ((PatriciaTrie<String>) map).prefixMap(prefix);
+        } else {
+            view = map.subMap(prefix, prefix + Character.MAX_VALUE);
+        }
+        for (final Map.Entry<String, String> entry : view.entrySet()) {
+            bh.consume(entry.getValue());
+        }
+    }
+
+    @Benchmark
+    public void iterate(final Blackhole bh) {
+        for (final Map.Entry<String, String> entry : map.entrySet()) {
+            bh.consume(entry.getValue());
+        }
+    }
+
+}
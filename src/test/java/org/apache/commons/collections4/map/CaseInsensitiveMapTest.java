@@ -132,6 +132,52 @@ public class CaseInsensitiveMapTest<K, V> extends AbstractIterableMapTest<K, V>
         assertEquals(3, keys.size());
     }
 
+    @Test
+    public void testLowerCaseKeyIsNotCopied() {
+        final CaseInsensitiveMap<String, String> map = new CaseInsensitiveMap<>();
+        final String key = "content-type";
+        map.put(key, "text/plain");
+        assertSame(key, map.keySet().iterator().next());
+        map.clear();
+        map.put("Content-Type", "text/plain");
+        assertEquals(key, map.keySet().iterator().next());
+    }
+
+    @Test
+    public void testLookupWithoutConversion() {
+        final CaseInsensitiveMap<Object, String> map = new CaseInsensitiveMap<>();
+        map.put("Accept-Encoding", "gzip");
+        map.put("\u03A3\u00C9", "sigma");
+        map.put(Integer.valueOf(20), "twenty");
+        assertEquals("gzip", map.get("ACCEPT-ENCODING"));
+        assertTrue(map.containsKey("accept-encoding"));
+        assertFalse(map.containsKey("accept-encodinG "));
+        assertEquals("sigma", map.get("\u03C3\u00E9"));
+        assertEquals("sigma", map.get("\u03C2\u00C9"));
+        assertEquals("twenty", map.get("20"));
+        assertEquals("twenty", map.get(Integer.valueOf(20)));
+        assertNull(map.get(Integer.valueOf(21)));
+    }
+
+    @Test
+    public void testLookupInLongChains() {
+        // "a~" and "b_" have the same hash code, so these keys all share one chain
+        final String[] parts = { "a~", "b_" };
+        final CaseInsensitiveMap<String, Integer> map = new CaseInsensitiveMap<>();
+        for (int i = 0; i < 1 << 5; i++) {
+            final StringBuilder key = new StringBuilder();
+            for (int bit = 0; bit < 5; bit++) {
+                key.append(parts[i >> bit & 1]);
+            }
+            map.put(key.toString(), Integer.valueOf(i));
+        }
+        assertEquals(32, map.size());
+        assertEquals(Integer.valueOf(0), map.get("A~a~A~a~A~"));
+        assertEquals(Integer.valueOf(31), map.get("b_B_b_B_b_"));
+        assertTrue(map.containsKey("A~B_A~B_A~"));
+        assertFalse(map.containsKey("A~B_A~B_A"));
+    }
+
     @Test
     public void testPutAll() {
         final Map<Object, String> map = new HashMap<>();
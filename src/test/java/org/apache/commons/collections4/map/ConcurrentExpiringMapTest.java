@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.collections4.BulkTest;
+import org.apache.commons.collections4.map.ConcurrentExpiringMap.RemovalCause;
+import org.apache.commons.collections4.map.PassiveExpiringMap.ConstantTimeToLiveExpirationPolicy;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class ConcurrentExpiringMapTest<K, V> extends AbstractIterableMapTest<K, V> {
+
+    public ConcurrentExpiringMapTest() {
+        super(ConcurrentExpiringMapTest.class.getSimpleName());
+    }
+
+    public static junit.framework.Test suite() {
+        return BulkTest.makeSuite(ConcurrentExpiringMapTest.class);
+    }
+
+    @Override
+    public ConcurrentExpiringMap<K, V> makeObject() {
+        return new ConcurrentExpiringMap<>(-1L);
+    }
+
+    @Override
+    public boolean isAllowNullKey() {
+        return false;
+    }
+
+    @Override
+    public boolean isAllowNullValue() {
+        return false;
+    }
+
+    @Override
+    public boolean isFailFastExpected() {
+        return false;
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4";
+    }
+
+    @Test
+    public void testConstructorException() {
+        assertThrows(NullPointerException.class, () -> new ConcurrentExpiringMap<K, V>(null));
+        assertThrows(NullPointerException.class,
+            () -> new ConcurrentExpiringMap<K, V>(new ConstantTimeToLiveExpirationPolicy<>(), null, null));
+    }
+
+    @Test
+    public void testExpiration() {
+        final long[] now = {0};
+        final PassiveExpiringMap.Clock clock = () -> now[0];
+        final List<String> removals = new ArrayList<>();
+        final ConcurrentExpiringMap<String, String> map = new ConcurrentExpiringMap<>(
+                new ConstantTimeToLiveExpirationPolicy<>(100, clock), clock,
+                (key, value, cause) -> removals.add(key + "=" + value + " " + cause));
+        map.put("a", "A");
+        now[0] = 50;
+        map.put("b", "B");
+        assertEquals("A", map.put("a", "AA"));
+        assertEquals("[a=A REPLACED]", removals.toString());
+
+        now[0] = 149;
+        assertEquals(2, map.size());
+        assertTrue(map.containsValue("AA"));
+        now[0] = 150;
+        assertNull(map.get("a"));
+        assertFalse(map.containsKey("b"));
+        assertTrue(map.isEmpty());
+        assertEquals("[a=A REPLACED, a=AA EXPIRED, b=B EXPIRED]", removals.toString());
+
+        map.put("c", "C");
+        assertEquals("C", map.remove("c"));
+        assertNull(map.remove("c"));
+        assertEquals(RemovalCause.REMOVED.toString(), removals.get(3).substring(4));
+    }
+
+    /**
+     * Expired entries are reclaimed by later writes, without reading them.
+     */
+    @Test
+    public void testWritesReclaimExpiredEntries() {
+        final long[] now = {0};
+        final PassiveExpiringMap.Clock clock = () -> now[0];
+        final List<Object> expired = new ArrayList<>();
+        final ConcurrentExpiringMap<Integer, Integer> map = new ConcurrentExpiringMap<>(
+                new ConstantTimeToLiveExpirationPolicy<>(10, clock), clock, (key, value, cause) -> expired.add(key));
+        for (int i = 0; i < 100; i++) {
+            map.put(Integer.valueOf(i), Integer.valueOf(i));
+        }
+        now[0] = 10;
+        for (int i = 100; i < 110; i++) {
+            map.put(Integer.valueOf(i), Integer.valueOf(i));
+        }
+        assertEquals(100, expired.size());
+        assertEquals(10, map.size());
+    }
+
+    /**
+     * size() and isEmpty() remove a bounded number of expired entries, and leave the
+     * others out of the result without waiting for a thread that is removing them.
+     */
+    @Test
+    public void testReadsDoNotWaitForCleanUp() throws InterruptedException {
+        final AtomicLong now = new AtomicLong();
+        final PassiveExpiringMap.Clock clock = now::get;
+        final CountDownLatch removing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ConcurrentExpiringMap<Integer, Integer> map = new ConcurrentExpiringMap<>(
+                new ConstantTimeToLiveExpirationPolicy<>(10, clock), clock, (key, value, cause) -> {
+                    if (removing.getCount() > 0 && Thread.currentThread().getName().equals("cleaner")) {
+                        removing.countDown();
+                        try {
+                            release.await();
+                        } catch (final InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+        for (int i = 0; i < 200; i++) {
+            map.put(Integer.valueOf(i), Integer.valueOf(i));
+        }
+        now.set(10);
+        for (int i = 200; i < 205; i++) {
+            map.put(Integer.valueOf(i), Integer.valueOf(i));
+        }
+        final Thread cleaner = new Thread(map::cleanUp, "cleaner");
+        cleaner.start();
+        try {
+            assertTrue(removing.await(10, TimeUnit.SECONDS));
+            // the cleaner holds the lock while its listener waits
+            assertEquals(5, assertTimeoutPreemptively(Duration.ofSeconds(10), map::size).intValue());
+            assertFalse(assertTimeoutPreemptively(Duration.ofSeconds(10), map::isEmpty).booleanValue());
+        } finally {
+            release.countDown();
+            cleaner.join();
+        }
+        assertEquals(5, map.size());
+
+        now.set(20);
+        for (int i = 0; i < 200; i++) {
+            map.put(Integer.valueOf(i), Integer.valueOf(i));
+        }
+        now.set(30);
+        // more entries have expired than a read removes
+        assertEquals(0, map.size());
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testScheduledCleanUp() throws InterruptedException {
+        final long[] now = {0};
+        final PassiveExpiringMap.Clock clock = () -> now[0];
+        final ConcurrentExpiringMap<String, String> map = new ConcurrentExpiringMap<>(
+                new ConstantTimeToLiveExpirationPolicy<>(10, clock), clock, null);
+        map.put("a", "A");
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final ScheduledFuture<?> future = map.scheduleCleanUp(executor, 1, TimeUnit.MILLISECONDS);
+            now[0] = 10;
+            final long deadline = System.currentTimeMillis() + 10000;
+            while (!map.entrySet().isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            assertTrue(map.isEmpty());
+            future.cancel(false);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException {
+        final ConcurrentExpiringMap<Integer, Integer> map = new ConcurrentExpiringMap<>(1);
+        final List<Thread> threads = new ArrayList<>();
+        final Throwable[] failure = new Throwable[1];
+        for (int t = 0; t < 4; t++) {
+            final int offset = t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 20000; i++) {
+                        final Integer key = Integer.valueOf((i + offset) % 100);
+                        map.put(key, key);
+                        final Integer value = map.get(key);
+                        if (value != null && !value.equals(key)) {
+                            throw new IllegalStateException("Wrong value for " + key + ": " + value);
+                        }
+                    }
+                } catch (final Throwable e) {
+                    failure[0] = e;
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure[0]);
+        Thread.sleep(2);
+        assertTrue(map.isEmpty());
+    }
+
+    /**
+     * Entries put while the map is cleared must keep their deadlines, or they would
+     * never be reclaimed.
+     */
+    @Test
+    public void testConcurrentPutAndClear() throws InterruptedException {
+        final AtomicLong now = new AtomicLong();
+        final PassiveExpiringMap.Clock clock = now::get;
+        final ConcurrentExpiringMap<Integer, Integer> map = new ConcurrentExpiringMap<>(
+                new ConstantTimeToLiveExpirationPolicy<>(100, clock), clock, null);
+        final List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int offset = t;
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < 50000; i++) {
+                    final Integer key = Integer.valueOf(i * 4 + offset);
+                    map.put(key, key);
+                }
+            }));
+        }
+        final AtomicBoolean done = new AtomicBoolean();
+        final Thread clearer = new Thread(() -> {
+            while (!done.get()) {
+                map.clear();
+            }
+        });
+        clearer.start();
+        writers.forEach(Thread::start);
+        for (final Thread writer : writers) {
+            writer.join();
+        }
+        done.set(true);
+        clearer.join();
+
+        now.set(100);
+        assertEquals(0, map.size());
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.collections4.BulkTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class ConcurrentLRUMapTest<K, V> extends AbstractIterableMapTest<K, V> {
+
+    public ConcurrentLRUMapTest() {
+        super(ConcurrentLRUMapTest.class.getSimpleName());
+    }
+
+    public static junit.framework.Test suite() {
+        return BulkTest.makeSuite(ConcurrentLRUMapTest.class);
+    }
+
+    @Override
+    public ConcurrentLRUMap<K, V> makeObject() {
+        return new ConcurrentLRUMap<>();
+    }
+
+    @Override
+    public boolean isAllowNullKey() {
+        return false;
+    }
+
+    @Override
+    public boolean isAllowNullValue() {
+        return false;
+    }
+
+    @Override
+    public boolean isFailFastExpected() {
+        return false;
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4";
+    }
+
+    @Test
+    public void testConstructorException() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentLRUMap<K, V>(0));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentLRUMap<K, V>(-1));
+        assertThrows(NullPointerException.class, () -> new ConcurrentLRUMap<K, V>(null));
+    }
+
+    @Test
+    public void testLRU() {
+        final ConcurrentLRUMap<String, String> map = new ConcurrentLRUMap<>(2);
+        assertEquals(2, map.maxSize());
+        assertFalse(map.isFull());
+        map.put("A", "a");
+        map.put("B", "b");
+        assertTrue(map.isFull());
+
+        map.put("C", "c");
+        assertEquals(2, map.size());
+        assertFalse(map.containsKey("A"));
+
+        assertEquals("b", map.get("B"));
+        map.put("D", "d");
+        assertFalse(map.containsKey("C"));
+        assertTrue(map.containsKey("B"));
+
+        map.put("B", "bb");
+        map.put("E", "e");
+        assertFalse(map.containsKey("D"));
+        assertEquals("bb", map.get("B"));
+    }
+
+    @Test
+    public void testGetWithoutUpdate() {
+        final ConcurrentLRUMap<String, String> map = new ConcurrentLRUMap<>(2);
+        map.put("A", "a");
+        map.put("B", "b");
+        assertEquals("a", map.get("A", false));
+        assertTrue(map.containsKey("A"));
+        map.put("C", "c");
+        assertFalse(map.containsKey("A"));
+    }
+
+    /**
+     * Reads buffered for an entry that has since been removed must not relink it.
+     */
+    @Test
+    public void testBufferedReadOfRemovedEntry() {
+        final ConcurrentLRUMap<String, String> map = new ConcurrentLRUMap<>(3);
+        map.put("A", "a");
+        map.put("B", "b");
+        map.get("A");
+        map.remove("A");
+        map.get("B");
+        map.clear();
+        map.put("C", "c");
+        map.put("D", "d");
+        map.put("E", "e");
+        map.put("F", "f");
+        assertEquals(3, map.size());
+        assertFalse(map.containsKey("C"));
+        assertEquals("[D, E, F]", new TreeSet<>(map.keySet()).toString());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException {
+        final ConcurrentLRUMap<Integer, Integer> map = new ConcurrentLRUMap<>(100);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final Random random = new Random(t);
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 50000; i++) {
+                        final Integer key = Integer.valueOf(random.nextInt(300));
+                        switch (random.nextInt(8)) {
+                        case 0:
+                            map.put(key, key);
+                            break;
+                        case 1:
+                            map.remove(key);
+                            break;
+                        default:
+                            final Integer value = map.get(key);
+                            if (value != null && !value.equals(key)) {
+                                throw new IllegalStateException("Wrong value for " + key + ": " + value);
+                            }
+                        }
+                    }
+                } catch (final Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+        assertTrue(map.size() <= 100);
+
+        // the recency list must hold exactly the mapped entries for eviction to empty the map of them
+        for (int i = 1000; i < 1100; i++) {
+            map.put(Integer.valueOf(i), Integer.valueOf(i));
+        }
+        assertEquals(100, map.size());
+        for (final Integer key : map.keySet()) {
+            assertTrue(key.intValue() >= 1000);
+        }
+    }
+
+}
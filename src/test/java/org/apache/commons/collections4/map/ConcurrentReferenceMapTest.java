@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.collections4.BulkTest;
+import org.apache.commons.collections4.keyvalue.DefaultMapEntry;
+import org.apache.commons.collections4.map.AbstractReferenceMap.ReferenceStrength;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class ConcurrentReferenceMapTest<K, V> extends AbstractIterableMapTest<K, V> {
+
+    public ConcurrentReferenceMapTest() {
+        super(ConcurrentReferenceMapTest.class.getSimpleName());
+    }
+
+    public static junit.framework.Test suite() {
+        return BulkTest.makeSuite(ConcurrentReferenceMapTest.class);
+    }
+
+    @Override
+    public ConcurrentReferenceMap<K, V> makeObject() {
+        return new ConcurrentReferenceMap<>(ReferenceStrength.WEAK, ReferenceStrength.WEAK);
+    }
+
+    @Override
+    public boolean isAllowNullKey() {
+        return false;
+    }
+
+    @Override
+    public boolean isAllowNullValue() {
+        return false;
+    }
+
+    @Override
+    public boolean isFailFastExpected() {
+        return false;
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4";
+    }
+
+    @Test
+    public void testConstructorException() {
+        assertThrows(NullPointerException.class, () -> new ConcurrentReferenceMap<K, V>(null, ReferenceStrength.HARD));
+        assertThrows(NullPointerException.class, () -> new ConcurrentReferenceMap<K, V>(ReferenceStrength.HARD, null));
+    }
+
+    @Test
+    public void testReferenceStrengths() {
+        for (final ReferenceStrength keyType : ReferenceStrength.values()) {
+            for (final ReferenceStrength valueType : ReferenceStrength.values()) {
+                final ConcurrentReferenceMap<String, String> map = new ConcurrentReferenceMap<>(keyType, valueType);
+                final String key = new String("key");
+                final String value = new String("value");
+                assertNull(map.put(key, value));
+                assertEquals(value, map.get(new String("key")));
+                assertTrue(map.containsKey("key"));
+                assertTrue(map.containsValue("value"));
+                assertTrue(map.entrySet().contains(new DefaultMapEntry<>("key", "value")));
+                assertEquals(value, map.put("key", "other"));
+                assertEquals("other", map.remove(key));
+                assertTrue(map.isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void testPurge() {
+        final ConcurrentReferenceMap<Object, Object> map =
+                new ConcurrentReferenceMap<>(ReferenceStrength.WEAK, ReferenceStrength.HARD);
+        final WeakReference<Object> keyReference = fill(map, 10);
+        final Object hardKey = new Object();
+        map.put(hardKey, "hard");
+
+        int iterations = 0;
+        int bytz = 2;
+        while (keyReference.get() != null) {
+            System.gc();
+            if (iterations++ > 50 || bytz < 0) {
+                fail("Max iterations reached before resource released.");
+            }
+            // create garbage:
+            @SuppressWarnings("unused")
+            final byte[] b = new byte[bytz];
+            bytz = bytz * 2;
+        }
+        // the mappings are skipped by iteration even before being purged
+        assertEquals(1, map.keySet().toArray().length);
+        int size = 11;
+        for (int i = 0; i < 50 && size > 1; i++) {
+            System.gc();
+            size = map.size();
+        }
+        assertEquals(1, size);
+        assertEquals("hard", map.get(hardKey));
+    }
+
+    private static WeakReference<Object> fill(final ConcurrentReferenceMap<Object, Object> map, final int count) {
+        Object key = null;
+        for (int i = 0; i < count; i++) {
+            key = new Object();
+            map.put(key, Integer.valueOf(i));
+        }
+        return new WeakReference<>(key);
+    }
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException {
+        final ConcurrentReferenceMap<Integer, Integer> map =
+                new ConcurrentReferenceMap<>(ReferenceStrength.HARD, ReferenceStrength.WEAK);
+        final Integer[] values = new Integer[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Integer.valueOf(i + 1000);
+        }
+        final List<Thread> threads = new ArrayList<>();
+        final Throwable[] failure = new Throwable[1];
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 20000; i++) {
+                        final Integer key = Integer.valueOf(i % values.length);
+                        map.put(key, values[key.intValue()]);
+                        final Integer value = map.get(key);
+                        if (value != null && value != values[key.intValue()]) {
+                            throw new IllegalStateException("Wrong value for " + key + ": " + value);
+                        }
+                    }
+                } catch (final Throwable e) {
+                    failure[0] = e;
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure[0]);
+        assertEquals(values.length, map.size());
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.commons.collections4.BulkTest;
+import org.apache.commons.collections4.MapIterator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class FlatNMapTest<K, V> extends AbstractIterableMapTest<K, V> {
+
+    public FlatNMapTest() {
+        super(FlatNMapTest.class.getSimpleName());
+    }
+
+    public static junit.framework.Test suite() {
+        return BulkTest.makeSuite(FlatNMapTest.class);
+    }
+
+    /**
+     * Creates a map large enough to hold the sample mappings in flat mode.
+     */
+    @Override
+    public FlatNMap<K, V> makeObject() {
+        return new FlatNMap<>(32);
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4";
+    }
+
+    @Test
+    public void testConstructorException() {
+        assertThrows(IllegalArgumentException.class, () -> new FlatNMap<K, V>(0));
+        assertThrows(NullPointerException.class, () -> new FlatNMap<K, V>(null));
+    }
+
+    @Test
+    public void testConvertsToDelegateMap() {
+        final FlatNMap<Integer, String> map = new FlatNMap<>();
+        assertEquals(FlatNMap.DEFAULT_MAX_FLAT_SIZE, map.maxFlatSize());
+        for (int i = 0; i < 8; i++) {
+            map.put(Integer.valueOf(i), String.valueOf(i));
+        }
+        assertTrue(map.entrySet() instanceof FlatNMap.EntrySet);
+        map.put(Integer.valueOf(3), "three");
+        assertTrue(map.entrySet() instanceof FlatNMap.EntrySet);
+        map.put(Integer.valueOf(8), "8");
+        assertFalse(map.entrySet() instanceof FlatNMap.EntrySet);
+        assertEquals(9, map.size());
+        assertEquals("three", map.get(Integer.valueOf(3)));
+        assertEquals("8", map.get(Integer.valueOf(8)));
+
+        map.clear();
+        map.put(null, "null");
+        assertTrue(map.entrySet() instanceof FlatNMap.EntrySet);
+        assertEquals("null", map.get(null));
+    }
+
+    @Test
+    public void testPutAll() {
+        final Map<Integer, String> source = new HashMap<>();
+        for (int i = 0; i < 4; i++) {
+            source.put(Integer.valueOf(i), String.valueOf(i));
+        }
+        final FlatNMap<Integer, String> map = new FlatNMap<>(4);
+        map.putAll(source);
+        assertTrue(map.entrySet() instanceof FlatNMap.EntrySet);
+        assertEquals(source, map);
+        source.put(Integer.valueOf(4), "4");
+        final FlatNMap<Integer, String> copy = new FlatNMap<>(4);
+        copy.putAll(source);
+        assertFalse(copy.entrySet() instanceof FlatNMap.EntrySet);
+        assertEquals(source, copy);
+    }
+
+    @Test
+    public void testRemoveMovesLastEntry() {
+        final FlatNMap<String, String> map = new FlatNMap<>();
+        map.put("a", "A");
+        map.put("b", "B");
+        map.put(null, "N");
+        map.put("c", "C");
+        assertEquals("{a=A, b=B, null=N, c=C}", map.toString());
+        assertEquals("A", map.remove("a"));
+        assertEquals("{c=C, b=B, null=N}", map.toString());
+        assertEquals("N", map.remove(null));
+        assertNull(map.remove(null));
+        assertEquals("{c=C, b=B}", map.toString());
+    }
+
+    @Test
+    public void testIteratorRemoveVisitsMovedEntry() {
+        final FlatNMap<String, String> map = new FlatNMap<>();
+        map.put("a", "A");
+        map.put("b", "B");
+        map.put("c", "C");
+        final MapIterator<String, String> it = map.mapIterator();
+        assertEquals("a", it.next());
+        it.remove();
+        assertEquals("c", it.next());
+        assertEquals("C", it.setValue("CC"));
+        assertEquals("b", it.next());
+        it.remove();
+        assertFalse(it.hasNext());
+        assertEquals("{c=CC}", map.toString());
+
+        map.put("d", "D");
+        final Iterator<Map.Entry<String, String>> entries = map.entrySet().iterator();
+        final Map.Entry<String, String> entry = entries.next();
+        entries.remove();
+        assertThrows(IllegalStateException.class, () -> entry.getKey());
+        assertEquals("d", entries.next().getKey());
+        assertFalse(entries.hasNext());
+    }
+
+    @Test
+    public void testCloneAndSerialisation() throws Exception {
+        final FlatNMap<String, String> map = new FlatNMap<>(2);
+        map.put("a", "A");
+        map.put("b", "B");
+        final FlatNMap<String, String> cloned = map.clone();
+        map.put("a", "AA");
+        assertEquals("A", cloned.get("a"));
+
+        map.put("c", "C");
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bout)) {
+            out.writeObject(map);
+        }
+        final Object deserialized;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray()))) {
+            deserialized = in.readObject();
+        }
+        assertEquals(map, deserialized);
+        assertEquals(2, ((FlatNMap<?, ?>) deserialized).maxFlatSize());
+        assertFalse(((FlatNMap<?, ?>) deserialized).entrySet() instanceof FlatNMap.EntrySet);
+    }
+
+//    public void testCreate() throws Exception {
+//        resetEmpty();
+//        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/org/apache/commons/collections4/data/test/FlatNMap.emptyCollection.version4.obj");
+//        resetFull();
+//        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/org/apache/commons/collections4/data/test/FlatNMap.fullCollection.version4.obj");
+//    }
+}
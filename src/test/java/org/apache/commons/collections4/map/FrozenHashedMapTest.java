@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.collections4.BulkTest;
+import org.apache.commons.collections4.IterableMap;
+import org.apache.commons.collections4.Unmodifiable;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Extension of {@link AbstractIterableMapTest} for exercising the
+ * {@link FrozenHashedMap} implementation.
+ */
+public class FrozenHashedMapTest<K, V> extends AbstractIterableMapTest<K, V> {
+
+    public FrozenHashedMapTest() {
+        super(FrozenHashedMapTest.class.getSimpleName());
+    }
+
+    public static junit.framework.Test suite() {
+        return BulkTest.makeSuite(FrozenHashedMapTest.class);
+    }
+
+    @Override
+    public IterableMap<K, V> makeObject() {
+        return new HashedMap<K, V>().freeze();
+    }
+
+    @Override
+    public IterableMap<K, V> makeFullMap() {
+        final HashedMap<K, V> map = new HashedMap<>();
+        addSampleMappings(map);
+        return map.freeze();
+    }
+
+    @Override
+    public boolean isPutChangeSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isPutAddSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isRemoveSupported() {
+        return false;
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4";
+    }
+
+    @Test
+    public void testUnmodifiable() {
+        assertTrue(makeObject() instanceof Unmodifiable);
+        assertTrue(makeFullMap() instanceof Unmodifiable);
+    }
+
+    @Test
+    public void testFreezeIsIndependent() {
+        final HashedMap<String, String> map = new HashedMap<>();
+        map.put("a", "A");
+        map.put(null, "N");
+        final FrozenHashedMap<String, String> frozen = map.freeze();
+        map.put("b", "B");
+        map.remove("a");
+        assertEquals(2, frozen.size());
+        assertEquals("A", frozen.get("a"));
+        assertEquals("N", frozen.get(null));
+        assertFalse(frozen.containsKey("b"));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.put("c", "C"));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.entrySet().iterator().next().setValue("X"));
+    }
+
+    @Test
+    public void testFreezeKeepsIterationOrder() {
+        final LinkedMap<Integer, String> map = new LinkedMap<>();
+        for (int i = 100; i > 0; i -= 3) {
+            map.put(Integer.valueOf(i), String.valueOf(i));
+        }
+        final FrozenHashedMap<Integer, String> frozen = map.freeze();
+        assertEquals(new ArrayList<>(map.keySet()), new ArrayList<>(frozen.keySet()));
+        assertEquals(new ArrayList<>(map.values()), new ArrayList<>(frozen.values()));
+        assertEquals(map, frozen);
+        assertEquals(map.hashCode(), frozen.hashCode());
+        for (int i = 0; i <= 101; i++) {
+            assertEquals(map.get(Integer.valueOf(i)), frozen.get(Integer.valueOf(i)));
+        }
+    }
+
+    @Test
+    public void testFreezeCaseInsensitiveMap() {
+        final CaseInsensitiveMap<String, String> map = new CaseInsensitiveMap<>();
+        map.put("Content-Type", "text/plain");
+        map.put("ACCEPT", "*/*");
+        final FrozenHashedMap<String, String> frozen = map.freeze();
+        assertEquals("text/plain", frozen.get("content-TYPE"));
+        assertTrue(frozen.containsKey("Accept"));
+        assertEquals(new ArrayList<>(map.keySet()), new ArrayList<>(frozen.keySet()));
+        assertTrue(frozen.keySet().containsAll(Arrays.asList("content-type", "accept")));
+    }
+
+    @Test
+    public void testKeyStrategyWithState() {
+        final Map<String, String> aliases = new HashMap<>();
+        aliases.put("colour", "color");
+        final FrozenHashedMap.KeyStrategy strategy = new FrozenHashedMap.KeyStrategy() {
+            private final Map<String, String> canonical = new HashMap<>(aliases);
+
+            @Override
+            protected Object convertKey(final Object key) {
+                final String alias = canonical.get(key);
+                return super.convertKey(alias == null ? key : alias);
+            }
+        };
+        final LinkedMap<String, String> map = new LinkedMap<>();
+        map.put("color", "red");
+        map.put("size", "L");
+        map.put("colour", "blue");
+        final FrozenHashedMap<String, String> frozen = new FrozenHashedMap<>(map, strategy);
+        assertEquals(2, frozen.size());
+        assertEquals("blue", frozen.get("colour"));
+        assertEquals("blue", frozen.get("color"));
+        assertEquals(Arrays.asList("color", "size"), new ArrayList<>(frozen.keySet()));
+        assertThrows(NullPointerException.class, () -> new FrozenHashedMap<>(map, null));
+    }
+
+    @Test
+    public void testFreezeReferenceMap() {
+        final ReferenceMap<String, String> map = new ReferenceMap<>();
+        map.put("a", "A");
+        map.put("b", "B");
+        final FrozenHashedMap<String, String> frozen = map.freeze();
+        map.remove("a");
+        assertEquals(2, frozen.size());
+        assertEquals("A", frozen.get("a"));
+        assertEquals("B", frozen.get(new String("b")));
+    }
+
+    @Test
+    public void testFreezeReferenceIdentityMap() {
+        final String key1 = new String("key");
+        final String key2 = new String("key");
+        final String value = new String("value");
+        final ReferenceIdentityMap<String, String> map = new ReferenceIdentityMap<>();
+        map.put(key1, value);
+        map.put(key2, "other");
+        final FrozenHashedMap<String, String> frozen = map.freeze();
+        assertEquals(2, frozen.size());
+        assertSame(value, frozen.get(key1));
+        assertEquals("other", frozen.get(key2));
+        assertNull(frozen.get("key"));
+        assertTrue(frozen.containsValue(value));
+        assertFalse(frozen.containsValue(new String("value")));
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.collections4.BulkTest;
+import org.apache.commons.collections4.MapIterator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class HashTrieMapTest<K, V> extends AbstractIterableMapTest<K, V> {
+
+    public HashTrieMapTest() {
+        super(HashTrieMapTest.class.getSimpleName());
+    }
+
+    public static junit.framework.Test suite() {
+        return BulkTest.makeSuite(HashTrieMapTest.class);
+    }
+
+    @Override
+    public HashTrieMap<K, V> makeObject() {
+        return new HashTrieMap<>();
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4";
+    }
+
+    @Test
+    public void testSnapshotIsIndependent() {
+        final HashTrieMap<String, String> map = new HashTrieMap<>();
+        map.put("a", "A");
+        map.put("b", "B");
+        map.put(null, "N");
+        final HashTrieMap<String, String> snapshot = map.snapshot();
+        map.put("a", "AA");
+        map.put("c", "C");
+        map.remove("b");
+        map.remove(null);
+        snapshot.put("d", "D");
+
+        assertEquals(4, snapshot.size());
+        assertEquals("A", snapshot.get("a"));
+        assertEquals("B", snapshot.get("b"));
+        assertEquals("N", snapshot.get(null));
+        assertFalse(snapshot.containsKey("c"));
+        assertEquals(2, map.size());
+        assertEquals("AA", map.get("a"));
+        assertFalse(map.containsKey("d"));
+
+        final HashTrieMap<String, String> cloned = map.clone();
+        map.clear();
+        assertEquals(2, cloned.size());
+        assertEquals("C", cloned.get("c"));
+    }
+
+    @Test
+    public void testSnapshotIteration() {
+        final HashTrieMap<Integer, Integer> map = new HashTrieMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(Integer.valueOf(i), Integer.valueOf(i));
+        }
+        final HashTrieMap<Integer, Integer> snapshot = map.snapshot();
+        final MapIterator<Integer, Integer> it = snapshot.mapIterator();
+        int count = 0;
+        while (it.hasNext()) {
+            final Integer key = it.next();
+            assertEquals(key, it.getValue());
+            // changes to the map do not disturb the iteration of the snapshot
+            map.remove(key);
+            map.put(Integer.valueOf(-key.intValue()), key);
+            count++;
+        }
+        assertEquals(1000, count);
+        assertEquals(1000, snapshot.size());
+        assertFalse(map.containsKey(Integer.valueOf(999)));
+    }
+
+    @Test
+    public void testCollidingKeys() {
+        // "Aa" and "BB" have the same hash code, as do all strings built from them
+        final String[] parts = {"Aa", "BB"};
+        final HashTrieMap<String, String> map = new HashTrieMap<>();
+        for (int i = 0; i < 16; i++) {
+            final StringBuilder key = new StringBuilder();
+            for (int j = 0; j < 4; j++) {
+                key.append(parts[i >> j & 1]);
+            }
+            map.put(key.toString(), String.valueOf(i));
+        }
+        map.put("other", "O");
+        final HashTrieMap<String, String> snapshot = map.snapshot();
+        assertEquals(17, map.size());
+        assertEquals("5", map.get("BBAaBBAa"));
+        assertEquals("5", map.remove("BBAaBBAa"));
+        assertNull(map.get("BBAaBBAa"));
+        assertEquals("5", snapshot.get("BBAaBBAa"));
+        for (final Iterator<Map.Entry<String, String>> it = map.entrySet().iterator(); it.hasNext();) {
+            if (!"O".equals(it.next().getValue())) {
+                it.remove();
+            }
+        }
+        assertEquals(1, map.size());
+        assertEquals("O", map.get("other"));
+        assertEquals(17, snapshot.size());
+    }
+
+    @Test
+    public void testMatchesHashMap() {
+        final Random random = new Random(42);
+        final Map<Integer, Integer> expected = new HashMap<>();
+        HashTrieMap<Integer, Integer> map = new HashTrieMap<>();
+        Map<Integer, Integer> expectedSnapshot = new HashMap<>();
+        HashTrieMap<Integer, Integer> snapshot = map.snapshot();
+        for (int i = 0; i < 20000; i++) {
+            // small keys with colliding spread hash codes are frequent
+            final Integer key = Integer.valueOf(random.nextInt(2000) << random.nextInt(20));
+            final Integer value = Integer.valueOf(i);
+            switch (random.nextInt(3)) {
+            case 0:
+                assertEquals(expected.remove(key), map.remove(key));
+                break;
+            default:
+                assertEquals(expected.put(key, value), map.put(key, value));
+                break;
+            }
+            if (i % 1000 == 0) {
+                assertEquals(expectedSnapshot, snapshot);
+                snapshot = map.snapshot();
+                expectedSnapshot = new HashMap<>(expected);
+                if (i % 2000 == 0) {
+                    // carry on with the snapshot, leaving the map as it is
+                    final HashTrieMap<Integer, Integer> previous = map;
+                    map = snapshot;
+                    snapshot = previous;
+                }
+            }
+        }
+        assertEquals(expected, map);
+        assertEquals(expected.size(), map.size());
+        assertEquals(expectedSnapshot, snapshot);
+        assertEquals(expectedSnapshot.hashCode(), snapshot.hashCode());
+    }
+
+//    public void testCreate() throws Exception {
+//        resetEmpty();
+//        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/org/apache/commons/collections4/data/test/HashTrieMap.emptyCollection.version4.obj");
+//        resetFull();
+//        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/org/apache/commons/collections4/data/test/HashTrieMap.fullCollection.version4.obj");
+//    }
+}
@@ -16,7 +16,11 @@
  */
 package org.apache.commons.collections4.map;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.commons.collections4.BulkTest;
+import org.apache.commons.collections4.MapIterator;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -89,4 +93,102 @@ public class HashedMapTest<K, V> extends AbstractIterableMapTest<K, V> {
         final HashedMap<String, String> map = new HashedMap<>(0);
         assertEquals(1, map.data.length);
     }
+
+    /**
+     * Creates distinct strings that all have the same hash code, as used to flood hash tables.
+     *
+     * @param blocks  the number of two-character blocks in each string
+     * @return 2 to the power of {@code blocks} strings
+     */
+    static List<String> collidingKeys(final int blocks) {
+        List<String> keys = new ArrayList<>();
+        keys.add("");
+        for (int i = 0; i < blocks; i++) {
+            final List<String> longer = new ArrayList<>();
+            for (final String key : keys) {
+                // "Aa" and "BB" have the same hash code
+                longer.add(key + "Aa");
+                longer.add(key + "BB");
+            }
+            keys = longer;
+        }
+        return keys;
+    }
+
+    @Test
+    public void testCollidingKeys() {
+        final List<String> keys = collidingKeys(8);
+        final HashedMap<String, Integer> map = new HashedMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            assertNull(map.put(keys.get(i), Integer.valueOf(i)));
+        }
+        assertEquals(256, map.size());
+        final int index = map.hashIndex(map.hash(keys.get(0)), map.data.length);
+        assertNotNull(map.treeBins[index]);
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(Integer.valueOf(i), map.get(keys.get(i)));
+        }
+        assertFalse(map.containsKey("AaAaAaAaAaAaAaBa"));
+        assertEquals(Integer.valueOf(3), map.put(keys.get(3), Integer.valueOf(-3)));
+        assertEquals(Integer.valueOf(-3), map.get(keys.get(3)));
+
+        for (int i = 0; i < keys.size() - 5; i++) {
+            assertEquals(i == 3 ? Integer.valueOf(-3) : Integer.valueOf(i), map.remove(keys.get(i)));
+            assertNull(map.remove(keys.get(i)));
+        }
+        assertNull(map.treeBins[index]);
+        assertEquals(5, map.size());
+        for (int i = keys.size() - 5; i < keys.size(); i++) {
+            assertEquals(Integer.valueOf(i), map.get(keys.get(i)));
+        }
+        int count = 0;
+        for (final MapIterator<String, Integer> it = map.mapIterator(); it.hasNext(); it.next()) {
+            count++;
+        }
+        assertEquals(5, count);
+    }
+
+    /**
+     * Keys that compare as equal although they are not cannot be indexed by a tree.
+     */
+    @Test
+    public void testCollidingKeysInconsistentWithEquals() {
+        final HashedMap<HalfComparableKey, Integer> map = new HashedMap<>();
+        for (int i = 0; i < 40; i++) {
+            map.put(new HalfComparableKey(i), Integer.valueOf(i));
+        }
+        assertEquals(40, map.size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(Integer.valueOf(i), map.get(new HalfComparableKey(i)));
+        }
+        assertEquals(Integer.valueOf(7), map.remove(new HalfComparableKey(7)));
+        assertFalse(map.containsKey(new HalfComparableKey(7)));
+        assertTrue(map.containsKey(new HalfComparableKey(6)));
+    }
+
+    /**
+     * Key colliding with all others, whose natural ordering only considers half its identifier.
+     */
+    private static final class HalfComparableKey implements Comparable<HalfComparableKey> {
+        private final int id;
+
+        HalfComparableKey(final int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(final HalfComparableKey other) {
+            return Integer.compare(id / 2, other.id / 2);
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof HalfComparableKey && ((HalfComparableKey) obj).id == id;
+        }
+    }
 }
@@ -902,6 +902,20 @@ public class LRUMapTest<K, V> extends AbstractOrderedMapTest<K, V> {
                 + counter[0] + " did succeed", counter[0] >= threads.length);
     }
 
+    @Test
+    public void testCollidingKeysEviction() {
+        final List<String> keys = HashedMapTest.collidingKeys(7);
+        final LRUMap<String, Integer> map = new LRUMap<>(16);
+        for (int i = 0; i < keys.size(); i++) {
+            map.put(keys.get(i), Integer.valueOf(i));
+        }
+        assertEquals(16, map.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i >= keys.size() - 16 ? Integer.valueOf(i) : null, map.get(keys.get(i)));
+        }
+        assertEquals(keys.get(keys.size() - 16), map.firstKey());
+    }
+
     @Override
     public String getCompatibilityVersion() {
         return "4";
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.apache.commons.collections4.BulkTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class LfuAdmissionLRUMapTest<K, V> extends AbstractOrderedMapTest<K, V> {
+
+    public LfuAdmissionLRUMapTest() {
+        super(LfuAdmissionLRUMapTest.class.getSimpleName());
+    }
+
+    public static junit.framework.Test suite() {
+        return BulkTest.makeSuite(LfuAdmissionLRUMapTest.class);
+    }
+
+    @Override
+    public LfuAdmissionLRUMap<K, V> makeObject() {
+        return new LfuAdmissionLRUMap<>();
+    }
+
+    @Override
+    public boolean isGetStructuralModify() {
+        return true;
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4";
+    }
+
+    @Test
+    public void testConstructorException() {
+        assertThrows(IllegalArgumentException.class, () -> new LfuAdmissionLRUMap<K, V>(0));
+        assertThrows(NullPointerException.class, () -> new LfuAdmissionLRUMap<K, V>(null));
+    }
+
+    /**
+     * One-off keys flush every hot key out of a plain LRUMap of the same size between
+     * two rounds of uses, but are not admitted in place of the hot keys.
+     */
+    @Test
+    public void testScanDoesNotEvictFrequentKeys() {
+        final LfuAdmissionLRUMap<Integer, Integer> map = new LfuAdmissionLRUMap<>(100);
+        final LRUMap<Integer, Integer> lru = new LRUMap<>(100);
+        int next = 1000;
+        int hits = 0;
+        int lruHits = 0;
+        for (int round = 0; round < 20; round++) {
+            hits = 0;
+            lruHits = 0;
+            for (int i = 0; i < 150; i++) {
+                final Integer key = Integer.valueOf(i % 50);
+                if (map.get(key) == null) {
+                    map.put(key, key);
+                } else if (i < 50) {
+                    hits++;
+                }
+                if (lru.get(key) == null) {
+                    lru.put(key, key);
+                } else if (i < 50) {
+                    lruHits++;
+                }
+            }
+            for (int i = 0; i < 200; i++) {
+                final Integer key = Integer.valueOf(next++);
+                assertNull(map.get(key));
+                map.put(key, key);
+                lru.put(key, key);
+            }
+            assertEquals(100, map.size());
+        }
+        assertEquals(0, lruHits);
+        assertTrue("Hot keys found: " + hits, hits >= 45);
+    }
+
+    @Test
+    public void testFrequentKeyIsAdmitted() {
+        final LfuAdmissionLRUMap<String, String> map = new LfuAdmissionLRUMap<>(2);
+        map.put("A", "a");
+        map.get("A");
+        map.put("B", "b");
+        map.get("B");
+
+        // C is not used more often than A, the least recently used entry
+        assertNull(map.put("C", "c"));
+        assertFalse(map.containsKey("C"));
+        map.put("C", "c");
+        assertFalse(map.containsKey("C"));
+        assertTrue(map.containsKey("A"));
+
+        assertNull(map.get("C"));
+        map.put("C", "c");
+        assertTrue(map.containsKey("C"));
+        assertFalse(map.containsKey("A"));
+        assertTrue(map.containsKey("B"));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testCandidateIsChosenAsLRUMapDoes() {
+        final LfuAdmissionLRUMap<String, String> map = new LfuAdmissionLRUMap<String, String>(2, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeLRU(final LinkEntry<String, String> entry) {
+                return !"A".equals(entry.getKey());
+            }
+        };
+        map.put("A", "a");
+        for (int i = 0; i < 5; i++) {
+            map.get("A");
+        }
+        map.put("B", "b");
+        map.get("C");
+
+        // C is compared with B, the first removable entry, not with the frequent A
+        map.put("C", "c");
+        assertTrue(map.containsKey("A"));
+        assertTrue(map.containsKey("C"));
+        assertFalse(map.containsKey("B"));
+    }
+
+    @Test
+    public void testKeyIsAddedWhenNoEntryIsRemoved() {
+        final LfuAdmissionLRUMap<String, String> map = new LfuAdmissionLRUMap<String, String>(2) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeLRU(final LinkEntry<String, String> entry) {
+                return false;
+            }
+        };
+        map.put("A", "a");
+        map.put("B", "b");
+        for (int i = 0; i < 5; i++) {
+            map.get("A");
+            map.get("B");
+        }
+        map.put("C", "c");
+        assertEquals(3, map.size());
+        assertTrue(map.containsKey("C"));
+    }
+
+    @Test
+    public void testFrequencyIsHalvedPeriodically() {
+        final LfuAdmissionLRUMap<Integer, Integer> map = new LfuAdmissionLRUMap<>(16);
+        for (int i = 0; i < 15; i++) {
+            map.get(Integer.valueOf(-1));
+        }
+        assertEquals(15, map.frequency(Integer.valueOf(-1)));
+        final Random random = new Random(42);
+        for (int i = 0; i < 160; i++) {
+            map.get(Integer.valueOf(random.nextInt(1000)));
+        }
+        assertTrue(map.frequency(Integer.valueOf(-1)) < 15);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testClone() {
+        final LfuAdmissionLRUMap<K, V> map = new LfuAdmissionLRUMap<>(10);
+        map.put((K) "1", (V) "1");
+        map.get("1");
+        final LfuAdmissionLRUMap<K, V> cloned = map.clone();
+        assertEquals(map.size(), cloned.size());
+        assertSame(map.get("1"), cloned.get("1"));
+        assertEquals(map.frequency("1"), cloned.frequency("1"));
+        cloned.get("1");
+        assertEquals(map.frequency("1") + 1, cloned.frequency("1"));
+    }
+
+//    public void testCreate() throws Exception {
+//        resetEmpty();
+//        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/org/apache/commons/collections4/data/test/LfuAdmissionLRUMap.emptyCollection.version4.obj");
+//        resetFull();
+//        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/org/apache/commons/collections4/data/test/LfuAdmissionLRUMap.fullCollection.version4.obj");
+//    }
+}
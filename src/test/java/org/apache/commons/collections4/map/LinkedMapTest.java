@@ -17,6 +17,7 @@
 package org.apache.commons.collections4.map;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -307,4 +308,22 @@ public class LinkedMapTest<K, V> extends AbstractOrderedMapTest<K, V> {
         final LinkedMap<String, String> map = new LinkedMap<>(0);
         assertEquals(1, map.data.length);
     }
+
+    @Test
+    public void testCollidingKeysKeepInsertionOrder() {
+        final List<String> keys = HashedMapTest.collidingKeys(6);
+        final LinkedMap<String, Integer> map = new LinkedMap<>();
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            map.put(keys.get(i), Integer.valueOf(i));
+        }
+        map.remove(keys.get(10));
+        map.put(keys.get(10), Integer.valueOf(10));
+        final List<String> expected = new ArrayList<>(keys);
+        Collections.reverse(expected);
+        expected.remove(keys.get(10));
+        expected.add(keys.get(10));
+        assertEquals(expected, new ArrayList<>(map.keySet()));
+        assertEquals(Integer.valueOf(10), map.get(keys.get(10)));
+        assertEquals(keys.get(10), map.lastKey());
+    }
 }
@@ -20,13 +20,17 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.TreeMap;
 
 import org.apache.commons.collections4.BulkTest;
 import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.OrderedMapIterator;
 import org.apache.commons.collections4.list.AbstractListTest;
 import org.junit.jupiter.api.Test;
 
@@ -425,6 +429,112 @@ public class ListOrderedMapTest<K, V> extends AbstractOrderedMapTest<K, V> {
         listMap.putAll(2, hmap);
     }
 
+    @Test
+    public void testIndexedOrderMatchesList() {
+        final ListOrderedMap<Integer, Integer> map = new ListOrderedMap<>();
+        final List<Integer> expected = new ArrayList<>();
+        final Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            final Integer key = Integer.valueOf(random.nextInt(500));
+            final int operation = random.nextInt(10);
+            if (operation < 5) {
+                if (map.put(key, key) == null) {
+                    expected.add(key);
+                }
+            } else if (operation < 8) {
+                assertEquals(expected.remove(key) ? key : null, map.remove(key));
+            } else if (operation < 9) {
+                final int index = random.nextInt(expected.size() + 1);
+                final int pos = expected.indexOf(key);
+                expected.add(index, key);
+                if (pos >= 0) {
+                    expected.remove(pos < index ? pos : pos + 1);
+                }
+                map.put(index, key, key);
+            } else {
+                final int remainder = i % 7;
+                for (final MapIterator<Integer, Integer> it = map.mapIterator(); it.hasNext();) {
+                    if (it.next().intValue() % 7 == remainder) {
+                        it.remove();
+                    }
+                }
+                expected.removeIf(k -> k.intValue() % 7 == remainder);
+            }
+            final int index = expected.isEmpty() ? -1 : random.nextInt(expected.size());
+            if (index >= 0) {
+                assertEquals(expected.get(index), map.get(index));
+                assertEquals(index, map.indexOf(expected.get(index)));
+                assertEquals(index == 0 ? null : expected.get(index - 1), map.previousKey(expected.get(index)));
+            }
+            assertEquals(expected.indexOf(key), map.indexOf(key));
+        }
+        assertEquals(expected, map.keyList());
+        assertEquals(expected, new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void testRemoveManyKeys() {
+        final ListOrderedMap<Integer, Integer> map = new ListOrderedMap<>();
+        for (int i = 0; i < 100000; i++) {
+            map.put(Integer.valueOf(i), Integer.valueOf(i));
+        }
+        for (int i = 0; i < 100000; i += 2) {
+            map.remove(Integer.valueOf(i));
+        }
+        assertEquals(50000, map.size());
+        assertEquals(Integer.valueOf(1), map.firstKey());
+        assertEquals(Integer.valueOf(99999), map.lastKey());
+        assertEquals(25000, map.indexOf(Integer.valueOf(50001)));
+        assertEquals(Integer.valueOf(50003), map.nextKey(Integer.valueOf(50001)));
+        final OrderedMapIterator<Integer, Integer> it = map.mapIterator();
+        while (it.hasNext()) {
+            if (it.next().intValue() > 10) {
+                it.remove();
+            }
+        }
+        assertEquals(Arrays.asList(1, 3, 5, 7, 9), map.keyList());
+        assertEquals(Integer.valueOf(9), it.previous());
+        it.remove();
+        assertEquals(Integer.valueOf(7), it.previous());
+        assertEquals(Arrays.asList(1, 3, 5, 7), map.keyList());
+    }
+
+    @Test
+    public void testIdentityHashMapKeys() {
+        final ListOrderedMap<String, String> map = ListOrderedMap.listOrderedMap(new IdentityHashMap<>());
+        final String key1 = new String("key");
+        final String key2 = new String("key");
+        final String key3 = new String("key");
+        map.put(key1, "1");
+        map.put(key2, "2");
+        map.put(key3, "3");
+        assertEquals(3, map.size());
+        assertEquals(3, map.keyList().size());
+        assertSame(key2, map.get(1));
+        assertEquals(1, map.indexOf(key2));
+        assertSame(key3, map.nextKey(key2));
+        assertEquals("2", map.remove(key2));
+        assertEquals(2, map.keyList().size());
+        assertSame(key1, map.get(0));
+        assertSame(key3, map.get(1));
+        assertEquals(-1, map.indexOf(key2));
+        assertEquals(-1, map.indexOf("key"));
+    }
+
+    @Test
+    public void testCaseInsensitiveMapKeys() {
+        final ListOrderedMap<String, String> map = ListOrderedMap.listOrderedMap(new CaseInsensitiveMap<>());
+        map.put("One", "1");
+        map.put("Two", "2");
+        map.put("ONE", "one");
+        assertEquals(2, map.keyList().size());
+        assertEquals(0, map.indexOf("one"));
+        assertEquals("one", map.get("oNe"));
+        assertEquals("one", map.remove("one"));
+        assertEquals(1, map.keyList().size());
+        assertEquals("Two", map.firstKey());
+    }
+
     public BulkTest bulkTestKeyListView() {
         return new TestKeyListView();
     }
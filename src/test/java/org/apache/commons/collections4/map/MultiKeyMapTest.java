@@ -457,6 +457,102 @@ public class MultiKeyMapTest<K, V> extends AbstractIterableMapTest<MultiKey<? ex
         assertTrue(cloned.containsKey(I1, I5));
     }
 
+    @Test
+    public void testInlineKeys() throws Exception {
+        final MultiKeyMap<Object, String> map = new MultiKeyMap<>();
+        map.put(I1, I2, "2");
+        map.put(I1, I2, null, "3");
+        map.put(I1, I2, I3, I4, "4");
+        map.put("A", I2, I3, I4, I5, "5");
+        assertTrue(map.containsKey(new MultiKey<>(I1, I2)));
+        assertEquals("3", map.get(new MultiKey<>(I1, I2, null)));
+        assertEquals("4", map.get(new MultiKey<>(I1, I2, I3, I4)));
+        assertEquals("5", map.get(new MultiKey<Object>("A", I2, I3, I4, I5)));
+
+        final MultiKey<Object> expected = new MultiKey<>(I1, I2, I3, I4);
+        for (final MultiKey<?> key : map.keySet()) {
+            assertFalse(key.getClass() == MultiKey.class);
+            assertEquals(key.hashCode(), new MultiKey<>(key.getKeys()).hashCode());
+            assertEquals(key, new MultiKey<>(key.getKeys()));
+            assertEquals(new MultiKey<>(key.getKeys()), key);
+            assertEquals(new MultiKey<>(key.getKeys()).toString(), key.toString());
+            if (key.size() == 4) {
+                assertEquals(expected, key);
+                assertEquals(Integer.class, key.getKeys().getClass().getComponentType());
+                assertSame(I3, key.getKey(2));
+                assertThrows(IndexOutOfBoundsException.class, () -> key.getKey(4));
+            }
+        }
+
+        final Object copy = serializeDeserialize(map);
+        assertEquals(map, copy);
+        for (final Object key : ((Map<?, ?>) copy).keySet()) {
+            assertSame(MultiKey.class, key.getClass());
+        }
+    }
+
+    @Test
+    public void testKeysWithPrefix() {
+        for (final boolean indexed : new boolean[] {false, true}) {
+            final MultiKeyMap<Object, String> map = new MultiKeyMap<>();
+            if (indexed) {
+                map.enablePrefixIndex();
+            }
+            assertEquals(indexed, map.isPrefixIndexEnabled());
+            map.put(I1, I2, "1-2");
+            map.put(I1, I2, I3, "1-2-3");
+            map.put(I1, I3, "1-3");
+            map.put(I2, I1, I3, I4, I5, "2-1-3-4-5");
+            map.put(new MultiKey<Object>(new Object[] {I1}), "1");
+
+            assertEquals(4, map.keysWithPrefix(I1).size());
+            assertEquals(2, map.keysWithPrefix(I1, I2).size());
+            assertTrue(map.keysWithPrefix(I1, I2).contains(new MultiKey<>(I1, I2, I3)));
+            assertEquals(0, map.keysWithPrefix(I3).size());
+            assertEquals(5, map.keysWithPrefix().size());
+            final Map<MultiKey<?>, String> all = new HashedMap<>(map.getAll(I2, I1, I3, I4));
+            assertEquals(1, all.size());
+            assertEquals("2-1-3-4-5", all.get(new MultiKey<>(I2, I1, I3, I4, I5)));
+
+            assertFalse(map.removeAll(I3));
+            assertTrue(map.removeAll(I1, I2));
+            assertEquals(3, map.size());
+            assertEquals(0, map.keysWithPrefix(I1, I2).size());
+            assertEquals(2, map.keysWithPrefix(I1).size());
+            map.removeMultiKey(I1, I3);
+            map.remove(new MultiKey<Object>(new Object[] {I1}));
+            assertEquals(0, map.keysWithPrefix(I1).size());
+            map.put(I1, I2, "1-2");
+            assertEquals(1, map.keysWithPrefix(I1).size());
+            map.clear();
+            assertEquals(0, map.keysWithPrefix().size());
+        }
+    }
+
+    @Test
+    public void testPrefixIndexWithEvictions() throws Exception {
+        final MultiKeyMap<Object, String> map = MultiKeyMap.multiKeyMap(new LRUMap<>(10));
+        map.enablePrefixIndex();
+        for (int i = 0; i < 1000; i++) {
+            map.put(Integer.valueOf(i % 7), Integer.valueOf(i), "v" + i);
+        }
+        assertEquals(10, map.size());
+        int found = 0;
+        for (int i = 0; i < 7; i++) {
+            for (final MultiKey<?> key : map.keysWithPrefix(Integer.valueOf(i))) {
+                assertTrue(map.containsKey(key));
+                found++;
+            }
+        }
+        assertEquals(10, found);
+        assertTrue(map.removeAll(Integer.valueOf(999 % 7)));
+        assertFalse(map.containsKey(Integer.valueOf(999 % 7), Integer.valueOf(999)));
+
+        final MultiKeyMap<Object, String> copy = (MultiKeyMap<Object, String>) serializeDeserialize(map);
+        assertTrue(copy.isPrefixIndexEnabled());
+        assertEquals(map.size(), copy.keysWithPrefix().size());
+    }
+
     @Override
     public String getCompatibilityVersion() {
         return "4";
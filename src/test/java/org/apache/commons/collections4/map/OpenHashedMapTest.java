@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.commons.collections4.BulkTest;
+import org.apache.commons.collections4.MapIterator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class OpenHashedMapTest<K, V> extends AbstractIterableMapTest<K, V> {
+
+    public OpenHashedMapTest() {
+        super(OpenHashedMapTest.class.getSimpleName());
+    }
+
+    public static junit.framework.Test suite() {
+        return BulkTest.makeSuite(OpenHashedMapTest.class);
+    }
+
+    @Override
+    public OpenHashedMap<K, V> makeObject() {
+        return new OpenHashedMap<>();
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4";
+    }
+
+    @Test
+    public void testConstructorException() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> new OpenHashedMap<K, V>(-1)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new OpenHashedMap<K, V>(16, 0.0f)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new OpenHashedMap<K, V>(16, 1.0f)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new OpenHashedMap<K, V>(16, Float.NaN))
+        );
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testClone() {
+        final OpenHashedMap<K, V> map = new OpenHashedMap<>(10);
+        map.put((K) "1", (V) "1");
+        final OpenHashedMap<K, V> cloned = map.clone();
+        assertEquals(map.size(), cloned.size());
+        assertSame(map.get("1"), cloned.get("1"));
+        cloned.put((K) "2", (V) "2");
+        assertFalse(map.containsKey("2"));
+    }
+
+    @Test
+    public void testInitialCapacityZero() {
+        final OpenHashedMap<String, String> map = new OpenHashedMap<>(0);
+        map.put("A", "a");
+        map.put("B", "b");
+        map.put(null, "c");
+        assertEquals(3, map.size());
+        assertEquals("a", map.get("A"));
+        assertEquals("c", map.get(null));
+    }
+
+    /**
+     * Keys with equal hash codes share a probe sequence, which must stay intact when
+     * a key in the middle of it is removed.
+     */
+    @Test
+    public void testRemoveFromProbeSequence() {
+        final OpenHashedMap<CollidingKey, Integer> map = new OpenHashedMap<>(64);
+        for (int i = 0; i < 10; i++) {
+            map.put(new CollidingKey(i), Integer.valueOf(i));
+        }
+        assertEquals(Integer.valueOf(4), map.remove(new CollidingKey(4)));
+        assertEquals(Integer.valueOf(0), map.remove(new CollidingKey(0)));
+        assertNull(map.remove(new CollidingKey(4)));
+        assertEquals(8, map.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i == 0 || i == 4 ? null : Integer.valueOf(i), map.get(new CollidingKey(i)));
+        }
+    }
+
+    /**
+     * Removing through an iterator shifts keys back, possibly from the start of the table
+     * to its end when their probe sequence wraps around; every key must still be returned
+     * exactly once.
+     */
+    @Test
+    public void testIteratorRemoveReturnsEveryKeyOnce() {
+        final Random random = new Random(42);
+        for (int round = 0; round < 2000; round++) {
+            final OpenHashedMap<Integer, Integer> map = new OpenHashedMap<>(16, 0.9f);
+            final Map<Integer, Integer> expected = new HashMap<>();
+            while (map.size() < 13) {
+                final Integer key = Integer.valueOf(random.nextInt(1000));
+                map.put(key, key);
+                expected.put(key, key);
+            }
+            final Set<Integer> returned = new HashSet<>();
+            for (final MapIterator<Integer, Integer> it = map.mapIterator(); it.hasNext();) {
+                final Integer key = it.next();
+                assertTrue("Key returned twice: " + key, returned.add(key));
+                assertEquals(key, it.getValue());
+                if (random.nextBoolean()) {
+                    it.remove();
+                    expected.remove(key);
+                }
+            }
+            assertEquals(13, returned.size());
+            assertEquals(expected, map);
+        }
+    }
+
+    @Test
+    public void testRandomOperations() {
+        final Random random = new Random(42);
+        final OpenHashedMap<Integer, Integer> map = new OpenHashedMap<>();
+        final Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            final Integer key = Integer.valueOf(random.nextInt(5000));
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, Integer.valueOf(i)), map.put(key, Integer.valueOf(i)));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected, map);
+        assertEquals(expected.hashCode(), map.hashCode());
+    }
+
+    private static final class CollidingKey {
+        private final int id;
+
+        CollidingKey(final int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof CollidingKey && ((CollidingKey) obj).id == id;
+        }
+    }
+
+//    public void testCreate() throws Exception {
+//        resetEmpty();
+//        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/org/apache/commons/collections4/data/test/OpenHashedMap.emptyCollection.version4.obj");
+//        resetFull();
+//        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/org/apache/commons/collections4/data/test/OpenHashedMap.fullCollection.version4.obj");
+//    }
+}
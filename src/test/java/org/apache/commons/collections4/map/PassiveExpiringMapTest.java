@@ -19,8 +19,10 @@ package org.apache.commons.collections4.map;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.collections4.BulkTest;
@@ -198,6 +200,39 @@ public class PassiveExpiringMapTest<K, V> extends AbstractMapTest<K, V> {
                 new PassiveExpiringMap.ConstantTimeToLiveExpirationPolicy<String, String>(1, TimeUnit.SECONDS)), 1000);
     }
 
+    @Test
+    public void testExpirationMapOrder() {
+        final Random random = new Random(42);
+        final PassiveExpiringMap.ExpirationMap expirations = new PassiveExpiringMap.ExpirationMap();
+        final Map<Object, Long> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            final Integer key = Integer.valueOf(random.nextInt(500));
+            if (random.nextInt(4) == 0) {
+                expirations.remove(key);
+                expected.remove(key);
+            } else {
+                final long expirationTime = random.nextInt(1000) - 100;
+                expirations.setExpirationTime(key, expirationTime);
+                if (expirationTime < 0) {
+                    expected.remove(key);
+                } else {
+                    expected.put(key, Long.valueOf(expirationTime));
+                }
+            }
+        }
+        assertEquals(expected.size(), expirations.size());
+        long previous = 0;
+        while (!expected.isEmpty()) {
+            final PassiveExpiringMap.Expiration earliest = expirations.earliest();
+            assertEquals(Collections.min(expected.values()), Long.valueOf(earliest.expirationTime));
+            assertTrue(earliest.expirationTime >= previous);
+            assertEquals(expected.remove(earliest.getKey()), Long.valueOf(earliest.expirationTime));
+            previous = earliest.expirationTime;
+            expirations.remove(earliest.getKey());
+        }
+        assertNull(expirations.earliest());
+    }
+
     @Test
     public void testGet() {
         final Map<Integer, String> m = makeTestMap();
@@ -239,6 +274,75 @@ public class PassiveExpiringMapTest<K, V> extends AbstractMapTest<K, V> {
         assertEquals("six", m.put(Integer.valueOf(6), "SIX"));
     }
 
+    /**
+     * An entry whose expiration time was replaced or removed must not be removed when its
+     * former expiration time is reached.
+     */
+    @Test
+    public void testReplacedExpirationTime() {
+        final long[] now = {1000};
+        final PassiveExpiringMap<String, Long> m = new PassiveExpiringMap<>((key, value) -> value.longValue(),
+                new HashMap<>(), () -> now[0]);
+        m.put("a", Long.valueOf(1020));
+        m.put("a", Long.valueOf(-1));
+        m.put("b", Long.valueOf(1020));
+        m.remove("b");
+        m.put("b", Long.valueOf(Long.MAX_VALUE));
+        m.put("c", Long.valueOf(1020));
+        m.put("d", Long.valueOf(0));
+        assertEquals(3, m.size());
+        now[0] = 1020;
+        assertEquals(2, m.size());
+        assertEquals(Long.valueOf(-1), m.get("a"));
+        assertEquals(Long.valueOf(Long.MAX_VALUE), m.get("b"));
+        assertFalse(m.containsKey("c"));
+    }
+
+    @Test
+    public void testClock() {
+        final long[] now = {0};
+        final PassiveExpiringMap<String, String> m = new PassiveExpiringMap<>(100, () -> now[0]);
+        m.put("a", "A");
+        now[0] = 50;
+        m.put("b", "B");
+        now[0] = 99;
+        assertEquals(2, m.size());
+        now[0] = 100;
+        assertNull(m.get("a"));
+        assertEquals("B", m.get("b"));
+        now[0] = 150;
+        assertTrue(m.isEmpty());
+        assertThrows(NullPointerException.class, () -> new PassiveExpiringMap<String, String>(100, (PassiveExpiringMap.Clock) null));
+    }
+
+    @Test
+    public void testCoarseClock() throws InterruptedException {
+        final PassiveExpiringMap.Clock clock = PassiveExpiringMap.Clock.coarse();
+        final long start = clock.currentTimeMillis();
+        assertTrue(Math.abs(System.currentTimeMillis() - start) < 1000);
+        while (clock.currentTimeMillis() == start) {
+            Thread.sleep(1);
+        }
+        assertTrue(clock.currentTimeMillis() > start);
+    }
+
+    @Test
+    public void testCoarseClockStopsWhenIdle() throws InterruptedException {
+        final PassiveExpiringMap.CoarseClock clock = PassiveExpiringMap.CoarseClock.INSTANCE;
+        clock.currentTimeMillis();
+        assertTrue(clock.isTicking());
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (clock.isTicking() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertFalse(clock.isTicking());
+
+        // the next read starts it again, with a current time
+        final long before = System.currentTimeMillis();
+        assertTrue(clock.currentTimeMillis() >= before);
+        assertTrue(clock.isTicking());
+    }
+
     @Test
     public void testSize() {
         final Map<Integer, String> m = makeTestMap();
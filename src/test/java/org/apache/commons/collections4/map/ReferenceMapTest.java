@@ -334,6 +334,51 @@ public class ReferenceMapTest<K, V> extends AbstractIterableMapTest<K, V> {
         assertTrue("Expect empty but have entry: " + map, map.isEmpty());
     }
 
+    @Test
+    public void testPurgeBudget() throws InterruptedException {
+        final ReferenceMap<Object, Object> map = new ReferenceMap<>(ReferenceStrength.WEAK, ReferenceStrength.HARD);
+        assertEquals(Integer.MAX_VALUE, map.getPurgeBudget());
+        assertThrows(IllegalArgumentException.class, () -> map.setPurgeBudget(0));
+        map.setPurgeBudget(5);
+        assertEquals(5, map.getPurgeBudget());
+
+        final WeakReference<Object> keyReference = fillWithGarbageKeys(map, 20);
+        final Object hardKey = new Object();
+        map.put(hardKey, "hard");
+
+        int iterations = 0;
+        while (keyReference.get() != null) {
+            if (iterations++ > 50) {
+                fail("Max iterations reached before resource released.");
+            }
+            System.gc();
+            Thread.sleep(10);
+        }
+        // stale mappings are never returned, even before being purged
+        final Iterator<Object> it = map.keySet().iterator();
+        assertSame(hardKey, it.next());
+        assertFalse(it.hasNext());
+
+        for (int i = 0; i < 50 && map.size() > 1; i++) {
+            int count;
+            while ((count = map.purge(5)) > 0) {
+                assertTrue("Purged " + count, count <= 5);
+            }
+            Thread.sleep(10);
+        }
+        assertEquals(1, map.size());
+        assertEquals("hard", map.get(hardKey));
+    }
+
+    private static WeakReference<Object> fillWithGarbageKeys(final Map<Object, Object> map, final int count) {
+        Object key = null;
+        for (int i = 0; i < count; i++) {
+            key = new Object();
+            map.put(key, Integer.valueOf(i));
+        }
+        return new WeakReference<>(key);
+    }
+
     @SuppressWarnings("unused")
     private static void gc() {
         try {
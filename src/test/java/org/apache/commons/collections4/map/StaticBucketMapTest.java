@@ -16,6 +16,11 @@
  */
 package org.apache.commons.collections4.map;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.commons.collections4.BulkTest;
 import org.junit.jupiter.api.Test;
 
@@ -98,4 +103,75 @@ public class StaticBucketMapTest<K, V> extends AbstractIterableMapTest<K, V> {
         }
     }
 
+    @Test
+    public void testStripesGrow() {
+        final StaticBucketMap<Integer, Integer> map = new StaticBucketMap<>(17);
+        for (int i = 0; i < 10000; i++) {
+            assertNull(map.put(Integer.valueOf(i), Integer.valueOf(i)));
+        }
+        assertEquals(10000, map.size());
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(Integer.valueOf(i), map.get(Integer.valueOf(i)));
+        }
+        for (int i = 0; i < 10000; i += 2) {
+            assertEquals(Integer.valueOf(i), map.remove(Integer.valueOf(i)));
+        }
+        assertEquals(5000, map.size());
+        assertEquals(5000, map.keySet().size());
+        assertFalse(map.containsKey(Integer.valueOf(0)));
+        assertTrue(map.containsKey(Integer.valueOf(1)));
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(Integer.valueOf(1)));
+    }
+
+    @Test
+    public void testConcurrentReadsAndWrites() throws InterruptedException {
+        final StaticBucketMap<Integer, Integer> map = new StaticBucketMap<>(17);
+        final List<Thread> threads = new ArrayList<>();
+        final Throwable[] failure = new Throwable[1];
+        for (int t = 0; t < 4; t++) {
+            final int offset = t * 10000;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 10000; i++) {
+                        final Integer key = Integer.valueOf(offset + i);
+                        map.put(key, key);
+                        if (!key.equals(map.get(key))) {
+                            throw new IllegalStateException("Missing key " + key);
+                        }
+                        if (i % 2 == 0) {
+                            map.remove(key);
+                        }
+                    }
+                } catch (final Throwable e) {
+                    failure[0] = e;
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure[0]);
+        assertEquals(20000, map.size());
+        for (int i = 1; i < 40000; i += 2) {
+            assertEquals(Integer.valueOf(i), map.get(Integer.valueOf(i)));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testAtomic() {
+        final StaticBucketMap<K, V> map = new StaticBucketMap<>(17);
+        map.put((K) "A", (V) "a");
+        map.atomic(() -> {
+            map.put((K) "B", (V) "b");
+            map.remove("A");
+        });
+        assertEquals(1, map.size());
+        assertEquals("b", map.get("B"));
+        assertThrows(NullPointerException.class, () -> map.atomic(null));
+    }
+
 }
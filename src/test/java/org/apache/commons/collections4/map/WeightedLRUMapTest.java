@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.commons.collections4.BulkTest;
+import org.apache.commons.collections4.MapIterator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class WeightedLRUMapTest<K, V> extends AbstractOrderedMapTest<K, V> {
+
+    /**
+     * Weighs an entry by the length of the string form of its value, 1 for null.
+     */
+    static final class LengthWeigher implements WeightedLRUMap.Weigher<Object, Object> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public long weigh(final Object key, final Object value) {
+            return value == null ? 1 : value.toString().length();
+        }
+    }
+
+    public WeightedLRUMapTest() {
+        super(WeightedLRUMapTest.class.getSimpleName());
+    }
+
+    public static junit.framework.Test suite() {
+        return BulkTest.makeSuite(WeightedLRUMapTest.class);
+    }
+
+    @Override
+    public WeightedLRUMap<K, V> makeObject() {
+        return new WeightedLRUMap<>(1000, new LengthWeigher());
+    }
+
+    @Override
+    public boolean isGetStructuralModify() {
+        return true;
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4";
+    }
+
+    @Test
+    public void testConstructorException() {
+        final LengthWeigher weigher = new LengthWeigher();
+        assertThrows(IllegalArgumentException.class, () -> new WeightedLRUMap<K, V>(0, weigher));
+        assertThrows(IllegalArgumentException.class, () -> new WeightedLRUMap<K, V>(10, weigher, -1));
+        assertThrows(NullPointerException.class, () -> new WeightedLRUMap<K, V>(10, null));
+    }
+
+    @Test
+    public void testEvictsByWeight() {
+        final WeightedLRUMap<String, String> map = new WeightedLRUMap<>(10, new LengthWeigher());
+        map.put("A", "aaaa");
+        map.put("B", "bbbb");
+        assertEquals(8, map.currentWeight());
+        assertEquals(10, map.maxWeight());
+
+        map.get("A");
+        map.put("C", "cc");
+        assertEquals(10, map.currentWeight());
+        assertEquals(Arrays.asList("B", "A", "C"), Arrays.asList(map.keySet().toArray()));
+
+        map.put("D", "dddddd");
+        assertEquals(Arrays.asList("C", "D"), Arrays.asList(map.keySet().toArray()));
+        assertEquals(8, map.currentWeight());
+
+        map.put("C", "ccccc");
+        assertEquals(Arrays.asList("C"), Arrays.asList(map.keySet().toArray()));
+        assertEquals(5, map.currentWeight());
+    }
+
+    @Test
+    public void testEntryHeavierThanMaxWeightIsNotRetained() {
+        final WeightedLRUMap<String, String> map = new WeightedLRUMap<>(5, new LengthWeigher());
+        map.put("A", "a");
+        map.put("B", "bbbbbb");
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.currentWeight());
+    }
+
+    @Test
+    public void testCurrentWeight() {
+        final WeightedLRUMap<String, String> map = new WeightedLRUMap<>(100, new LengthWeigher());
+        map.put("A", "aaa");
+        map.put("B", "bb");
+        map.put(null, null);
+        assertEquals(6, map.currentWeight());
+
+        map.put("A", "a");
+        assertEquals(4, map.currentWeight());
+        map.remove("B");
+        assertEquals(2, map.currentWeight());
+
+        for (final MapIterator<String, String> it = map.mapIterator(); it.hasNext();) {
+            if ("A".equals(it.next())) {
+                it.setValue("aaaaaaaaaa");
+            }
+        }
+        assertEquals(11, map.currentWeight());
+        for (final Map.Entry<String, String> entry : map.entrySet()) {
+            if (entry.getKey() == null) {
+                entry.setValue("nn");
+            }
+        }
+        assertEquals(12, map.currentWeight());
+
+        final WeightedLRUMap<String, String> cloned = map.clone();
+        assertEquals(12, cloned.currentWeight());
+
+        map.clear();
+        assertEquals(0, map.currentWeight());
+        map.put("C", "c");
+        assertEquals(1, map.currentWeight());
+    }
+
+    @Test
+    public void testNegativeWeight() {
+        final WeightedLRUMap<String, Integer> map = new WeightedLRUMap<>(100, (key, value) -> value.longValue());
+        map.put("A", Integer.valueOf(3));
+        assertThrows(IllegalArgumentException.class, () -> map.put("B", Integer.valueOf(-1)));
+        assertThrows(IllegalArgumentException.class, () -> map.put("A", Integer.valueOf(-1)));
+        assertEquals(1, map.size());
+        assertEquals(Integer.valueOf(3), map.get("A"));
+        assertEquals(3, map.currentWeight());
+    }
+
+//    public void testCreate() throws Exception {
+//        resetEmpty();
+//        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/org/apache/commons/collections4/data/test/WeightedLRUMap.emptyCollection.version4.obj");
+//        resetFull();
+//        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/org/apache/commons/collections4/data/test/WeightedLRUMap.fullCollection.version4.obj");
+//    }
+}
@@ -23,6 +23,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -450,6 +451,130 @@ public class CircularFifoQueueTest<E> extends AbstractQueueTest<E> {
         assertThrows(NoSuchElementException.class, () -> fifo.get(-2));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testOfferAll() {
+        final CircularFifoQueue<E> fifo = new CircularFifoQueue<>(5);
+        final E[] src = (E[]) new Object[] {"0", "1", "2", "3", "4", "5", "6", "7", "8"};
+
+        assertFalse(fifo.offerAll(src, 0, 0));
+        assertTrue(fifo.isEmpty());
+
+        assertTrue(fifo.offerAll(src, 1, 3));
+        assertEquals("[1, 2, 3]", fifo.toString());
+
+        // wraps around the end of the array and evicts the oldest elements
+        assertTrue(fifo.offerAll(src, 4, 4));
+        assertEquals(5, fifo.size());
+        assertEquals("[3, 4, 5, 6, 7]", fifo.toString());
+
+        fifo.remove();
+        fifo.add((E) "8");
+        assertEquals("[4, 5, 6, 7, 8]", fifo.toString());
+
+        // more elements than the queue can hold, only the last ones are kept
+        assertTrue(fifo.offerAll(src, 0, 9));
+        assertEquals("[4, 5, 6, 7, 8]", fifo.toString());
+        assertEquals("4", fifo.peek());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testOfferAllError() {
+        final CircularFifoQueue<E> fifo = new CircularFifoQueue<>(5);
+        final E[] src = (E[]) new Object[] {"0", "1", null, "3"};
+
+        assertThrows(NullPointerException.class, () -> fifo.offerAll(null, 0, 0));
+        assertThrows(NullPointerException.class, () -> fifo.offerAll(src, 1, 2));
+        assertTrue("a failed offerAll must not change the queue", fifo.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> fifo.offerAll(src, -1, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> fifo.offerAll(src, 3, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> fifo.offerAll(src, 0, -1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDrainToCollection() {
+        final CircularFifoQueue<E> fifo = new CircularFifoQueue<>(5);
+        for (int i = 1; i <= 8; i++) {
+            fifo.add((E) String.valueOf(i));
+        }
+        assertEquals("[4, 5, 6, 7, 8]", fifo.toString());
+
+        final List<E> drained = new ArrayList<>();
+        assertEquals(0, fifo.drainTo(drained, 0));
+        assertEquals(2, fifo.drainTo(drained, 2));
+        assertEquals("[4, 5]", drained.toString());
+        assertEquals("[6, 7, 8]", fifo.toString());
+
+        // drains across the wrap point of the array
+        fifo.add((E) "9");
+        assertEquals(4, fifo.drainTo(drained, 10));
+        assertEquals("[4, 5, 6, 7, 8, 9]", drained.toString());
+        assertTrue(fifo.isEmpty());
+        assertEquals(0, fifo.drainTo(drained, 10));
+
+        fifo.add((E) "10");
+        assertEquals("[10]", fifo.toString());
+        assertEquals("10", fifo.peek());
+
+        assertThrows(NullPointerException.class, () -> fifo.drainTo(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> fifo.drainTo(fifo, 1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDrainToCollectionRejectingSecondRange() {
+        final CircularFifoQueue<E> fifo = new CircularFifoQueue<>(5);
+        for (int i = 1; i <= 8; i++) {
+            fifo.add((E) String.valueOf(i));
+        }
+        final List<E> drained = new ArrayList<E>() {
+            private static final long serialVersionUID = 1L;
+            private int batches;
+
+            @Override
+            public boolean addAll(final Collection<? extends E> coll) {
+                if (++batches == 2) {
+                    throw new IllegalStateException("Rejected");
+                }
+                return super.addAll(coll);
+            }
+        };
+
+        // the range before the wrap point is accepted, the one after it is rejected
+        assertThrows(IllegalStateException.class, () -> fifo.drainTo(drained, 10));
+        assertEquals("[4, 5]", drained.toString());
+        assertEquals("[6, 7, 8]", fifo.toString());
+
+        // draining again delivers each element once
+        assertEquals(3, fifo.drainTo(drained, 10));
+        assertEquals("[4, 5, 6, 7, 8]", drained.toString());
+        assertTrue(fifo.isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDrainToArray() {
+        final CircularFifoQueue<E> fifo = new CircularFifoQueue<>(5);
+        for (int i = 1; i <= 7; i++) {
+            fifo.add((E) String.valueOf(i));
+        }
+        assertEquals("[3, 4, 5, 6, 7]", fifo.toString());
+
+        final E[] dest = (E[]) new Object[4];
+        assertEquals(4, fifo.drainTo(dest));
+        assertEquals("[3, 4, 5, 6]", Arrays.toString(dest));
+        assertEquals("[7]", fifo.toString());
+
+        assertEquals(1, fifo.drainTo(dest));
+        assertEquals("[7, 4, 5, 6]", Arrays.toString(dest));
+        assertTrue(fifo.isEmpty());
+        assertEquals(0, fifo.drainTo(dest));
+
+        assertThrows(NullPointerException.class, () -> fifo.drainTo((E[]) null));
+    }
+
     @Override
     public String getCompatibilityVersion() {
         return "4";
@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for ConcurrentCircularFifoQueue.
+ */
+public class ConcurrentCircularFifoQueueTest<E> extends AbstractQueueTest<E> {
+
+    public ConcurrentCircularFifoQueueTest() {
+        super(ConcurrentCircularFifoQueueTest.class.getSimpleName());
+    }
+
+    /**
+     *  Runs through the regular verifications, but also verifies that
+     *  the queue contains the same elements in the same sequence as the
+     *  list.
+     */
+    @Override
+    public void verify() {
+        super.verify();
+        final Iterator<E> iterator = getCollection().iterator();
+        for (final E e : getConfirmed()) {
+            assertTrue(iterator.hasNext());
+            assertEquals(e, iterator.next());
+        }
+    }
+
+    /**
+     * Overridden because ConcurrentCircularFifoQueue doesn't allow null elements.
+     * @return false
+     */
+    @Override
+    public boolean isNullSupported() {
+        return false;
+    }
+
+    /**
+     * Overridden because ConcurrentCircularFifoQueue only removes its head.
+     * @return false
+     */
+    @Override
+    public boolean isRemoveSupported() {
+        return false;
+    }
+
+    /**
+     * Returns an empty ConcurrentCircularFifoQueue that won't overflow.
+     *
+     * @return an empty ConcurrentCircularFifoQueue
+     */
+    @Override
+    public Queue<E> makeObject() {
+        return new ConcurrentCircularFifoQueue<>(100);
+    }
+
+    /**
+     * Overridden because {@link ConcurrentCircularFifoQueue#clear()} is supported, as it
+     * only polls the head, while all other removals are not.
+     */
+    @Override
+    @Test
+    public void testUnsupportedRemove() {
+        resetFull();
+        getCollection().clear();
+        getConfirmed().clear();
+        verify();
+
+        resetFull();
+        assertThrows(UnsupportedOperationException.class, () -> getCollection().remove(getFullElements()[0]));
+        assertThrows(UnsupportedOperationException.class, () -> getCollection().removeIf(e -> true));
+        assertThrows(UnsupportedOperationException.class,
+                () -> getCollection().removeAll(Arrays.asList(getFullElements())));
+        assertThrows(UnsupportedOperationException.class, () -> getCollection().retainAll(Arrays.asList()));
+        final Iterator<E> iterator = getCollection().iterator();
+        iterator.next();
+        assertThrows(UnsupportedOperationException.class, () -> iterator.remove());
+        verify();
+    }
+
+    /**
+     * Tests the head operations, which {@link AbstractQueueTest} only covers when
+     * removing arbitrary elements is supported.
+     */
+    @Test
+    public void testQueuePollInOrder() {
+        resetFull();
+        final Iterator<E> confirmed = getConfirmed().iterator();
+        while (confirmed.hasNext()) {
+            final E expected = confirmed.next();
+            assertEquals(expected, getCollection().peek());
+            assertEquals(expected, getCollection().poll());
+            confirmed.remove();
+            verify();
+        }
+        assertNull(getCollection().poll());
+        assertNull(getCollection().peek());
+        assertThrows(NoSuchElementException.class, () -> getCollection().remove());
+    }
+
+    @Test
+    public void testConstructorException() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentCircularFifoQueue<String>(0));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentCircularFifoQueue<String>(-20));
+    }
+
+    @Test
+    public void testDefaultSize() {
+        final ConcurrentCircularFifoQueue<String> queue = new ConcurrentCircularFifoQueue<>();
+        assertEquals(32, queue.maxSize());
+        assertFalse(queue.isFull());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testAddNull() {
+        final ConcurrentCircularFifoQueue<String> queue = new ConcurrentCircularFifoQueue<>(2);
+        assertThrows(NullPointerException.class, () -> queue.add(null));
+        assertThrows(NullPointerException.class, () -> queue.offer(null));
+    }
+
+    @Test
+    public void testFifoOrder() {
+        final ConcurrentCircularFifoQueue<String> queue = new ConcurrentCircularFifoQueue<>(5);
+        queue.add("1");
+        queue.add("2");
+        queue.add("3");
+        assertEquals(3, queue.size());
+        assertEquals("[1, 2, 3]", queue.toString());
+        assertEquals("1", queue.peek());
+        assertEquals("1", queue.poll());
+        assertEquals("2", queue.remove());
+        assertEquals("3", queue.element());
+        assertEquals("3", queue.poll());
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+        assertThrows(NoSuchElementException.class, () -> queue.remove());
+        assertThrows(NoSuchElementException.class, () -> queue.element());
+    }
+
+    @Test
+    public void testEvictsOldestWhenFull() {
+        final ConcurrentCircularFifoQueue<String> queue = new ConcurrentCircularFifoQueue<>(3);
+        queue.addAll(Arrays.asList("A", "B", "C"));
+        assertTrue(queue.isAtFullCapacity());
+
+        queue.add("D");
+        assertEquals(3, queue.size());
+        assertFalse(queue.contains("A"));
+        assertEquals("[B, C, D]", queue.toString());
+
+        queue.add("E");
+        queue.add("F");
+        queue.add("G");
+        assertEquals("[E, F, G]", queue.toString());
+        assertEquals("E", queue.poll());
+        assertFalse(queue.isAtFullCapacity());
+        queue.add("H");
+        assertEquals("[F, G, H]", queue.toString());
+    }
+
+    @Test
+    public void testSizeOne() {
+        final ConcurrentCircularFifoQueue<String> queue = new ConcurrentCircularFifoQueue<>(1);
+        queue.add("A");
+        queue.add("B");
+        assertEquals(1, queue.size());
+        assertEquals("B", queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testClear() {
+        final ConcurrentCircularFifoQueue<String> queue = new ConcurrentCircularFifoQueue<>(4);
+        queue.addAll(Arrays.asList("A", "B", "C", "D", "E"));
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+        queue.add("F");
+        assertEquals("[F]", queue.toString());
+    }
+
+    @Test
+    public void testIteratorRemoveUnsupported() {
+        final ConcurrentCircularFifoQueue<String> queue = new ConcurrentCircularFifoQueue<>(4);
+        queue.add("A");
+        assertThrows(UnsupportedOperationException.class, () -> queue.remove("A"));
+        assertThrows(UnsupportedOperationException.class, () -> queue.iterator().remove());
+    }
+
+    /**
+     * Many producers offer increasing numbers while one thread drains the queue. Every
+     * drained value must be in order per producer and nothing may be lost apart from
+     * evicted elements.
+     */
+    @Test
+    public void testConcurrentProducersSingleConsumer() throws InterruptedException {
+        final int producers = 8;
+        final int perProducer = 50000;
+        final ConcurrentCircularFifoQueue<long[]> queue = new ConcurrentCircularFifoQueue<>(64);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean failed = new AtomicBoolean();
+        final List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final long producer = p;
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException e) {
+                    failed.set(true);
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    queue.offer(new long[] {producer, i});
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        final long[] last = new long[producers];
+        Arrays.fill(last, -1);
+        final Thread consumer = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted() || !queue.isEmpty()) {
+                final long[] value = queue.poll();
+                if (value != null) {
+                    final int producer = (int) value[0];
+                    if (value[1] <= last[producer]) {
+                        failed.set(true);
+                    }
+                    last[producer] = value[1];
+                }
+            }
+        });
+        consumer.start();
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        consumer.interrupt();
+        consumer.join();
+
+        assertFalse("values of a producer were drained out of order", failed.get());
+        assertTrue(queue.isEmpty());
+        assertTrue(queue.size() <= queue.maxSize());
+    }
+
+}
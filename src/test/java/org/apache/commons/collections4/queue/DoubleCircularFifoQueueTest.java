@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for DoubleCircularFifoQueue.
+ */
+public class DoubleCircularFifoQueueTest {
+
+    @Test
+    public void testConstructorException() {
+        assertThrows(IllegalArgumentException.class, () -> new DoubleCircularFifoQueue(0));
+        assertThrows(IllegalArgumentException.class, () -> new DoubleCircularFifoQueue(-20));
+    }
+
+    @Test
+    public void testEvictsOldestWhenFull() {
+        final DoubleCircularFifoQueue queue = new DoubleCircularFifoQueue(3);
+        queue.add(1.5);
+        queue.add(2.5);
+        queue.add(3.5);
+        queue.add(4.5);
+        assertTrue(queue.isAtFullCapacity());
+        assertEquals("[2.5, 3.5, 4.5]", queue.toString());
+        assertEquals(2.5, queue.element());
+        assertEquals(4.5, queue.get(2));
+        assertArrayEquals(new double[] {2.5, 3.5, 4.5}, queue.toArray());
+        assertEquals(2.5, queue.min());
+        assertEquals(4.5, queue.max());
+        assertEquals(10.5, queue.sum());
+
+        final List<Double> values = new ArrayList<>();
+        queue.forEach(values::add);
+        assertEquals("[2.5, 3.5, 4.5]", values.toString());
+
+        assertEquals(2.5, queue.remove());
+        assertEquals(8.0, queue.sum());
+        assertThrows(NoSuchElementException.class, () -> queue.get(2));
+    }
+
+    @Test
+    public void testMinMaxOrdering() {
+        final DoubleCircularFifoQueue queue = new DoubleCircularFifoQueue(4);
+        queue.add(0.0);
+        queue.add(-0.0);
+        assertEquals(-0.0, queue.min());
+        assertEquals(0.0, queue.max());
+
+        queue.add(Double.NaN);
+        assertEquals(-0.0, queue.min());
+        assertEquals(Double.NaN, queue.max());
+
+        queue.clear();
+        queue.add(Double.NaN);
+        assertEquals(Double.NaN, queue.min());
+    }
+
+    /**
+     * Values of very different magnitudes make subtracting removed elements lose precision;
+     * the sum must recover after as many removals as the queue can hold.
+     */
+    @Test
+    public void testSumDoesNotDrift() {
+        final DoubleCircularFifoQueue queue = new DoubleCircularFifoQueue(4);
+        queue.add(1e20);
+        for (int i = 0; i < 7; i++) {
+            queue.add(1);
+        }
+        assertEquals(4.0, queue.sum());
+    }
+
+    @Test
+    public void testSumAfterNonFiniteElementLeaves() {
+        final DoubleCircularFifoQueue queue = new DoubleCircularFifoQueue(8);
+        queue.add(1);
+        queue.add(Double.POSITIVE_INFINITY);
+        queue.add(2);
+        assertEquals(Double.POSITIVE_INFINITY, queue.sum());
+        queue.remove();
+        queue.remove();
+        assertEquals(2.0, queue.sum());
+
+        queue.add(Double.NaN);
+        queue.add(3);
+        assertTrue(Double.isNaN(queue.sum()));
+        queue.remove();
+        queue.remove();
+        assertEquals(3.0, queue.sum());
+
+        queue.clear();
+        queue.add(Double.MAX_VALUE);
+        queue.add(Double.MAX_VALUE);
+        assertEquals(Double.POSITIVE_INFINITY, queue.sum());
+        queue.remove();
+        assertEquals(Double.MAX_VALUE, queue.sum());
+    }
+
+    @Test
+    public void testSumWithNonFiniteElements() {
+        final DoubleCircularFifoQueue queue = new DoubleCircularFifoQueue(4);
+        queue.add(Double.POSITIVE_INFINITY);
+        queue.add(Double.NEGATIVE_INFINITY);
+        assertTrue(Double.isNaN(queue.sum()));
+        queue.add(1);
+        queue.add(2);
+        queue.remove();
+        assertEquals(Double.NEGATIVE_INFINITY, queue.sum());
+        queue.remove();
+        assertEquals(3.0, queue.sum());
+
+        // the finite elements overflow and then come back into range
+        queue.add(Double.MAX_VALUE);
+        queue.add(Double.MAX_VALUE);
+        assertEquals(Double.POSITIVE_INFINITY, queue.sum());
+        queue.add(-Double.MAX_VALUE);
+        assertEquals(Double.MAX_VALUE, queue.sum());
+        queue.add(Double.NEGATIVE_INFINITY);
+        assertEquals(Double.NEGATIVE_INFINITY, queue.sum());
+
+        // large multiples of a power of two, added without rounding, overflow in some windows
+        final Random random = new Random(42);
+        final double[] specials = {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        final DoubleCircularFifoQueue window = new DoubleCircularFifoQueue(8);
+        final List<Double> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            final double value = random.nextInt(10) == 0 ? specials[random.nextInt(specials.length)]
+                : Math.scalb((double) (random.nextInt(201) - 100), 1016);
+            window.add(value);
+            expected.add(value);
+            if (expected.size() > window.maxSize()) {
+                expected.remove(0);
+            }
+            final long nans = expected.stream().filter(d -> Double.isNaN(d)).count();
+            final long positive = expected.stream().filter(d -> d == Double.POSITIVE_INFINITY).count();
+            final long negative = expected.stream().filter(d -> d == Double.NEGATIVE_INFINITY).count();
+            final long multiples = expected.stream().filter(Double::isFinite)
+                .mapToLong(d -> (long) Math.scalb(d.doubleValue(), -1016)).sum();
+            final double sum = nans > 0 || positive > 0 && negative > 0 ? Double.NaN
+                : positive > 0 ? Double.POSITIVE_INFINITY
+                : negative > 0 ? Double.NEGATIVE_INFINITY : Math.scalb((double) multiples, 1016);
+            assertEquals(sum, window.sum());
+        }
+    }
+
+    @Test
+    public void testRollingAggregates() {
+        final Random random = new Random(42);
+        final DoubleCircularFifoQueue queue = new DoubleCircularFifoQueue(16);
+        final List<Double> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            final double value = random.nextGaussian();
+            queue.add(value);
+            expected.add(value);
+            if (expected.size() > queue.maxSize()) {
+                expected.remove(0);
+            }
+            assertEquals(expected.stream().mapToDouble(Double::doubleValue).min().getAsDouble(), queue.min());
+            assertEquals(expected.stream().mapToDouble(Double::doubleValue).max().getAsDouble(), queue.max());
+            assertEquals(expected.stream().mapToDouble(Double::doubleValue).sum(), queue.sum(), 1e-9);
+        }
+    }
+
+}
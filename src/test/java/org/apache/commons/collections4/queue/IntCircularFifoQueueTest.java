@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for IntCircularFifoQueue.
+ */
+public class IntCircularFifoQueueTest {
+
+    @Test
+    public void testConstructorException() {
+        assertThrows(IllegalArgumentException.class, () -> new IntCircularFifoQueue(0));
+        assertThrows(IllegalArgumentException.class, () -> new IntCircularFifoQueue(-20));
+    }
+
+    @Test
+    public void testDefaultSize() {
+        final IntCircularFifoQueue queue = new IntCircularFifoQueue();
+        assertEquals(32, queue.maxSize());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.sum());
+        assertEquals("[]", queue.toString());
+    }
+
+    @Test
+    public void testEvictsOldestWhenFull() {
+        final IntCircularFifoQueue queue = new IntCircularFifoQueue(3);
+        queue.add(1);
+        queue.add(2);
+        queue.add(3);
+        assertTrue(queue.isAtFullCapacity());
+        assertEquals("[1, 2, 3]", queue.toString());
+
+        queue.add(4);
+        assertEquals(3, queue.size());
+        assertEquals("[2, 3, 4]", queue.toString());
+        assertEquals(2, queue.element());
+        assertEquals(2, queue.get(0));
+        assertEquals(4, queue.get(2));
+        assertArrayEquals(new int[] {2, 3, 4}, queue.toArray());
+
+        assertEquals(2, queue.remove());
+        assertFalse(queue.isAtFullCapacity());
+        assertEquals("[3, 4]", queue.toString());
+    }
+
+    @Test
+    public void testEmptyQueueErrors() {
+        final IntCircularFifoQueue queue = new IntCircularFifoQueue(3);
+        assertThrows(NoSuchElementException.class, () -> queue.remove());
+        assertThrows(NoSuchElementException.class, () -> queue.element());
+        assertThrows(NoSuchElementException.class, () -> queue.min());
+        assertThrows(NoSuchElementException.class, () -> queue.max());
+        assertThrows(NoSuchElementException.class, () -> queue.get(0));
+        queue.add(1);
+        assertThrows(NoSuchElementException.class, () -> queue.get(-1));
+        assertThrows(NoSuchElementException.class, () -> queue.get(1));
+    }
+
+    @Test
+    public void testClear() {
+        final IntCircularFifoQueue queue = new IntCircularFifoQueue(3);
+        queue.add(5);
+        queue.add(-5);
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.sum());
+        queue.add(7);
+        assertEquals(7, queue.min());
+        assertEquals(7, queue.max());
+        assertEquals(7, queue.sum());
+    }
+
+    @Test
+    public void testForEach() {
+        final IntCircularFifoQueue queue = new IntCircularFifoQueue(4);
+        for (int i = 1; i <= 6; i++) {
+            queue.add(i * 10);
+        }
+        final List<Integer> values = new ArrayList<>();
+        queue.forEach(values::add);
+        assertEquals("[30, 40, 50, 60]", values.toString());
+        assertThrows(NullPointerException.class, () -> queue.forEach(null));
+    }
+
+    @Test
+    public void testSumDoesNotOverflow() {
+        final IntCircularFifoQueue queue = new IntCircularFifoQueue(3);
+        queue.add(Integer.MAX_VALUE);
+        queue.add(Integer.MAX_VALUE);
+        queue.add(Integer.MAX_VALUE);
+        assertEquals(3L * Integer.MAX_VALUE, queue.sum());
+    }
+
+    /**
+     * Compares the rolling aggregates with a naive computation over a random sequence
+     * of additions and removals.
+     */
+    @Test
+    public void testRollingAggregates() {
+        final Random random = new Random(42);
+        for (final int size : new int[] {1, 2, 7, 64}) {
+            final IntCircularFifoQueue queue = new IntCircularFifoQueue(size);
+            final List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                if (!expected.isEmpty() && random.nextInt(4) == 0) {
+                    assertEquals(expected.remove(0).intValue(), queue.remove());
+                } else {
+                    final int value = random.nextInt(100) - 50;
+                    queue.add(value);
+                    expected.add(value);
+                    if (expected.size() > size) {
+                        expected.remove(0);
+                    }
+                }
+                assertEquals(expected.size(), queue.size());
+                if (!expected.isEmpty()) {
+                    assertEquals(Collections.min(expected).intValue(), queue.min());
+                    assertEquals(Collections.max(expected).intValue(), queue.max());
+                    assertEquals(expected.stream().mapToLong(Integer::longValue).sum(), queue.sum());
+                }
+            }
+        }
+    }
+
+}
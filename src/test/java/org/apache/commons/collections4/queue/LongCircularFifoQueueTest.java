@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for LongCircularFifoQueue.
+ */
+public class LongCircularFifoQueueTest {
+
+    @Test
+    public void testConstructorException() {
+        assertThrows(IllegalArgumentException.class, () -> new LongCircularFifoQueue(0));
+        assertThrows(IllegalArgumentException.class, () -> new LongCircularFifoQueue(-20));
+    }
+
+    @Test
+    public void testDefaultSize() {
+        final LongCircularFifoQueue queue = new LongCircularFifoQueue();
+        assertEquals(32, queue.maxSize());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.sum());
+        assertEquals("[]", queue.toString());
+    }
+
+    @Test
+    public void testEvictsOldestWhenFull() {
+        final LongCircularFifoQueue queue = new LongCircularFifoQueue(3);
+        queue.add(1);
+        queue.add(2);
+        queue.add(3);
+        assertTrue(queue.isAtFullCapacity());
+        assertEquals("[1, 2, 3]", queue.toString());
+
+        queue.add(4);
+        assertEquals(3, queue.size());
+        assertEquals("[2, 3, 4]", queue.toString());
+        assertEquals(2, queue.element());
+        assertEquals(2, queue.get(0));
+        assertEquals(4, queue.get(2));
+        assertArrayEquals(new long[] {2, 3, 4}, queue.toArray());
+
+        assertEquals(2, queue.remove());
+        assertFalse(queue.isAtFullCapacity());
+        assertEquals("[3, 4]", queue.toString());
+    }
+
+    @Test
+    public void testEmptyQueueErrors() {
+        final LongCircularFifoQueue queue = new LongCircularFifoQueue(3);
+        assertThrows(NoSuchElementException.class, () -> queue.remove());
+        assertThrows(NoSuchElementException.class, () -> queue.element());
+        assertThrows(NoSuchElementException.class, () -> queue.min());
+        assertThrows(NoSuchElementException.class, () -> queue.max());
+        assertThrows(NoSuchElementException.class, () -> queue.get(0));
+        queue.add(1);
+        assertThrows(NoSuchElementException.class, () -> queue.get(-1));
+        assertThrows(NoSuchElementException.class, () -> queue.get(1));
+    }
+
+    @Test
+    public void testClear() {
+        final LongCircularFifoQueue queue = new LongCircularFifoQueue(3);
+        queue.add(5);
+        queue.add(-5);
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.sum());
+        queue.add(7);
+        assertEquals(7, queue.min());
+        assertEquals(7, queue.max());
+        assertEquals(7, queue.sum());
+    }
+
+    @Test
+    public void testForEach() {
+        final LongCircularFifoQueue queue = new LongCircularFifoQueue(4);
+        for (long i = 1; i <= 6; i++) {
+            queue.add(i * 10);
+        }
+        final List<Long> values = new ArrayList<>();
+        queue.forEach(values::add);
+        assertEquals("[30, 40, 50, 60]", values.toString());
+        assertThrows(NullPointerException.class, () -> queue.forEach(null));
+    }
+
+    /**
+     * Compares the rolling aggregates with a naive computation over a random sequence
+     * of additions and removals.
+     */
+    @Test
+    public void testRollingAggregates() {
+        final Random random = new Random(42);
+        for (final int size : new int[] {1, 2, 7, 64}) {
+            final LongCircularFifoQueue queue = new LongCircularFifoQueue(size);
+            final List<Long> expected = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                if (!expected.isEmpty() && random.nextInt(4) == 0) {
+                    assertEquals(expected.remove(0).longValue(), queue.remove());
+                } else {
+                    final long value = random.nextInt(100) - 50;
+                    queue.add(value);
+                    expected.add(value);
+                    if (expected.size() > size) {
+                        expected.remove(0);
+                    }
+                }
+                assertEquals(expected.size(), queue.size());
+                if (!expected.isEmpty()) {
+                    assertEquals(Collections.min(expected).longValue(), queue.min());
+                    assertEquals(Collections.max(expected).longValue(), queue.max());
+                    assertEquals(expected.stream().mapToLong(Long::longValue).sum(), queue.sum());
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for MappedCircularFifoQueue.
+ */
+public class MappedCircularFifoQueueTest<E> extends AbstractQueueTest<E> {
+
+    /** Stores longs in eight bytes. */
+    private static final MappedCircularFifoQueue.Codec<Long> LONG_CODEC = new MappedCircularFifoQueue.Codec<Long>() {
+        @Override
+        public void encode(final Long element, final ByteBuffer buffer) {
+            buffer.putLong(element.longValue());
+        }
+
+        @Override
+        public Long decode(final ByteBuffer buffer) {
+            return Long.valueOf(buffer.getLong());
+        }
+    };
+
+    /** The directory of the queue files, created for each test as the JUnit 3 suites do not inject one */
+    private Path tempDir;
+
+    public MappedCircularFifoQueueTest() {
+        super(MappedCircularFifoQueueTest.class.getSimpleName());
+    }
+
+    @BeforeEach
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        tempDir = Files.createTempDirectory("mapped-queue");
+    }
+
+    @AfterEach
+    @Override
+    protected void tearDown() throws Exception {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            for (final Path path : paths.sorted(Comparator.reverseOrder()).toArray(Path[]::new)) {
+                Files.delete(path);
+            }
+        }
+        super.tearDown();
+    }
+
+    /**
+     *  Runs through the regular verifications, but also verifies that
+     *  the queue contains the same elements in the same sequence as the
+     *  list.
+     */
+    @Override
+    public void verify() {
+        super.verify();
+        final Iterator<E> iterator = getCollection().iterator();
+        for (final E e : getConfirmed()) {
+            assertTrue(iterator.hasNext());
+            assertEquals(e, iterator.next());
+        }
+    }
+
+    /**
+     * Overridden because MappedCircularFifoQueue doesn't allow null elements.
+     * @return false
+     */
+    @Override
+    public boolean isNullSupported() {
+        return false;
+    }
+
+    /**
+     * Overridden because the queue is tested with the UTF-8 codec.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E[] getFullElements() {
+        return (E[]) getFullNonNullStringElements();
+    }
+
+    /**
+     * Overridden because the queue is tested with the UTF-8 codec.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E[] getOtherElements() {
+        return (E[]) getOtherNonNullStringElements();
+    }
+
+    /**
+     * Returns an empty MappedCircularFifoQueue of strings, in a new file, that won't overflow.
+     *
+     * @return an empty MappedCircularFifoQueue
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Queue<E> makeObject() {
+        try {
+            return (Queue<E>) new MappedCircularFifoQueue<>(Files.createTempFile(tempDir, "queue", ".dat"), 100, 16,
+                    MappedCircularFifoQueue.utf8Codec());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MappedCircularFifoQueue<String> createQueue(final int size) throws IOException {
+        return new MappedCircularFifoQueue<>(tempDir.resolve("queue.dat"), size, 16,
+                MappedCircularFifoQueue.utf8Codec());
+    }
+
+    @Test
+    public void testConstructorException() {
+        final Path file = tempDir.resolve("queue.dat");
+        assertThrows(NullPointerException.class, () -> new MappedCircularFifoQueue<>(null, 1, 1, LONG_CODEC));
+        assertThrows(NullPointerException.class, () -> new MappedCircularFifoQueue<Long>(file, 1, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> new MappedCircularFifoQueue<>(file, 0, 8, LONG_CODEC));
+        assertThrows(IllegalArgumentException.class, () -> new MappedCircularFifoQueue<>(file, 8, 0, LONG_CODEC));
+        assertThrows(IllegalArgumentException.class,
+            () -> new MappedCircularFifoQueue<>(file, Integer.MAX_VALUE, 8, LONG_CODEC));
+    }
+
+    @Test
+    public void testEvictsOldestWhenFull() throws IOException {
+        final MappedCircularFifoQueue<String> queue = createQueue(3);
+        assertTrue(queue.isEmpty());
+        assertEquals(3, queue.maxSize());
+        assertFalse(queue.isFull());
+        assertNull(queue.peek());
+        assertNull(queue.poll());
+
+        queue.addAll(Arrays.asList("A", "B", "C"));
+        assertTrue(queue.isAtFullCapacity());
+        queue.add("D");
+        assertEquals(3, queue.size());
+        assertEquals("[B, C, D]", queue.toString());
+        assertEquals("B", queue.peek());
+        assertEquals("C", queue.get(1));
+        assertThrows(NoSuchElementException.class, () -> queue.get(3));
+
+        assertEquals("B", queue.remove());
+        assertEquals("C", queue.poll());
+        assertEquals("[D]", queue.toString());
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertThrows(NoSuchElementException.class, () -> queue.remove());
+        assertThrows(NullPointerException.class, () -> queue.add(null));
+    }
+
+    @Test
+    public void testElementTooLarge() throws IOException {
+        final MappedCircularFifoQueue<String> queue = createQueue(2);
+        queue.add("0123456789abcdef");
+        assertThrows(IllegalArgumentException.class, () -> queue.add("0123456789abcdefg"));
+        assertEquals("[0123456789abcdef]", queue.toString());
+
+        queue.add("B");
+        // the oldest element is discarded when encoding into its slot fails
+        assertThrows(IllegalArgumentException.class, () -> queue.add("0123456789abcdefg"));
+        assertEquals("[B]", queue.toString());
+    }
+
+    @Test
+    public void testSurvivesReopening() throws IOException {
+        final MappedCircularFifoQueue<String> queue = createQueue(4);
+        for (int i = 1; i <= 6; i++) {
+            queue.add("element" + i);
+        }
+        queue.remove();
+        queue.force();
+
+        final MappedCircularFifoQueue<String> reopened = createQueue(4);
+        assertEquals("[element4, element5, element6]", reopened.toString());
+        reopened.add("element7");
+        reopened.add("element8");
+        assertEquals("[element5, element6, element7, element8]", reopened.toString());
+    }
+
+    /**
+     * Opens the file again while an element is encoded into the slot of the oldest
+     * one, as a new process would after a crash at that point: the stored state must
+     * already exclude that slot.
+     */
+    @Test
+    public void testOverwriteLeavesNoTornSlot() throws IOException {
+        final String[] seenAfterCrash = new String[1];
+        final MappedCircularFifoQueue<String> queue = new MappedCircularFifoQueue<>(tempDir.resolve("queue.dat"),
+                2, 16, new MappedCircularFifoQueue.Codec<String>() {
+                    @Override
+                    public void encode(final String element, final ByteBuffer buffer) {
+                        MappedCircularFifoQueue.utf8Codec().encode(element, buffer);
+                        if (element.equals("C")) {
+                            try {
+                                seenAfterCrash[0] = createQueue(2).toString();
+                            } catch (final IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }
+                    }
+
+                    @Override
+                    public String decode(final ByteBuffer buffer) {
+                        return MappedCircularFifoQueue.utf8Codec().decode(buffer);
+                    }
+                });
+        queue.add("AAAA");
+        queue.add("B");
+        queue.add("C");
+        assertEquals("[B]", seenAfterCrash[0]);
+        assertEquals("[B, C]", createQueue(2).toString());
+    }
+
+    @Test
+    public void testReopeningWithDifferentLayout() throws IOException {
+        final Path file = tempDir.resolve("queue.dat");
+        new MappedCircularFifoQueue<>(file, 4, 8, LONG_CODEC).add(Long.valueOf(42));
+        assertThrows(IOException.class, () -> new MappedCircularFifoQueue<>(file, 5, 8, LONG_CODEC));
+        assertThrows(IOException.class, () -> new MappedCircularFifoQueue<>(file, 8, 4, LONG_CODEC));
+
+        final Path other = tempDir.resolve("other.dat");
+        final byte[] garbage = new byte[32 + 4 * (4 + 8)];
+        garbage[0] = 1;
+        Files.write(other, garbage);
+        assertThrows(IOException.class, () -> new MappedCircularFifoQueue<>(other, 4, 8, LONG_CODEC));
+    }
+
+    @Test
+    public void testIteratorRemove() throws IOException {
+        final MappedCircularFifoQueue<Long> queue = new MappedCircularFifoQueue<>(tempDir.resolve("queue.dat"), 5, 8,
+                LONG_CODEC);
+        for (long i = 1; i <= 7; i++) {
+            queue.add(Long.valueOf(i));
+        }
+        assertEquals("[3, 4, 5, 6, 7]", queue.toString());
+
+        final Iterator<Long> iterator = queue.iterator();
+        assertThrows(IllegalStateException.class, () -> iterator.remove());
+        assertEquals(Long.valueOf(3), iterator.next());
+        assertEquals(Long.valueOf(4), iterator.next());
+        iterator.remove();
+        assertEquals(Long.valueOf(5), iterator.next());
+        assertEquals(Long.valueOf(6), iterator.next());
+        iterator.remove();
+        assertEquals(Long.valueOf(7), iterator.next());
+        assertFalse(iterator.hasNext());
+        assertEquals("[3, 5, 7]", queue.toString());
+
+        assertTrue(queue.remove(Long.valueOf(3)));
+        assertEquals("[5, 7]", queue.toString());
+        queue.add(Long.valueOf(8));
+        assertEquals("[5, 7, 8]", queue.toString());
+    }
+
+}